@@ -20,8 +20,16 @@ import com.seailz.discordjar.command.listeners.slash.SlashSubCommand;
 import com.seailz.discordjar.command.listeners.slash.SubCommandListener;
 import com.seailz.discordjar.events.DiscordListener;
 import com.seailz.discordjar.events.EventDispatcher;
+import com.seailz.discordjar.events.ListenerExecutorSettings;
 import com.seailz.discordjar.gateway.Gateway;
+import com.seailz.discordjar.gateway.GatewayEncoding;
 import com.seailz.discordjar.gateway.GatewayTransportCompressionType;
+import com.seailz.discordjar.gateway.IntentMinimizer;
+import com.seailz.discordjar.gateway.MemberChunkingScheduler;
+import com.seailz.discordjar.gateway.ReadinessTracker;
+import com.seailz.discordjar.ws.FrameRecorder;
+import com.seailz.discordjar.gateway.ShardManager;
+import com.seailz.discordjar.gateway.session.GatewaySessionStore;
 import com.seailz.discordjar.http.HttpOnlyApplication;
 import com.seailz.discordjar.model.api.APIRelease;
 import com.seailz.discordjar.model.api.version.APIVersion;
@@ -44,23 +52,32 @@ import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.permission.Permission;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
 import com.seailz.discordjar.utils.rest.DiscordResponse;
-import com.seailz.discordjar.utils.rest.ratelimit.Bucket;
+import com.seailz.discordjar.utils.rest.HttpClientSettings;
+import com.seailz.discordjar.utils.rest.ratelimit.RateLimitSettings;
+import com.seailz.discordjar.utils.rest.ratelimit.RateLimiter;
+import com.seailz.discordjar.utils.rest.ratelimit.RequestPriority;
 import com.seailz.discordjar.voice.model.VoiceState;
+import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.socket.CloseStatus;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 /**
@@ -83,9 +100,17 @@ public class DiscordJar {
      */
     private final String token;
     /**
-     * Used to manage the gateway connection
+     * Used to manage the gateway connections
      */
-    private Gateway gatewayFactory;
+    private ShardManager shardManager;
+    private final boolean parallelMemberDecoding;
+    private final Predicate<String> startupChunkingFilter;
+    private final Duration guildLoadTimeout;
+    private final Path gwRecordingDirectory;
+    private final FrameRecorder.Mode gwRecordingMode;
+    private final String gatewayUrl;
+    private final EnumSet<Intent> alwaysKeptIntents;
+    private final OkHttpClient httpClient;
     /**
      * Stores the logger
      */
@@ -125,7 +150,7 @@ public class DiscordJar {
      */
     protected final CommandDispatcher commandDispatcher;
     // Voice states / guilds
-    private final HashMap<String, VoiceState> voiceStates;
+    private final Map<String, VoiceState> voiceStates;
     /**
      * A cache storing self user information
      */
@@ -136,9 +161,9 @@ public class DiscordJar {
      */
     private boolean debug;
     /**
-     * List of rate-limit buckets
+     * Keeps REST requests within the rate-limit buckets
      */
-    private List<Bucket> buckets;
+    private final RateLimiter rateLimiter;
     private int shardId;
     private int numShards;
     /**
@@ -147,7 +172,7 @@ public class DiscordJar {
     private Status status;
 
     public int gatewayConnections = 0;
-    private final List<String> memberCachingDisabledGuilds = new ArrayList<>();
+    private final List<String> memberCachingDisabledGuilds = new CopyOnWriteArrayList<>();
     private final GatewayTransportCompressionType gatewayTransportCompressionType;
     private final APIVersion apiVersion;
 
@@ -215,8 +240,46 @@ public class DiscordJar {
          */
         @Deprecated
     public DiscordJar(String token, EnumSet<Intent> intents, APIVersion version, boolean httpOnly, HTTPOnlyInfo httpOnlyInfo, boolean debug, int shardId, int numShards, APIRelease release, EnumSet<CacheType> cacheTypes, GatewayTransportCompressionType gwCompressionType) throws ExecutionException, InterruptedException {
+        this(token, intents, version, httpOnly, httpOnlyInfo, debug, shardId, numShards, release, cacheTypes, gwCompressionType, GatewayEncoding.JSON, ListenerExecutorSettings.defaults(), null, false, null, ReadinessTracker.DEFAULT_GUILD_LOAD_TIMEOUT,
+                false, null, FrameRecorder.Mode.RAW, null, null, null, null);
+    }
+
+    /**
+     * Creates a new instance of the DiscordJar class. Used by {@link DiscordJarBuilder}.
+     *
+     * @param gwEncoding               The encoding used for Gateway payloads, see {@link GatewayEncoding}.
+     * @param listenerExecutorSettings Settings for the executor that invokes event listeners, see {@link ListenerExecutorSettings}.
+     * @param gwSessionStore           Where Gateway sessions are persisted so a restart can RESUME them, or null to always IDENTIFY.
+     * @param parallelMemberDecoding   Whether members in large GUILD_CREATE payloads are decoded on the common fork-join pool.
+     * @param startupChunkingFilter    Guilds whose members are requested after READY, or null to disable startup chunking.
+     * @param guildLoadTimeout         How long shards wait for their guilds after READY, see {@link ReadinessTracker}.
+     * @param offline                  Whether to skip connecting to the Gateway, see {@link com.seailz.discordjar.gateway.GatewayReplayer}.
+     * @param gwRecordingDirectory     Where Gateway traffic is recorded, or null to not record it. See {@link FrameRecorder}.
+     * @param gwRecordingMode          Whether traffic is recorded before or after transport compression is decoded.
+     * @param gatewayUrl               The Gateway URL to connect to instead of the one Discord returns, or null to ask Discord.
+     * @param alwaysKeptIntents        Intents kept by intent minimization even if nothing needs them, or null to disable it.
+     *                                 See {@link IntentMinimizer}.
+     * @param httpClient               The client every REST request is sent with, or null for one with {@link HttpClientSettings#defaults()}.
+     * @param rateLimitSettings        The global request limit and invalid request guard, or null for {@link RateLimitSettings#defaults()}.
+     * @see #DiscordJar(String, EnumSet, APIVersion, boolean, HTTPOnlyInfo, boolean, int, int, APIRelease, EnumSet, GatewayTransportCompressionType)
+     */
+    protected DiscordJar(String token, EnumSet<Intent> intents, APIVersion version, boolean httpOnly, HTTPOnlyInfo httpOnlyInfo, boolean debug, int shardId, int numShards, APIRelease release, EnumSet<CacheType> cacheTypes, GatewayTransportCompressionType gwCompressionType,
+                         GatewayEncoding gwEncoding, ListenerExecutorSettings listenerExecutorSettings, @Nullable GatewaySessionStore gwSessionStore,
+                         boolean parallelMemberDecoding, @Nullable Predicate<String> startupChunkingFilter,
+                         Duration guildLoadTimeout, boolean offline, @Nullable Path gwRecordingDirectory,
+                         FrameRecorder.Mode gwRecordingMode, @Nullable String gatewayUrl,
+                         @Nullable EnumSet<Intent> alwaysKeptIntents, @Nullable OkHttpClient httpClient,
+                         @Nullable RateLimitSettings rateLimitSettings) throws ExecutionException, InterruptedException {
         System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
-        this.eventDispatcher = new EventDispatcher(this);
+        this.eventDispatcher = new EventDispatcher(this, listenerExecutorSettings);
+        this.parallelMemberDecoding = parallelMemberDecoding;
+        this.startupChunkingFilter = startupChunkingFilter;
+        this.guildLoadTimeout = guildLoadTimeout;
+        this.gwRecordingDirectory = gwRecordingDirectory;
+        this.gwRecordingMode = gwRecordingMode;
+        this.gatewayUrl = gatewayUrl;
+        this.alwaysKeptIntents = alwaysKeptIntents;
+        this.httpClient = httpClient == null ? HttpClientSettings.defaults().newClient() : httpClient;
         this.token = token;
         this.intents = intents;
         this.apiVersion = version;
@@ -225,10 +288,10 @@ public class DiscordJar {
         logger = Logger.getLogger("DISCORD.JAR");
         this.commandDispatcher = new CommandDispatcher();
         this.queuedRequests = new ArrayList<>();
-        this.buckets = new ArrayList<>();
-        this.voiceStates = new HashMap<>();
+        this.voiceStates = new ConcurrentHashMap<>();
         this.gatewayTransportCompressionType = gwCompressionType;
         this.debug = debug;
+        this.rateLimiter = new RateLimiter(rateLimitSettings == null ? RateLimitSettings.defaults() : rateLimitSettings, debug);
         this.guildCache = new Cache<>(this, Guild.class,
                 new DiscordRequest(
                         new JSONObject(),
@@ -239,7 +302,7 @@ public class DiscordJar {
                         RequestMethod.GET
                 ), CacheType.GUILDS);
 
-        this.guildMemberCaches = new HashMap<>();
+        this.guildMemberCaches = new ConcurrentHashMap<>();
 
         this.userCache = new Cache<>(this, User.class, new DiscordRequest(
                 new JSONObject(),
@@ -257,7 +320,7 @@ public class DiscordJar {
                 this,
                 URLS.GET.CHANNELS.GET_CHANNEL,
                 RequestMethod.GET
-        ), CacheType.MEMBERS);
+        ), CacheType.CHANNELS);
 
         if (httpOnly) {
             if (httpOnlyInfo == null)
@@ -299,12 +362,9 @@ public class DiscordJar {
         this.shardId = shardId;
         this.numShards = numShards;
 
-            if (!httpOnly) {
-                this.gatewayFactory = Gateway.builder(this)
-                        .setShardCount(numShards)
-                        .setShardId(shardId)
-                        .setTransportCompressionType(gwCompressionType)
-                        .build();
+            if (!httpOnly && !offline) {
+                this.shardManager = new ShardManager(this, shardId, numShards, gwCompressionType, gwEncoding, gwSessionStore);
+                this.shardManager.start(shardId);
             }
 
     }
@@ -349,8 +409,130 @@ public class DiscordJar {
         }, "djar-shutdown-prevention").start();
     }
 
+    /**
+     * Returns the Gateway connection, or null if this is an HTTP-only bot.
+     * <br>If this process runs multiple shards, this is the shard with the lowest id. Use {@link #getGatewayForGuild(String)}
+     * for anything that is specific to a guild.
+     */
     public Gateway getGateway() {
-        return gatewayFactory;
+        return shardManager == null ? null : shardManager.getPrimaryShard();
+    }
+
+    /**
+     * Returns the Gateway shard responsible for the given guild, or null if this is an HTTP-only bot.
+     *
+     * @param guildId The id of the guild
+     */
+    public Gateway getGatewayForGuild(@NotNull String guildId) {
+        return shardManager == null ? null : shardManager.getShardForGuild(guildId);
+    }
+
+    /**
+     * Returns whether members in GUILD_CREATE payloads are decoded in parallel.
+     */
+    public boolean isParallelMemberDecoding() {
+        return parallelMemberDecoding;
+    }
+
+    /**
+     * Returns the filter of guilds chunked after READY, or null if startup member chunking is disabled.
+     */
+    @Nullable
+    public Predicate<String> getStartupChunkingFilter() {
+        return startupChunkingFilter;
+    }
+
+    /**
+     * Returns the directory Gateway traffic is recorded to, or null if it isn't recorded.
+     */
+    @Nullable
+    public Path getGatewayRecordingDirectory() {
+        return gwRecordingDirectory;
+    }
+
+    public FrameRecorder.Mode getGatewayRecordingMode() {
+        return gwRecordingMode;
+    }
+
+    /**
+     * Returns whether intents nothing consumes are dropped from IDENTIFY, see {@link IntentMinimizer}.
+     */
+    public boolean isIntentMinimization() {
+        return alwaysKeptIntents != null;
+    }
+
+    /**
+     * Returns the intents intent minimization always keeps, empty if it's disabled.
+     */
+    @NotNull
+    public EnumSet<Intent> getAlwaysKeptIntents() {
+        return alwaysKeptIntents == null ? EnumSet.noneOf(Intent.class) : EnumSet.copyOf(alwaysKeptIntents);
+    }
+
+    /**
+     * Returns the client every REST, CDN and webhook request of this bot is sent with, which keeps connections to Discord alive between requests.
+     * @see DiscordJarBuilder#setHttpClientSettings(HttpClientSettings)
+     */
+    @NotNull
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Returns the rate limiter that holds back REST requests of this bot until their rate-limit bucket and the global limit
+     * let them through. Its {@link RateLimiter#getMetrics() metrics} show how close the bot is to its limits.
+     */
+    @NotNull
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the Gateway URL set with {@link DiscordJarBuilder#setGatewayUrl(String)}, or null if the URL is requested from Discord.
+     */
+    @Nullable
+    public String getGatewayUrlOverride() {
+        return gatewayUrl;
+    }
+
+    /**
+     * Returns how long shards wait for their guilds after READY before they're considered loaded anyway.
+     */
+    public Duration getGuildLoadTimeout() {
+        return guildLoadTimeout;
+    }
+
+    /**
+     * Returns a future that completes once every shard run by this process received all of its guilds after READY, or
+     * its guild load timeout passed. Completes straight away if this is an HTTP-only bot.
+     * @see ReadinessTracker
+     */
+    public CompletableFuture<Void> awaitGuildsLoaded() {
+        if (shardManager == null) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(shardManager.getShards().stream()
+                .map(gateway -> gateway.getReadiness().getGuildsLoaded())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns a future that completes once the members of every guild selected for startup chunking are cached, on every
+     * shard run by this process. Completes straight away if startup chunking is disabled or this is an HTTP-only bot.
+     * @see DiscordJarBuilder#setStartupMemberChunking(Predicate)
+     */
+    public CompletableFuture<Void> awaitMemberCacheWarm() {
+        if (shardManager == null || startupChunkingFilter == null) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(shardManager.getShards().stream()
+                .map(Gateway::getMemberChunking)
+                .filter(Objects::nonNull)
+                .map(MemberChunkingScheduler::getWarm)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns the {@link ShardManager} running this bot's Gateway shards, or null if this is an HTTP-only bot.
+     */
+    public ShardManager getShardManager() {
+        return shardManager;
     }
 
 
@@ -361,8 +543,8 @@ public class DiscordJar {
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
-            if (gatewayFactory != null) {
-                gatewayFactory.disconnect(CloseStatus.GOING_AWAY);
+            if (shardManager != null) {
+                shardManager.shutdownAll();
             }
         }, "djar--shutdown-hook"));
     }
@@ -387,39 +569,6 @@ public class DiscordJar {
         }
     }
 
-    public List<Bucket> getBuckets() {
-        return buckets;
-    }
-
-    public Bucket getBucket(String id) {
-        for (Bucket bucket : buckets) {
-            if (bucket.id().equals(id)) return bucket;
-        }
-        return null;
-    }
-
-    public void updateBucket(String id, Bucket bucket) {
-        for (int i = 0; i < buckets.size(); i++) {
-            if (buckets.get(i).id().equals(id)) {
-                buckets.remove(i);
-                return;
-            }
-        }
-        buckets.add(bucket);
-    }
-
-    public void removeBucket(Bucket bucket) {
-        buckets.remove(bucket);
-    }
-
-    public Bucket getBucketForUrl(String url) {
-        final List<Bucket> buckets = new ArrayList<>(this.buckets);
-        for (Bucket bucket : buckets) {
-            if (bucket.getAffectedRoutes().contains(url)) return bucket;
-        }
-        return null;
-    }
-
     /**
      * Allows one to disable member caching for a particular guild. This will remove all members from the cache for that guild - and then prevent them from being cached again.
      * @param guildId The id of the guild to disable member caching for
@@ -435,16 +584,17 @@ public class DiscordJar {
      * @param status The status to set
      */
     public void setStatus(@NotNull Status status) {
-        if (gatewayFactory == null)
+        if (shardManager == null)
             throw new IllegalStateException("Cannot set status on an HTTP-only bot. See the constructor for more information.");
-        new Thread(() -> {
-            JSONObject json = new JSONObject();
-            json.put("d", status.compile());
-            json.put("op", 3);
-            gatewayFactory.queueMessageUntilReady(json);
-            gatewayFactory.setStatus(status);
-            this.status = status;
-        }).start();
+        JSONObject json = new JSONObject();
+        json.put("d", status.compile());
+        json.put("op", 3);
+        for (Gateway shard : shardManager.getShards()) {
+            // Queued until the shard is READY, and replaces any presence update that hasn't been sent yet
+            shard.queueMessageUntilReady(json);
+            shard.setStatus(status);
+        }
+        this.status = status;
     }
 
     public Status getStatus() {
@@ -775,6 +925,24 @@ public class DiscordJar {
      */
     public void registerListeners(@NotNull DiscordListener... listeners) {
         eventDispatcher.addListener(listeners);
+        if (isIntentMinimization()) warnAboutMissingIntents();
+    }
+
+    /**
+     * Warns if a shard already identified without an intent a listener needs, which intent minimization only adds on the next IDENTIFY.
+     */
+    private void warnAboutMissingIntents() {
+        if (shardManager == null) return;
+        for (Gateway gateway : shardManager.getShards()) {
+            EnumSet<Intent> identified = gateway.getIdentifiedIntents();
+            if (identified == null) continue;
+            EnumSet<Intent> missing = IntentMinimizer.minimize(this, false);
+            missing.removeAll(identified);
+            if (missing.isEmpty()) continue;
+            logger.warning("[DISCORD.JAR] Listeners were registered for events that need " + missing + ", which intent minimization dropped."
+                    + " They're only received after the next IDENTIFY, register listeners right after building the bot to avoid this.");
+            return;
+        }
     }
 
     /**
@@ -909,8 +1077,30 @@ public class DiscordJar {
      */
     public void insertMemberCache(@NotNull String guildId, @NotNull Member member, @Nullable Guild guild) {
         if (memberCachingDisabledGuilds.contains(guildId)) return;
-        // First, we need to check if a cache exists for the guild
-        Cache<Member> cache = new Cache<>(
+        memberCacheFor(guildId, guild).cache(member);
+    }
+
+    /**
+     * Inserts several members of the same guild into its cache at once.
+     *
+     * @param guildId The id of the guild
+     * @param members The members to insert
+     * @see #insertMemberCache(String, Member, Guild)
+     */
+    public void insertMemberCache(@NotNull String guildId, @NotNull Collection<Member> members, @Nullable Guild guild) {
+        if (memberCachingDisabledGuilds.contains(guildId) || members.isEmpty()) return;
+        memberCacheFor(guildId, guild).cacheAll(members);
+    }
+
+    /**
+     * Returns the member cache of a guild, creating it if it doesn't exist yet.
+     */
+    private Cache<Member> memberCacheFor(@NotNull String guildId, @Nullable Guild guild) {
+        Cache<Member> cache = guildMemberCaches.get(guildId);
+        if (cache != null) return cache;
+        // Resolved outside computeIfAbsent, as getGuildById may have to make a request
+        Guild owner = guild == null ? this.getGuildById(guildId) : guild;
+        return guildMemberCaches.computeIfAbsent(guildId, id -> new Cache<>(
                 this,
                 Member.class,
                 new DiscordRequest(
@@ -921,12 +1111,9 @@ public class DiscordJar {
                         URLS.GET.GUILDS.MEMBERS.GET_GUILD_MEMBER,
                         RequestMethod.GET
                 ),
-                guild == null ? this.getGuildById(guildId) : guild,
+                owner,
                 CacheType.MEMBERS
-        );
-        if (guildMemberCaches.containsKey(guildId)) cache = guildMemberCaches.get(guildId);
-        cache.cache(member);
-        guildMemberCaches.put(guildId, cache);
+        ));
     }
 
     public void removeMemberCache(@NotNull String guildId, @NotNull String userId) {
@@ -1142,7 +1329,7 @@ public class DiscordJar {
                     URLS.POST.COMMANDS.GLOBAL_COMMANDS.replace("{application.id}", getSelfInfo().id() == null ? "0" : getSelfInfo().id()),
                     this,
                     URLS.BASE_URL,
-                    RequestMethod.POST);
+                    RequestMethod.POST).setPriority(RequestPriority.BACKGROUND);
             try {
                 commandReq.invoke();
             } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
@@ -1285,7 +1472,7 @@ public class DiscordJar {
                 this,
                 URLS.BASE_URL,
                 RequestMethod.PUT
-        );
+        ).setPriority(RequestPriority.BACKGROUND);
         try {
             req.invoke();
         } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
@@ -1550,10 +1737,15 @@ public class DiscordJar {
     /**
      * Returns the Gateway's ping history.
      * <br>This is determined using heartbeats - it waits for the response and then calculates the time the Gateway took to respond.
-     * <br>The time is in milliseconds.
+     * <br>The time is in milliseconds. If multiple shards are run, the history of every shard is included.
      */
     public List<Long> getGatewayPingHistory() {
-        return Gateway.pingHistoryMs;
+        if (shardManager == null) return new ArrayList<>();
+        List<Long> history = new ArrayList<>();
+        for (Gateway shard : shardManager.getShards()) {
+            history.addAll(shard.getPingHistoryMs());
+        }
+        return history;
     }
 
     /**
@@ -1561,12 +1753,13 @@ public class DiscordJar {
      * <br>This is determined using heartbeats - it waits for the response and then calculates the time the Gateway took to respond.
      */
      public Long getAverageGatewayPing() {
+         List<Long> history = getGatewayPingHistory();
          long sum = 0;
-         for (Long l : getGatewayPingHistory()) {
+         for (Long l : history) {
              sum += l;
          }
 
-         return sum / getGatewayPingHistory().size();
+         return sum / history.size();
      }
 
     public APIVersion getApiVersion() {
@@ -1,20 +1,34 @@
 package com.seailz.discordjar;
 
 import com.seailz.discordjar.cache.CacheType;
+import com.seailz.discordjar.events.ListenerExecutorSettings;
+import com.seailz.discordjar.gateway.GatewayEncoding;
+import com.seailz.discordjar.gateway.session.GatewaySessionStore;
 import com.seailz.discordjar.gateway.GatewayTransportCompressionType;
+import com.seailz.discordjar.gateway.IntentMinimizer;
+import com.seailz.discordjar.gateway.ReadinessTracker;
+import com.seailz.discordjar.gateway.ShardManager;
 import com.seailz.discordjar.model.api.APIRelease;
 import com.seailz.discordjar.model.application.Intent;
 import com.seailz.discordjar.utils.HTTPOnlyInfo;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
 import com.seailz.discordjar.utils.rest.DiscordResponse;
+import com.seailz.discordjar.utils.rest.HttpClientSettings;
+import com.seailz.discordjar.utils.rest.ratelimit.RateLimitSettings;
+import com.seailz.discordjar.ws.FrameRecorder;
 import com.seailz.discordjar.model.api.version.APIVersion;
+import okhttp3.OkHttpClient;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 
 /**
  * Factory class for creating a {@link DiscordJar} instance.
@@ -45,6 +59,22 @@ public class DiscordJarBuilder {
     @Deprecated(since = "1.0.0")
     private int nsfgmmPercentOfTotalMemory = 25;
     private GatewayTransportCompressionType gwCompressionType = GatewayTransportCompressionType.ZLIB_STREAM;
+    private GatewayEncoding gwEncoding = GatewayEncoding.JSON;
+    private GatewaySessionStore gwSessionStore = null;
+    private boolean parallelMemberDecoding = false;
+    private Predicate<String> startupChunkingFilter = null;
+    private Duration guildLoadTimeout = ReadinessTracker.DEFAULT_GUILD_LOAD_TIMEOUT;
+    private boolean offline = false;
+    private Path gwRecordingDirectory = null;
+    private FrameRecorder.Mode gwRecordingMode = FrameRecorder.Mode.RAW;
+    private String gatewayUrl = null;
+    private EnumSet<Intent> alwaysKeptIntents = null;
+    private HttpClientSettings httpClientSettings = HttpClientSettings.defaults();
+    private OkHttpClient httpClient = null;
+    private RateLimitSettings rateLimitSettings = RateLimitSettings.defaults();
+    private int listenerThreads = ListenerExecutorSettings.defaults().listenerThreads();
+    private int eventQueueCapacity = ListenerExecutorSettings.defaults().queueCapacity();
+    private ListenerExecutorSettings.OverflowPolicy eventOverflowPolicy = ListenerExecutorSettings.defaults().overflowPolicy();
 
     public DiscordJarBuilder(String token) {
         this.token = token;
@@ -57,6 +87,144 @@ public class DiscordJarBuilder {
         return this;
     }
 
+    /**
+     * Sets the encoding used for Gateway payloads. Defaults to {@link GatewayEncoding#JSON JSON}.
+     */
+    public DiscordJarBuilder setGatewayEncoding(GatewayEncoding gwEncoding) {
+        this.gwEncoding = gwEncoding;
+        return this;
+    }
+
+    /**
+     * Persists Gateway sessions in the given store, so restarting the bot RESUMEs its sessions instead of IDENTIFYing again.
+     * <br>Use {@link com.seailz.discordjar.gateway.session.FileGatewaySessionStore FileGatewaySessionStore} to keep them in a directory.
+     * Disabled by default.
+     */
+    public DiscordJarBuilder setGatewaySessionStore(GatewaySessionStore gwSessionStore) {
+        this.gwSessionStore = gwSessionStore;
+        return this;
+    }
+
+    /**
+     * Decodes the members of large GUILD_CREATE payloads on the common fork-join pool while the payload is still being read,
+     * which shortens the time until very large guilds are cached. Disabled by default.
+     */
+    public DiscordJarBuilder setParallelMemberDecoding(boolean parallelMemberDecoding) {
+        this.parallelMemberDecoding = parallelMemberDecoding;
+        return this;
+    }
+
+    /**
+     * Requests the members of every guild after READY, so the member cache is complete. Requires the GUILD_MEMBERS intent.
+     * Disabled by default.
+     * @see DiscordJar#awaitMemberCacheWarm()
+     */
+    public DiscordJarBuilder setStartupMemberChunking(boolean startupMemberChunking) {
+        this.startupChunkingFilter = startupMemberChunking ? guildId -> true : null;
+        return this;
+    }
+
+    /**
+     * Records every frame the Gateway receives to a file per shard in the given directory, named
+     * {@code gateway-<shard id>.djfr}. Existing recordings are appended to. Disabled by default.
+     * <br>Recordings can be replayed with {@link com.seailz.discordjar.gateway.GatewayReplayer GatewayReplayer}.
+     *
+     * @param mode Whether frames are recorded before or after transport compression is decoded, see {@link FrameRecorder.Mode}.
+     */
+    public DiscordJarBuilder setGatewayRecording(Path directory, FrameRecorder.Mode mode) {
+        this.gwRecordingDirectory = directory;
+        this.gwRecordingMode = mode;
+        return this;
+    }
+
+    /**
+     * Doesn't connect to the Gateway at all, for replaying recorded traffic with
+     * {@link com.seailz.discordjar.gateway.GatewayReplayer GatewayReplayer}. REST requests still go to Discord. Disabled by default.
+     */
+    public DiscordJarBuilder setOffline(boolean offline) {
+        this.offline = offline;
+        return this;
+    }
+
+    /**
+     * Identifies with only the configured intents something consumes - registered listeners, enabled caches, startup
+     * member chunking and voice connections - and logs the ones that were dropped. Disabled by default.
+     * <br>Listeners should be registered right after building the bot, as intents are only computed on IDENTIFY.
+     * @see com.seailz.discordjar.gateway.IntentMinimizer
+     */
+    public DiscordJarBuilder setIntentMinimization(boolean intentMinimization) {
+        this.alwaysKeptIntents = intentMinimization ? EnumSet.noneOf(Intent.class) : null;
+        return this;
+    }
+
+    /**
+     * Enables intent minimization, always keeping the given intents if they're configured. Useful for intents that are
+     * needed by code minimization can't see, such as {@link Intent#GUILD_VOICE_STATES} for bots that join voice channels.
+     * @see #setIntentMinimization(boolean)
+     */
+    public DiscordJarBuilder setIntentMinimization(boolean intentMinimization, Intent... alwaysKeep) {
+        this.alwaysKeptIntents = intentMinimization ? IntentMinimizer.expand(Set.of(alwaysKeep)) : null;
+        return this;
+    }
+
+    /**
+     * Connects to the given Gateway URL, such as {@code ws://localhost:8080/}, instead of asking Discord for one.
+     * Query parameters for the version, encoding and compression are still appended. Resuming uses the URL sent in READY.
+     * <br>Meant for tests against a local Gateway, such as the {@code MockGatewayServer} in the test sources.
+     */
+    public DiscordJarBuilder setGatewayUrl(String gatewayUrl) {
+        this.gatewayUrl = gatewayUrl;
+        return this;
+    }
+
+    /**
+     * Sets the connection pool, timeouts and protocols of the HTTP client all REST requests are sent with.
+     * Defaults to {@link HttpClientSettings#defaults()}.
+     */
+    public DiscordJarBuilder setHttpClientSettings(HttpClientSettings httpClientSettings) {
+        this.httpClientSettings = httpClientSettings;
+        return this;
+    }
+
+    /**
+     * Sends all REST requests with the given client instead of building one from the {@link #setHttpClientSettings(HttpClientSettings) settings},
+     * for example to add interceptors or a proxy. The client may be shared with other code.
+     */
+    public DiscordJarBuilder setHttpClient(OkHttpClient httpClient) {
+        this.httpClient = httpClient;
+        return this;
+    }
+
+    /**
+     * Sets the global request limit and how invalid requests are guarded against. Raise the global limit only if Discord
+     * has granted the bot a higher one. Defaults to {@link RateLimitSettings#defaults()}.
+     * @see DiscordJar#getRateLimiter()
+     */
+    public DiscordJarBuilder setRateLimitSettings(RateLimitSettings rateLimitSettings) {
+        this.rateLimitSettings = rateLimitSettings;
+        return this;
+    }
+
+    /**
+     * Sets how long a shard waits for the GUILD_CREATEs of its guilds after READY before it's considered loaded anyway.
+     * Defaults to {@link ReadinessTracker#DEFAULT_GUILD_LOAD_TIMEOUT}.
+     * @see DiscordJar#awaitGuildsLoaded()
+     */
+    public DiscordJarBuilder setGuildLoadTimeout(Duration guildLoadTimeout) {
+        this.guildLoadTimeout = guildLoadTimeout;
+        return this;
+    }
+
+    /**
+     * Requests the members of the guilds matching the filter after READY. The filter is given the guild's id.
+     * @see #setStartupMemberChunking(boolean)
+     * @see com.seailz.discordjar.gateway.MemberChunkingScheduler
+     */
+    public DiscordJarBuilder setStartupMemberChunking(Predicate<String> guildFilter) {
+        this.startupChunkingFilter = guildFilter;
+        return this;
+    }
+
     /**
      * @deprecated Manual Gateway memory management is no longer supported. This value isn't used.
      */
@@ -187,6 +355,42 @@ public class DiscordJarBuilder {
         return this;
     }
 
+    /**
+     * Runs every shard in this process, using the shard count recommended by Discord.
+     * <br>To run a fixed amount of shards in this process, use {@link #setNumShards(int)} and leave the shard id unset.
+     *
+     * @see ShardManager
+     */
+    public DiscordJarBuilder useRecommendedShardCount() {
+        this.shardId = -1;
+        this.numShards = ShardManager.RECOMMENDED_SHARD_COUNT;
+        return this;
+    }
+
+    /**
+     * Sets the amount of threads used to invoke event listeners. Defaults to the amount of available processors (at least 2).
+     */
+    public DiscordJarBuilder setListenerThreads(int listenerThreads) {
+        this.listenerThreads = listenerThreads;
+        return this;
+    }
+
+    /**
+     * Sets how many events can wait for a listener thread before the overflow policy kicks in. Defaults to 10,000.
+     */
+    public DiscordJarBuilder setEventQueueCapacity(int eventQueueCapacity) {
+        this.eventQueueCapacity = eventQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets what happens to an event when the event queue is full. Defaults to {@link ListenerExecutorSettings.OverflowPolicy#BLOCK BLOCK}.
+     */
+    public DiscordJarBuilder setEventOverflowPolicy(ListenerExecutorSettings.OverflowPolicy eventOverflowPolicy) {
+        this.eventOverflowPolicy = eventOverflowPolicy;
+        return this;
+    }
+
     public int getRecommendedShardCount() {
         DiscordRequest req = new DiscordRequest(
                 new JSONObject(),
@@ -210,7 +414,10 @@ public class DiscordJarBuilder {
         if (cacheTypes == null) defaultCacheTypes();
         if (httpOnly && httpOnlyInfo == null) throw new IllegalStateException("HTTPOnly is enabled but no HTTPOnlyInfo was provided.");
         try {
-            return new DiscordJar(token, intents, apiVersion, httpOnly, httpOnlyInfo, debug, shardId, numShards, apiRelease, cacheTypes, gwCompressionType);
+            return new DiscordJar(token, intents, apiVersion, httpOnly, httpOnlyInfo, debug, shardId, numShards, apiRelease, cacheTypes, gwCompressionType, gwEncoding,
+                    new ListenerExecutorSettings(listenerThreads, eventQueueCapacity, eventOverflowPolicy), gwSessionStore,
+                    parallelMemberDecoding, startupChunkingFilter, guildLoadTimeout, offline, gwRecordingDirectory, gwRecordingMode, gatewayUrl, alwaysKeptIntents,
+                    httpClient != null ? httpClient : httpClientSettings.newClient(), rateLimitSettings);
         } catch (ExecutionException | InterruptedException e) {
             throw new RuntimeException(e);
         }
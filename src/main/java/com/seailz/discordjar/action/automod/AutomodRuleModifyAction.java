@@ -151,50 +151,6 @@ public class AutomodRuleModifyAction {
 
 
     public CompletableFuture<AutomodRule> run() {
-        CompletableFuture<AutomodRule> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            JSONObject payload = new JSONObject();
-            payload.put("name", name);
-            payload.put("event_type", eventType.getCode());
-            payload.put("trigger_type", triggerType.getCode());
-            if (triggerMetadata != null) payload.put("trigger_metadata", triggerMetadata.compile());
-
-            JSONArray actionsArray = new JSONArray();
-            actions.stream().map(AutomodRule.Action::compile).forEach(actionsArray::put);
-
-            payload.put("actions", actionsArray);
-            payload.put("enabled", enabled);
-
-            if (exemptChannels != null) {
-                JSONArray exemptChannelsArray = new JSONArray();
-                exemptChannels.stream().map(Channel::id).forEach(exemptChannelsArray::put);
-                payload.put("exempt_channels", exemptChannelsArray);
-            }
-
-            if (exemptRoles != null) {
-                JSONArray exemptRolesArray = new JSONArray();
-                exemptRoles.stream().map(Role::id).forEach(exemptRolesArray::put);
-                payload.put("exempt_roles", exemptRolesArray);
-            }
-
-            DiscordRequest request = new DiscordRequest(
-                    payload,
-                    new HashMap<>(),
-                    URLS.PATCH.GUILD.AUTOMOD.UPDATE_AUTOMOD_RULE.replace(
-                            "{guild.id}",
-                            guild.id()
-                    ),
-                    discordJar,
-                    URLS.PATCH.GUILD.AUTOMOD.UPDATE_AUTOMOD_RULE,
-                    RequestMethod.POST
-            );
-
-            try {
-                return AutomodRule.decompile(request.invoke().body(), discordJar);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                throw new DiscordRequest.DiscordAPIErrorException(e);
-            }
-        });
         Checker.notNull(name, "name");
         Checker.notNull(eventType, "eventType");
         Checker.notNull(triggerType, "triggerType");
@@ -203,7 +159,43 @@ public class AutomodRuleModifyAction {
         if (exemptChannels != null) Checker.check(exemptChannels.size() <= 50, "exemptChannels cannot be more than 50");
         if (exemptRoles != null) Checker.check(exemptRoles.size() <= 20, "exemptRoles cannot be more than 20");
 
-        return future;
+        JSONObject payload = new JSONObject();
+        payload.put("name", name);
+        payload.put("event_type", eventType.getCode());
+        payload.put("trigger_type", triggerType.getCode());
+        if (triggerMetadata != null) payload.put("trigger_metadata", triggerMetadata.compile());
+
+        JSONArray actionsArray = new JSONArray();
+        actions.stream().map(AutomodRule.Action::compile).forEach(actionsArray::put);
+
+        payload.put("actions", actionsArray);
+        payload.put("enabled", enabled);
+
+        if (exemptChannels != null) {
+            JSONArray exemptChannelsArray = new JSONArray();
+            exemptChannels.stream().map(Channel::id).forEach(exemptChannelsArray::put);
+            payload.put("exempt_channels", exemptChannelsArray);
+        }
+
+        if (exemptRoles != null) {
+            JSONArray exemptRolesArray = new JSONArray();
+            exemptRoles.stream().map(Role::id).forEach(exemptRolesArray::put);
+            payload.put("exempt_roles", exemptRolesArray);
+        }
+
+        DiscordRequest request = new DiscordRequest(
+                payload,
+                new HashMap<>(),
+                URLS.PATCH.GUILD.AUTOMOD.UPDATE_AUTOMOD_RULE.replace(
+                        "{guild.id}",
+                        guild.id()
+                ),
+                discordJar,
+                URLS.PATCH.GUILD.AUTOMOD.UPDATE_AUTOMOD_RULE,
+                RequestMethod.POST
+        );
+
+        return request.invokeAsync().thenApply(response -> AutomodRule.decompile(response.body(), discordJar));
     }
 
 }
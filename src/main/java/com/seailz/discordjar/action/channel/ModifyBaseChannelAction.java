@@ -12,7 +12,6 @@ import com.seailz.discordjar.model.channel.utils.ChannelType;
 import com.seailz.discordjar.model.permission.PermissionOverwrite;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
-import com.seailz.discordjar.utils.rest.DiscordResponse;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -255,60 +254,48 @@ public class ModifyBaseChannelAction {
     }
 
     public CompletableFuture<Channel> run() {
-        CompletableFuture<Channel> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            JSONObject body = new JSONObject();
-            if (name != null) body.put("name", name);
-            if (type != null) body.put("type", type.getCode());
-            if (topic != null) body.put("topic", topic);
-            if (position != -1) body.put("position", position);
-            if (nsfw != null) body.put("nsfw", nsfw.booleanValue());
-            if (bitrate != -1) body.put("bitrate", bitrate);
-            if (rateLimitPerUser != -1) body.put("rate_limit_per_user", rateLimitPerUser);
-            if (userLimit != -1) body.put("user_limit", userLimit);
-            if (permissionOverwrites != null) {
-                JSONArray array = new JSONArray();
-                for (PermissionOverwrite overwrite : permissionOverwrites) {
-                    array.put(overwrite.compile());
-                }
-                body.put("permission_overwrites", array);
+        JSONObject body = new JSONObject();
+        if (name != null) body.put("name", name);
+        if (type != null) body.put("type", type.getCode());
+        if (topic != null) body.put("topic", topic);
+        if (position != -1) body.put("position", position);
+        if (nsfw != null) body.put("nsfw", nsfw.booleanValue());
+        if (bitrate != -1) body.put("bitrate", bitrate);
+        if (rateLimitPerUser != -1) body.put("rate_limit_per_user", rateLimitPerUser);
+        if (userLimit != -1) body.put("user_limit", userLimit);
+        if (permissionOverwrites != null) {
+            JSONArray array = new JSONArray();
+            for (PermissionOverwrite overwrite : permissionOverwrites) {
+                array.put(overwrite.compile());
             }
-            if (parent != null) body.put("parent_id", parent.id());
-            if (rtcRegion != null) body.put("rtc_region", rtcRegion);
-            if (videoQualityMode != null) body.put("video_quality_mode", videoQualityMode.code());
-            if (defaultAutoArchiveDuration != null) body.put("default_auto_archive_duration", defaultAutoArchiveDuration);
-            if (flags != -1) body.put("flags", flags);
-            if (availableTags != null) {
-                JSONArray array = new JSONArray();
-                for (ForumTag tag : availableTags) {
-                    array.put(tag.compile());
-                }
-                body.put("available_tags", array);
+            body.put("permission_overwrites", array);
+        }
+        if (parent != null) body.put("parent_id", parent.id());
+        if (rtcRegion != null) body.put("rtc_region", rtcRegion);
+        if (videoQualityMode != null) body.put("video_quality_mode", videoQualityMode.code());
+        if (defaultAutoArchiveDuration != null) body.put("default_auto_archive_duration", defaultAutoArchiveDuration);
+        if (flags != -1) body.put("flags", flags);
+        if (availableTags != null) {
+            JSONArray array = new JSONArray();
+            for (ForumTag tag : availableTags) {
+                array.put(tag.compile());
             }
-            if (defaultReactionEmoji != null) body.put("default_auto_archive_duration", defaultReactionEmoji.compile());
-            if (defaultThreadRateLimitPerUser != -1) body.put("default_thread_rate_limit_per_user", defaultThreadRateLimitPerUser);
-            if (defaultSortOrder != null) body.put("default_sort_order", defaultSortOrder.getCode());
-            if (defaultForumLayout != null) body.put("default_forum_layout", defaultForumLayout.getCode());
-            body.put("locked", locked);
-
-            DiscordResponse response = null;
-            try {
-                response = new DiscordRequest(
-                        body,
-                        new HashMap<>(),
-                        URLS.PATCH.CHANNEL.MODIFY_CHANNEL.replace("{channel.id}", channelId),
-                        djv,
-                        URLS.PATCH.CHANNEL.MODIFY_CHANNEL,
-                        RequestMethod.PATCH
-                ).invoke();
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                future.completeExceptionally(e);
-                return null;
-            }
-
-            return Channel.decompile(response.body(), djv);
-        });
-        return future;
+            body.put("available_tags", array);
+        }
+        if (defaultReactionEmoji != null) body.put("default_auto_archive_duration", defaultReactionEmoji.compile());
+        if (defaultThreadRateLimitPerUser != -1) body.put("default_thread_rate_limit_per_user", defaultThreadRateLimitPerUser);
+        if (defaultSortOrder != null) body.put("default_sort_order", defaultSortOrder.getCode());
+        if (defaultForumLayout != null) body.put("default_forum_layout", defaultForumLayout.getCode());
+        body.put("locked", locked);
+
+        return new DiscordRequest(
+                body,
+                new HashMap<>(),
+                URLS.PATCH.CHANNEL.MODIFY_CHANNEL.replace("{channel.id}", channelId),
+                djv,
+                URLS.PATCH.CHANNEL.MODIFY_CHANNEL,
+                RequestMethod.PATCH
+        ).invokeAsync().thenApply(response -> Channel.decompile(response.body(), djv));
     }
 
 }
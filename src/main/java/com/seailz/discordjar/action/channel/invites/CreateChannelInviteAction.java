@@ -5,7 +5,6 @@ import com.seailz.discordjar.model.invite.Invite;
 import com.seailz.discordjar.model.invite.internal.InviteImpl;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
-import com.seailz.discordjar.utils.rest.DiscordResponse;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
 
@@ -103,44 +102,34 @@ public class CreateChannelInviteAction {
     }
 
     public CompletableFuture<Invite> run() {
-        CompletableFuture<Invite> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            if (targetType == Invite.VoiceInviteTargetType.STREAM && targetUser == null)
-                throw new IllegalStateException("Target user must be set if target type is set to STREAM");
-
-            if (targetType == Invite.VoiceInviteTargetType.EMBEDDED_APPLICATION && targetApplication == null)
-                throw new IllegalStateException("Target application must be set if target type is set to EMBEDDED_APPLICATION");
-
-
-            JSONObject body = new JSONObject();
-            if (maxAge != -1) body.put("max_age", maxAge);
-            if (maxUses != -1) body.put("max_uses", maxUses);
-            if (temporary) body.put("temporary", true);
-            if (unique) body.put("unique", true);
-            if (targetType != null) body.put("target_type", targetType.getCode());
-            if (targetUser != null) body.put("target_user_id", targetUser);
-            if (targetApplication != null) body.put("target_application_id", targetApplication);
-
-            DiscordResponse res;
-            try {
-                res = new DiscordRequest(
-                        body,
-                        new HashMap<>(),
-                        URLS.POST.CHANNELS.CREATE_CHANNEL_INVITE.replace("{channel.id}", channelId),
-                        discordJar,
-                        URLS.POST.CHANNELS.CREATE_CHANNEL_INVITE,
-                        RequestMethod.POST
-                ).invoke();
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                future.completeExceptionally(e);
-                return null;
-            }
-
+        if (targetType == Invite.VoiceInviteTargetType.STREAM && targetUser == null)
+            throw new IllegalStateException("Target user must be set if target type is set to STREAM");
+
+        if (targetType == Invite.VoiceInviteTargetType.EMBEDDED_APPLICATION && targetApplication == null)
+            throw new IllegalStateException("Target application must be set if target type is set to EMBEDDED_APPLICATION");
+
+
+        JSONObject body = new JSONObject();
+        if (maxAge != -1) body.put("max_age", maxAge);
+        if (maxUses != -1) body.put("max_uses", maxUses);
+        if (temporary) body.put("temporary", true);
+        if (unique) body.put("unique", true);
+        if (targetType != null) body.put("target_type", targetType.getCode());
+        if (targetUser != null) body.put("target_user_id", targetUser);
+        if (targetApplication != null) body.put("target_application_id", targetApplication);
+
+        return new DiscordRequest(
+                body,
+                new HashMap<>(),
+                URLS.POST.CHANNELS.CREATE_CHANNEL_INVITE.replace("{channel.id}", channelId),
+                discordJar,
+                URLS.POST.CHANNELS.CREATE_CHANNEL_INVITE,
+                RequestMethod.POST
+        ).invokeAsync().thenApply(res -> {
             if (res.body() == null) return null;
 
             return InviteImpl.decompile(res.body(), discordJar);
         });
-        return future;
     }
 
 }
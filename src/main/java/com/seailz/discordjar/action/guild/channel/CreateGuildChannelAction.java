@@ -103,45 +103,31 @@ public class CreateGuildChannelAction {
     public Response<GuildChannel> run() {
         Response<GuildChannel> res = new Response<>();
 
-        new Thread(() -> {
-            String categoryId = null;
-            if (this.categoryId != null) categoryId = this.categoryId;
-            else if (this.category != null) categoryId = this.category.id();
-
-            JSONArray permissionOverwrites = new JSONArray();
-            if (this.permissionOverwrites != null) {
-                for (PermissionOverwrite overwrite : this.permissionOverwrites) {
-                    permissionOverwrites.put(overwrite.compile());
-                }
+        String categoryId = null;
+        if (this.categoryId != null) categoryId = this.categoryId;
+        else if (this.category != null) categoryId = this.category.id();
+
+        JSONArray permissionOverwrites = new JSONArray();
+        if (this.permissionOverwrites != null) {
+            for (PermissionOverwrite overwrite : this.permissionOverwrites) {
+                permissionOverwrites.put(overwrite.compile());
             }
-            try {
-                GuildChannel chan = GuildChannel.decompile(
-                        new DiscordRequest(
-                                new JSONObject()
-                                        .put("name", name)
-                                        .put("type", type.getCode())
-                                        .put("topic", topic != null ? topic : JSONObject.NULL)
-                                        .put("position", position)
-                                        .put("permission_overwrites", permissionOverwrites)
-                                        .put("parent_id", categoryId != null ? categoryId : JSONObject.NULL)
-                                        .put("default_forum_layout", defaultForumLayout != null ? defaultForumLayout.getCode() : JSONObject.NULL),
-                                new HashMap<>(),
-                                URLS.POST.GUILDS.CHANNELS.CREATE.replace("{guild.id}", guild.id()),
-                                discordJar,
-                                URLS.POST.GUILDS.CHANNELS.CREATE,
-                                RequestMethod.POST
-                        ).invoke().body(),
-                        discordJar
-                );
-                res.complete(chan);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                res.completeError(new Response.Error(
-                        e.getCode(),
-                        e.getMessage(),
-                        e.getBody()
-                ));
-            }
-        }, "djar--new-channel-req").start();
+        }
+        res.completeFrom(new DiscordRequest(
+                new JSONObject()
+                        .put("name", name)
+                        .put("type", type.getCode())
+                        .put("topic", topic != null ? topic : JSONObject.NULL)
+                        .put("position", position)
+                        .put("permission_overwrites", permissionOverwrites)
+                        .put("parent_id", categoryId != null ? categoryId : JSONObject.NULL)
+                        .put("default_forum_layout", defaultForumLayout != null ? defaultForumLayout.getCode() : JSONObject.NULL),
+                new HashMap<>(),
+                URLS.POST.GUILDS.CHANNELS.CREATE.replace("{guild.id}", guild.id()),
+                discordJar,
+                URLS.POST.GUILDS.CHANNELS.CREATE,
+                RequestMethod.POST
+        ).invokeAsync().thenApply(response -> GuildChannel.decompile(response.body(), discordJar)));
         return res;
     }
 
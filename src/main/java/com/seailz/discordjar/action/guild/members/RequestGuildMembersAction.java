@@ -1,12 +1,15 @@
 package com.seailz.discordjar.action.guild.members;
 
 import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.gateway.MemberChunkRequest;
 import com.seailz.discordjar.model.guild.Member;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
 public class RequestGuildMembersAction {
 
@@ -30,9 +33,18 @@ public class RequestGuildMembersAction {
      * List of user ids you'd like to request.
      */
     private List<String> userIds = new ArrayList<>();
+    /**
+     * How long to wait for the next chunk before the request fails.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+    /**
+     * If the received members should be added to the member cache.
+     */
+    private boolean cacheMembers = true;
     /**
      *  A random nonce is generated by discord.jar to identify the request.
      */
+    @Deprecated
     private final String nonce = String.valueOf(new Random().nextInt(10000000));
     private final DiscordJar discordJar;
 
@@ -61,6 +73,20 @@ public class RequestGuildMembersAction {
         return this;
     }
 
+    /**
+     * Sets how long to wait for the next chunk before the request fails with a {@link java.util.concurrent.TimeoutException}.
+     * The timeout is reset every time a chunk arrives, so large guilds don't need a larger one.
+     */
+    public RequestGuildMembersAction setTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public RequestGuildMembersAction setCacheMembers(boolean cacheMembers) {
+        this.cacheMembers = cacheMembers;
+        return this;
+    }
+
     public String getGuildId() {
         return guildId;
     }
@@ -81,15 +107,39 @@ public class RequestGuildMembersAction {
         return userIds;
     }
 
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public boolean isCacheMembers() {
+        return cacheMembers;
+    }
+
+    /**
+     * @deprecated The Gateway generates a unique nonce for every request now, see {@link MemberChunkRequest#getNonce()}.
+     */
+    @Deprecated
     public String getNonce() {
         return nonce;
     }
 
+    /**
+     * Requests the members, completing once every chunk was received.
+     * <br>For large requests, prefer {@link #stream()}, which doesn't hold every member in memory at once.
+     */
     public CompletableFuture<List<Member>> run() {
         CompletableFuture<List<Member>> future = new CompletableFuture<>();
-        discordJar.getGateway().requestGuildMembers(this, future);
+        discordJar.getGatewayForGuild(guildId).requestGuildMembers(this, future);
         return future;
     }
 
+    /**
+     * Returns a publisher that sends the request for every subscriber, publishing each chunk of members as it arrives.
+     * <br>The subscriber is completed after the last chunk, or errored with a {@link java.util.concurrent.TimeoutException}
+     * if a chunk doesn't arrive within the {@link #setTimeout(Duration) timeout}.
+     */
+    public Flow.Publisher<List<Member>> stream() {
+        return subscriber -> discordJar.getGatewayForGuild(guildId).requestGuildMemberChunks(this, subscriber);
+    }
 
 }
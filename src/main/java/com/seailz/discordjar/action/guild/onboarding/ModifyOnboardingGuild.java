@@ -4,7 +4,6 @@ import com.seailz.discordjar.DiscordJar;
 import com.seailz.discordjar.model.guild.Guild;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
-import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -49,53 +48,42 @@ public class ModifyOnboardingGuild {
 
     public Response<Guild.Onboarding> run() {
         Response<Guild.Onboarding> res = new Response<>();
-        new Thread(() -> {
-            JSONObject body = new JSONObject();
-            if (prompts != null) {
-                JSONArray promptsJson = new JSONArray();
-                for (Guild.Onboarding.Prompt prompt : prompts) {
-                    promptsJson.put(prompt.compile());
-                }
-                body.put("prompts", promptsJson);
+        JSONObject body = new JSONObject();
+        if (prompts != null) {
+            JSONArray promptsJson = new JSONArray();
+            for (Guild.Onboarding.Prompt prompt : prompts) {
+                promptsJson.put(prompt.compile());
             }
+            body.put("prompts", promptsJson);
+        }
 
-            if (defaultChannelIds != null) {
-                JSONArray defaultChannelIdsJson = new JSONArray();
-                for (String defaultChannelId : defaultChannelIds) {
-                    defaultChannelIdsJson.put(defaultChannelId);
-                }
-                body.put("default_channel_ids", defaultChannelIdsJson);
+        if (defaultChannelIds != null) {
+            JSONArray defaultChannelIdsJson = new JSONArray();
+            for (String defaultChannelId : defaultChannelIds) {
+                defaultChannelIdsJson.put(defaultChannelId);
             }
+            body.put("default_channel_ids", defaultChannelIdsJson);
+        }
 
-            if (enabled != -1) {
-                body.put("enabled", enabled == 1);
-            }
+        if (enabled != -1) {
+            body.put("enabled", enabled == 1);
+        }
 
-            if (mode != null) {
-                body.put("mode", mode.value());
-            }
+        if (mode != null) {
+            body.put("mode", mode.value());
+        }
 
-            DiscordRequest req = new DiscordRequest(
-                    body,
-                    new HashMap<>(),
-                    URLS.PUT.GUILD.MODIFY_GUILD_ONBOARDING
-                            .replace("{guild.id}", guild.id()),
-                    discordJar,
-                    URLS.PUT.GUILD.MODIFY_GUILD_ONBOARDING,
-                    RequestMethod.PUT
-            );
+        DiscordRequest req = new DiscordRequest(
+                body,
+                new HashMap<>(),
+                URLS.PUT.GUILD.MODIFY_GUILD_ONBOARDING
+                        .replace("{guild.id}", guild.id()),
+                discordJar,
+                URLS.PUT.GUILD.MODIFY_GUILD_ONBOARDING,
+                RequestMethod.PUT
+        );
 
-            try {
-                DiscordResponse response = req.invoke();
-                res.complete(Guild.Onboarding.decompile(response.body(), guild, discordJar));
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                res.completeError(new Response.Error(
-                        e.getCode(),
-                        e.getMessage(),
-                        e.getBody()
-                ));
-            }
-        }, "djar--onboarding-modify").start();
+        res.completeFrom(req.invokeAsync().thenApply(response -> Guild.Onboarding.decompile(response.body(), guild, discordJar)));
         return res;
     }
 }
@@ -68,55 +68,41 @@ public class CreateScheduledEventAction {
     public Response<ScheduledEvent> run() {
         Response<ScheduledEvent> res = new Response<>();
 
-        new Thread(() -> {
-            if (this.channelId == null && entityType != ScheduledEvent.EntityType.EXTERNAL) {
-                res.completeError(new Response.Error(
-                        0,
-                        "Channel ID must be set for non-external events",
-                        new JSONObject()
-                ));
-                return;
-            }
+        if (this.channelId == null && entityType != ScheduledEvent.EntityType.EXTERNAL) {
+            res.completeError(new Response.Error(
+                    0,
+                    "Channel ID must be set for non-external events",
+                    new JSONObject()
+            ));
+            return res;
+        }
 
-            if ((this.entityMetadata == null || this.endTime == null) && entityType == ScheduledEvent.EntityType.EXTERNAL) {
-                res.completeError(new Response.Error(
-                        0,
-                        "End time & entity metadata must be set for external events",
-                        new JSONObject()
-                ));
-                return;
-            }
+        if ((this.entityMetadata == null || this.endTime == null) && entityType == ScheduledEvent.EntityType.EXTERNAL) {
+            res.completeError(new Response.Error(
+                    0,
+                    "End time & entity metadata must be set for external events",
+                    new JSONObject()
+            ));
+            return res;
+        }
 
-            try {
-                ScheduledEvent chan = ScheduledEvent.decompile(
-                        new DiscordRequest(
-                                new JSONObject()
-                                        .put("name", name)
-                                        .put("privacy_level", privacyLevel.getValue())
-                                        .put("scheduled_start_time", startTime.toString())
-                                        .put("entity_type", entityType.getValue())
-                                        .put("channel_id", channelId)
-                                        .put("entity_metadata", entityMetadata == null ? null : entityMetadata.compile())
-                                        .put("scheduled_end_time", endTime == null ? null : endTime.toString())
-                                        .put("description", description)
-                                        .put("image", image == null ? null : image),
-                                new HashMap<>(),
-                                URLS.POST.GUILDS.SCHEDULED_EVENTS.CREATE_GUILD_SCHEDULED_EVENT.replace("{guild.id}", guildId),
-                                discordJar,
-                                URLS.POST.GUILDS.SCHEDULED_EVENTS.CREATE_GUILD_SCHEDULED_EVENT,
-                                RequestMethod.POST
-                        ).invoke().body(),
-                        discordJar
-                );
-                res.complete(chan);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                res.completeError(new Response.Error(
-                        e.getCode(),
-                        e.getMessage(),
-                        e.getBody()
-                ));
-            }
-        }).start();
+        res.completeFrom(new DiscordRequest(
+                new JSONObject()
+                        .put("name", name)
+                        .put("privacy_level", privacyLevel.getValue())
+                        .put("scheduled_start_time", startTime.toString())
+                        .put("entity_type", entityType.getValue())
+                        .put("channel_id", channelId)
+                        .put("entity_metadata", entityMetadata == null ? null : entityMetadata.compile())
+                        .put("scheduled_end_time", endTime == null ? null : endTime.toString())
+                        .put("description", description)
+                        .put("image", image == null ? null : image),
+                new HashMap<>(),
+                URLS.POST.GUILDS.SCHEDULED_EVENTS.CREATE_GUILD_SCHEDULED_EVENT.replace("{guild.id}", guildId),
+                discordJar,
+                URLS.POST.GUILDS.SCHEDULED_EVENTS.CREATE_GUILD_SCHEDULED_EVENT,
+                RequestMethod.POST
+        ).invokeAsync().thenApply(response -> ScheduledEvent.decompile(response.body(), discordJar)));
         return res;
     }
 }
@@ -108,41 +108,27 @@ public class ModifyScheduledEventAction {
             return res;
         }
 
-        new Thread(() -> {
-            try {
-                JSONObject obj = new JSONObject();
-                if (name != null) obj.put("name", name);
-                if (privacyLevel != null) obj.put("privacy_level", privacyLevel.getValue());
-                if (startTime != null) obj.put("scheduled_start_time", startTime.toString());
-                if (entityType != null) obj.put("entity_type", entityType.getValue());
-                if (channelId != null && !pushChannelId) obj.put("channel_id", channelId);
-                if (entityMetadata != null) obj.put("entity_metadata", entityMetadata.compile());
-                if (endTime != null) obj.put("scheduled_end_time", endTime.toString());
-                if (description != null) obj.put("description", description);
-                if (image != null) obj.put("image", image);
-                if (eventStatus != null) obj.put("status", eventStatus.getValue());
-                // This is a PATCH request, so we must only send the fields that we want to change.
-
-                ScheduledEvent chan = ScheduledEvent.decompile(
-                        new DiscordRequest(
-                                obj,
-                                new HashMap<>(),
-                                URLS.PATCH.GUILD.SCHEDULED_EVENTS.MODIFY_GUILD_SCHEDULED_EVENT.replace("{guild.id}", guildId).replace("{event.id}", eventId),
-                                discordJar,
-                                URLS.PATCH.GUILD.SCHEDULED_EVENTS.MODIFY_GUILD_SCHEDULED_EVENT,
-                                RequestMethod.PATCH
-                        ).invoke().body(),
-                        discordJar
-                );
-                res.complete(chan);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                res.completeError(new Response.Error(
-                        e.getCode(),
-                        e.getMessage(),
-                        e.getBody()
-                ));
-            }
-        }).start();
+        JSONObject obj = new JSONObject();
+        if (name != null) obj.put("name", name);
+        if (privacyLevel != null) obj.put("privacy_level", privacyLevel.getValue());
+        if (startTime != null) obj.put("scheduled_start_time", startTime.toString());
+        if (entityType != null) obj.put("entity_type", entityType.getValue());
+        if (channelId != null && !pushChannelId) obj.put("channel_id", channelId);
+        if (entityMetadata != null) obj.put("entity_metadata", entityMetadata.compile());
+        if (endTime != null) obj.put("scheduled_end_time", endTime.toString());
+        if (description != null) obj.put("description", description);
+        if (image != null) obj.put("image", image);
+        if (eventStatus != null) obj.put("status", eventStatus.getValue());
+        // This is a PATCH request, so we must only send the fields that we want to change.
+
+        res.completeFrom(new DiscordRequest(
+                obj,
+                new HashMap<>(),
+                URLS.PATCH.GUILD.SCHEDULED_EVENTS.MODIFY_GUILD_SCHEDULED_EVENT.replace("{guild.id}", guildId).replace("{event.id}", eventId),
+                discordJar,
+                URLS.PATCH.GUILD.SCHEDULED_EVENTS.MODIFY_GUILD_SCHEDULED_EVENT,
+                RequestMethod.PATCH
+        ).invokeAsync().thenApply(response -> ScheduledEvent.decompile(response.body(), discordJar)));
         return res;
     }
 }
@@ -127,60 +127,54 @@ public class EditInteractionMessageAction {
 
     public Response<Message> run() {
         Response<Message> future = new Response<>();
-        new Thread(() -> {
-            JSONObject obj = new JSONObject();
-            if (content != null) obj.put("content", content);
-            if (embeds != null) {
-                JSONArray embeds = new JSONArray();
-                for (Embeder embed : this.embeds) {
-                    embeds.put(embed.compile());
-                }
-
-                obj.put("embeds", embeds);
+        JSONObject obj = new JSONObject();
+        if (content != null) obj.put("content", content);
+        if (embeds != null) {
+            JSONArray embeds = new JSONArray();
+            for (Embeder embed : this.embeds) {
+                embeds.put(embed.compile());
             }
 
-            if (components != null) {
-                JSONArray components = new JSONArray();
-                for (DisplayComponent component : this.components) {
-                    components.put(component.compile());
-                }
+            obj.put("embeds", embeds);
+        }
 
-                obj.put("components", components);
+        if (components != null) {
+            JSONArray components = new JSONArray();
+            for (DisplayComponent component : this.components) {
+                components.put(component.compile());
             }
 
-            if (attachments != null) {
-                JSONArray attachments = new JSONArray();
-                for (Attachment attachment : this.attachments) {
-                    attachments.put(attachment.compile());
-                }
+            obj.put("components", components);
+        }
 
-                obj.put("attachments", attachments);
+        if (attachments != null) {
+            JSONArray attachments = new JSONArray();
+            for (Attachment attachment : this.attachments) {
+                attachments.put(attachment.compile());
             }
 
-            DiscordRequest request = new DiscordRequest(
-                    obj,
-                    new HashMap<>(),
-                    orig ?
-                            URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_ORIGINAL_INTERACTION_RESPONSE
-                                    .replace("{application.id}", applicationId)
-                                    .replace("{interaction.token}", interactionToken) :
-                            URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_FOLLOWUP_MESSAGE
-                                    .replace("{application.id}", applicationId)
-                                    .replace("{interaction.token}", interactionToken)
-                                    .replace("{message.id}", followupId),
-                    discordJar,
-                    orig ?
-                            URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_ORIGINAL_INTERACTION_RESPONSE :
-                            URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_FOLLOWUP_MESSAGE,
-                    RequestMethod.PATCH
-            );
-
-            try {
-                future.complete(Message.decompile(request.invoke().body(), discordJar));
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                future.completeError(new Response.Error(e.getCode(), e.getMessage(), e.getBody()));
-            }
-        }, "djar--message-edit-interaction").start();
+            obj.put("attachments", attachments);
+        }
+
+        DiscordRequest request = new DiscordRequest(
+                obj,
+                new HashMap<>(),
+                orig ?
+                        URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_ORIGINAL_INTERACTION_RESPONSE
+                                .replace("{application.id}", applicationId)
+                                .replace("{interaction.token}", interactionToken) :
+                        URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_FOLLOWUP_MESSAGE
+                                .replace("{application.id}", applicationId)
+                                .replace("{interaction.token}", interactionToken)
+                                .replace("{message.id}", followupId),
+                discordJar,
+                orig ?
+                        URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_ORIGINAL_INTERACTION_RESPONSE :
+                        URLS.PATCH.INTERACTIONS.MESSAGES.MODIFY_FOLLOWUP_MESSAGE,
+                RequestMethod.PATCH
+        );
+
+        future.completeFrom(request.invokeAsync().thenApply(response -> Message.decompile(response.body(), discordJar)));
         return future;
     }
 
@@ -4,15 +4,21 @@ import com.seailz.discordjar.DiscordJar;
 import com.seailz.discordjar.model.interaction.callback.InteractionCallbackType;
 import com.seailz.discordjar.model.interaction.callback.InteractionHandler;
 import com.seailz.discordjar.model.interaction.reply.InteractionReply;
+import com.seailz.discordjar.utils.Snowflake;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
+import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
+import com.seailz.discordjar.utils.rest.ratelimit.RequestPriority;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Used to react to an interaction.
@@ -24,6 +30,12 @@ import java.util.List;
  */
 public class InteractionCallbackAction {
 
+    /**
+     * How long Discord accepts the response to an interaction, counted from when the interaction was created, i.e. the
+     * timestamp of its id. The callback is dropped rather than sent if it's still waiting for a rate limit after this long.
+     */
+    public static final Duration CALLBACK_DEADLINE = Duration.ofSeconds(3);
+
     private final InteractionCallbackType type;
     private final InteractionReply reply;
     private final String token;
@@ -55,22 +67,32 @@ public class InteractionCallbackAction {
                 new DiscordRequest(json, new HashMap<>(),
                         URLS.POST.INTERACTIONS.CALLBACK.replace("{interaction.id}", this.id)
                                 .replace("{interaction.token}", this.token), discordJar, URLS.POST.INTERACTIONS.CALLBACK,
-                        RequestMethod.POST);
+                        RequestMethod.POST)
+                        .setPriority(RequestPriority.INTERACTION)
+                        .setDeadline(getDeadline());
         Response<InteractionHandler> response = new Response<>();
-        try {
-            if (getReply().useFiles()) {
-                List<File> files = getReply().getFiles();
-                File[] filesArray = new File[files.size()];
-                filesArray = files.toArray(filesArray);
-                request.invokeWithFiles(filesArray);
-            } else
-                request.invoke();
-            response.complete(InteractionHandler.from(token, id, discordJar));
-        } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-            response.completeError(new Response.Error(e.getCode(), e.getMessage(), e.getBody()));
-        }
+        CompletableFuture<DiscordResponse> sent;
+        if (getReply().useFiles()) {
+            List<File> files = getReply().getFiles();
+            File[] filesArray = new File[files.size()];
+            filesArray = files.toArray(filesArray);
+            sent = request.invokeWithFilesAsync(filesArray);
+        } else
+            sent = request.invokeAsync();
+        response.completeFrom(sent.thenApply(res -> InteractionHandler.from(token, id, discordJar)));
         return response;
     }
 
+    /**
+     * Returns when Discord stops accepting the response, {@link #CALLBACK_DEADLINE} after the interaction was created.
+     * Time spent before this action was built, e.g. on the Gateway or in a listener, counts toward it.
+     * <br>This is on Discord's clock. If the local clock runs ahead, the deadline may look like it has already passed,
+     * so it only fails a callback that has to wait for a rate limit, see {@link DiscordRequest#setDeadline(Instant)}.
+     */
+    public Instant getDeadline() {
+        Snowflake interaction = () -> id;
+        return Instant.ofEpochMilli(interaction.timestampRaw()).plus(CALLBACK_DEADLINE);
+    }
+
 
 }
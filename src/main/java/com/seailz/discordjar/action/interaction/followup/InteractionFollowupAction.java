@@ -9,12 +9,14 @@ import com.seailz.discordjar.model.mentions.AllowedMentions;
 import com.seailz.discordjar.model.message.Attachment;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
+import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class InteractionFollowupAction {
 
@@ -151,25 +153,22 @@ public class InteractionFollowupAction {
 
     public Response<InteractionHandler> run() {
         Response<InteractionHandler> response = new Response<>();
-        try {
-            DiscordRequest req = new DiscordRequest(
-                    getReply().compile(),
-                    new HashMap<>(),
-                    URLS.POST.INTERACTIONS.FOLLOWUP
-                            .replaceAll("application.id", discordJar.getSelfInfo().id())
-                            .replaceAll("interaction.token", token),
-                    discordJar,
-                    URLS.POST.INTERACTIONS.FOLLOWUP,
-                    RequestMethod.POST
-            );
-
-            if (getReply().useFiles()) req.invokeWithFiles(getReply().getFiles().toArray(new File[0]));
-            else req.invoke();
-
-            response.complete(InteractionHandler.from(token, id, discordJar));
-        } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-            response.completeError(new Response.Error(e.getCode(), e.getMessage(), e.getBody()));
-        }
+        DiscordRequest req = new DiscordRequest(
+                getReply().compile(),
+                new HashMap<>(),
+                URLS.POST.INTERACTIONS.FOLLOWUP
+                        .replaceAll("application.id", discordJar.getSelfInfo().id())
+                        .replaceAll("interaction.token", token),
+                discordJar,
+                URLS.POST.INTERACTIONS.FOLLOWUP,
+                RequestMethod.POST
+        );
+
+        CompletableFuture<DiscordResponse> sent;
+        if (getReply().useFiles()) sent = req.invokeWithFilesAsync(getReply().getFiles().toArray(new File[0]));
+        else sent = req.invokeAsync();
+
+        response.completeFrom(sent.thenApply(res -> InteractionHandler.from(token, id, discordJar)));
         return response;
     }
 }
@@ -264,100 +264,92 @@ public class MessageCreateAction {
 
     public Response<Message> run() {
         Response<Message> future = new Response<>();
-        new Thread(() -> {
-            String url = URLS.POST.MESSAGES.SEND.replace("{channel.id}", channelId);
-
-            JSONObject payload = new JSONObject();
-            if (this.text != null) payload.put("content", this.text);
-            if (this.nonce != null) payload.put("nonce", this.nonce);
-            if (this.tts) payload.put("tts", true);
-            if (this.messageReference != null) payload.put("message_reference", this.messageReference.compile());
-            if (this.waveform != null) {
-                // Encode base64
-                String encoded = Base64.getEncoder().encodeToString(this.waveform);
-                payload.put("waveform", encoded);
+        String url = URLS.POST.MESSAGES.SEND.replace("{channel.id}", channelId);
+
+        JSONObject payload = new JSONObject();
+        if (this.text != null) payload.put("content", this.text);
+        if (this.nonce != null) payload.put("nonce", this.nonce);
+        if (this.tts) payload.put("tts", true);
+        if (this.messageReference != null) payload.put("message_reference", this.messageReference.compile());
+        if (this.waveform != null) {
+            // Encode base64
+            String encoded = Base64.getEncoder().encodeToString(this.waveform);
+            payload.put("waveform", encoded);
+        }
+
+        if (this.duration != -1) {
+            payload.put("duration", this.duration);
+        }
+
+        JSONArray components = new JSONArray();
+        if (this.components != null && !this.components.isEmpty()) {
+            for (DisplayComponent component : this.components) {
+                components.put(component.compile());
             }
+        }
 
-            if (this.duration != -1) {
-                payload.put("duration", this.duration);
-            }
-
-            JSONArray components = new JSONArray();
-            if (this.components != null && !this.components.isEmpty()) {
-                for (DisplayComponent component : this.components) {
-                    components.put(component.compile());
-                }
-            }
-
-            if (this.components != null && !this.components.isEmpty())
-                payload.put("components", components);
-
-            JSONArray embeds = new JSONArray();
-            if (this.embeds != null) {
-                for (Embeder embed : this.embeds) {
-                    embeds.put(embed.compile());
-                }
-            }
+        if (this.components != null && !this.components.isEmpty())
+            payload.put("components", components);
 
-            if (this.embeds != null)
-                payload.put("embeds", embeds);
-
-            JSONArray stickerIds = new JSONArray();
-            if (this.stickerIds != null) {
-                for (String stickerId : this.stickerIds) {
-                    stickerIds.put(stickerId);
-                }
-            }
-
-            if (this.stickerIds != null && !this.stickerIds.isEmpty())
-                payload.put("sticker_ids", stickerIds);
-
-            if (this.attachments != null) {
-                JSONArray files = new JSONArray();
-                for (Attachment attachment : this.attachments) {
-                    files.put(attachment.compile());
-                }
-                payload.put("attachments", files);
+        JSONArray embeds = new JSONArray();
+        if (this.embeds != null) {
+            for (Embeder embed : this.embeds) {
+                embeds.put(embed.compile());
             }
+        }
 
-            List<MessageFlag> flags = new ArrayList<>();
-            if (this.supressEmbeds) flags.add(MessageFlag.SUPPRESS_EMBEDS);
-            if (this.silent) flags.add(MessageFlag.SUPPRESS_NOTICICATIONS);
+        if (this.embeds != null)
+            payload.put("embeds", embeds);
 
-            int flagsInt = 0;
-            for (MessageFlag flag : flags) {
-                flagsInt |= flag.getLeftShiftId();
+        JSONArray stickerIds = new JSONArray();
+        if (this.stickerIds != null) {
+            for (String stickerId : this.stickerIds) {
+                stickerIds.put(stickerId);
             }
-            if (flagsInt != 0)
-                payload.put("flags", flagsInt);
+        }
 
-            if (allowedMentions != null) {
-                payload.put("allowed_mentions", allowedMentions.compile());
-            }
+        if (this.stickerIds != null && !this.stickerIds.isEmpty())
+            payload.put("sticker_ids", stickerIds);
 
-            DiscordRequest request = new DiscordRequest(
-                    payload,
-                    new HashMap<>(),
-                    url,
-                    discordJar,
-                    URLS.POST.MESSAGES.SEND,
-                    RequestMethod.POST
-            );
-
-            DiscordResponse response = null;
-            if (fileUploads != null && !fileUploads.isEmpty())
-                response = request.invokeWithFiles(new ArrayList<>(fileUploads).toArray(new File[0]));
-            else {
-                try {
-                    response = request.invoke();
-                } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                    future.completeError(new Response.Error(e));
-                    return;
-                }
+        if (this.attachments != null) {
+            JSONArray files = new JSONArray();
+            for (Attachment attachment : this.attachments) {
+                files.put(attachment.compile());
             }
-
-            future.complete(Message.decompile(response.body(), discordJar));
-        }, "djar--msg-create-action").start();
+            payload.put("attachments", files);
+        }
+
+        List<MessageFlag> flags = new ArrayList<>();
+        if (this.supressEmbeds) flags.add(MessageFlag.SUPPRESS_EMBEDS);
+        if (this.silent) flags.add(MessageFlag.SUPPRESS_NOTICICATIONS);
+
+        int flagsInt = 0;
+        for (MessageFlag flag : flags) {
+            flagsInt |= flag.getLeftShiftId();
+        }
+        if (flagsInt != 0)
+            payload.put("flags", flagsInt);
+
+        if (allowedMentions != null) {
+            payload.put("allowed_mentions", allowedMentions.compile());
+        }
+
+        DiscordRequest request = new DiscordRequest(
+                payload,
+                new HashMap<>(),
+                url,
+                discordJar,
+                URLS.POST.MESSAGES.SEND,
+                RequestMethod.POST
+        );
+
+        CompletableFuture<DiscordResponse> response;
+        if (fileUploads != null && !fileUploads.isEmpty())
+            response = request.invokeWithFilesAsync(new ArrayList<>(fileUploads).toArray(new File[0]));
+        else
+            response = request.invokeAsync();
+
+        future.completeFrom(response.thenApply(res -> Message.decompile(res.body(), discordJar)));
         return future;
     }
 
@@ -181,74 +181,64 @@ public class MessageEditAction {
     }
 
     public CompletableFuture<Message> run() {
-        CompletableFuture<Message> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            String url = URLS.PATCH.CHANNEL.MESSAGE.EDIT.replace("{channel.id}", channelId).replace("{message.id}", messageId);
-
-            JSONObject payload = new JSONObject();
-            if (this.text != null) payload.put("content", this.text);
-
-            JSONArray components = new JSONArray();
-            if (this.components != null && !this.components.isEmpty()) {
-                for (DisplayComponent component : this.components) {
-                    components.put(component.compile());
-                }
-            }
+        String url = URLS.PATCH.CHANNEL.MESSAGE.EDIT.replace("{channel.id}", channelId).replace("{message.id}", messageId);
 
-            if (this.components != null && !this.components.isEmpty())
-                payload.put("components", components);
+        JSONObject payload = new JSONObject();
+        if (this.text != null) payload.put("content", this.text);
 
-            JSONArray embeds = new JSONArray();
-            if (this.embeds != null) {
-                for (Embeder embed : this.embeds) {
-                    embeds.put(embed.compile());
-                }
+        JSONArray components = new JSONArray();
+        if (this.components != null && !this.components.isEmpty()) {
+            for (DisplayComponent component : this.components) {
+                components.put(component.compile());
             }
+        }
 
-            if (this.embeds != null)
-                payload.put("embeds", embeds);
+        if (this.components != null && !this.components.isEmpty())
+            payload.put("components", components);
 
-            if (this.attachments != null) {
-                JSONArray files = new JSONArray();
-                for (Attachment attachment : this.attachments) {
-                    files.put(attachment.compile());
-                }
-                payload.put("attachments", files);
+        JSONArray embeds = new JSONArray();
+        if (this.embeds != null) {
+            for (Embeder embed : this.embeds) {
+                embeds.put(embed.compile());
             }
+        }
 
-            List<MessageFlag> flags = new ArrayList<>();
-            if (this.supressEmbeds) flags.add(MessageFlag.SUPPRESS_EMBEDS);
+        if (this.embeds != null)
+            payload.put("embeds", embeds);
 
-            int flagsInt = 0;
-            for (MessageFlag flag : flags) {
-                flagsInt |= flag.getLeftShiftId();
-            }
-            if (flagsInt != 0)
-                payload.put("flags", flagsInt);
-
-            DiscordRequest request = new DiscordRequest(
-                    payload,
-                    new HashMap<>(),
-                    url,
-                    discordJar,
-                    URLS.PATCH.CHANNEL.MESSAGE.EDIT,
-                    RequestMethod.PATCH
-            );
-
-            DiscordResponse response = null;
-            if (fileUploads != null && !fileUploads.isEmpty())
-                response = request.invokeWithFiles(new ArrayList<>(fileUploads).toArray(new File[0]));
-            else {
-                try {
-                    response = request.invoke();
-                } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                    future.completeExceptionally(e);
-                    return null;
-                }
+        if (this.attachments != null) {
+            JSONArray files = new JSONArray();
+            for (Attachment attachment : this.attachments) {
+                files.put(attachment.compile());
             }
-            return Message.decompile(response.body(), discordJar);
-        });
-        return future;
+            payload.put("attachments", files);
+        }
+
+        List<MessageFlag> flags = new ArrayList<>();
+        if (this.supressEmbeds) flags.add(MessageFlag.SUPPRESS_EMBEDS);
+
+        int flagsInt = 0;
+        for (MessageFlag flag : flags) {
+            flagsInt |= flag.getLeftShiftId();
+        }
+        if (flagsInt != 0)
+            payload.put("flags", flagsInt);
+
+        DiscordRequest request = new DiscordRequest(
+                payload,
+                new HashMap<>(),
+                url,
+                discordJar,
+                URLS.PATCH.CHANNEL.MESSAGE.EDIT,
+                RequestMethod.PATCH
+        );
+
+        CompletableFuture<DiscordResponse> response;
+        if (fileUploads != null && !fileUploads.isEmpty())
+            response = request.invokeWithFilesAsync(new ArrayList<>(fileUploads).toArray(new File[0]));
+        else
+            response = request.invokeAsync();
+        return response.thenApply(res -> Message.decompile(res.body(), discordJar));
     }
 
 }
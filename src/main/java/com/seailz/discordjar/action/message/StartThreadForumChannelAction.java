@@ -109,44 +109,35 @@ public class StartThreadForumChannelAction {
 
 
     public CompletableFuture<Thread> run() {
-        CompletableFuture<Thread> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            JSONObject payload = new JSONObject();
-            payload.put("name", name);
-            if (autoArchiveDuration != null) {
-                payload.put("auto_archive_duration", autoArchiveDuration.getMinutes());
-            }
+        JSONObject payload = new JSONObject();
+        payload.put("name", name);
+        if (autoArchiveDuration != null) {
+            payload.put("auto_archive_duration", autoArchiveDuration.getMinutes());
+        }
 
-            if (rateLimitPerUser != 0) {
-                payload.put("rate_limit_per_user", rateLimitPerUser);
-            }
+        if (rateLimitPerUser != 0) {
+            payload.put("rate_limit_per_user", rateLimitPerUser);
+        }
 
-            if (!tagIds.isEmpty()) {
-                JSONArray tagIdsArray = new JSONArray();
-                tagIds.forEach(tagIdsArray::put);
-                payload.put("applied_tags", tagIdsArray);
-            }
+        if (!tagIds.isEmpty()) {
+            JSONArray tagIdsArray = new JSONArray();
+            tagIds.forEach(tagIdsArray::put);
+            payload.put("applied_tags", tagIdsArray);
+        }
 
-            payload.put("message", message.compile());
-
-            DiscordRequest request = new DiscordRequest(
-                    payload,
-                    new HashMap<>(),
-                    URLS.POST.MESSAGES.START_THREAD_FORUM.replace("{channel.id}", channelId),
-                    djar,
-                    URLS.POST.MESSAGES.START_THREAD_FORUM,
-                    RequestMethod.POST
-            );
-            try {
-                return Thread.decompile(
-                        request.invoke().body(), djar
-                );
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                future.completeExceptionally(e);
-                return null;
-            }
-        });
-        return future;
+        payload.put("message", message.compile());
+
+        DiscordRequest request = new DiscordRequest(
+                payload,
+                new HashMap<>(),
+                URLS.POST.MESSAGES.START_THREAD_FORUM.replace("{channel.id}", channelId),
+                djar,
+                URLS.POST.MESSAGES.START_THREAD_FORUM,
+                RequestMethod.POST
+        );
+        return request.invokeAsync().thenApply(response -> Thread.decompile(
+                response.body(), djar
+        ));
     }
 
     public enum ArchiveDuration {
@@ -4,7 +4,6 @@ import com.seailz.discordjar.DiscordJar;
 import com.seailz.discordjar.model.monetization.Entitlement;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
-import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -93,45 +92,37 @@ public class ListEntitlementRequest {
     public Response<List<Entitlement>> run() {
         Response<List<Entitlement>> response = new Response<>();
         if (limit < 1 || limit > 100) throw new IllegalArgumentException("Limit must be between 1 and 100");
-        new Thread(() -> {
-            String urlWithQuery = URLS.GET.APPLICATION.LIST_ENTITLEMENTS;
-            urlWithQuery += "?";
-            if (userId != null) urlWithQuery += "user_id=" + userId + "&";
-            if (skuIds != null) {
-                StringBuilder skuIdsString = new StringBuilder();
-                for (String skuId : skuIds) {
-                   skuIdsString.append(skuId).append(",");
-                }
-                skuIdsString = new StringBuilder(skuIdsString.substring(0, skuIdsString.length() - 1));
-                urlWithQuery += "sku_ids=" + skuIdsString + "&";
+        String urlWithQuery = URLS.GET.APPLICATION.LIST_ENTITLEMENTS;
+        urlWithQuery += "?";
+        if (userId != null) urlWithQuery += "user_id=" + userId + "&";
+        if (skuIds != null) {
+            StringBuilder skuIdsString = new StringBuilder();
+            for (String skuId : skuIds) {
+               skuIdsString.append(skuId).append(",");
             }
-            if (before != null) urlWithQuery += "before=" + before + "&";
-            if (after != null) urlWithQuery += "after=" + after + "&";
-            urlWithQuery += "limit=" + limit + "&";
-            if (guildId != null) urlWithQuery += "guild_id=" + guildId + "&";
-            urlWithQuery += "exclude_ended=" + excludeEnded;
-
-            DiscordResponse req = null;
-            try {
-                req = new DiscordRequest(
-                        new JSONObject(),
-                        new HashMap<>(),
-                        urlWithQuery.replace("{application.id}", jar.getSelfInfo().id()),
-                        jar,
-                        URLS.GET.APPLICATION.LIST_ENTITLEMENTS,
-                        RequestMethod.GET
-                ).invoke();
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                response.completeError(new Response.Error(e));
-                return;
-            }
-
+            skuIdsString = new StringBuilder(skuIdsString.substring(0, skuIdsString.length() - 1));
+            urlWithQuery += "sku_ids=" + skuIdsString + "&";
+        }
+        if (before != null) urlWithQuery += "before=" + before + "&";
+        if (after != null) urlWithQuery += "after=" + after + "&";
+        urlWithQuery += "limit=" + limit + "&";
+        if (guildId != null) urlWithQuery += "guild_id=" + guildId + "&";
+        urlWithQuery += "exclude_ended=" + excludeEnded;
+
+        response.completeFrom(new DiscordRequest(
+                new JSONObject(),
+                new HashMap<>(),
+                urlWithQuery.replace("{application.id}", jar.getSelfInfo().id()),
+                jar,
+                URLS.GET.APPLICATION.LIST_ENTITLEMENTS,
+                RequestMethod.GET
+        ).invokeAsync().thenApply(req -> {
             List<Entitlement> entitlements = new ArrayList<>();
             for (Object o : req.arr()) {
                 entitlements.add(Entitlement.decompile(jar, (JSONObject) o));
             }
-            response.complete(entitlements);
-        }).start();
+            return entitlements;
+        }));
         return response;
     }
 
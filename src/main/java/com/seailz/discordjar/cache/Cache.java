@@ -12,9 +12,16 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 /**
@@ -27,7 +34,10 @@ import java.util.logging.Logger;
  */
 public class Cache<T> {
 
-    private final List<T> cache = new ArrayList<>();
+    // Keyed by id, or by the item itself if it doesn't have one. Iteration order is oldest first.
+    private final LinkedHashMap<Object, T> cache = new LinkedHashMap<>();
+    // Keys of items that weren't refreshed since they were marked stale, guarded by the cache's lock
+    private final Set<Object> stale = new HashSet<>();
     private final DiscordJar discordJar;
     private final Class<T> clazz;
     private final DiscordRequest discordRequest;
@@ -55,47 +65,55 @@ public class Cache<T> {
      */
     public void cache(@NotNull T t)  {
         if (t == null) return;
-        try {
-            if (!discordJar.getCacheTypes().contains(type) && !discordJar.getCacheTypes().contains(CacheType.ALL)) return;
-            String id;
-            try {
-                if (isMember) {
-                    id = ((Member) t).user().id();
-                } else id = (String) t.getClass().getMethod("id").invoke(t);
-            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-                throw new RuntimeException(e);
-            }
+        if (!discordJar.getCacheTypes().contains(type) && !discordJar.getCacheTypes().contains(CacheType.ALL)) return;
+        Object key = keyOf(t);
+        // Shards share caches, so the lookup and insert have to happen under the same lock
+        synchronized (cache) {
+            // Removed first so the item moves to the end of the iteration order
+            cache.remove(key);
+            cache.put(key, t);
+            stale.remove(key);
+        }
+    }
 
-            for (T cacheMember : cache) {
-                String cacheId;
-                try {
-                    if (isMember) {
-                        cacheId = ((Member) cacheMember).user().id();
-                    } else cacheId = (String) t.getClass().getMethod("id").invoke(t);
-                } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-                    throw new RuntimeException(e);
-                }
-                if (cacheId.equals(id)) {
-                    cache.remove(cacheMember);
-                }
-            }
-        } catch (Exception e) {}
+    /**
+     * Adds several objects to the cache at once, taking the lock only once.
+     *
+     * @param items The objects to add
+     */
+    public void cacheAll(@NotNull Collection<T> items) {
+        if (!discordJar.getCacheTypes().contains(type) && !discordJar.getCacheTypes().contains(CacheType.ALL)) return;
+        List<Object> keys = new ArrayList<>(items.size());
+        for (T t : items) keys.add(t == null ? null : keyOf(t));
         synchronized (cache) {
-            try {
-                if (cache.size() == -1) {
-                    Logger.getLogger("DiscordJar").warning("[discord.jar] Failed to add obj to cache - cache size is -1");
-                    return;
-                }; // Also this seems impossible, recent exceptions prove otherwise, so I'm leaving it in. Please ignore your IDE.
-                cache.add(0, t);
-            } catch (Exception e) {
-                // We can ignore this - since the cache isn't critical.
-                // We'll print the stacktrace for debugging purposes.
-                Logger.getLogger("DiscordJar").warning("[discord.jar] Failed to add obj to cache - " + e.getMessage());
-                return;
+            int i = 0;
+            for (T t : items) {
+                Object key = keys.get(i++);
+                if (key == null) continue;
+                cache.remove(key);
+                cache.put(key, t);
+                stale.remove(key);
             }
         }
     }
 
+    private Object keyOf(T t) {
+        String id = idOf(t);
+        return id == null ? t : id;
+    }
+
+    /**
+     * Returns the id of an item, or null if it doesn't have one.
+     */
+    private String idOf(T t) {
+        try {
+            if (isMember) return ((Member) t).user() == null ? null : ((Member) t).user().id();
+            return (String) t.getClass().getMethod("id").invoke(t);
+        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException | ClassCastException e) {
+            return null;
+        }
+    }
+
     /**
      * Removes an item from the cache
      *
@@ -103,7 +121,12 @@ public class Cache<T> {
      */
     public void remove(T t) {
         if (!discordJar.getCacheTypes().contains(type) && !discordJar.getCacheTypes().contains(CacheType.ALL)) return;
-        cache.remove(t);
+        if (t == null) return;
+        Object key = keyOf(t);
+        synchronized (cache) {
+            cache.remove(key);
+            stale.remove(key);
+        }
     }
 
     public void removeById(String id) {
@@ -112,10 +135,75 @@ public class Cache<T> {
     }
 
     /**
-     * Returns the entire cache
+     * Marks the items matching the filter as stale. They stay in the cache and can be read as usual until they are
+     * either cached again, which refreshes them, or removed by {@link #evictStale(Predicate)}.
+     * <br>Used to reconcile the cache with the data Discord sends after a new Gateway session, instead of clearing it.
+     *
+     * @param filter Which items to mark
+     * @return The amount of items marked
+     */
+    public int markStale(@NotNull Predicate<T> filter) {
+        int marked = 0;
+        synchronized (cache) {
+            for (Map.Entry<Object, T> entry : cache.entrySet()) {
+                if (filter.test(entry.getValue()) && stale.add(entry.getKey())) marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Removes the stale items matching the filter, i.e. the ones that weren't cached again since {@link #markStale(Predicate)}.
+     *
+     * @param filter Which stale items to remove
+     * @return The amount of items removed
+     */
+    public int evictStale(@NotNull Predicate<T> filter) {
+        int evicted = 0;
+        synchronized (cache) {
+            Iterator<Object> iterator = stale.iterator();
+            while (iterator.hasNext()) {
+                Object key = iterator.next();
+                T item = cache.get(key);
+                if (item != null && !filter.test(item)) continue;
+                iterator.remove();
+                if (item != null) {
+                    cache.remove(key);
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the amount of items marked stale that weren't refreshed or evicted yet
+     */
+    public int getStaleCount() {
+        synchronized (cache) {
+            return stale.size();
+        }
+    }
+
+    /**
+     * Returns a copy of the entire cache, most recently cached first
      */
     public List<T> getCache() {
-        return cache;
+        List<T> items;
+        synchronized (cache) {
+            items = new ArrayList<>(cache.values());
+        }
+        Collections.reverse(items);
+        return items;
+    }
+
+    /**
+     * Returns the amount of items in the cache
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
     }
 
     /**
@@ -125,34 +213,7 @@ public class Cache<T> {
      * @return The item
      */
     public T getById(String id) throws DiscordRequest.UnhandledDiscordAPIErrorException {
-        AtomicReference<Object> returnObject = new AtomicReference<>();
-        if (discordJar.getCacheTypes().contains(type) || discordJar.getCacheTypes().contains(CacheType.ALL)) {
-            try {
-                ArrayList<T> cacheCopy = new ArrayList<>(cache);
-                cacheCopy.forEach(t -> {
-                    String itemId;
-
-                    if (isMember) {
-                        itemId = ((Member) t).user().id();
-                        if (Objects.equals(itemId, id))
-                            returnObject.set(t);
-                    } else {
-                        for (Method method : clazz.getMethods()) {
-                            if (method.getName().equals("id")) {
-                                try {
-                                    itemId = (String) method.invoke(t);
-                                    if (Objects.equals(itemId, id)) {
-                                        returnObject.set(t);
-                                    }
-                                } catch (IllegalAccessException | InvocationTargetException e) {
-                                    e.printStackTrace();
-                                }
-                            }
-                        }
-                    }
-                });
-            } catch (Exception e ) {}
-        }
+        AtomicReference<Object> returnObject = new AtomicReference<>(getFromCacheByIdOrNull(id));
 
 
         if (returnObject.get() == null) {
@@ -202,31 +263,10 @@ public class Cache<T> {
 
     private T getFromCacheByIdOrNull(String id) {
         if (!discordJar.getCacheTypes().contains(type) && !discordJar.getCacheTypes().contains(CacheType.ALL)) return null;
-        AtomicReference<Object> returnObject = new AtomicReference<>();
-        ArrayList<T> cacheCopy = new ArrayList<>(cache);
-        cacheCopy.forEach(t -> {
-            String itemId;
-
-            if (isMember) {
-                itemId = ((Member) t).user().id();
-                if (Objects.equals(itemId, id))
-                    returnObject.set(t);
-            } else {
-                for (Method method : clazz.getMethods()) {
-                    if (method.getName().equals("id")) {
-                        try {
-                            itemId = (String) method.invoke(t);
-                            if (Objects.equals(itemId, id)) {
-                                returnObject.set(t);
-                            }
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                }
-            }
-        });
-        return returnObject.get() == null ? null : (T) returnObject.get();
+        if (id == null) return null;
+        synchronized (cache) {
+            return cache.get(id);
+        }
     }
 
     public JSONObject getFresh(String id) {
@@ -242,6 +282,9 @@ public class Cache<T> {
     }
 
     public void clear() {
-        cache.clear();
+        synchronized (cache) {
+            cache.clear();
+            stale.clear();
+        }
     }
 }
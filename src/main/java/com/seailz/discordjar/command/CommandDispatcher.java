@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * Simple class for dispatching commands to their respective listeners.
@@ -43,9 +44,19 @@ public class CommandDispatcher {
     }
 
     public void dispatch(String name, CommandInteractionEvent event) {
-        new Thread(() -> {
+        dispatch(name, event, event.getBot().getEventDispatcher()::execute);
+    }
+
+    /**
+     * Runs the listeners of a command on the given executor.
+     * <br>The Gateway passes its own, so commands go through the same stage as every other event.
+     *
+     * @see com.seailz.discordjar.gateway.Gateway#deliverToListeners(Runnable)
+     */
+    public void dispatch(String name, CommandInteractionEvent event, Executor executor) {
+        executor.execute(() -> {
             Class<? extends CommandInteractionEvent> eventClass = (event instanceof SlashCommandInteractionEvent ? SlashCommandInteractionEvent.class : CommandInteractionEvent.class);
-            event.getBot().getEventDispatcher().dispatchEvent(event, eventClass, event.getBot());
+            event.getBot().getEventDispatcher().invokeListeners(event, eventClass);
             if ((event instanceof SlashCommandInteractionEvent) && ((SlashCommandInteractionEvent) event).getOptionsInternal() != null && !((SlashCommandInteractionEvent) event).getOptionsInternal().isEmpty()) {
                 for (ResolvedCommandOption option : ((SlashCommandInteractionEvent) event).getOptionsInternal()) {
                     if (option.type() == CommandOptionType.SUB_COMMAND) {
@@ -56,7 +67,7 @@ public class CommandDispatcher {
                                             .get(subListeners.values().stream().toList().indexOf(detailsList));
 
                                     if (Objects.equals(name, top.getClass().getAnnotation(SlashCommandInfo.class).name())) {
-                                        new Thread(() -> details.listener().onCommand(event), "djar--command-dispatch").start();
+                                        details.listener().onCommand(event);
                                     }
                                     return;
                             /*if (event.getName().startsWith(top.getClass().getAnnotation(SlashCommandInfo.class).name())) {
@@ -79,7 +90,7 @@ public class CommandDispatcher {
                                                 .get(subListeners.values().stream().toList().indexOf(detailsList));
 
                                         if (Objects.equals(name, top.getClass().getAnnotation(SlashCommandInfo.class).name())) {
-                                            new Thread(() -> details.listener().onCommand(event), "djar--command-dispatch").start();
+                                            details.listener().onCommand(event);
                                         }
                                     }
                                 }
@@ -88,8 +99,8 @@ public class CommandDispatcher {
                     }
                 }
             }
-            new Thread(() -> listeners.get(name).onCommand(event), "djar--command-dispatch").start();
-        }, "djar--Command Dispatcher (discord.jar)").start();
+            listeners.get(name).onCommand(event);
+        });
     }
 
     record SlashSubCommandDetails(
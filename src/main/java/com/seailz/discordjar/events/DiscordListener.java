@@ -9,6 +9,7 @@ import com.seailz.discordjar.events.model.channel.edit.ChannelCreateEvent;
 import com.seailz.discordjar.events.model.channel.edit.ChannelUpdateEvent;
 import com.seailz.discordjar.events.model.command.CommandPermissionUpdateEvent;
 import com.seailz.discordjar.events.model.gateway.GatewayResumedEvent;
+import com.seailz.discordjar.events.model.general.GuildsLoadedEvent;
 import com.seailz.discordjar.events.model.general.ReadyEvent;
 import com.seailz.discordjar.events.model.guild.GuildCreateEvent;
 import com.seailz.discordjar.events.model.guild.GuildDeleteEvent;
@@ -46,6 +47,9 @@ public abstract class DiscordListener {
     public void onGatewayResume(@NotNull GatewayResumedEvent event) {
     }
 
+    public void onGuildsLoaded(@NotNull GuildsLoadedEvent event) {
+    }
+
     // Message Events
     public void onMessageReceived(@NotNull MessageCreateEvent event) {
     }
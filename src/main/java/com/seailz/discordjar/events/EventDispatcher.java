@@ -5,26 +5,38 @@ import com.seailz.discordjar.events.annotation.EventMethod;
 import com.seailz.discordjar.events.model.Event;
 import com.seailz.discordjar.events.model.interaction.CustomIdable;
 import com.seailz.discordjar.utils.annotation.RequireCustomId;
-import com.seailz.discordjar.utils.thread.DiscordJarThreadAllocator;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 /**
  * This class is used to dispatch events to the correct listeners.
  * This class is an internal class and should not be used by the end user.
  *
+ * <p>Listeners are invoked on a fixed pool of listener threads fed by a bounded queue, see {@link ListenerExecutorSettings}.
+ *
  * @author Seailz
  * @since 1.0
  */
 public class EventDispatcher {
 
     // Map: Event type -> List of pairs (Listener, Method)
-    private final Map<Class<? extends Event>, List<ListenerMethodPair>> listenersByEventType = new HashMap<>();
+    private final Map<Class<? extends Event>, List<ListenerMethodPair>> listenersByEventType = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor listenerExecutor;
+    private final AtomicLong droppedEvents = new AtomicLong();
 
     // Pair of listener instance and method to call
     private static class ListenerMethodPair {
@@ -39,6 +51,22 @@ public class EventDispatcher {
 
 
     public EventDispatcher(DiscordJar bot) {
+        this(bot, ListenerExecutorSettings.defaults());
+    }
+
+    public EventDispatcher(DiscordJar bot, ListenerExecutorSettings settings) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.listenerExecutor = new ThreadPoolExecutor(
+                settings.listenerThreads(), settings.listenerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "djar--event-listener-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                overflowHandler(settings.overflowPolicy())
+        );
     }
 
     /**
@@ -53,7 +81,8 @@ public class EventDispatcher {
             for (Method method : listener.getClass().getMethods()) {
                 if (method.isAnnotationPresent(EventMethod.class)) {
                     Class<? extends Event> eventType = (Class<? extends Event>) method.getParameterTypes()[0];
-                    listenersByEventType.computeIfAbsent(eventType, k -> new ArrayList<>()).add(new ListenerMethodPair(listener, method));
+                    method.setAccessible(true);
+                    listenersByEventType.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>()).add(new ListenerMethodPair(listener, method));
                 }
             }
         }
@@ -62,48 +91,126 @@ public class EventDispatcher {
     /**
      * Dispatches an event to all registered listeners.
      * This method is called by the {@link DiscordJar} class & other internal classes and should not be called by the end user.
-     * This method is called in a new thread so the bot can handle multiple events at once.
+     * The listeners are invoked on a listener thread so the bot can handle multiple events at once.
      *
      * @param event The event to dispatch
      * @since 1.0
      */
     public void dispatchEvent(Event event, Class<? extends Event> type, DiscordJar djv) {
         if (event == null) return;
-        new Thread(() -> {
-            long start = System.currentTimeMillis();
-            List<ListenerMethodPair> listenersForEventType = listenersByEventType.get(type);
-            if (listenersForEventType == null) {
-                return;
-            }
+        execute(() -> invokeListeners(event, type));
+    }
 
-            for (ListenerMethodPair listenerMethodPair : listenersForEventType) {
-                Method method = listenerMethodPair.method;
-                if (method.isAnnotationPresent(RequireCustomId.class)) {
-                    if (event instanceof CustomIdable) {
-                        if (((CustomIdable) event).getCustomId() == null) {
-                            continue;
-                        }
-
-                        if (!((CustomIdable) event).getCustomId().matches(method.getAnnotation(RequireCustomId.class).value())) {
-                            continue;
-                        }
+    /**
+     * Runs a task on a listener thread, respecting the queue's overflow policy.
+     * <br>Used for work that has to happen off the Gateway's pipeline, such as building events and running commands.
+     */
+    public void execute(Runnable task) {
+        listenerExecutor.execute(task);
+    }
+
+    /**
+     * Invokes every listener registered for the given event type on the current thread, in registration order.
+     * <br>This should only be called from a listener thread, see {@link #execute(Runnable)}.
+     */
+    public void invokeListeners(Event event, Class<? extends Event> type) {
+        if (event == null) return;
+        List<ListenerMethodPair> listenersForEventType = listenersByEventType.get(type);
+        if (listenersForEventType == null) {
+            return;
+        }
+
+        for (ListenerMethodPair listenerMethodPair : listenersForEventType) {
+            Method method = listenerMethodPair.method;
+            if (method.isAnnotationPresent(RequireCustomId.class)) {
+                if (event instanceof CustomIdable) {
+                    if (((CustomIdable) event).getCustomId() == null) {
+                        continue;
                     }
-                }
 
-                method.setAccessible(true);
-                DiscordJarThreadAllocator.requestThread(() -> {
-                    try {
-                        method.invoke(listenerMethodPair.listener, event);
-                    } catch (IllegalAccessException | ArrayIndexOutOfBoundsException e) {
-                        // If we're unable to invoke the method, we'll just ignore it to avoid any issues.
-                        e.printStackTrace();
-                    } catch (InvocationTargetException e) {
-                        // Method threw an exception. We'll print the stack trace and continue.
-                        System.out.println(method.getDeclaringClass().getSimpleName() + "#" + method.getName() + " threw an exception while being invoked.");
-                        e.getCause().printStackTrace();
+                    if (!((CustomIdable) event).getCustomId().matches(method.getAnnotation(RequireCustomId.class).value())) {
+                        continue;
                     }
-                }, "djar--EventDispatcher-inner");
+                }
             }
-        }, "djar--EventDispatcher").start();
+
+            try {
+                method.invoke(listenerMethodPair.listener, event);
+            } catch (IllegalAccessException | ArrayIndexOutOfBoundsException e) {
+                // If we're unable to invoke the method, we'll just ignore it to avoid any issues.
+                e.printStackTrace();
+            } catch (InvocationTargetException e) {
+                // Method threw an exception. We'll print the stack trace and continue.
+                System.out.println(method.getDeclaringClass().getSimpleName() + "#" + method.getName() + " threw an exception while being invoked.");
+                e.getCause().printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns whether any listener is registered for exactly the given event type.
+     * <br>The Gateway uses this to skip parsing events nobody listens to.
+     */
+    public boolean hasListeners(Class<? extends Event> type) {
+        List<ListenerMethodPair> listenersForEventType = listenersByEventType.get(type);
+        return listenersForEventType != null && !listenersForEventType.isEmpty();
+    }
+
+    /**
+     * Returns the event types at least one listener is registered for.
+     */
+    public Set<Class<? extends Event>> getListenedEventTypes() {
+        Set<Class<? extends Event>> types = new HashSet<>();
+        listenersByEventType.forEach((type, listeners) -> {
+            if (!listeners.isEmpty()) types.add(type);
+        });
+        return types;
+    }
+
+    /**
+     * Returns the amount of events waiting for a listener thread.
+     */
+    public int getQueuedEvents() {
+        return listenerExecutor.getQueue().size();
+    }
+
+    /**
+     * Returns the approximate amount of listener threads currently running an event or task.
+     */
+    public int getActiveCount() {
+        return listenerExecutor.getActiveCount();
+    }
+
+    /**
+     * Returns the amount of events dropped because the queue was full.
+     * <br>This can only increase with the {@link ListenerExecutorSettings.OverflowPolicy#DROP_NEWEST DROP_NEWEST} and
+     * {@link ListenerExecutorSettings.OverflowPolicy#DROP_OLDEST DROP_OLDEST} policies.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private RejectedExecutionHandler overflowHandler(ListenerExecutorSettings.OverflowPolicy policy) {
+        return switch (policy) {
+            case BLOCK -> (r, executor) -> {
+                if (executor.isShutdown()) return;
+                try {
+                    executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DROP_NEWEST -> (r, executor) -> {
+                droppedEvents.incrementAndGet();
+                Logger.getLogger("EventDispatcher").warning("[discord.jar] Event queue is full, dropping event.");
+            };
+            case DROP_OLDEST -> (r, executor) -> {
+                if (executor.isShutdown()) return;
+                if (executor.getQueue().poll() != null) droppedEvents.incrementAndGet();
+                Logger.getLogger("EventDispatcher").warning("[discord.jar] Event queue is full, dropping oldest event.");
+                executor.execute(r);
+            };
+        };
     }
-}
\ No newline at end of file
+}
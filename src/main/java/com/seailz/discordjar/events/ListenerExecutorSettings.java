@@ -0,0 +1,49 @@
+package com.seailz.discordjar.events;
+
+/**
+ * Settings for the executor that runs event listeners.
+ * <br>Gateway frames are read, parsed and applied to the caches in order by the shard's
+ * {@link com.seailz.discordjar.gateway.GatewayPipeline GatewayPipeline}, whose fan-out stage then hands the event to this
+ * executor through a bounded queue. The overflow policy decides what happens when listeners can't keep up.
+ *
+ * @param listenerThreads The amount of threads that invoke listeners.
+ * @param queueCapacity   The maximum amount of events waiting for a listener thread.
+ * @param overflowPolicy  What to do with an event when the queue is full.
+ * @see EventDispatcher
+ */
+public record ListenerExecutorSettings(
+        int listenerThreads,
+        int queueCapacity,
+        OverflowPolicy overflowPolicy
+) {
+
+    public ListenerExecutorSettings {
+        if (listenerThreads < 1) throw new IllegalArgumentException("There must be at least one listener thread");
+        if (queueCapacity < 1) throw new IllegalArgumentException("The event queue capacity must be at least 1");
+        if (overflowPolicy == null) throw new IllegalArgumentException("An overflow policy must be provided");
+    }
+
+    public static ListenerExecutorSettings defaults() {
+        return new ListenerExecutorSettings(Math.max(2, Runtime.getRuntime().availableProcessors()), 10_000, OverflowPolicy.BLOCK);
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * The fan-out stage waits until there's space in the queue. No events are lost, but reading from the Gateway
+         * pauses once the pipeline's queues are full as well.
+         */
+        BLOCK,
+        /**
+         * The fan-out stage runs the listeners itself. No events are lost and the queue can drain while it does.
+         */
+        CALLER_RUNS,
+        /**
+         * The new event is dropped.
+         */
+        DROP_NEWEST,
+        /**
+         * The oldest queued event is dropped to make space for the new one.
+         */
+        DROP_OLDEST
+    }
+}
@@ -0,0 +1,73 @@
+package com.seailz.discordjar.events.model.general;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.events.model.Event;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fires once every guild of a shard arrived after READY, or the guild load timeout passed. Unlike {@link ReadyEvent},
+ * the caches are populated at this point.
+ * <br>This event is fired by discord.jar itself, it isn't sent by Discord.
+ *
+ * @see com.seailz.discordjar.gateway.ReadinessTracker
+ * @see com.seailz.discordjar.events.DiscordListener
+ * @since b-1.1
+ */
+public class GuildsLoadedEvent extends Event {
+    public GuildsLoadedEvent(@NotNull DiscordJar bot, long sequence, @NotNull JSONObject data) {
+        super(bot, sequence, data);
+    }
+
+    /**
+     * Returns the id of the shard that loaded its guilds, or -1 if the bot isn't sharded.
+     */
+    public int getShardId() {
+        return getJson().getJSONObject("d").getInt("shard_id");
+    }
+
+    /**
+     * Returns the amount of guilds listed in READY.
+     */
+    public int getGuildCount() {
+        return getJson().getJSONObject("d").getInt("guild_count");
+    }
+
+    /**
+     * Returns the ids of the guilds that didn't arrive before the timeout.
+     */
+    @NotNull
+    public List<String> getUnavailableGuilds() {
+        List<String> guilds = new ArrayList<>();
+        JSONArray array = getJson().getJSONObject("d").getJSONArray("unavailable_guilds");
+        for (int i = 0; i < array.length(); i++) {
+            guilds.add(array.getString(i));
+        }
+        return guilds;
+    }
+
+    /**
+     * Returns whether the guild load timeout passed before every guild arrived.
+     */
+    public boolean isTimedOut() {
+        return getJson().getJSONObject("d").getBoolean("timed_out");
+    }
+
+    /**
+     * Returns the time between sending IDENTIFY and receiving READY in ms, or -1 if it isn't known.
+     */
+    public long getReadyLatencyMs() {
+        return getJson().getJSONObject("d").getLong("ready_latency_ms");
+    }
+
+    /**
+     * Returns the time between READY and the last GUILD_CREATE in ms.
+     */
+    public long getGuildLoadTimeMs() {
+        return getJson().getJSONObject("d").getLong("guild_load_time_ms");
+    }
+}
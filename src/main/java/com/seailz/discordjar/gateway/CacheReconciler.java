@@ -0,0 +1,125 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.cache.Cache;
+import com.seailz.discordjar.model.channel.Channel;
+import com.seailz.discordjar.model.guild.Guild;
+import com.seailz.discordjar.model.guild.Member;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Reconciles the caches with a new Gateway session, instead of clearing them.
+ * <br>When a shard IDENTIFYs again, the guilds, channels and members it had cached are marked stale but kept, so lookups
+ * keep being answered from the cache instead of REST. The GUILD_CREATEs of the new session overwrite them in place, and
+ * once a guild is complete, whatever wasn't refreshed is evicted:
+ * <ul>
+ *     <li>Channels, and the members of guilds that aren't {@code large}, once the guild's GUILD_CREATE was handled.</li>
+ *     <li>Members of large guilds once they were chunked by the {@link MemberChunkingScheduler}. Without startup chunking,
+ *     a large guild's GUILD_CREATE only contains some of its members, so stale members are kept until they're updated.</li>
+ *     <li>Guilds that aren't part of the new session at all, straight away on READY.</li>
+ * </ul>
+ * Guilds that are unavailable keep their stale entries until they become available again.
+ *
+ * @see Cache#markStale(java.util.function.Predicate)
+ * @since b-1.1
+ */
+final class CacheReconciler {
+
+    private final Gateway gateway;
+    private final DiscordJar bot;
+    private final Logger logger = Logger.getLogger("Gateway");
+    // Large guilds whose stale members are evicted once they were chunked
+    private final Set<String> awaitingChunks = ConcurrentHashMap.newKeySet();
+
+    CacheReconciler(@NotNull Gateway gateway, @NotNull DiscordJar bot) {
+        this.gateway = gateway;
+        this.bot = bot;
+    }
+
+    /**
+     * Marks everything cached for the guilds of a READY payload as stale, and forgets the guilds of this shard that
+     * aren't part of it anymore.
+     */
+    void onReady(@NotNull JSONObject ready) {
+        awaitingChunks.clear();
+        Set<String> guildIds = new HashSet<>();
+        JSONArray guilds = ready.optJSONArray("guilds");
+        if (guilds != null) {
+            for (int i = 0; i < guilds.length(); i++) guildIds.add(guilds.getJSONObject(i).getString("id"));
+        }
+
+        int forgotten = 0;
+        for (Guild guild : bot.getGuildCache().getCache()) {
+            if (guildIds.contains(guild.id()) || !ownsGuild(guild.id())) continue;
+            // Left or removed while disconnected
+            forgetGuild(guild.id());
+            forgotten++;
+        }
+
+        int marked = bot.getGuildCache().markStale(guild -> guildIds.contains(guild.id()));
+        marked += bot.getChannelCache().markStale(channel -> guildIds.contains(guildIdOf(channel)));
+        for (String guildId : guildIds) {
+            Cache<Member> members = bot.getMemberGuildCaches().get(guildId);
+            if (members != null) marked += members.markStale(member -> true);
+        }
+        if (bot.isDebug() && (marked > 0 || forgotten > 0)) {
+            logger.info("[Gateway] Reconciling caches of shard " + gateway.getShardId() + ": " + marked + " entries marked stale, " + forgotten + " guilds forgotten");
+        }
+    }
+
+    /**
+     * Evicts what a GUILD_CREATE didn't refresh, once it was cached.
+     */
+    void onGuildCreate(@NotNull JSONObject guild) {
+        // Unavailable guilds keep their stale data, it's all there is until the outage is over
+        if (guild.optBoolean("unavailable")) return;
+        String guildId = guild.getString("id");
+
+        int evicted = bot.getChannelCache().evictStale(channel -> guildId.equals(guildIdOf(channel)));
+        if (!guild.optBoolean("large")) {
+            evicted += evictMembers(guildId);
+        } else if (gateway.getMemberChunking() != null && bot.getStartupChunkingFilter().test(guildId)) {
+            awaitingChunks.add(guildId);
+        }
+        if (bot.isDebug() && evicted > 0) logger.info("[Gateway] Evicted " + evicted + " stale entries of guild " + guildId);
+    }
+
+    /**
+     * Evicts the stale members of a large guild once all of its members were received.
+     */
+    void onGuildChunked(@NotNull String guildId) {
+        if (!awaitingChunks.remove(guildId)) return;
+        int evicted = evictMembers(guildId);
+        if (bot.isDebug() && evicted > 0) logger.info("[Gateway] Evicted " + evicted + " stale members of guild " + guildId);
+    }
+
+    private int evictMembers(String guildId) {
+        Cache<Member> members = bot.getMemberGuildCaches().get(guildId);
+        return members == null ? 0 : members.evictStale(member -> true);
+    }
+
+    private void forgetGuild(String guildId) {
+        bot.getGuildCache().removeById(guildId);
+        for (Channel channel : bot.getChannelCache().getCache()) {
+            if (guildId.equals(guildIdOf(channel))) bot.getChannelCache().remove(channel);
+        }
+        bot.getMemberGuildCaches().remove(guildId);
+    }
+
+    private boolean ownsGuild(String guildId) {
+        return bot.getShardManager() == null || bot.getShardManager().getShardForGuild(guildId) == gateway;
+    }
+
+    @Nullable
+    private static String guildIdOf(Channel channel) {
+        return channel.raw().optString("guild_id", null);
+    }
+}
@@ -4,9 +4,15 @@ import com.seailz.discordjar.DiscordJar;
 import com.seailz.discordjar.action.guild.members.RequestGuildMembersAction;
 import com.seailz.discordjar.events.model.Event;
 import com.seailz.discordjar.events.model.interaction.command.CommandInteractionEvent;
+import com.seailz.discordjar.gateway.etf.EtfDecoder;
+import com.seailz.discordjar.gateway.etf.EtfEncoder;
 import com.seailz.discordjar.gateway.events.DispatchedEvents;
+import com.seailz.discordjar.gateway.events.EventFactory;
 import com.seailz.discordjar.gateway.events.GatewayEvents;
 import com.seailz.discordjar.gateway.heartbeat.HeartLogic;
+import com.seailz.discordjar.gateway.heartbeat.LatencyStats;
+import com.seailz.discordjar.gateway.session.GatewaySession;
+import com.seailz.discordjar.gateway.session.GatewaySessionStore;
 import com.seailz.discordjar.model.api.version.APIVersion;
 import com.seailz.discordjar.model.application.Intent;
 import com.seailz.discordjar.model.guild.Member;
@@ -17,22 +23,32 @@ import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.voice.model.VoiceServerUpdate;
 import com.seailz.discordjar.voice.model.VoiceState;
 import com.seailz.discordjar.ws.ExponentialBackoffLogic;
+import com.seailz.discordjar.ws.FrameRecorder;
 import com.seailz.discordjar.ws.WebSocket;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.socket.CloseStatus;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
 /**
@@ -53,33 +69,97 @@ import java.util.logging.Logger;
  */
 public class Gateway {
 
+    private static final long SESSION_SAVE_INTERVAL_SECONDS = 30;
+    private static final long PIPELINE_DRAIN_TIMEOUT_SECONDS = 5;
+    private static final ScheduledExecutorService SESSION_SAVER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "djar--gateway-session-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final DiscordJar bot;
     private final Logger logger = Logger.getLogger("Gateway");
     private int shardCount;
     private int shardId;
     private GatewayTransportCompressionType compressionType;
-    private WebSocket socket;
-    private boolean resumedConnection = false;
-    private boolean reconnecting = false;
+    private final GatewayEncoding encoding;
+    private final EtfDecoder etfDecoder = new EtfDecoder();
+    private final EtfEncoder etfEncoder = new EtfEncoder();
+    private final IdentifyLimiter identifyLimiter;
+    private volatile WebSocket socket;
+    private volatile boolean resumedConnection = false;
+    private volatile boolean reconnecting = false;
     private ReconnectInfo resumeInfo;
-    public static long lastSequenceNumber = -1;
-    private boolean readyForMessages = false;
+    private volatile long lastSequenceNumber = -1;
+    private final GatewaySendQueue sendQueue;
+    private final GatewaySessionStore sessionStore;
+    private volatile boolean shuttingDown = false;
+    private ScheduledFuture<?> sessionSaveTask;
     private boolean receivedReady = false;
     private HeartLogic heartbeatManager;
-    public static Date lastHeartbeatSent = new Date();
-    public static List<Long> pingHistoryMs = new ArrayList<>();
+    private final LatencyStats latencyStats = new LatencyStats();
+    private final AtomicLong skippedDispatches = new AtomicLong();
+    private final GuildCreateDecoder guildCreateDecoder;
+    // Only touched by the thread applying messages, see GatewayPipeline
+    private long frameReceivedNanos;
+    private List<Member> streamedMembers;
+    private final Map<String, Long> guildCacheTimesMs = new ConcurrentHashMap<>();
     private final List<Consumer<VoiceState>> onVoiceStateUpdateListeners = new ArrayList<>();
+    // Guilds this shard joined a voice channel in, which keeps GUILD_VOICE_STATES with intent minimization
+    private final Set<String> voiceGuilds = ConcurrentHashMap.newKeySet();
+    private volatile EnumSet<Intent> identifiedIntents;
+    private EnumSet<Intent> lastDroppedIntents;
     private final List<Consumer<VoiceServerUpdate>> onVoiceServerUpdateListeners = new ArrayList<>();
-    public final HashMap<String, Gateway.MemberChunkStorageWrapper> memberRequestChunks = new HashMap<>();
+    private final Map<String, MemberChunkRequest> memberRequests = new ConcurrentHashMap<>();
+    private final MemberChunkingScheduler memberChunking;
+    private final CacheReconciler cacheReconciler;
+    private final ReadinessTracker readiness;
+    private final boolean offline;
+    private volatile FrameRecorder recorder;
+    private final GatewayPipeline pipeline;
     private Status status = null;
 
-    protected Gateway(DiscordJar bot, int shardCount, int shardId, GatewayTransportCompressionType compressionType) {
+    protected Gateway(DiscordJar bot, int shardCount, int shardId, GatewayTransportCompressionType compressionType, GatewayEncoding encoding,
+                      IdentifyLimiter identifyLimiter, @Nullable GatewaySessionStore sessionStore, boolean offline,
+                      @Nullable FrameRecorder recorder) {
         this.bot = bot;
         this.shardCount = shardCount;
         this.shardId = shardId;
         this.compressionType = compressionType;
+        this.encoding = encoding;
+        this.identifyLimiter = identifyLimiter;
+        this.sendQueue = new GatewaySendQueue(payload -> send(socket, payload), bot.isDebug());
+        this.sessionStore = sessionStore;
+        this.guildCreateDecoder = new GuildCreateDecoder(bot, bot.isParallelMemberDecoding());
+        this.cacheReconciler = new CacheReconciler(this, bot);
+        this.readiness = new ReadinessTracker(this, bot, bot.getGuildLoadTimeout());
+        this.memberChunking = bot.getStartupChunkingFilter() == null ? null : new MemberChunkingScheduler(this, bot, bot.getStartupChunkingFilter());
+        this.offline = offline;
+        this.recorder = recorder;
+
+        // Offline Gateways are fed recorded traffic, see GatewayReplayer
+        if (offline) {
+            this.pipeline = null;
+            return;
+        }
+        this.pipeline = new GatewayPipeline(this, bot, shardId, compressionType.newDecoder(), encoding);
+        pipeline.start();
+
+        if (sessionStore == null) {
+            connectionFlow();
+            return;
+        }
 
-        connectionFlow();
+        GatewaySession stored = loadSession();
+        sessionSaveTask = SESSION_SAVER.scheduleAtFixedRate(this::saveSession, SESSION_SAVE_INTERVAL_SECONDS, SESSION_SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        if (stored == null) {
+            connectionFlow();
+            return;
+        }
+        logger.info("[Gateway] Found a stored session for shard " + shardId + ", attempting to resume it.");
+        resumeInfo = new ReconnectInfo(stored.sessionId(), bot.getToken(), stored.resumeUrl());
+        lastSequenceNumber = stored.sequence();
+        resumeFlow();
     }
 
     /**
@@ -99,13 +179,110 @@ public class Gateway {
         gatewayUrl = appendGatewayQueryParams(gatewayUrl);
         if (bot.isDebug()) logger.info("[Gateway - Connection Flow] Gateway URL with query params: " + gatewayUrl);
 
-        socket = new WebSocket(gatewayUrl, bot.isDebug());
+        resumedConnection = false;
+
+        socket = new WebSocket(gatewayUrl, bot.isDebug(), null);
         setupDisconnectedSocket(socket);
-        connectToSocket(socket, false);
+        connectToSocket(socket);
 
         lastSequenceNumber = -1;
     }
 
+    /**
+     * Closes the connection for good, without reconnecting.
+     * <br>If a {@link GatewaySessionStore} is used, the session is saved and the connection is closed with a code that keeps
+     * the session resumable, so the next start can RESUME it.
+     */
+    public void shutdown() {
+        shutdown(true);
+    }
+
+    /**
+     * Closes the connection for good.
+     * @param keepSession Whether to save the session to the {@link GatewaySessionStore}, if one is used, and keep it resumable.
+     *                    Shards replaced by a reshard don't, as their session is of no use afterwards.
+     */
+    void shutdown(boolean keepSession) {
+        shuttingDown = true;
+        // A socket waiting to re-establish a non-resumable connection mustn't do so anymore
+        reconnecting = false;
+        // Whatever is still queued is received again when the session is resumed
+        if (pipeline != null) pipeline.stop();
+        if (heartbeatManager != null) heartbeatManager.stop();
+        if (sessionSaveTask != null) sessionSaveTask.cancel(false);
+        stopRecording();
+        // The session is invalidated below, a stored copy could only fail to resume
+        if (!keepSession && sessionStore != null) clearStoredSession();
+        if (socket == null) return;
+        if (keepSession && sessionStore != null && resumeInfo != null) {
+            saveSession();
+            // Closing with 1000 or 1001 invalidates the session
+            socket.disconnect(CloseCode.UNKNOWN_ERROR.getCode(), "Restarting");
+        } else {
+            socket.disconnect(CloseStatus.GOING_AWAY.getCode(), CloseStatus.GOING_AWAY.getReason());
+        }
+    }
+
+    /**
+     * Stops recording received frames, and closes the recording. Does nothing if this Gateway isn't recording.
+     * @see Builder#setRecording(Path, FrameRecorder.Mode)
+     */
+    public void stopRecording() {
+        FrameRecorder recorder = this.recorder;
+        if (recorder == null) return;
+        this.recorder = null;
+        if (socket != null) socket.setRecorder(null);
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            logger.warning("[Gateway] Failed to close the recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the recorder of this Gateway's traffic, or null if it isn't recording.
+     */
+    @Nullable
+    public FrameRecorder getRecorder() {
+        return recorder;
+    }
+
+    @Nullable
+    private GatewaySession loadSession() {
+        GatewaySession stored;
+        try {
+            stored = sessionStore.load(shardId, shardCount);
+        } catch (RuntimeException e) {
+            logger.warning("[Gateway] Failed to load the stored session for shard " + shardId + ": " + e.getMessage());
+            return null;
+        }
+        if (stored == null) return null;
+        if (stored.shardCount() != shardCount) {
+            logger.info("[Gateway] Stored session for shard " + shardId + " was identified with a different shard count, identifying instead.");
+            clearStoredSession();
+            return null;
+        }
+        return stored;
+    }
+
+    private void saveSession() {
+        ReconnectInfo info = resumeInfo;
+        if (info == null) return;
+        try {
+            sessionStore.save(shardId, shardCount, new GatewaySession(info.sessionId(), info.url(), lastSequenceNumber, shardCount, System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            logger.warning("[Gateway] Failed to save the session for shard " + shardId + ": " + e.getMessage());
+        }
+    }
+
+    private void clearStoredSession() {
+        try {
+            sessionStore.clear(shardId, shardCount);
+        } catch (RuntimeException e) {
+            logger.warning("[Gateway] Failed to clear the stored session for shard " + shardId + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Disconnects from the Gateway.
      * @param closeStatus The close status of the disconnect.
@@ -119,18 +296,30 @@ public class Gateway {
      * @param closeStatus The close status of the disconnect.
      */
     public void disconnectFlow(@NotNull CloseStatus closeStatus) {
+        if (shuttingDown) return;
+        if (heartbeatManager != null) heartbeatManager.stop(); // Stop attempting heartbeats to avoid broken pipe errors
+        // Messages of the closed connection that are still in the pipeline decide the sequence number to resume from
+        if (pipeline != null && !pipeline.awaitApplied(PIPELINE_DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warning("[Gateway] Received messages weren't applied within " + PIPELINE_DRAIN_TIMEOUT_SECONDS + " seconds of the disconnect, some events may be received twice.");
+        }
         setReceivedReady(false);
-        heartbeatManager.stop(); // Stop attempting heartbeats to avoid broken pipe errors
         CloseCode closeCode = CloseCode.fromCode(closeStatus.getCode());
-        readyForMessages = false;
+        sendQueue.setState(GatewaySendQueue.State.DISCONNECTED);
         boolean attemptReconnect = closeCode.shouldReconnect();
         if (!attemptReconnect) {
             logger.severe("[Gateway] Connection closed, won't attempt reconnect - " + closeCode.getLog());
             return;
         }
 
-        if (closeCode.shouldResume()) resumeFlow();
-        else reconnecting = true;
+        if (closeCode.shouldResume()) {
+            // The old socket mustn't re-establish its own connection next to the resumed one
+            reconnecting = false;
+            resumeFlow();
+        } else {
+            // The socket re-establishes the connection by itself, which needs a new session
+            resumedConnection = false;
+            reconnecting = true;
+        }
 
         if (bot.isDebug()) logger.info("[Gateway] Finished disconnect flow.");
     }
@@ -147,11 +336,11 @@ public class Gateway {
 
         String connectUrl = appendGatewayQueryParams(resumeInfo.url());
         if (bot.isDebug()) logger.info("[Gateway - Resume Flow] Resume URL: " + connectUrl);
-        socket = new WebSocket(connectUrl, bot.isDebug());
-        setupDisconnectedSocket(socket);
-        connectToSocket(socket, true);
-
+        // Set before connecting, as HELLO decides between RESUME and IDENTIFY
         resumedConnection = true;
+        socket = new WebSocket(connectUrl, bot.isDebug(), null);
+        setupDisconnectedSocket(socket);
+        connectToSocket(socket);
     }
 
     /**
@@ -159,33 +348,131 @@ public class Gateway {
      * @param message The message received from the Gateway.
      */
     protected void handleTextMessage(String message) {
+        applyMessage(parseTextMessage(message, System.nanoTime()));
+    }
+
+    /**
+     * Handles an ETF encoded message received from the Gateway.
+     * @param message The message received from the Gateway.
+     */
+    protected void handleBinaryMessage(ByteBuffer message) {
+        applyMessage(parseBinaryMessage(message, System.nanoTime()));
+    }
+
+    /**
+     * A message that was parsed, but hasn't been applied to this Gateway and the caches yet.
+     *
+     * @param payload         The payload, or null if it's a dispatch that was skipped without parsing it.
+     * @param op              The op code.
+     * @param sequence        The sequence number of a skipped dispatch.
+     * @param streamedMembers The members decoded alongside a GUILD_CREATE, see {@link #pollStreamedMembers()}.
+     * @param receivedNanos   When the frame was read from the socket.
+     */
+    record ParsedMessage(@Nullable JSONObject payload, int op, long sequence, @Nullable List<Member> streamedMembers, long receivedNanos) {}
+
+    /**
+     * Parses a JSON message, or skips it if it's a dispatch nothing observes. This doesn't change any state but the
+     * {@link #getSkippedDispatches() skipped dispatch} count, so it can run ahead of {@link #applyMessage(ParsedMessage)}.
+     */
+    @NotNull
+    ParsedMessage parseTextMessage(@NotNull String message, long receivedNanos) {
+        GatewayFrameHeader header = GatewayFrameHeader.scan(message);
+        if (header != null && header.op() == OpCodes.DISPATCH.opCode) {
+            DispatchedEvents dispatchedEvent = DispatchedEvents.getEventByName(header.type());
+            // GUILD_DELETE is always needed, guilds that go away while loading must not be waited for
+            if (dispatchedEvent != DispatchedEvents.GUILD_DELETE && dispatchedEvent.canSkip(bot)) {
+                // Nothing observes this event, only the sequence number is needed
+                skippedDispatches.incrementAndGet();
+                if (bot.isDebug()) logger.info("[Gateway] Skipped " + header.type() + " event, nothing listens to or caches it.");
+                return new ParsedMessage(null, header.op(), header.sequence(), null, receivedNanos);
+            }
+
+            if (dispatchedEvent == DispatchedEvents.GUILD_CREATE) {
+                GuildCreateDecoder.Result result = guildCreateDecoder.decode(message);
+                if (result != null) return new ParsedMessage(result.payload(), header.op(), -1, result.members(), receivedNanos);
+            }
+        }
         JSONObject payload = new JSONObject(message);
+        return new ParsedMessage(payload, payload.optInt("op", -1), -1, null, receivedNanos);
+    }
+
+    /**
+     * Parses an ETF encoded message.
+     */
+    @NotNull
+    ParsedMessage parseBinaryMessage(@NotNull ByteBuffer message, long receivedNanos) {
+        JSONObject payload = etfDecoder.decode(message.array(), message.arrayOffset() + message.position(), message.remaining());
+        return new ParsedMessage(payload, payload.optInt("op", -1), -1, null, receivedNanos);
+    }
+
+    /**
+     * Applies a parsed message: updates the session, the caches and passes the event on to listeners.
+     * <br>Messages have to be applied one at a time, in the order they were received.
+     */
+    void applyMessage(@NotNull ParsedMessage message) {
+        frameReceivedNanos = message.receivedNanos();
+        if (message.payload() == null) {
+            updateSequence(message.sequence());
+            return;
+        }
+        // Picked up by the GUILD_CREATE handler, see pollStreamedMembers()
+        streamedMembers = message.streamedMembers();
+        try {
+            handleMessage(message.payload());
+        } finally {
+            streamedMembers = null;
+        }
+    }
+
+    /**
+     * Handles HEARTBEAT_ACK and HEARTBEAT_REQUEST right away, as they don't depend on anything received before them.
+     * <br>Used by the {@link GatewayPipeline} so a backlog of dispatches can't delay heartbeating.
+     *
+     * @return false if the message isn't a heartbeat payload and has to be applied as usual.
+     */
+    boolean handleHeartbeatMessage(@NotNull ParsedMessage message) {
+        if (message.payload() == null) return false;
+        if (message.op() == GatewayEvents.HEARTBEAT_ACK.getOpCode()) {
+            acknowledgeHeartbeat();
+            return true;
+        }
+        if (message.op() == GatewayEvents.HEARTBEAT_REQUEST.getOpCode()) {
+            HeartLogic heartbeatManager = this.heartbeatManager;
+            // Not connected yet, HELLO hasn't been applied
+            if (heartbeatManager == null) return false;
+            heartbeatManager.forceHeartbeat();
+            if (bot.isDebug()) logger.info("[Gateway] Received HEARTBEAT_REQUEST event. Heartbeat has been forced.");
+            return true;
+        }
+        return false;
+    }
 
+    private void handleMessage(JSONObject payload) {
         if (bot.isDebug()) {
             logger.info("[Gateway - DEBUG] Received message: " + payload.toString());
             logger.info("[Gateway - DEBUG] Message size: " + payload.toString().getBytes(StandardCharsets.UTF_8).length + "b");
         }
 
-        try {
-            lastSequenceNumber = payload.getInt("s");
-            if (heartbeatManager != null) heartbeatManager.setLastSequence(lastSequenceNumber);
-        } catch (JSONException ignored) {
-        }
+        Object sequence = payload.opt("s");
+        if (sequence instanceof Number) updateSequence(((Number) sequence).longValue());
 
         GatewayEvents event = GatewayEvents.getEvent(payload.getInt("op"));
         if (event == null) {
             logger.warning("[discord.jar] Unknown event received: " + payload.getInt("op") + ". This is rare, please create an issue on GitHub with this log message. Payload: " + payload.toString());
             return;
         }
+        // There's no connection to say hello to or heartbeat on
+        if (offline && event != GatewayEvents.DISPATCHED) return;
 
         switch (event) {
             case HELLO:
                 handleHello(payload);
-                if (!resumedConnection) sendIdentify();
-                readyForMessages = true;
+                sendQueue.setState(GatewaySendQueue.State.CONNECTED);
+                if (resumedConnection) sendResume();
+                else sendIdentify();
 
                 if (bot.isDebug()) {
-                    logger.info("[Gateway] Received HELLO event. Heartbeat cycle has been started. If this isn't a resume, IDENTIFY has been sent.");
+                    logger.info("[Gateway] Received HELLO event. Heartbeat cycle has been started. " + (resumedConnection ? "RESUME" : "IDENTIFY") + " has been queued.");
                 }
                 break;
             case HEARTBEAT_REQUEST:
@@ -206,22 +493,34 @@ public class Gateway {
                 break;
             case INVALID_SESSION:
                 logger.info("[Gateway] Gateway requested a reconnect (invalid session), reconnecting...");
+                if (sessionStore != null) clearStoredSession();
                 disconnect(CloseStatus.SESSION_NOT_RELIABLE);
                 break;
             case HEARTBEAT_ACK:
-                // Heartbeat was acknowledged, can ignore, but we'll log the request ping anyway.
-                if (lastHeartbeatSent != null) {
-                    long ping = System.currentTimeMillis() - lastHeartbeatSent.getTime();
-                    if (bot.isDebug()) {
-                        logger.info("[Gateway] Received HEARTBEAT_ACK event. Ping: " + ping + "ms");
-                    }
-
-                    pingHistoryMs.add(ping);
-                }
+                acknowledgeHeartbeat();
                 break;
         }
     }
 
+    private void acknowledgeHeartbeat() {
+        // Heartbeat was acknowledged, we'll log the request ping.
+        HeartLogic heartbeatManager = this.heartbeatManager;
+        long ping = heartbeatManager == null ? -1 : heartbeatManager.acknowledge();
+        if (ping != -1) {
+            if (bot.isDebug()) {
+                logger.info("[Gateway] Received HEARTBEAT_ACK event. Ping: " + ping + "ms");
+            }
+
+            latencyStats.record(ping);
+        }
+    }
+
+    private void updateSequence(long sequence) {
+        if (sequence == -1) return;
+        lastSequenceNumber = sequence;
+        if (heartbeatManager != null) heartbeatManager.setLastSequence(sequence);
+    }
+
     /**
      * Handles a DISPATCHED event.
      * @param payload The payload of the event.
@@ -229,55 +528,107 @@ public class Gateway {
     private void handleDispatch(@NotNull JSONObject payload) {
         // Handle dispatched events
         // actually dispatch the event
-        Class<? extends Event> eventClass = DispatchedEvents.getEventByName(payload.getString("t")).getEvent().apply(payload, this, bot);
+        DispatchedEvents dispatchedEvent = DispatchedEvents.getEventByName(payload.getString("t"));
+        // While resharding, the old and new shards receive the same events, only one of them may pass them on.
+        // Shards that were shut down don't pass on what they receive while closing.
+        ShardManager shardManager = bot.getShardManager();
+        boolean dispatch = !shuttingDown && (shardManager == null || shardManager.shouldDispatch(this, dispatchedEvent, payload));
+        // Interactions are answered while they're handled, not by listeners
+        if (!dispatch && dispatchedEvent == DispatchedEvents.INTERACTION_CREATE) return;
+        Class<? extends Event> eventClass = dispatchedEvent.getEvent().apply(payload, this, bot);
+        if (dispatchedEvent == DispatchedEvents.GUILD_CREATE) {
+            cacheReconciler.onGuildCreate(payload.getJSONObject("d"));
+            if (!payload.getJSONObject("d").optBoolean("unavailable")) readiness.onGuildCreate(payload.getJSONObject("d").getString("id"));
+        }
+        if (dispatchedEvent == DispatchedEvents.GUILD_DELETE) readiness.onGuildDelete(payload.getJSONObject("d"));
+        if (memberChunking != null) {
+            switch (dispatchedEvent) {
+                case GUILD_CREATE -> memberChunking.onGuildCreate(payload.getJSONObject("d"));
+                case GUILD_DELETE -> memberChunking.onGuildDelete(payload.getJSONObject("d").getString("id"));
+                default -> {}
+            }
+        }
         if (eventClass == null) {
             if (bot.isDebug()) logger.info("[discord.jar] Unhandled event: " + payload.getString("t") + "\nThis is usually ok, if a new feature has recently been added to Discord as discord.jar may not support it yet.\nIf that is not the case, please report this to the discord.jar developers.");
             return;
         }
+        if (dispatch) dispatchToListeners(eventClass, payload);
+
+        if (dispatchedEvent == DispatchedEvents.RESUMED) {
+            setReceivedReady(true);
+            // Everything buffered while disconnected can go out now
+            sendQueue.setState(GatewaySendQueue.State.READY);
+        }
+
+        if (dispatchedEvent == DispatchedEvents.READY) {
+            cacheReconciler.onReady(payload.getJSONObject("d"));
+
+            resumeInfo = new ReconnectInfo(
+                    payload.getJSONObject("d").getString("session_id"),
+                    bot.getToken(),
+                    payload.getJSONObject("d").getString("resume_gateway_url")
+            );
+
+            if (bot.getStatus() != null) {
+                JSONObject json = new JSONObject();
+                json.put("d", bot.getStatus().compile());
+                json.put("op", OpCodes.PRESENCE_UPDATE.opCode);
+                queueMessage(json);
+            }
+            sendQueue.setState(GatewaySendQueue.State.READY);
+            if (memberChunking != null) memberChunking.onReady(payload.getJSONObject("d"));
+            readiness.onReady(payload.getJSONObject("d"), memberChunking);
+        }
+    }
+
+    /**
+     * Builds the event of a dispatch and invokes its listeners on the listener executor.
+     */
+    private void dispatchToListeners(@NotNull Class<? extends Event> eventClass, @NotNull JSONObject payload) {
         if (bot.isDebug()) {
             logger.info("[Gateway] Event class: " + eventClass.getName());
         }
         if (eventClass.equals(CommandInteractionEvent.class)) return;
 
-        new Thread(() -> {
+        // Cache updates have already been applied in order by the apply stage, building the event and invoking
+        // listeners happens on the listener executor.
+        long sequence = lastSequenceNumber;
+        EventFactory factory;
+        try {
+            factory = EventFactory.forClass(eventClass);
+        } catch (IllegalArgumentException e) {
+            logger.warning("[Gateway] Failed to dispatch " + eventClass.getName() + " event. This is usually a bug, please report it on discord.jar's GitHub with this log message.");
+            e.printStackTrace();
+            return;
+        }
+        Runnable task = () -> {
             Event event;
             try {
-                event = eventClass.getConstructor(DiscordJar.class, long.class, JSONObject.class)
-                        .newInstance(bot, lastSequenceNumber, payload);
-            } catch (InstantiationException | IllegalAccessException | NoSuchMethodException e) {
-                logger.warning("[Gateway] Failed to dispatch " + eventClass.getName() + " event. This is usually a bug, please report it on discord.jar's GitHub with this log message.");
-                e.printStackTrace();
-                return;
-            } catch (InvocationTargetException e) {
+                event = factory.create(bot, sequence, payload);
+            } catch (RuntimeException e) {
                 logger.warning("[Gateway] Failed to dispatch " + eventClass.getName() + " event. This is usually a bug, please report it on discord.jar's GitHub with this log message.");
                 // If it's a runtime exception, we want to catch it and print the stack trace.
-                e.getCause().printStackTrace();
+                e.printStackTrace();
                 return;
             }
 
-            bot.getEventDispatcher().dispatchEvent(event, eventClass, bot);
+            bot.getEventDispatcher().invokeListeners(event, eventClass);
 
             if (bot.isDebug()) {
                 logger.info("[Gateway] Event dispatched: " + eventClass.getName());
             }
-        }, "djar--event-dispatch-gw").start();
-
-        if (Objects.requireNonNull(DispatchedEvents.getEventByName(payload.getString("t"))) == DispatchedEvents.READY) {
-
-            resumeInfo = new ReconnectInfo(
-                    payload.getJSONObject("d").getString("session_id"),
-                    bot.getToken(),
-                    payload.getJSONObject("d").getString("resume_gateway_url")
-            );
-            readyForMessages = true;
+        };
+        deliverToListeners(task);
+    }
 
-            if (bot.getStatus() != null) {
-                JSONObject json = new JSONObject();
-                json.put("d", bot.getStatus().compile());
-                json.put("op", OpCodes.PRESENCE_UPDATE.opCode);
-                queueMessage(json);
-            }
-        }
+    /**
+     * Runs work of the dispatch being handled, such as invoking listeners or commands, on the listener executor.
+     * <br>On the apply stage it's handed to the pipeline's fan-out stage, which waits for the listener executor, so the
+     * executor's overflow policy doesn't hold up the apply stage. Anywhere else it goes to the executor directly.
+     */
+    public void deliverToListeners(@NotNull Runnable task) {
+        if (pipeline != null && pipeline.isApplyThread()) pipeline.deliver(task, frameReceivedNanos);
+        else bot.getEventDispatcher().execute(task);
     }
 
     /**
@@ -285,29 +636,60 @@ public class Gateway {
      * @param payload The HELLO payload.
      */
     private void handleHello(@NotNull JSONObject payload) {
-        if (heartbeatManager != null) {
-            heartbeatManager.setSocket(socket);
-            heartbeatManager.startCycle();
-            return;
+        if (heartbeatManager == null) {
+            heartbeatManager = new HeartLogic(socket);
+            heartbeatManager.setSender(sendQueue::enqueue);
+            heartbeatManager.setOnZombie(this::handleZombieConnection);
         }
-        heartbeatManager = new HeartLogic(socket, payload.getJSONObject("d").getInt("heartbeat_interval"));
+        heartbeatManager.setSocket(socket);
+        heartbeatManager.setInterval(payload.getJSONObject("d").getInt("heartbeat_interval"));
         heartbeatManager.start();
     }
 
     /**
-     * Sends an IDENTIFY payload to the gateway.
+     * Called when a heartbeat wasn't acknowledged before the next one was due, which means the connection is dead even
+     * though it hasn't been closed. The connection is dropped with a non-1000 code so the session can be resumed.
+     */
+    private void handleZombieConnection() {
+        logger.warning("[Gateway] Heartbeat wasn't acknowledged, the connection is a zombie. Reconnecting and resuming...");
+        socket.abort(CloseCode.UNKNOWN_ERROR.getCode(), "Heartbeat ACK not received");
+    }
+
+    /**
+     * Sends an IDENTIFY payload to the gateway once the {@link IdentifyLimiter} hands out a slot for this shard.
      */
     private void sendIdentify() {
-        AtomicInteger intents = new AtomicInteger();
-        if (bot.getIntents().contains(Intent.ALL)) {
-            intents.set(3243773);
-            bot.getIntents().forEach(intent -> {
-                if (intent.isPrivileged()) {
-                    intents.getAndAdd(intent.getLeftShiftId());
-                }
-            });
+        WebSocket identifyingSocket = socket;
+        identifyLimiter.acquire(shardId).thenRun(() -> {
+            // The connection may have been replaced while waiting for a slot
+            if (socket != identifyingSocket) return;
+            if (bot.isDebug()) logger.info("[Gateway] Sending IDENTIFY for shard " + shardId);
+            readiness.onIdentifySent();
+            identify();
+        });
+    }
+
+    private void identify() {
+        int intents;
+        if (bot.isIntentMinimization()) {
+            EnumSet<Intent> minimized = IntentMinimizer.minimize(bot, !voiceGuilds.isEmpty());
+            logDroppedIntents(minimized);
+            identifiedIntents = minimized;
+            intents = IntentMinimizer.toBitField(minimized);
         } else {
-            bot.getIntents().forEach(intent -> intents.getAndAdd(intent.getLeftShiftId()));
+            AtomicInteger allIntents = new AtomicInteger();
+            if (bot.getIntents().contains(Intent.ALL)) {
+                allIntents.set(3243773);
+                bot.getIntents().forEach(intent -> {
+                    if (intent.isPrivileged()) {
+                        allIntents.getAndAdd(intent.getLeftShiftId());
+                    }
+                });
+            } else {
+                bot.getIntents().forEach(intent -> allIntents.getAndAdd(intent.getLeftShiftId()));
+            }
+            identifiedIntents = IntentMinimizer.expand(bot.getIntents());
+            intents = allIntents.get();
         }
 
         JSONObject payload = new JSONObject();
@@ -319,16 +701,52 @@ public class Gateway {
         }
         String os = System.getProperty("os.name").toLowerCase();
         data.put("properties", new JSONObject().put("os", os).put("browser", "discord.jar").put("device", "discord.jar"));
-        data.put("intents", intents.get());
+        data.put("intents", intents);
         payload.put("d", data);
-        socket.send(payload.toString());
+        sendQueue.enqueue(payload);
+    }
+
+    /**
+     * Logs the configured intents that intent minimization dropped, whenever they change.
+     */
+    private void logDroppedIntents(EnumSet<Intent> minimized) {
+        EnumSet<Intent> dropped = IntentMinimizer.expand(bot.getIntents());
+        dropped.removeAll(minimized);
+        if (dropped.equals(lastDroppedIntents)) return;
+        lastDroppedIntents = dropped;
+        if (dropped.isEmpty()) logger.info("[Gateway] Intent minimization kept every configured intent for shard " + shardId);
+        else logger.info("[Gateway] Intent minimization dropped " + dropped + " for shard " + shardId + ", as nothing consumes them. Identifying with " + minimized);
+    }
+
+    /**
+     * Returns the intents sent in the last IDENTIFY, or null if this Gateway didn't identify yet.
+     * <br>With intent minimization enabled, these may be fewer than {@link DiscordJar#getIntents()}.
+     */
+    @Nullable
+    public EnumSet<Intent> getIdentifiedIntents() {
+        EnumSet<Intent> intents = identifiedIntents;
+        return intents == null ? null : EnumSet.copyOf(intents);
+    }
+
+    /**
+     * Queues a RESUME payload for the current session.
+     */
+    private void sendResume() {
+        JSONObject resumeObject = new JSONObject();
+        resumeObject.put("op", OpCodes.RESUME.opCode);
+        resumeObject.put("d", new JSONObject()
+                .put("token", bot.getToken())
+                .put("session_id", resumeInfo.sessionId())
+                .put("seq", lastSequenceNumber)
+        );
+        sendQueue.enqueue(resumeObject);
     }
 
     /**
      * Given a {@link WebSocket} instance, connects to the gateway using it and returns the same {@link WebSocket} instance.
      */
-    @Contract("_, _ -> param1")
-    private @NotNull WebSocket connectToSocket(@NotNull WebSocket socket, boolean resuming) {
+    @Contract("_ -> param1")
+    private @NotNull WebSocket connectToSocket(@NotNull WebSocket socket) {
         socket.connect()
                 .onFailed((e) -> {
                     logger.warning("[Gateway - Connection Flow] Failed to connect to gateway, retrying...");
@@ -336,18 +754,6 @@ public class Gateway {
                 })
                 .onSuccess((v) -> {
                     logger.info("[Gateway] Connection established successfully. ⚡");
-
-                    if (resuming) {
-                        JSONObject resumeObject = new JSONObject();
-                        resumeObject.put("op", OpCodes.RESUME.opCode);
-                        resumeObject.put("d", new JSONObject()
-                                .put("token", bot.getToken())
-                                .put("session_id", resumeInfo.sessionId())
-                                .put("seq", lastSequenceNumber)
-                        );
-
-                        queueMessage(resumeObject);
-                    }
                 });
         return socket;
     }
@@ -358,25 +764,20 @@ public class Gateway {
     @Contract("_ -> param1")
     private @NotNull WebSocket setupDisconnectedSocket(@NotNull WebSocket socket) {
         ExponentialBackoffLogic backoffReconnectLogic = new ExponentialBackoffLogic();
-        socket.setReEstablishConnection(backoffReconnectLogic.getFunction());
-        backoffReconnectLogic.setAttemptReconnect((c) -> {
-            new Thread(bot::clearMemberCaches, "djar--clearing-member-caches").start();
-            return reconnecting;
-        });
+        Function<CloseStatus, Boolean> backoff = backoffReconnectLogic.getFunction();
+        // Checked again after the backoff, the Gateway may have been shut down in the meantime
+        socket.setReEstablishConnection((c) -> backoff.apply(c) && !shuttingDown);
+        socket.setRecorder(recorder);
+        // Caches are kept while reconnecting, and reconciled with the new session's data if it has to IDENTIFY, see CacheReconciler
+        backoffReconnectLogic.setAttemptReconnect((c) -> reconnecting && !shuttingDown);
 
         socket.addOnDisconnectConsumer((cs) -> {
             if (bot.isDebug()) logger.info("[Gateway] Disconnected from gateway. Reason: " + cs.getCode() + ":" + cs.getReason());
             disconnectFlow(cs);
         });
 
-        socket.addMessageConsumer((m) -> {
-            try {
-                this.handleTextMessage(m);
-            } catch (Exception e) {
-                logger.warning("[Gateway] Failed to handle text message. This is usually a bug, please report it on discord.jar's GitHub with this log message.");
-                e.printStackTrace();
-            }
-        });
+        // Frames are handled by the pipeline's stages, off OkHttp's reader thread
+        socket.setFrameSink(pipeline);
         return socket;
     }
 
@@ -384,50 +785,90 @@ public class Gateway {
      * Appends the relevant query parameters for the given URL.
      */
     private String appendGatewayQueryParams(String url) {
-        url = url + "?v=" + bot.getApiVersion().getCode() + "&encoding=json";
+        url = url + "?v=" + bot.getApiVersion().getCode() + "&encoding=" + encoding.getValue();
         if (compressionType != GatewayTransportCompressionType.NONE) url = url + "&compress=" + compressionType.getValue();
         return url;
     }
 
+    /**
+     * Sends a payload over the given socket using this Gateway's encoding.
+     * @return false if the socket isn't connected and the payload couldn't be sent.
+     */
+    private boolean send(@Nullable WebSocket socket, @NotNull JSONObject payload) {
+        if (socket == null || socket.getWs() == null) return false;
+        boolean sent;
+        if (encoding == GatewayEncoding.ETF) {
+            byte[] encoded;
+            // The encoder reuses its buffer, and payloads are sent from multiple threads
+            synchronized (etfEncoder) {
+                encoded = etfEncoder.encode(payload);
+            }
+            sent = socket.send(encoded);
+        } else {
+            sent = socket.send(payload.toString());
+        }
+        if (sent && bot.isDebug()) logger.info("[Gateway] Sent message: " + payload);
+        return sent;
+    }
+
     /**
      * Queues a message to be sent to the gateway.
-     * <br>Messages will be sent after the HELLO event is received.
+     * <br>Heartbeats, IDENTIFY and RESUME are sent once HELLO is received, everything else once the session is READY or
+     * RESUMED. Messages queued while disconnected are kept and sent after reconnecting. See {@link GatewaySendQueue}.
      * @param payload {@link JSONObject} containing the payload to send
      */
     public void queueMessage(@NotNull JSONObject payload) {
         if (bot.isDebug()) logger.info("[Gateway] Queued message: " + payload);
-        while (readyForMessages) {
-            socket.send(payload.toString());
-            if (bot.isDebug()) {
-                logger.info("[Gateway] Sent message: " + payload);
-            }
-            break;
-        }
+        sendQueue.enqueue(payload);
     }
 
     /**
-     * Queues a message to be sent to the gateway.
-     * <br>Messages will be sent after the READY event is received.
+     * Queues a message to be sent to the gateway once the session is READY.
+     * <br>This is the same as {@link #queueMessage(JSONObject)}, which already holds non-critical messages until READY.
      * @param payload {@link JSONObject} containing the payload to send
      */
     public void queueMessageUntilReady(@NotNull JSONObject payload) {
-        if (bot.isDebug()) logger.info("[Gateway] Queued message: " + payload);
-        while (receivedReady) {
-            socket.send(payload.toString());
-            if (bot.isDebug()) {
-                logger.info("[Gateway] Sent message: " + payload);
-            }
-            break;
-        }
+        queueMessage(payload);
+    }
+
+    /**
+     * Returns the outbound queue of this shard.
+     */
+    public GatewaySendQueue getSendQueue() {
+        return sendQueue;
     }
 
     /**
      * Sends a request to the gateway to request guild members.
      * @param action {@link RequestGuildMembersAction} containing extra information about the request
-     * @param future {@link CompletableFuture} that will be completed when the request is completed
+     * @param future {@link CompletableFuture} that will be completed with every member when the request is completed,
+     *               or exceptionally if a chunk doesn't arrive within the action's timeout
      */
     public void requestGuildMembers(@NotNull RequestGuildMembersAction action, @NotNull CompletableFuture<List<Member>> future) {
-        if (action.getQuery() == null & action.getUserIds() == null) {
+        requestGuildMemberChunks(action, null).getResult().whenComplete((members, error) -> {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(members);
+        });
+    }
+
+    /**
+     * Sends a request to the gateway to request guild members, publishing every GUILD_MEMBERS_CHUNK as it arrives.
+     * @param action {@link RequestGuildMembersAction} containing extra information about the request
+     * @param subscriber Subscribed to the request before it's sent, so no chunk is missed. If one is given, members aren't
+     *                   additionally collected for {@link MemberChunkRequest#getResult()}.
+     * @return The pending request
+     */
+    @NotNull
+    public MemberChunkRequest requestGuildMemberChunks(@NotNull RequestGuildMembersAction action, @Nullable Flow.Subscriber<? super List<Member>> subscriber) {
+        return startMemberRequest(action, subscriber, subscriber == null);
+    }
+
+    /**
+     * @param collect Whether the members are kept for {@link MemberChunkRequest#getResult()}.
+     */
+    @NotNull
+    MemberChunkRequest startMemberRequest(@NotNull RequestGuildMembersAction action, @Nullable Flow.Subscriber<? super List<Member>> subscriber, boolean collect) {
+        if (action.getQuery() == null && (action.getUserIds() == null || action.getUserIds().isEmpty())) {
             throw new IllegalArgumentException("You must provide either a query or a list of user ids");
         }
 
@@ -435,29 +876,81 @@ public class Gateway {
             logger.info("[Gateway] Requesting guild members...");
         }
 
+        String nonce;
+        MemberChunkRequest request;
+        do {
+            // Nonces can be up to 32 bytes long
+            nonce = UUID.randomUUID().toString().replace("-", "");
+            request = new MemberChunkRequest(nonce, action.getGuildId(), action.getTimeout(), collect, action.isCacheMembers());
+        } while (memberRequests.putIfAbsent(nonce, request) != null);
+        String registeredNonce = nonce;
+        request.onDone(() -> memberRequests.remove(registeredNonce));
+        if (subscriber != null) request.subscribe(subscriber);
+
         JSONObject payload = new JSONObject();
         JSONObject dPayload = new JSONObject();
         dPayload.put("guild_id", action.getGuildId());
-        if (action.getQuery() != null) {
-            dPayload.put("query", action.getQuery());
-        }
-
         if (action.getUserIds() != null && !action.getUserIds().isEmpty()) {
+            // Discord only accepts one of query and user_ids
             dPayload.put("user_ids", action.getUserIds());
+        } else {
+            dPayload.put("query", action.getQuery());
         }
 
         dPayload.put("limit", action.getLimit());
         if (action.isPresences()) dPayload.put("presences", true);
-        dPayload.put("nonce", action.getNonce());
+        dPayload.put("nonce", nonce);
         payload.put("op", OpCodes.REQUEST_GUILD_MEMBERS.opCode);
         payload.put("d", dPayload);
 
+        request.start();
         queueMessage(payload);
+        return request;
+    }
 
-        memberRequestChunks.put(action.getNonce(), new Gateway.MemberChunkStorageWrapper(new ArrayList<>(), future));
+    /**
+     * Called by the {@link MemberChunkingScheduler} once every member of a guild was received.
+     */
+    void onGuildChunked(@NotNull String guildId) {
+        cacheReconciler.onGuildChunked(guildId);
+    }
+
+    /**
+     * Returns the tracker that knows when this shard's guilds are loaded, and how long starting up took.
+     */
+    @NotNull
+    public ReadinessTracker getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Returns the startup member chunking scheduler of this shard, or null if startup chunking is disabled.
+     * @see com.seailz.discordjar.DiscordJarBuilder#setStartupMemberChunking(java.util.function.Predicate)
+     */
+    @Nullable
+    public MemberChunkingScheduler getMemberChunking() {
+        return memberChunking;
+    }
+
+    /**
+     * Returns the pending member request with the given nonce, or null if there's none.
+     */
+    @Nullable
+    public MemberChunkRequest getMemberRequest(@NotNull String nonce) {
+        return memberRequests.get(nonce);
     }
 
     public void sendVoicePayload(String guildId, String channelId, boolean selfMute, boolean selfDeaf) {
+        if (channelId == null) {
+            voiceGuilds.remove(guildId);
+        } else {
+            voiceGuilds.add(guildId);
+            EnumSet<Intent> identified = identifiedIntents;
+            if (identified != null && !identified.contains(Intent.GUILD_VOICE_STATES)) {
+                logger.warning("[Gateway] Joining a voice channel needs the GUILD_VOICE_STATES intent, which intent minimization dropped for shard "
+                        + shardId + ". It's kept from the next IDENTIFY on, keep it from the start with DiscordJarBuilder#setIntentMinimization(true, Intent.GUILD_VOICE_STATES).");
+            }
+        }
         JSONObject payload = new JSONObject();
         JSONObject dPayload = new JSONObject();
         dPayload.put("guild_id", guildId);
@@ -500,6 +993,7 @@ public class Gateway {
      * @throws InterruptedException If there is a failure to sleep after a failed request.
      */
     private String getGatewayUrl() throws InterruptedException {
+        if (bot.getGatewayUrlOverride() != null) return bot.getGatewayUrlOverride();
         String gatewayUrl;
         try {
             DiscordResponse response = null;
@@ -540,19 +1034,93 @@ public class Gateway {
      * Returns when the last heartbeat was sent, or null if none were sent yet.
      */
     @Nullable
-    public static Date getLastHeartbeatSent() {
-        return lastHeartbeatSent;
+    public Date getLastHeartbeatSent() {
+        return heartbeatManager == null ? null : heartbeatManager.getLastHeartbeatSent();
+    }
+
+    /**
+     * Returns the most recent estimated ping times in milliseconds based on heartbeat ACKs, oldest first.
+     * <br>Only the last {@link LatencyStats#DEFAULT_CAPACITY} pings are kept.
+     */
+    @NotNull
+    public List<Long> getPingHistoryMs() {
+        return latencyStats.getSamples();
+    }
+
+    /**
+     * Returns the heartbeat latency statistics of this shard, including p50 and p99.
+     */
+    @NotNull
+    public LatencyStats getLatencyStats() {
+        return latencyStats;
+    }
+
+    /**
+     * Returns the pipeline received messages pass through, with the queue depth and latency of each stage.
+     * <br>Returns null for offline Gateways, which handle messages on the thread feeding them.
+     */
+    @Nullable
+    public GatewayPipeline getPipeline() {
+        return pipeline;
     }
 
     /**
-     * Returns an array of estimated ping times in milliseconds based on heartbeat ACKs.
+     * Returns the members of the GUILD_CREATE currently being handled if they were streamed out of its payload, or null
+     * if they're still in the payload's {@code members} array.
+     * <br>This is used internally by the GUILD_CREATE handler and shouldn't be called elsewhere.
+     */
+    @Nullable
+    public List<Member> pollStreamedMembers() {
+        List<Member> members = streamedMembers;
+        streamedMembers = null;
+        return members;
+    }
+
+    /**
+     * Records that a guild from GUILD_CREATE has been fully cached, measured from when its frame was received.
+     * <br>This is used internally by the GUILD_CREATE handler and shouldn't be called elsewhere.
+     */
+    public void recordGuildCached(@NotNull String guildId, int memberCount) {
+        long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - frameReceivedNanos);
+        guildCacheTimesMs.put(guildId, took);
+        if (bot.isDebug()) logger.info("[Gateway] Cached guild " + guildId + " with " + memberCount + " members in " + took + "ms");
+    }
+
+    /**
+     * Returns how long it took to cache each guild received in GUILD_CREATE on this shard, from receiving the frame to
+     * having its guild, channels and members cached, in milliseconds. Only the latest GUILD_CREATE of each guild is kept.
      */
     @NotNull
-    public static List<Long> getPingHistoryMs() {
-        return pingHistoryMs;
+    public Map<String, Long> getGuildCacheTimesMs() {
+        return Collections.unmodifiableMap(guildCacheTimesMs);
+    }
+
+    /**
+     * Returns the amount of dispatches dropped without being parsed because nothing listens to them or caches them.
+     */
+    public long getSkippedDispatches() {
+        return skippedDispatches.get();
+    }
+
+    /**
+     * Returns the last sequence number received on this shard, or -1 if none was received yet.
+     */
+    public long getLastSequenceNumber() {
+        return lastSequenceNumber;
+    }
+
+    /**
+     * Returns this shard's id, or -1 if the bot isn't sharded.
+     */
+    public int getShardId() {
+        return shardId;
     }
 
-    private enum OpCodes {
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    enum OpCodes {
         DISPATCH(0),
         HEARTBEAT(1),
         IDENTIFY(2),
@@ -641,15 +1209,6 @@ public class Gateway {
         }
     }
     public record ReconnectInfo(String sessionId, String token, String url) {}
-    public record MemberChunkStorageWrapper(List<Member> members, CompletableFuture<List<Member>> future) {
-        public void addMember(Member member) {
-            members.add(member);
-        }
-
-        public void complete() {
-            future.complete(members);
-        }
-    }
 
     @Contract(value = "_ -> new", pure = true)
     public static @NotNull Builder builder(DiscordJar bot) {
@@ -661,12 +1220,31 @@ public class Gateway {
         Gateway.Builder setShardCount(int shardCount);
         Gateway.Builder setShardId(int shardId);
         Gateway.Builder setTransportCompressionType(GatewayTransportCompressionType compressionType);
+        Gateway.Builder setIdentifyLimiter(IdentifyLimiter identifyLimiter);
+        Gateway.Builder setEncoding(GatewayEncoding encoding);
+        Gateway.Builder setSessionStore(GatewaySessionStore sessionStore);
+
+        /**
+         * Builds a Gateway that doesn't connect, used to replay recorded traffic. See {@link GatewayReplayer}.
+         */
+        Gateway.Builder setOffline(boolean offline);
+
+        /**
+         * Records every frame received to the given file. See {@link FrameRecorder}.
+         */
+        Gateway.Builder setRecording(Path recordingFile, FrameRecorder.Mode recordingMode);
     }
     private static class GatewayBuilder implements Builder {
         private final DiscordJar bot;
         private int shardCount = 1;
         private int shardId = -1;
         private GatewayTransportCompressionType compressionType = GatewayTransportCompressionType.ZLIB_STREAM;
+        private GatewayEncoding encoding = GatewayEncoding.JSON;
+        private IdentifyLimiter identifyLimiter;
+        private GatewaySessionStore sessionStore;
+        private boolean offline = false;
+        private Path recordingFile;
+        private FrameRecorder.Mode recordingMode = FrameRecorder.Mode.RAW;
 
         public GatewayBuilder(DiscordJar bot) {
             this.bot = bot;
@@ -674,7 +1252,29 @@ public class Gateway {
 
         @Override
         public Gateway build() {
-            return new Gateway(bot, shardCount, shardId, compressionType);
+            FrameRecorder recorder = null;
+            if (recordingFile != null) {
+                try {
+                    recorder = new FrameRecorder(recordingFile, recordingMode, compressionType.name(), encoding.name());
+                } catch (IOException e) {
+                    Logger.getLogger("Gateway").warning("[Gateway] Failed to open the recording " + recordingFile + ", traffic won't be recorded: " + e.getMessage());
+                }
+            }
+            return new Gateway(bot, shardCount, shardId, compressionType, encoding, identifyLimiter == null ? new IdentifyLimiter(1) : identifyLimiter,
+                    sessionStore, offline, recorder);
+        }
+
+        @Override
+        public Gateway.Builder setOffline(boolean offline) {
+            this.offline = offline;
+            return this;
+        }
+
+        @Override
+        public Gateway.Builder setRecording(Path recordingFile, FrameRecorder.Mode recordingMode) {
+            this.recordingFile = recordingFile;
+            this.recordingMode = recordingMode;
+            return this;
         }
 
         @Override
@@ -694,6 +1294,24 @@ public class Gateway {
             this.compressionType = compressionType;
             return this;
         }
+
+        @Override
+        public Gateway.Builder setIdentifyLimiter(IdentifyLimiter identifyLimiter) {
+            this.identifyLimiter = identifyLimiter;
+            return this;
+        }
+
+        @Override
+        public Gateway.Builder setEncoding(GatewayEncoding encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        @Override
+        public Gateway.Builder setSessionStore(GatewaySessionStore sessionStore) {
+            this.sessionStore = sessionStore;
+            return this;
+        }
     }
 
 
@@ -0,0 +1,24 @@
+package com.seailz.discordjar.gateway;
+
+/**
+ * <a href="https://discord.com/developers/docs/topics/gateway#encoding-and-compression">Encodings</a> supported by the Gateway.
+ * <br>ETF payloads are smaller and cheaper to decode than JSON, which mostly matters for shards receiving a lot of events.
+ *
+ * @see com.seailz.discordjar.gateway.etf.EtfDecoder
+ * @since b-1.1
+ */
+public enum GatewayEncoding {
+
+    JSON("json"),
+    ETF("etf");
+
+    private final String value;
+
+    GatewayEncoding(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,57 @@
+package com.seailz.discordjar.gateway;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code op}, {@code s} and {@code t} fields of a JSON Gateway payload, read without parsing the rest of it.
+ * <br>This lets the {@link Gateway} decide whether a dispatch is worth parsing at all - the {@code d} object is skipped
+ * over without allocating anything.
+ *
+ * @param op       The op code, or -1 if it's missing.
+ * @param sequence The sequence number, or -1 if it's null or missing.
+ * @param type     The event name, or null if it's null or missing.
+ * @since b-1.1
+ */
+public record GatewayFrameHeader(int op, long sequence, @Nullable String type) {
+
+    /**
+     * Scans the top level of a JSON payload for its header fields.
+     * <br>Scanning stops as soon as all three fields were found, so it's cheapest when they come before {@code d}, as Discord sends them.
+     *
+     * @return The header, or null if the payload isn't a JSON object this scanner understands. It should be parsed normally then.
+     */
+    @Nullable
+    public static GatewayFrameHeader scan(@NotNull String json) {
+        int op = -1;
+        long sequence = -1;
+        String type = null;
+        boolean hasOp = false, hasSequence = false, hasType = false;
+
+        try {
+            JsonScanner scanner = new JsonScanner(json);
+            scanner.enterObject();
+            String key;
+            while (!(hasOp && hasSequence && hasType) && (key = scanner.nextKey()) != null) {
+                switch (key) {
+                    case "op" -> {
+                        op = (int) scanner.readLong();
+                        hasOp = true;
+                    }
+                    case "s" -> {
+                        sequence = scanner.readLong();
+                        hasSequence = true;
+                    }
+                    case "t" -> {
+                        type = scanner.readString();
+                        hasType = true;
+                    }
+                    default -> scanner.skipValue();
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+        return new GatewayFrameHeader(op, sequence, type);
+    }
+}
@@ -0,0 +1,466 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.utils.thread.SpscRingBuffer;
+import com.seailz.discordjar.ws.FrameRecorder;
+import com.seailz.discordjar.ws.StreamDecoder;
+import com.seailz.discordjar.ws.WebSocket;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+
+/**
+ * Moves everything a received frame goes through off OkHttp's reader thread, into stages that each run on their own thread:
+ * <ol>
+ *     <li>{@link Stage#READ READ}: OkHttp's reader thread reads the frame from the socket and hands it on as it is.</li>
+ *     <li>{@link Stage#INFLATE INFLATE}: decompresses the frame and decodes it to text, unless the connection uses ETF.</li>
+ *     <li>{@link Stage#PARSE PARSE}: parses the message, or skips it if nothing observes it. Heartbeat ACKs are handled here.</li>
+ *     <li>{@link Stage#APPLY APPLY}: applies the message to the session and the caches, in the order it was received.</li>
+ *     <li>{@link Stage#FAN_OUT FAN_OUT}: hands events to the {@link com.seailz.discordjar.events.EventDispatcher EventDispatcher}'s listener threads.</li>
+ * </ol>
+ * Stages are connected by bounded {@link SpscRingBuffer}s, so handing a message on takes no locks. A stage whose queue is
+ * full makes the stage before it wait, which is counted in {@link StageMetrics#getStalls()}.
+ * <br>Listeners blocking the listener threads only hold up the fan-out stage until its queue is full, and heartbeat ACKs
+ * don't wait for the apply stage, so a slow listener doesn't delay reading the socket or heartbeating unless the backlog
+ * outgrows every queue.
+ *
+ * <p>Every live {@link Gateway} has a pipeline, see {@link Gateway#getPipeline()}. Offline Gateways handle messages on the
+ * calling thread instead, see {@link GatewayReplayer}.
+ *
+ * @since b-1.1
+ */
+public class GatewayPipeline implements WebSocket.FrameSink {
+
+    public static final int QUEUE_CAPACITY = 8192;
+    // Polls before an idle stage parks, which saves waking it up when messages arrive in bursts
+    private static final int IDLE_SPINS = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The stages of the pipeline, in the order messages pass them.
+     */
+    public enum Stage {
+        READ,
+        INFLATE,
+        PARSE,
+        APPLY,
+        FAN_OUT
+    }
+
+    private final Gateway gateway;
+    private final DiscordJar bot;
+    private final int shardId;
+    private final GatewayEncoding encoding;
+    // Only used by the inflate stage
+    private final StreamDecoder decoder;
+    private okhttp3.WebSocket inflatingConnection;
+    private boolean inflateFailed = false;
+    private final Logger logger = Logger.getLogger("Gateway");
+
+    // Reader threads of consecutive connections may overlap for a moment, the inflate queue needs a single producer
+    private final Object readLock = new Object();
+    private final StageMetrics readMetrics = new StageMetrics(Stage.READ, null);
+    private final Worker<RawFrame> inflate;
+    private final Worker<DecodedMessage> parse;
+    private final Worker<Gateway.ParsedMessage> apply;
+    private final Worker<Delivery> fanOut;
+    private volatile boolean running = false;
+
+    private record RawFrame(okhttp3.WebSocket connection, @Nullable String text, @Nullable ByteString binary, long receivedNanos) {}
+
+    private record DecodedMessage(@Nullable String text, @Nullable byte[] etf, long receivedNanos) {}
+
+    private record Delivery(Runnable task, long receivedNanos) {}
+
+    GatewayPipeline(@NotNull Gateway gateway, @NotNull DiscordJar bot, int shardId, @Nullable StreamDecoder decoder, @NotNull GatewayEncoding encoding) {
+        this.gateway = gateway;
+        this.bot = bot;
+        this.shardId = shardId;
+        this.decoder = decoder;
+        this.encoding = encoding;
+        this.inflate = new Worker<>(Stage.INFLATE, this::inflate, RawFrame::receivedNanos);
+        this.parse = new Worker<>(Stage.PARSE, this::parse, DecodedMessage::receivedNanos);
+        this.apply = new Worker<>(Stage.APPLY, gateway::applyMessage, Gateway.ParsedMessage::receivedNanos);
+        this.fanOut = new Worker<>(Stage.FAN_OUT, delivery -> bot.getEventDispatcher().execute(delivery.task()), Delivery::receivedNanos);
+    }
+
+    void start() {
+        running = true;
+        for (Worker<?> worker : List.of(inflate, parse, apply, fanOut)) worker.start();
+    }
+
+    /**
+     * Stops every stage. Messages that are still queued are dropped.
+     */
+    void stop() {
+        running = false;
+        for (Worker<?> worker : List.of(inflate, parse, apply, fanOut)) worker.wake();
+    }
+
+    @Override
+    public void onText(@NotNull okhttp3.WebSocket connection, @NotNull String text) {
+        read(new RawFrame(connection, text, null, System.nanoTime()));
+    }
+
+    @Override
+    public void onBinary(@NotNull okhttp3.WebSocket connection, @NotNull ByteString frame) {
+        long received = System.nanoTime();
+        FrameRecorder recorder = gateway.getRecorder();
+        if (recorder != null && (decoder == null || recorder.getMode() == FrameRecorder.Mode.RAW)) recorder.recordBinary(frame.asByteBuffer());
+        read(new RawFrame(connection, null, frame, received));
+    }
+
+    private void read(RawFrame frame) {
+        synchronized (readLock) {
+            if (!running) return;
+            inflate.submit(frame);
+            long took = System.nanoTime() - frame.receivedNanos();
+            readMetrics.record(took, took);
+        }
+    }
+
+    private void inflate(RawFrame frame) {
+        if (frame.connection() != inflatingConnection) {
+            // Every connection has its own compression context
+            if (decoder != null) decoder.reset();
+            inflatingConnection = frame.connection();
+            inflateFailed = false;
+        }
+        if (frame.text() != null) {
+            parse.submit(new DecodedMessage(frame.text(), null, frame.receivedNanos()));
+            return;
+        }
+        // The rest of the connection can't be decompressed, it's being closed
+        if (inflateFailed) return;
+
+        ByteString binary = frame.binary();
+        if (decoder == null) {
+            parse.submit(encoding == GatewayEncoding.ETF
+                    ? new DecodedMessage(null, binary.toByteArray(), frame.receivedNanos())
+                    : new DecodedMessage(binary.utf8(), null, frame.receivedNanos()));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!decoder.feed(binary.asByteBuffer())) return;
+        } catch (DataFormatException e) {
+            // The compression context is corrupt and can't be recovered, so we'll have to start a new connection.
+            Logger.getLogger("WS").warning("[Decompressor] Failed to inflate message, reconnecting: " + e.getMessage());
+            inflateFailed = true;
+            frame.connection().close(4000, "Decompression failure");
+            return;
+        }
+        if (bot.isDebug()) {
+            Logger.getLogger("WS")
+                    .info("[Decompressor] Inflated " + binary.size() + " bytes to " + decoder.getOutputLength() + " bytes in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        }
+
+        byte[] output = decoder.getOutput();
+        int length = decoder.getOutputLength();
+        FrameRecorder recorder = gateway.getRecorder();
+        if (recorder != null && recorder.getMode() == FrameRecorder.Mode.DECODED) recorder.recordBinary(ByteBuffer.wrap(output, 0, length));
+        // The decoder reuses its output buffer for the next message
+        parse.submit(encoding == GatewayEncoding.ETF
+                ? new DecodedMessage(null, Arrays.copyOf(output, length), frame.receivedNanos())
+                : new DecodedMessage(new String(output, 0, length, StandardCharsets.UTF_8), null, frame.receivedNanos()));
+    }
+
+    private void parse(DecodedMessage message) {
+        Gateway.ParsedMessage parsed = message.text() != null
+                ? gateway.parseTextMessage(message.text(), message.receivedNanos())
+                : gateway.parseBinaryMessage(ByteBuffer.wrap(message.etf()), message.receivedNanos());
+        if (gateway.handleHeartbeatMessage(parsed)) return;
+        apply.submit(parsed);
+    }
+
+    /**
+     * Hands a task that builds an event and invokes its listeners to the fan-out stage.
+     * <br>Must only be called by the apply stage, see {@link #isApplyThread()}.
+     */
+    void deliver(@NotNull Runnable task, long receivedNanos) {
+        fanOut.submit(new Delivery(task, receivedNanos));
+    }
+
+    /**
+     * Returns whether the current thread is the one the apply stage runs on.
+     */
+    boolean isApplyThread() {
+        return Thread.currentThread() == apply.thread;
+    }
+
+    /**
+     * Waits until every message submitted so far has been applied, so the session's sequence number is up to date.
+     * Returns right away if called from a stage of this pipeline.
+     *
+     * @return false if the pipeline wasn't drained within the timeout.
+     */
+    boolean awaitApplied(long timeout, @NotNull TimeUnit unit) {
+        Thread current = Thread.currentThread();
+        if (current == inflate.thread || current == parse.thread || current == apply.thread || current == fanOut.thread) return true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        // Each stage only hands messages on before it counts them as processed, so checking them in order is enough
+        while (!(inflate.isDrained() && parse.isDrained() && apply.isDrained())) {
+            if (!running) return true;
+            if (System.nanoTime() - deadline > 0) return false;
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the metrics of the given stage.
+     */
+    @NotNull
+    public StageMetrics getMetrics(@NotNull Stage stage) {
+        return switch (stage) {
+            case READ -> readMetrics;
+            case INFLATE -> inflate.metrics;
+            case PARSE -> parse.metrics;
+            case APPLY -> apply.metrics;
+            case FAN_OUT -> fanOut.metrics;
+        };
+    }
+
+    /**
+     * Returns the metrics of every stage, in the order messages pass them.
+     */
+    @NotNull
+    public List<StageMetrics> getMetrics() {
+        return List.of(readMetrics, inflate.metrics, parse.metrics, apply.metrics, fanOut.metrics);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Gateway pipeline of shard ").append(shardId);
+        for (StageMetrics metrics : getMetrics()) builder.append(System.lineSeparator()).append("  ").append(metrics);
+        return builder.toString();
+    }
+
+    /**
+     * Runs one stage on its own thread, taking messages from its queue.
+     */
+    private final class Worker<I> implements Runnable {
+        private final Stage stage;
+        private final SpscRingBuffer<I> queue = new SpscRingBuffer<>(QUEUE_CAPACITY);
+        private final StageMetrics metrics;
+        private final Consumer<I> handler;
+        private final ToLongFunction<I> receivedAt;
+        private volatile Thread thread;
+        private volatile boolean parked = false;
+        // Only written by the stage before this one
+        private volatile long submitted = 0;
+
+        Worker(Stage stage, Consumer<I> handler, ToLongFunction<I> receivedAt) {
+            this.stage = stage;
+            this.handler = handler;
+            this.receivedAt = receivedAt;
+            this.metrics = new StageMetrics(stage, queue);
+        }
+
+        void start() {
+            Thread thread = new Thread(this, "djar--gateway-" + shardId + "-" + stage.name().toLowerCase().replace('_', '-'));
+            thread.setDaemon(true);
+            this.thread = thread;
+            thread.start();
+        }
+
+        /**
+         * Queues a message, waiting for space if the queue is full. Must only be called by the stage before this one.
+         */
+        void submit(I item) {
+            if (!queue.offer(item)) {
+                metrics.stalls++;
+                long wait = 1_000;
+                while (!queue.offer(item)) {
+                    if (!running) return;
+                    wake();
+                    LockSupport.parkNanos(wait);
+                    wait = Math.min(wait * 2, MAX_STALL_NANOS);
+                }
+            }
+            submitted++;
+            int depth = queue.size();
+            if (depth > metrics.peakQueueDepth) metrics.peakQueueDepth = depth;
+            // The offer has to be visible before checking whether the stage went to sleep, or it may miss it
+            VarHandle.fullFence();
+            if (parked) wake();
+        }
+
+        void wake() {
+            Thread thread = this.thread;
+            if (thread != null) LockSupport.unpark(thread);
+        }
+
+        boolean isDrained() {
+            return metrics.processed == submitted;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            try {
+                while (running) {
+                    I item = queue.poll();
+                    if (item == null) {
+                        if (++idle < IDLE_SPINS) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        parked = true;
+                        if (queue.isEmpty() && running) LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                        parked = false;
+                        idle = 0;
+                        continue;
+                    }
+                    idle = 0;
+
+                    long start = System.nanoTime();
+                    try {
+                        handler.accept(item);
+                    } catch (RuntimeException e) {
+                        logger.warning("[Gateway] Failed to handle a message in the " + stage + " stage. This is usually a bug, please report it on discord.jar's GitHub with this log message.");
+                        e.printStackTrace();
+                    }
+                    long end = System.nanoTime();
+                    metrics.record(end - start, end - receivedAt.applyAsLong(item));
+                }
+            } finally {
+                if (stage == Stage.INFLATE && decoder != null) decoder.close();
+            }
+        }
+    }
+
+    /**
+     * Queue depth and latencies of one stage. Each value is only written by one thread, reading them from any other
+     * thread gives a recent, but not necessarily consistent, view.
+     */
+    public static final class StageMetrics {
+        private static final int SAMPLES = 1024;
+
+        private final Stage stage;
+        private final SpscRingBuffer<?> queue;
+        private final long[] serviceSamples = new long[SAMPLES];
+        private volatile long processed = 0;
+        private volatile long serviceNanos = 0;
+        private volatile long maxServiceNanos = 0;
+        private volatile long latencyNanos = 0;
+        private volatile long maxLatencyNanos = 0;
+        // Written by the stage before this one
+        private volatile long stalls = 0;
+        private volatile int peakQueueDepth = 0;
+
+        private StageMetrics(Stage stage, @Nullable SpscRingBuffer<?> queue) {
+            this.stage = stage;
+            this.queue = queue;
+        }
+
+        private void record(long service, long latency) {
+            serviceSamples[(int) (processed % SAMPLES)] = service;
+            serviceNanos += service;
+            if (service > maxServiceNanos) maxServiceNanos = service;
+            latencyNanos += latency;
+            if (latency > maxLatencyNanos) maxLatencyNanos = latency;
+            processed++;
+        }
+
+        @NotNull
+        public Stage getStage() {
+            return stage;
+        }
+
+        /**
+         * Returns the amount of messages waiting for this stage. Always 0 for {@link Stage#READ READ}, which is fed by the socket.
+         */
+        public int getQueueDepth() {
+            return queue == null ? 0 : queue.size();
+        }
+
+        /**
+         * Returns the most messages that were waiting for this stage at once.
+         */
+        public int getPeakQueueDepth() {
+            return peakQueueDepth;
+        }
+
+        public int getQueueCapacity() {
+            return queue == null ? 0 : queue.capacity();
+        }
+
+        /**
+         * Returns how many times the stage before this one had to wait because this stage's queue was full.
+         */
+        public long getStalls() {
+            return stalls;
+        }
+
+        /**
+         * Returns the amount of messages this stage has handled.
+         */
+        public long getProcessed() {
+            return processed;
+        }
+
+        /**
+         * Returns how long this stage spent on a message on average, in nanoseconds, or 0 if it hasn't handled any.
+         */
+        public long getAverageServiceNanos() {
+            long processed = this.processed;
+            return processed == 0 ? 0 : serviceNanos / processed;
+        }
+
+        public long getMaxServiceNanos() {
+            return maxServiceNanos;
+        }
+
+        /**
+         * Returns the given percentile of the time this stage spent on each of the last {@value #SAMPLES} messages,
+         * in nanoseconds, or 0 if it hasn't handled any.
+         *
+         * @param percentile A percentile between 0 and 100.
+         */
+        public long getServicePercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            int size = (int) Math.min(processed, SAMPLES);
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(serviceSamples, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * size);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        /**
+         * Returns the average time from reading a message from the socket until this stage was done with it, in nanoseconds.
+         * This includes the time it spent waiting in the queues of this and every earlier stage.
+         */
+        public long getAverageLatencyNanos() {
+            long processed = this.processed;
+            return processed == 0 ? 0 : latencyNanos / processed;
+        }
+
+        public long getMaxLatencyNanos() {
+            return maxLatencyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d processed, queue %d/%d (peak %d, %d stalls), service avg %.1fus p99 %.1fus max %.1fus, since read avg %.1fus max %.1fus",
+                    stage, processed, getQueueDepth(), getQueueCapacity(), peakQueueDepth, stalls,
+                    getAverageServiceNanos() / 1000d, getServicePercentileNanos(99) / 1000d, maxServiceNanos / 1000d,
+                    getAverageLatencyNanos() / 1000d, maxLatencyNanos / 1000d);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.events.EventDispatcher;
+import com.seailz.discordjar.ws.FrameLogReader;
+import com.seailz.discordjar.ws.FrameRecorder;
+import com.seailz.discordjar.ws.StreamDecoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+
+/**
+ * Feeds a recording made by {@link FrameRecorder} into an offline {@link Gateway}, the same way a live connection would,
+ * to measure how fast the Gateway, its dispatch handlers and the caches process real traffic.
+ * <br>The bot should be built with {@link com.seailz.discordjar.DiscordJarBuilder#setOffline(boolean)}, so it doesn't connect
+ * to Discord itself. Only dispatches are handled, connection related payloads such as HELLO are ignored by an offline Gateway.
+ *
+ * <p>Frames are replayed at their original pace, scaled by {@link #setSpeed(double)}, or as fast as possible. The
+ * resulting {@link Report} contains the throughput, the latency of each stage a frame passes on the reader thread, and
+ * how much the reader thread allocated per frame.
+ *
+ * <pre>{@code
+ * DiscordJar bot = new DiscordJarBuilder(token).setOffline(true).build();
+ * GatewayReplayer.Report report = new GatewayReplayer(bot, Path.of("gateway-main.djfr")).replay();
+ * System.out.println(report);
+ * }</pre>
+ *
+ * @since b-1.1
+ */
+public class GatewayReplayer {
+
+    private final DiscordJar bot;
+    private final Path recording;
+    private final Logger logger = Logger.getLogger("Gateway");
+    private double speed = 0;
+
+    public GatewayReplayer(@NotNull DiscordJar bot, @NotNull Path recording) {
+        this.bot = bot;
+        this.recording = recording;
+    }
+
+    /**
+     * Sets how fast frames are replayed compared to how they were received: 1 is the original pace, 2 twice as fast.
+     * Defaults to 0, which replays them as fast as possible.
+     */
+    public GatewayReplayer setSpeed(double speed) {
+        if (speed < 0) throw new IllegalArgumentException("Speed can't be negative");
+        this.speed = speed;
+        return this;
+    }
+
+    /**
+     * Replays the whole recording on the current thread, then waits for the listener threads to handle every event.
+     */
+    @NotNull
+    public Report replay() throws IOException {
+        try (FrameLogReader reader = new FrameLogReader(recording)) {
+            GatewayTransportCompressionType compression = GatewayTransportCompressionType.valueOf(reader.getCompression());
+            GatewayEncoding encoding = GatewayEncoding.valueOf(reader.getEncoding());
+            Gateway gateway = Gateway.builder(bot)
+                    .setTransportCompressionType(compression)
+                    .setEncoding(encoding)
+                    .setOffline(true)
+                    .build();
+            StreamDecoder decoder = reader.getMode() == FrameRecorder.Mode.RAW ? compression.newDecoder() : null;
+
+            Samples decodeStage = new Samples();
+            Samples handleStage = new Samples();
+            long frames = 0, failed = 0, bytes = 0;
+            long firstTimestamp = -1;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+
+            FrameLogReader.Frame frame;
+            while ((frame = reader.next()) != null) {
+                if (frame.kind() == FrameRecorder.KIND_CONNECT) {
+                    // Every connection has its own compression context
+                    if (decoder != null) decoder.reset();
+                    continue;
+                }
+                if (firstTimestamp == -1) firstTimestamp = frame.timestampMicros();
+                if (speed > 0) {
+                    long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(frame.timestampMicros() - firstTimestamp) / speed);
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+                }
+                bytes += frame.data().length;
+
+                long decodeStart = System.nanoTime();
+                String text = null;
+                ByteBuffer binary = null;
+                if (frame.kind() == FrameRecorder.KIND_TEXT) {
+                    text = new String(frame.data(), StandardCharsets.UTF_8);
+                } else {
+                    binary = ByteBuffer.wrap(frame.data());
+                    if (decoder != null) {
+                        try {
+                            // Compressed messages may span several frames
+                            if (!decoder.feed(binary)) continue;
+                        } catch (DataFormatException e) {
+                            throw new IOException("Failed to decompress frame " + frames + " of " + recording, e);
+                        }
+                        binary = ByteBuffer.wrap(decoder.getOutput(), 0, decoder.getOutputLength());
+                    }
+                    if (encoding != GatewayEncoding.ETF) {
+                        text = new String(binary.array(), binary.arrayOffset() + binary.position(), binary.remaining(), StandardCharsets.UTF_8);
+                    }
+                }
+                long handleStart = System.nanoTime();
+                decodeStage.add(handleStart - decodeStart);
+
+                try {
+                    if (text != null) gateway.handleTextMessage(text);
+                    else gateway.handleBinaryMessage(binary);
+                } catch (RuntimeException e) {
+                    failed++;
+                    if (bot.isDebug()) logger.warning("[Gateway] Replayed frame " + frames + " failed: " + e);
+                }
+                handleStage.add(System.nanoTime() - handleStart);
+                frames++;
+            }
+
+            long readerNanos = System.nanoTime() - start;
+            long allocated = allocatedBefore == -1 ? -1 : allocatedBytes() - allocatedBefore;
+            long drainStart = System.nanoTime();
+            // Listeners have caught up once nothing is queued and the last events have finished running
+            EventDispatcher dispatcher = bot.getEventDispatcher();
+            while (dispatcher.getQueuedEvents() > 0 || dispatcher.getActiveCount() > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            long drainNanos = System.nanoTime() - drainStart;
+
+            return new Report(
+                    frames, failed, bytes, readerNanos, drainNanos,
+                    decodeStage.stats(), handleStage.stats(),
+                    frames == 0 || allocated == -1 ? -1 : allocated / frames,
+                    gateway.getSkippedDispatches()
+            );
+        }
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or -1 if the JVM can't tell.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Latencies of one stage, in nanoseconds.
+     */
+    public record StageStats(long count, long average, long p50, long p99, long max) {
+        @Override
+        public String toString() {
+            return String.format("avg %.1fus, p50 %.1fus, p99 %.1fus, max %.1fus", average / 1000d, p50 / 1000d, p99 / 1000d, max / 1000d);
+        }
+    }
+
+    /**
+     * The result of a replay.
+     *
+     * @param frames                 Frames handled, every frame is one Gateway payload.
+     * @param failed                 Frames whose handling threw an exception.
+     * @param bytes                  Bytes read from the recording, compressed if it was recorded that way.
+     * @param readerNanos            Time spent replaying on the reader thread, including waits when replaying at a set speed.
+     * @param listenerDrainNanos     Time the listener threads needed to catch up after the last frame.
+     * @param decode                 Decompressing and decoding each frame to text, as the {@link com.seailz.discordjar.ws.WebSocket WebSocket} does.
+     * @param handle                 Handling each frame in the Gateway: parsing, cache updates and queueing the event.
+     * @param allocatedBytesPerFrame Bytes the reader thread allocated per frame, or -1 if the JVM can't measure it.
+     *                               Allocations on listener threads aren't included.
+     * @param skippedDispatches      Dispatches dropped without parsing, as nothing listens to them.
+     */
+    public record Report(long frames, long failed, long bytes, long readerNanos, long listenerDrainNanos,
+                         StageStats decode, StageStats handle, long allocatedBytesPerFrame, long skippedDispatches) {
+
+        /**
+         * Returns how many frames the reader thread handled per second.
+         */
+        public double getEventsPerSecond() {
+            return readerNanos == 0 ? 0 : frames * 1e9 / readerNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d frames (%d failed, %d skipped) in %dms, %.0f events/s, listeners caught up after %dms%n"
+                            + "  decode: %s%n  handle: %s%n  allocated: %d B/frame",
+                    frames, failed, skippedDispatches, TimeUnit.NANOSECONDS.toMillis(readerNanos), getEventsPerSecond(),
+                    TimeUnit.NANOSECONDS.toMillis(listenerDrainNanos), decode, handle, allocatedBytesPerFrame);
+        }
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        StageStats stats() {
+            if (size == 0) return new StageStats(0, 0, 0, 0, 0);
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (long value : sorted) sum += value;
+            return new StageStats(size, sum / size, percentile(sorted, 50), percentile(sorted, 99), sorted[size - 1]);
+        }
+
+        private static long percentile(long[] sorted, int percentile) {
+            int index = (int) Math.ceil(percentile / 100d * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.seailz.discordjar.gateway;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Outbound queue for a single Gateway shard.
+ * <br>Discord allows <a href="https://discord.com/developers/docs/topics/gateway#rate-limiting">120 gateway commands every 60 seconds</a>
+ * per connection and closes the connection with 4008 if that's exceeded. Every payload sent by a shard goes through this queue,
+ * which makes sure the limit isn't hit and that the important payloads go out first.
+ *
+ * <p>Payloads are sorted into lanes by their op code, see {@link Priority}. The {@link Priority#CRITICAL critical} lane
+ * (heartbeats, IDENTIFY and RESUME) is sent as soon as the connection received HELLO, and always has a few sends of the
+ * limit reserved for it. The other lanes are only sent once the session is READY or RESUMED, and are kept across
+ * reconnects, so presence updates, voice state updates and member requests made while disconnected aren't lost.
+ *
+ * @see Gateway
+ * @since b-1.1
+ */
+public class GatewaySendQueue {
+
+    private static final int SEND_LIMIT = 120;
+    private static final long SEND_WINDOW_MS = 60_000;
+    /**
+     * Amount of sends in every window only the critical lane may use.
+     */
+    private static final int RESERVED_FOR_CRITICAL = 5;
+    /**
+     * Maximum amount of payloads buffered per lane, the oldest payload is dropped once it's exceeded.
+     */
+    private static final int MAX_LANE_SIZE = 1000;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "djar--gateway-send-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger logger = Logger.getLogger("Gateway");
+    private final Object lock = new Object();
+    private final List<Deque<JSONObject>> lanes;
+    // Send timestamps of the last SEND_LIMIT sends, used as a sliding window
+    private final long[] sendTimes = new long[SEND_LIMIT];
+    private int sendIndex = 0;
+    private final Predicate<JSONObject> sender;
+    private final boolean debug;
+    private State state = State.DISCONNECTED;
+    private boolean drainScheduled = false;
+    private long sent = 0;
+    private long dropped = 0;
+
+    /**
+     * @param sender Sends a payload over the current connection, returning false if it couldn't be sent.
+     */
+    public GatewaySendQueue(@NotNull Predicate<JSONObject> sender, boolean debug) {
+        this.sender = sender;
+        this.debug = debug;
+        this.lanes = new ArrayList<>(Priority.values().length);
+        for (int i = 0; i < Priority.values().length; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Queues a payload, using the priority of its op code.
+     */
+    public void enqueue(@NotNull JSONObject payload) {
+        enqueue(payload, Priority.forOp(payload.optInt("op", -1)));
+    }
+
+    /**
+     * Queues a payload with the given priority. The payload is sent straight away if the limit and connection state allow it.
+     */
+    public void enqueue(@NotNull JSONObject payload, @NotNull Priority priority) {
+        synchronized (lock) {
+            Deque<JSONObject> lane = lanes.get(priority.ordinal());
+            if (payload.optInt("op", -1) == Gateway.OpCodes.PRESENCE_UPDATE.getOpCode()) {
+                // Only the latest presence matters, so there's no point in sending outdated ones.
+                lane.removeIf(queued -> queued.optInt("op", -1) == Gateway.OpCodes.PRESENCE_UPDATE.getOpCode());
+            }
+            if (lane.size() >= MAX_LANE_SIZE) {
+                lane.pollFirst();
+                dropped++;
+                logger.warning("[Gateway] Send queue " + priority + " lane is full, dropping the oldest payload.");
+            }
+            lane.addLast(payload);
+        }
+        drain();
+    }
+
+    /**
+     * Updates the state of the connection.
+     * <br>Moving to {@link State#DISCONNECTED} discards the critical lane, as heartbeats, IDENTIFYs and RESUMEs are only valid
+     * for the connection they were queued for.
+     */
+    public void setState(@NotNull State state) {
+        synchronized (lock) {
+            this.state = state;
+            if (state == State.DISCONNECTED) lanes.get(Priority.CRITICAL.ordinal()).clear();
+        }
+        drain();
+    }
+
+    public State getState() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    /**
+     * Returns the amount of payloads waiting to be sent in the given lane.
+     */
+    public int getQueued(@NotNull Priority priority) {
+        synchronized (lock) {
+            return lanes.get(priority.ordinal()).size();
+        }
+    }
+
+    /**
+     * Returns the amount of payloads sent through this queue.
+     */
+    public long getSent() {
+        synchronized (lock) {
+            return sent;
+        }
+    }
+
+    /**
+     * Returns the amount of payloads dropped because a lane was full.
+     */
+    public long getDropped() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Sends as many payloads as the limit and connection state allow, and schedules another drain if the limit was hit.
+     */
+    private void drain() {
+        synchronized (lock) {
+            while (true) {
+                Priority priority = nextLane();
+                if (priority == null) return;
+
+                long wait = waitTime(priority);
+                if (wait > 0) {
+                    if (!drainScheduled) {
+                        drainScheduled = true;
+                        if (debug) logger.info("[Gateway] Send limit reached, next send in " + wait + "ms");
+                        SCHEDULER.schedule(() -> {
+                            synchronized (lock) {
+                                drainScheduled = false;
+                            }
+                            drain();
+                        }, wait, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+
+                Deque<JSONObject> lane = lanes.get(priority.ordinal());
+                JSONObject payload = lane.pollFirst();
+                if (!sender.test(payload)) {
+                    // The connection went away, keep the payload until there's a new one.
+                    lane.addFirst(payload);
+                    return;
+                }
+                sendTimes[sendIndex] = System.currentTimeMillis();
+                sendIndex = (sendIndex + 1) % SEND_LIMIT;
+                sent++;
+            }
+        }
+    }
+
+    private Priority nextLane() {
+        for (Priority priority : Priority.values()) {
+            if (lanes.get(priority.ordinal()).isEmpty()) continue;
+            if (priority == Priority.CRITICAL ? state == State.DISCONNECTED : state != State.READY) continue;
+            return priority;
+        }
+        return null;
+    }
+
+    /**
+     * Returns how long a payload of the given priority has to wait before it may be sent.
+     */
+    private long waitTime(Priority priority) {
+        int limit = priority == Priority.CRITICAL ? SEND_LIMIT : SEND_LIMIT - RESERVED_FOR_CRITICAL;
+        // The send that has to leave the window before another one fits is the limit-th most recent one.
+        long oldest = sendTimes[Math.floorMod(sendIndex - limit, SEND_LIMIT)];
+        if (oldest == 0) return 0;
+        return Math.max(0, oldest + SEND_WINDOW_MS - System.currentTimeMillis());
+    }
+
+    public enum State {
+        /**
+         * There's no usable connection, nothing is sent.
+         */
+        DISCONNECTED,
+        /**
+         * HELLO was received, only the critical lane is sent.
+         */
+        CONNECTED,
+        /**
+         * READY or RESUMED was received, every lane is sent.
+         */
+        READY
+    }
+
+    public enum Priority {
+        /**
+         * Heartbeats, IDENTIFY and RESUME.
+         */
+        CRITICAL,
+        /**
+         * Voice state updates and anything else not listed.
+         */
+        NORMAL,
+        /**
+         * Presence updates and guild member requests.
+         */
+        LOW;
+
+        public static Priority forOp(int op) {
+            if (op == Gateway.OpCodes.HEARTBEAT.getOpCode()
+                    || op == Gateway.OpCodes.IDENTIFY.getOpCode()
+                    || op == Gateway.OpCodes.RESUME.getOpCode()) return CRITICAL;
+            if (op == Gateway.OpCodes.PRESENCE_UPDATE.getOpCode()
+                    || op == Gateway.OpCodes.REQUEST_GUILD_MEMBERS.getOpCode()) return LOW;
+            return NORMAL;
+        }
+    }
+}
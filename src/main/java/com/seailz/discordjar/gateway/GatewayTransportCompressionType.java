@@ -1,5 +1,9 @@
 package com.seailz.discordjar.gateway;
 
+import com.seailz.discordjar.ws.StreamDecoder;
+import com.seailz.discordjar.ws.ZlibStreamDecoder;
+import com.seailz.discordjar.ws.ZstdStreamDecoder;
+
 /**
  * Types of <a href="https://discord.com/developers/docs/topics/gateway#transport-compression">transport compression</a> types for the Gateway.
  * @author Seailz
@@ -7,6 +11,10 @@ package com.seailz.discordjar.gateway;
 public enum GatewayTransportCompressionType {
 
     ZLIB_STREAM("zlib-stream"),
+    /**
+     * Decompresses faster and compresses better than zlib-stream. Requires the zstd-jni native library for the current platform.
+     */
+    ZSTD_STREAM("zstd-stream"),
     NONE(null);
 
     private final String value;
@@ -18,4 +26,15 @@ public enum GatewayTransportCompressionType {
     public String getValue() {
         return value;
     }
+
+    /**
+     * Creates a new decoder for a connection using this compression type, or returns null for {@link #NONE}.
+     */
+    public StreamDecoder newDecoder() {
+        return switch (this) {
+            case ZLIB_STREAM -> new ZlibStreamDecoder();
+            case ZSTD_STREAM -> new ZstdStreamDecoder();
+            case NONE -> null;
+        };
+    }
 }
@@ -0,0 +1,205 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.model.guild.Member;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses GUILD_CREATE payloads without building the {@code members} array.
+ * <br>Members are read from the payload one at a time and decoded into {@link Member}s straight away, so the JSON of a
+ * large guild's members never exists as a whole. The rest of the payload is parsed normally, and passed on without
+ * the {@code members} key.
+ *
+ * <p>With parallel decoding, members are decoded in batches on the common {@link ForkJoinPool} while the payload is
+ * still being read. Only a few batches are in flight at once, which keeps memory use bounded.
+ *
+ * @see Gateway
+ * @since b-1.1
+ */
+final class GuildCreateDecoder {
+
+    /**
+     * Below this many members, decoding on the pipeline's parse stage is cheaper than handing batches to the pool.
+     */
+    static final int PARALLEL_BATCH_SIZE = 1000;
+
+    private final DiscordJar bot;
+    private final boolean parallel;
+
+    GuildCreateDecoder(@NotNull DiscordJar bot, boolean parallel) {
+        this.bot = bot;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param payload The GUILD_CREATE payload, without its {@code members} key.
+     * @param members The decoded members, in the order they were sent.
+     */
+    record Result(JSONObject payload, String guildId, List<Member> members) {}
+
+    /**
+     * Decodes a GUILD_CREATE frame.
+     *
+     * @return The result, or null if the frame couldn't be streamed and has to be parsed normally.
+     */
+    @Nullable
+    Result decode(@NotNull String message) {
+        // Members are decoded as they're read, so the guild id has to be known before reaching them
+        String guildId = findGuildId(message);
+        if (guildId == null) return null;
+
+        JSONTokener tokener = new JSONTokener(message);
+        JSONObject payload = new JSONObject();
+        MemberSink members = new MemberSink(guildId);
+        try {
+            expect(tokener, '{');
+            if (!nextEntry(tokener, true)) return null;
+            do {
+                String key = tokener.nextValue().toString();
+                expect(tokener, ':');
+                payload.put(key, key.equals("d") ? readGuild(tokener, members) : tokener.nextValue());
+            } while (nextEntry(tokener, false));
+        } catch (JSONException | ClassCastException e) {
+            members.cancel();
+            return null;
+        }
+        return new Result(payload, guildId, members.finish());
+    }
+
+    private JSONObject readGuild(JSONTokener tokener, MemberSink members) {
+        JSONObject guild = new JSONObject();
+        expect(tokener, '{');
+        if (!nextEntry(tokener, true)) return guild;
+        do {
+            String key = tokener.nextValue().toString();
+            expect(tokener, ':');
+            if (key.equals("members")) readMembers(tokener, members);
+            else guild.put(key, tokener.nextValue());
+        } while (nextEntry(tokener, false));
+        return guild;
+    }
+
+    private void readMembers(JSONTokener tokener, MemberSink members) {
+        expect(tokener, '[');
+        char c = tokener.nextClean();
+        if (c == ']') return;
+        tokener.back();
+        while (true) {
+            members.add((JSONObject) tokener.nextValue());
+            c = tokener.nextClean();
+            if (c == ']') return;
+            if (c != ',') throw tokener.syntaxError("Expected , or ]");
+        }
+    }
+
+    /**
+     * Moves to the next entry of an object.
+     * @return false if the end of the object was reached.
+     */
+    private boolean nextEntry(JSONTokener tokener, boolean first) {
+        char c = tokener.nextClean();
+        if (c == '}') return false;
+        if (first) {
+            tokener.back();
+            return true;
+        }
+        if (c != ',') throw tokener.syntaxError("Expected , or }");
+        return true;
+    }
+
+    private void expect(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() != expected) throw tokener.syntaxError("Expected " + expected);
+    }
+
+    @Nullable
+    private static String findGuildId(String message) {
+        try {
+            JsonScanner scanner = new JsonScanner(message);
+            scanner.enterObject();
+            String key;
+            while ((key = scanner.nextKey()) != null) {
+                if (!key.equals("d")) {
+                    scanner.skipValue();
+                    continue;
+                }
+                scanner.enterObject();
+                while ((key = scanner.nextKey()) != null) {
+                    if (key.equals("id")) return scanner.readString();
+                    scanner.skipValue();
+                }
+                return null;
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * Collects decoded members, decoding them either straight away or in batches on the pool.
+     */
+    private final class MemberSink {
+        private final String guildId;
+        private final List<Member> decoded = new ArrayList<>();
+        private final Deque<ForkJoinTask<List<Member>>> inFlight = new ArrayDeque<>();
+        private List<JSONObject> batch = new ArrayList<>();
+
+        private MemberSink(String guildId) {
+            this.guildId = guildId;
+        }
+
+        void add(JSONObject member) {
+            if (!parallel) {
+                decoded.add(decode(member));
+                return;
+            }
+            batch.add(member);
+            if (batch.size() < PARALLEL_BATCH_SIZE) return;
+            submit();
+            // Waiting for the oldest batch keeps the amount of undecoded JSON bounded
+            if (inFlight.size() > ForkJoinPool.getCommonPoolParallelism() * 2) decoded.addAll(inFlight.poll().join());
+        }
+
+        private void submit() {
+            List<JSONObject> toDecode = batch;
+            batch = new ArrayList<>();
+            inFlight.add(ForkJoinPool.commonPool().submit(() -> {
+                List<Member> result = new ArrayList<>(toDecode.size());
+                for (JSONObject member : toDecode) result.add(decode(member));
+                return result;
+            }));
+        }
+
+        List<Member> finish() {
+            if (!batch.isEmpty()) {
+                if (inFlight.isEmpty()) {
+                    // Small guild, not worth a round trip to the pool
+                    for (JSONObject member : batch) decoded.add(decode(member));
+                    batch.clear();
+                } else {
+                    submit();
+                }
+            }
+            while (!inFlight.isEmpty()) decoded.addAll(inFlight.poll().join());
+            return decoded;
+        }
+
+        void cancel() {
+            inFlight.forEach(task -> task.cancel(false));
+        }
+
+        private Member decode(JSONObject member) {
+            return Member.decompile(member, bot, guildId, null);
+        }
+    }
+}
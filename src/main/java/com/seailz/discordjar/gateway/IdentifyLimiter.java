@@ -0,0 +1,51 @@
+package com.seailz.discordjar.gateway;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out IDENTIFY slots to shards so they respect Discord's
+ * <a href="https://discord.com/developers/docs/topics/gateway#sharding-max-concurrency">max_concurrency</a>.
+ * <br>Shards are grouped into rate limit buckets by {@code shard_id % max_concurrency}. Each bucket may identify once every
+ * 5 seconds, and different buckets may identify at the same time.
+ *
+ * <p>One limiter is shared between all shards of a bot, see {@link ShardManager}.
+ *
+ * @since b-1.1
+ */
+public class IdentifyLimiter {
+
+    private static final long IDENTIFY_INTERVAL_MS = 5_000;
+
+    private final int maxConcurrency;
+    private final long[] nextSlot;
+
+    public IdentifyLimiter(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.nextSlot = new long[this.maxConcurrency];
+    }
+
+    /**
+     * Reserves the next IDENTIFY slot for a shard.
+     *
+     * @param shardId The shard's id, or -1 if the bot isn't sharded.
+     * @return A future completed once the shard is allowed to send its IDENTIFY.
+     */
+    public CompletableFuture<Void> acquire(int shardId) {
+        int key = Math.max(shardId, 0) % maxConcurrency;
+        long delay;
+        synchronized (nextSlot) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, nextSlot[key]);
+            nextSlot[key] = slot + IDENTIFY_INTERVAL_MS;
+            delay = slot - now;
+        }
+
+        if (delay <= 0) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
@@ -0,0 +1,137 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.cache.CacheType;
+import com.seailz.discordjar.events.model.Event;
+import com.seailz.discordjar.events.model.automod.AutoModExecutionEvent;
+import com.seailz.discordjar.events.model.automod.rule.AutoModRuleCreateEvent;
+import com.seailz.discordjar.events.model.automod.rule.AutoModRuleDeleteEvent;
+import com.seailz.discordjar.events.model.automod.rule.AutoModRuleUpdateEvent;
+import com.seailz.discordjar.events.model.channel.ChannelPinsUpdateEvent;
+import com.seailz.discordjar.events.model.channel.edit.ChannelCreateEvent;
+import com.seailz.discordjar.events.model.channel.edit.ChannelDeleteEvent;
+import com.seailz.discordjar.events.model.channel.edit.ChannelUpdateEvent;
+import com.seailz.discordjar.events.model.guild.GuildCreateEvent;
+import com.seailz.discordjar.events.model.guild.GuildDeleteEvent;
+import com.seailz.discordjar.events.model.guild.GuildUpdateEvent;
+import com.seailz.discordjar.events.model.guild.member.GuildMemberAddEvent;
+import com.seailz.discordjar.events.model.guild.member.GuildMemberRemoveEvent;
+import com.seailz.discordjar.events.model.guild.member.GuildMemberUpdateEvent;
+import com.seailz.discordjar.events.model.message.MessageCreateEvent;
+import com.seailz.discordjar.events.model.message.TypingStartEvent;
+import com.seailz.discordjar.model.application.Intent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the smallest set of intents a bot needs, so Discord doesn't send events nothing consumes - typically
+ * presences and typing, which are most of the traffic of large bots.
+ * <br>An intent is kept if it's configured and at least one of these needs it:
+ * <ul>
+ *     <li>A listener registered for an event the intent delivers, see {@link #requiredFor(Class)}.</li>
+ *     <li>An enabled {@link CacheType}: guilds and channels need {@link Intent#GUILDS}, members need {@link Intent#GUILD_MEMBERS}.</li>
+ *     <li>Startup member chunking, which needs {@link Intent#GUILD_MEMBERS} to receive every member.</li>
+ *     <li>An open voice connection, which needs {@link Intent#GUILD_VOICE_STATES} to follow its own voice state.</li>
+ *     <li>The intents set to always be kept, see {@link com.seailz.discordjar.DiscordJarBuilder#setIntentMinimization(boolean, Intent...)}.</li>
+ * </ul>
+ * {@link Intent#GUILDS} is always kept, as READY, the caches and {@link ReadinessTracker} rely on GUILD_CREATE.
+ * Interactions, and so commands, are delivered without any intent.
+ * <br>Intents are computed on every IDENTIFY, so listeners registered later only receive their events after the next one.
+ *
+ * @since b-1.1
+ */
+public final class IntentMinimizer {
+
+    private static final Map<Class<? extends Event>, EnumSet<Intent>> EVENT_INTENTS = new HashMap<>();
+
+    static {
+        EnumSet<Intent> guilds = EnumSet.of(Intent.GUILDS);
+        for (Class<? extends Event> event : Set.of(GuildCreateEvent.class, GuildUpdateEvent.class, GuildDeleteEvent.class,
+                ChannelCreateEvent.class, ChannelUpdateEvent.class, ChannelDeleteEvent.class)) {
+            EVENT_INTENTS.put(event, guilds);
+        }
+        EVENT_INTENTS.put(ChannelPinsUpdateEvent.class, EnumSet.of(Intent.GUILDS, Intent.DIRECT_MESSAGES));
+
+        EnumSet<Intent> members = EnumSet.of(Intent.GUILD_MEMBERS);
+        EVENT_INTENTS.put(GuildMemberAddEvent.class, members);
+        EVENT_INTENTS.put(GuildMemberUpdateEvent.class, members);
+        EVENT_INTENTS.put(GuildMemberRemoveEvent.class, members);
+
+        // Without MESSAGE_CONTENT, messages arrive without their content, embeds and attachments
+        EVENT_INTENTS.put(MessageCreateEvent.class, EnumSet.of(Intent.GUILD_MESSAGES, Intent.DIRECT_MESSAGES, Intent.MESSAGE_CONTENT));
+        EVENT_INTENTS.put(TypingStartEvent.class, EnumSet.of(Intent.GUILD_MESSAGE_TYPING, Intent.DIRECT_MESSAGE_TYPING));
+
+        EnumSet<Intent> autoModConfig = EnumSet.of(Intent.AUTO_MOD_CONFIG);
+        EVENT_INTENTS.put(AutoModRuleCreateEvent.class, autoModConfig);
+        EVENT_INTENTS.put(AutoModRuleUpdateEvent.class, autoModConfig);
+        EVENT_INTENTS.put(AutoModRuleDeleteEvent.class, autoModConfig);
+        EVENT_INTENTS.put(AutoModExecutionEvent.class, EnumSet.of(Intent.AUTO_MOD_EXECUTION));
+    }
+
+    private IntentMinimizer() {}
+
+    /**
+     * Returns the intents that deliver the given event. Empty for events that don't need any, such as interactions.
+     */
+    @NotNull
+    public static EnumSet<Intent> requiredFor(@NotNull Class<? extends Event> event) {
+        EnumSet<Intent> intents = EVENT_INTENTS.get(event);
+        return intents == null ? EnumSet.noneOf(Intent.class) : EnumSet.copyOf(intents);
+    }
+
+    /**
+     * Replaces {@link Intent#ALL} with the non-privileged intents it stands for.
+     */
+    @NotNull
+    public static EnumSet<Intent> expand(@NotNull Set<Intent> intents) {
+        EnumSet<Intent> expanded = EnumSet.noneOf(Intent.class);
+        for (Intent intent : intents) {
+            if (intent != Intent.ALL) {
+                expanded.add(intent);
+                continue;
+            }
+            for (Intent included : Intent.values()) {
+                if (included != Intent.ALL && !included.isPrivileged()) expanded.add(included);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Returns the configured intents of the bot that are needed right now.
+     *
+     * @param voiceConnected Whether the shard has an open voice connection.
+     */
+    @NotNull
+    public static EnumSet<Intent> minimize(@NotNull DiscordJar bot, boolean voiceConnected) {
+        EnumSet<Intent> required = EnumSet.of(Intent.GUILDS);
+        for (Class<? extends Event> event : bot.getEventDispatcher().getListenedEventTypes()) {
+            required.addAll(requiredFor(event));
+        }
+
+        Set<CacheType> caches = bot.getCacheTypes();
+        if (caches.contains(CacheType.ALL) || caches.contains(CacheType.MEMBERS)) required.add(Intent.GUILD_MEMBERS);
+        if (bot.getStartupChunkingFilter() != null) required.add(Intent.GUILD_MEMBERS);
+        if (voiceConnected) required.add(Intent.GUILD_VOICE_STATES);
+        required.addAll(bot.getAlwaysKeptIntents());
+
+        EnumSet<Intent> configured = expand(bot.getIntents());
+        configured.retainAll(required);
+        return configured;
+    }
+
+    /**
+     * Returns the bit field sent in IDENTIFY for the given intents, which mustn't contain {@link Intent#ALL}.
+     */
+    public static int toBitField(@NotNull Set<Intent> intents) {
+        int bits = 0;
+        for (Intent intent : intents) {
+            bits |= intent.getLeftShiftId();
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,124 @@
+package com.seailz.discordjar.gateway;
+
+/**
+ * Walks over a JSON document without building it, used to read a few fields of a Gateway payload cheaply.
+ * <br>Only what's needed for Gateway payloads is supported: object keys and string values without escapes. Malformed or
+ * unsupported input throws an {@link IllegalArgumentException} or {@link IndexOutOfBoundsException}, callers are expected
+ * to fall back to a normal parse then.
+ *
+ * @see GatewayFrameHeader
+ * @see GuildCreateDecoder
+ * @since b-1.1
+ */
+final class JsonScanner {
+
+    private final String json;
+    private int pos = 0;
+
+    JsonScanner(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Moves into the object starting at the current position.
+     */
+    void enterObject() {
+        skipWhitespace();
+        if (json.charAt(pos++) != '{') throw new IllegalArgumentException("Expected an object at " + (pos - 1));
+        skipWhitespace();
+        if (json.charAt(pos) == ',') throw new IllegalArgumentException("Unexpected , at " + pos);
+    }
+
+    /**
+     * Reads the next key of the current object and moves to its value.
+     *
+     * @return The key, or null if the end of the object was reached.
+     */
+    String nextKey() {
+        skipWhitespace();
+        char c = json.charAt(pos);
+        if (c == '}') {
+            pos++;
+            return null;
+        }
+        if (c == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        String key = readString();
+        if (key == null) throw new IllegalArgumentException("Expected a key at " + pos);
+        skipWhitespace();
+        if (json.charAt(pos++) != ':') throw new IllegalArgumentException("Expected : at " + (pos - 1));
+        skipWhitespace();
+        return key;
+    }
+
+    /**
+     * Reads a number, returning -1 for null.
+     */
+    long readLong() {
+        if (json.startsWith("null", pos)) {
+            pos += 4;
+            return -1;
+        }
+        int start = pos;
+        while (pos < json.length() && (Character.isDigit(json.charAt(pos)) || json.charAt(pos) == '-')) pos++;
+        return Long.parseLong(json, start, pos, 10);
+    }
+
+    /**
+     * Reads a string without escapes, returning null for null.
+     */
+    String readString() {
+        if (json.startsWith("null", pos)) {
+            pos += 4;
+            return null;
+        }
+        if (json.charAt(pos) != '"') throw new IllegalArgumentException("Expected a string at " + pos);
+        int start = pos + 1;
+        skipString();
+        String value = json.substring(start, pos - 1);
+        if (value.indexOf('\\') != -1) throw new IllegalArgumentException("Escaped strings aren't supported");
+        return value;
+    }
+
+    /**
+     * Skips over the value at the current position.
+     */
+    void skipValue() {
+        char c = json.charAt(pos);
+        if (c == '"') {
+            skipString();
+            return;
+        }
+        if (c != '{' && c != '[') {
+            // Number, boolean or null
+            while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) == -1) pos++;
+            return;
+        }
+        int depth = 0;
+        while (true) {
+            c = json.charAt(pos);
+            if (c == '"') {
+                skipString();
+                continue;
+            }
+            pos++;
+            if (c == '{' || c == '[') depth++;
+            else if ((c == '}' || c == ']') && --depth == 0) return;
+        }
+    }
+
+    private void skipString() {
+        pos++; // opening quote
+        while (true) {
+            char c = json.charAt(pos++);
+            if (c == '\\') pos++;
+            else if (c == '"') return;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) pos++;
+    }
+}
@@ -0,0 +1,159 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.model.guild.Member;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A pending <a href="https://discord.com/developers/docs/topics/gateway-events#request-guild-members">Request Guild Members</a>
+ * request, identified by its nonce.
+ * <br>Every GUILD_MEMBERS_CHUNK is published to subscribers as soon as it arrives, and {@link #getResult()} completes
+ * once the last chunk was received. If no chunk arrives within the timeout, the request fails with a
+ * {@link TimeoutException} and is forgotten, so a lost chunk doesn't keep it around forever.
+ *
+ * <p>Subscribers should subscribe before the request is sent, chunks published before subscribing aren't replayed.
+ * {@link com.seailz.discordjar.action.guild.members.RequestGuildMembersAction#stream()} takes care of that.
+ *
+ * @see Gateway#requestGuildMemberChunks(com.seailz.discordjar.action.guild.members.RequestGuildMembersAction, Flow.Subscriber)
+ * @since b-1.1
+ */
+public class MemberChunkRequest implements Flow.Publisher<List<Member>> {
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "djar--member-request-timeouts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String nonce;
+    private final String guildId;
+    private final long timeoutMs;
+    private final boolean collect;
+    private final boolean cacheMembers;
+    private final SubmissionPublisher<List<Member>> publisher = new SubmissionPublisher<>();
+    private final CompletableFuture<List<Member>> result = new CompletableFuture<>();
+    private final List<Member> collected = new ArrayList<>();
+    private final List<String> notFound = new ArrayList<>();
+    private Runnable onDone = () -> {};
+    private ScheduledFuture<?> timeoutTask;
+    private int receivedChunks = 0;
+
+    /**
+     * @param timeout How long to wait for the next chunk before giving up.
+     * @param collect Whether every member should be kept for {@link #getResult()}. If not, the result completes with an empty list.
+     * @param cacheMembers Whether received members are inserted into the guild's member cache.
+     */
+    MemberChunkRequest(@NotNull String nonce, @NotNull String guildId, @NotNull Duration timeout, boolean collect, boolean cacheMembers) {
+        this.nonce = nonce;
+        this.guildId = guildId;
+        this.timeoutMs = timeout.toMillis();
+        this.collect = collect;
+        this.cacheMembers = cacheMembers;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<Member>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    public String getNonce() {
+        return nonce;
+    }
+
+    public String getGuildId() {
+        return guildId;
+    }
+
+    public boolean isCacheMembers() {
+        return cacheMembers;
+    }
+
+    /**
+     * Returns a future completed with every received member once the last chunk arrives, or with an empty list if the
+     * members aren't collected. Completes exceptionally with a {@link TimeoutException} if a chunk doesn't arrive in time.
+     */
+    public CompletableFuture<List<Member>> getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the user ids that were requested but not found, once the request is done.
+     */
+    public synchronized List<String> getNotFound() {
+        return Collections.unmodifiableList(new ArrayList<>(notFound));
+    }
+
+    /**
+     * Sets what happens once the request is done, successfully or not. Used to remove it from the nonce registry.
+     */
+    synchronized void onDone(@NotNull Runnable onDone) {
+        this.onDone = onDone;
+    }
+
+    /**
+     * Starts waiting for the first chunk.
+     */
+    synchronized void start() {
+        resetTimeout();
+    }
+
+    /**
+     * Handles a received chunk.
+     * <br>This is used internally by the GUILD_MEMBERS_CHUNK handler and shouldn't be called elsewhere.
+     */
+    public synchronized void onChunk(@NotNull List<Member> members, int chunkIndex, int chunkCount, @NotNull List<String> notFound) {
+        if (result.isDone()) return;
+        receivedChunks++;
+        this.notFound.addAll(notFound);
+        if (collect) collected.addAll(members);
+
+        // A subscriber that can't keep up fails the request rather than blocking the Gateway's pipeline
+        if (publisher.offer(members, (subscriber, chunk) -> false) < 0) {
+            fail(new IllegalStateException("A subscriber of member request " + nonce + " fell too far behind"));
+            return;
+        }
+
+        if (receivedChunks >= chunkCount) {
+            finish();
+            publisher.close();
+            result.complete(collect ? Collections.unmodifiableList(collected) : List.of());
+        } else {
+            resetTimeout();
+        }
+    }
+
+    /**
+     * Fails the request, if it isn't done yet.
+     */
+    synchronized void fail(@NotNull Throwable cause) {
+        if (result.isDone()) return;
+        finish();
+        publisher.closeExceptionally(cause);
+        result.completeExceptionally(cause);
+    }
+
+    private void resetTimeout() {
+        if (timeoutTask != null) timeoutTask.cancel(false);
+        timeoutTask = TIMEOUTS.schedule(
+                () -> fail(new TimeoutException("No member chunk received for request " + nonce + " in " + timeoutMs + "ms")),
+                timeoutMs, TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void finish() {
+        if (timeoutTask != null) timeoutTask.cancel(false);
+        onDone.run();
+    }
+}
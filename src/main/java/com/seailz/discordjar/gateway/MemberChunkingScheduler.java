@@ -0,0 +1,213 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.action.guild.members.RequestGuildMembersAction;
+import com.seailz.discordjar.model.application.Intent;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Requests the members of every guild of a shard after READY, so the member cache is complete without requesting each
+ * guild by hand.
+ * <br>Guilds are requested once their GUILD_CREATE arrived. Guilds that aren't {@code large} are skipped, their
+ * GUILD_CREATE already contains every member. At most {@link #MAX_IN_FLIGHT} requests are pending at once, each with its
+ * own nonce, and they're sent through the {@link GatewaySendQueue}'s low priority lane, so chunking never uses up the
+ * send limit heartbeats and presence updates need.
+ *
+ * <p>{@link #getWarm()} completes once every guild was chunked, which is a good moment to start handling traffic that
+ * relies on the member cache. Requests that time out are retried once, guilds that fail twice are logged and counted as done.
+ *
+ * @see com.seailz.discordjar.DiscordJarBuilder#setStartupMemberChunking(Predicate)
+ * @see com.seailz.discordjar.DiscordJar#awaitMemberCacheWarm()
+ * @since b-1.1
+ */
+public class MemberChunkingScheduler {
+
+    /**
+     * Maximum amount of member requests pending at once.
+     */
+    static final int MAX_IN_FLIGHT = 5;
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final Gateway gateway;
+    private final DiscordJar bot;
+    private final Predicate<String> guildFilter;
+    private final Logger logger = Logger.getLogger("Gateway");
+    private final Object lock = new Object();
+    // Guilds to chunk whose GUILD_CREATE hasn't arrived yet
+    private final Set<String> awaitingCreate = new HashSet<>();
+    private final Deque<String> queue = new ArrayDeque<>();
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private CompletableFuture<Void> warm = new CompletableFuture<>();
+    // Bumped on every READY, so requests of an old session don't affect the new one
+    private int generation = 0;
+    private boolean started = false;
+    private int inFlight = 0;
+    private int chunked = 0;
+    private int failed = 0;
+    private long startedAt;
+
+    MemberChunkingScheduler(@NotNull Gateway gateway, @NotNull DiscordJar bot, @NotNull Predicate<String> guildFilter) {
+        this.gateway = gateway;
+        this.bot = bot;
+        this.guildFilter = guildFilter;
+
+        if (!bot.getIntents().contains(Intent.ALL) && !bot.getIntents().contains(Intent.GUILD_MEMBERS)) {
+            logger.warning("[Gateway] Startup member chunking is enabled without the GUILD_MEMBERS intent, only members matching an empty query will be returned.");
+        }
+    }
+
+    /**
+     * Starts a new chunking phase with the guilds of a READY payload.
+     */
+    void onReady(@NotNull JSONObject ready) {
+        synchronized (lock) {
+            generation++;
+            awaitingCreate.clear();
+            queue.clear();
+            attempts.clear();
+            inFlight = 0;
+            chunked = 0;
+            failed = 0;
+            if (warm.isDone()) warm = new CompletableFuture<>();
+            started = true;
+            startedAt = System.currentTimeMillis();
+
+            JSONArray guilds = ready.optJSONArray("guilds");
+            if (guilds != null) {
+                for (int i = 0; i < guilds.length(); i++) {
+                    String guildId = guilds.getJSONObject(i).getString("id");
+                    if (guildFilter.test(guildId)) awaitingCreate.add(guildId);
+                }
+            }
+            if (bot.isDebug()) logger.info("[Gateway] Chunking the members of " + awaitingCreate.size() + " guilds on shard " + gateway.getShardId());
+            checkWarm();
+        }
+    }
+
+    /**
+     * Queues a guild of the current phase once its GUILD_CREATE arrived.
+     */
+    void onGuildCreate(@NotNull JSONObject guild) {
+        synchronized (lock) {
+            String guildId = guild.getString("id");
+            // Guilds joined after READY aren't part of the startup phase
+            if (!awaitingCreate.remove(guildId)) return;
+            if (guild.optBoolean("unavailable") || !guild.optBoolean("large")) {
+                chunked++;
+                checkWarm();
+                return;
+            }
+            queue.addLast(guildId);
+        }
+        pump();
+    }
+
+    /**
+     * Forgets a guild that was left or became unavailable before it was chunked.
+     */
+    void onGuildDelete(@NotNull String guildId) {
+        synchronized (lock) {
+            if (awaitingCreate.remove(guildId) || queue.remove(guildId)) {
+                failed++;
+                checkWarm();
+            }
+        }
+    }
+
+    /**
+     * Returns a future that completes once every guild of the current phase was chunked.
+     * <br>A READY that starts a new session before the phase was done keeps the same future pending.
+     */
+    public CompletableFuture<Void> getWarm() {
+        synchronized (lock) {
+            return warm;
+        }
+    }
+
+    /**
+     * Returns the amount of guilds still waiting to be chunked, including pending requests.
+     */
+    public int getRemaining() {
+        synchronized (lock) {
+            return awaitingCreate.size() + queue.size() + inFlight;
+        }
+    }
+
+    /**
+     * Returns the amount of guilds of the current phase whose members are cached.
+     */
+    public int getChunked() {
+        synchronized (lock) {
+            return chunked;
+        }
+    }
+
+    /**
+     * Returns the amount of guilds of the current phase that couldn't be chunked.
+     */
+    public int getFailed() {
+        synchronized (lock) {
+            return failed;
+        }
+    }
+
+    private void pump() {
+        List<String> toRequest = new ArrayList<>();
+        int requestGeneration;
+        synchronized (lock) {
+            requestGeneration = generation;
+            while (inFlight < MAX_IN_FLIGHT && !queue.isEmpty()) {
+                toRequest.add(queue.pollFirst());
+                inFlight++;
+            }
+        }
+
+        // Sent outside the lock, the send queue may send straight away
+        for (String guildId : toRequest) {
+            RequestGuildMembersAction action = new RequestGuildMembersAction(guildId, bot)
+                    .setQuery("")
+                    .setLimit(0);
+            gateway.startMemberRequest(action, null, false).getResult()
+                    .whenComplete((members, error) -> onRequestDone(guildId, requestGeneration, error));
+        }
+    }
+
+    private void onRequestDone(String guildId, int requestGeneration, Throwable error) {
+        synchronized (lock) {
+            if (requestGeneration != generation) return;
+            inFlight--;
+            if (error == null) {
+                chunked++;
+                gateway.onGuildChunked(guildId);
+            } else if (attempts.merge(guildId, 1, Integer::sum) < MAX_ATTEMPTS) {
+                queue.addLast(guildId);
+            } else {
+                failed++;
+                logger.warning("[Gateway] Failed to chunk the members of guild " + guildId + ": " + error.getMessage());
+            }
+            checkWarm();
+        }
+        pump();
+    }
+
+    private void checkWarm() {
+        if (!started || warm.isDone() || !awaitingCreate.isEmpty() || !queue.isEmpty() || inFlight > 0) return;
+        logger.info("[Gateway] Member cache of shard " + gateway.getShardId() + " is warm: " + chunked + " guilds chunked, "
+                + failed + " failed in " + (System.currentTimeMillis() - startedAt) + "ms");
+        warm.complete(null);
+    }
+}
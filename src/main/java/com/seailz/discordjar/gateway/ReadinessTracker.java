@@ -0,0 +1,203 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.events.model.general.GuildsLoadedEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Tracks when a shard is fully loaded after READY.
+ * <br>READY only lists a shard's guilds as unavailable, their data arrives in GUILD_CREATEs afterwards. This tracker
+ * counts those guilds down, and once every one of them arrived - or the guild load timeout passed - completes
+ * {@link #getGuildsLoaded()} and fires a {@link GuildsLoadedEvent}. Guilds still missing at that point are listed by
+ * {@link #getUnavailableGuilds()}, they're usually part of an outage and arrive later.
+ *
+ * <p>It also records how long starting up took: from IDENTIFY to READY, from READY to the last GUILD_CREATE and, with
+ * startup member chunking, from READY until the member cache was warm.
+ *
+ * @see com.seailz.discordjar.DiscordJar#awaitGuildsLoaded()
+ * @since b-1.1
+ */
+public class ReadinessTracker {
+
+    public static final Duration DEFAULT_GUILD_LOAD_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "djar--readiness-timeouts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Gateway gateway;
+    private final DiscordJar bot;
+    private final Duration guildLoadTimeout;
+    private final Logger logger = Logger.getLogger("Gateway");
+    private final Object lock = new Object();
+    private final Set<String> pending = new HashSet<>();
+    private CompletableFuture<Void> guildsLoaded = new CompletableFuture<>();
+    private ScheduledFuture<?> timeoutTask;
+    // Bumped on every READY, so timeouts and warm-up callbacks of an old session are ignored
+    private int generation = 0;
+    private int guildCount = 0;
+    private long identifySentNanos = -1;
+    private long readyNanos = -1;
+    private volatile long readyLatencyMs = -1;
+    private volatile long guildLoadTimeMs = -1;
+    private volatile long memberWarmupTimeMs = -1;
+
+    ReadinessTracker(@NotNull Gateway gateway, @NotNull DiscordJar bot, @NotNull Duration guildLoadTimeout) {
+        this.gateway = gateway;
+        this.bot = bot;
+        this.guildLoadTimeout = guildLoadTimeout;
+    }
+
+    void onIdentifySent() {
+        synchronized (lock) {
+            identifySentNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts counting down the unavailable guilds of a READY payload.
+     *
+     * @param memberChunking The shard's member chunking scheduler, already started for this READY, or null if it's disabled.
+     */
+    void onReady(@NotNull JSONObject ready, @Nullable MemberChunkingScheduler memberChunking) {
+        int readyGeneration;
+        synchronized (lock) {
+            readyGeneration = ++generation;
+            readyNanos = System.nanoTime();
+            readyLatencyMs = identifySentNanos == -1 ? -1 : TimeUnit.NANOSECONDS.toMillis(readyNanos - identifySentNanos);
+            guildLoadTimeMs = -1;
+            memberWarmupTimeMs = -1;
+            if (guildsLoaded.isDone()) guildsLoaded = new CompletableFuture<>();
+
+            pending.clear();
+            JSONArray guilds = ready.optJSONArray("guilds");
+            if (guilds != null) {
+                for (int i = 0; i < guilds.length(); i++) {
+                    JSONObject guild = guilds.getJSONObject(i);
+                    if (guild.optBoolean("unavailable", true)) pending.add(guild.getString("id"));
+                }
+            }
+            guildCount = pending.size();
+
+            if (timeoutTask != null) timeoutTask.cancel(false);
+            timeoutTask = TIMEOUTS.schedule(() -> onTimeout(readyGeneration), guildLoadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            checkLoaded(false);
+        }
+
+        if (memberChunking != null) {
+            memberChunking.getWarm().thenRun(() -> {
+                synchronized (lock) {
+                    if (readyGeneration != generation) return;
+                    memberWarmupTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readyNanos);
+                }
+            });
+        }
+    }
+
+    void onGuildCreate(@NotNull String guildId) {
+        synchronized (lock) {
+            if (pending.remove(guildId)) checkLoaded(false);
+        }
+    }
+
+    /**
+     * Stops waiting for a guild that was left. Guilds that became unavailable are still waited for.
+     */
+    void onGuildDelete(@NotNull JSONObject guild) {
+        if (guild.optBoolean("unavailable")) return;
+        synchronized (lock) {
+            if (pending.remove(guild.getString("id"))) checkLoaded(false);
+        }
+    }
+
+    private void onTimeout(int timeoutGeneration) {
+        synchronized (lock) {
+            if (timeoutGeneration != generation) return;
+            checkLoaded(true);
+        }
+    }
+
+    private void checkLoaded(boolean timedOut) {
+        if (guildsLoaded.isDone() || (!timedOut && !pending.isEmpty())) return;
+        if (timeoutTask != null) timeoutTask.cancel(false);
+        guildLoadTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readyNanos);
+
+        if (timedOut) {
+            logger.warning("[Gateway] Shard " + gateway.getShardId() + " loaded " + (guildCount - pending.size()) + "/" + guildCount
+                    + " guilds within " + guildLoadTimeout.toMillis() + "ms, the rest are unavailable.");
+        } else if (bot.isDebug()) {
+            logger.info("[Gateway] Shard " + gateway.getShardId() + " loaded " + guildCount + " guilds in " + guildLoadTimeMs + "ms");
+        }
+
+        JSONObject data = new JSONObject()
+                .put("shard_id", gateway.getShardId())
+                .put("guild_count", guildCount)
+                .put("unavailable_guilds", new JSONArray(pending))
+                .put("timed_out", timedOut)
+                .put("ready_latency_ms", readyLatencyMs)
+                .put("guild_load_time_ms", guildLoadTimeMs);
+        GuildsLoadedEvent event = new GuildsLoadedEvent(bot, gateway.getLastSequenceNumber(), new JSONObject().put("d", data));
+        bot.getEventDispatcher().execute(() -> bot.getEventDispatcher().invokeListeners(event, GuildsLoadedEvent.class));
+        guildsLoaded.complete(null);
+    }
+
+    /**
+     * Returns a future that completes once every guild of the current session arrived, or the guild load timeout passed.
+     * <br>A READY that starts a new session before the guilds were loaded keeps the same future pending.
+     */
+    public CompletableFuture<Void> getGuildsLoaded() {
+        synchronized (lock) {
+            return guildsLoaded;
+        }
+    }
+
+    /**
+     * Returns the ids of the guilds whose GUILD_CREATE hasn't arrived yet.
+     */
+    public List<String> getUnavailableGuilds() {
+        synchronized (lock) {
+            return new ArrayList<>(pending);
+        }
+    }
+
+    /**
+     * Returns the time between sending IDENTIFY and receiving READY of the current session in ms, or -1 if it isn't known.
+     */
+    public long getReadyLatencyMs() {
+        return readyLatencyMs;
+    }
+
+    /**
+     * Returns the time between READY and the last GUILD_CREATE (or the timeout) of the current session in ms, or -1 if the
+     * guilds are still loading.
+     */
+    public long getGuildLoadTimeMs() {
+        return guildLoadTimeMs;
+    }
+
+    /**
+     * Returns the time between READY and the member cache being warm in ms, or -1 if it isn't warm yet or startup member
+     * chunking is disabled.
+     * @see MemberChunkingScheduler
+     */
+    public long getMemberWarmupTimeMs() {
+        return memberWarmupTimeMs;
+    }
+}
@@ -0,0 +1,463 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.utils.URLS;
+import com.seailz.discordjar.utils.rest.DiscordRequest;
+import com.seailz.discordjar.utils.rest.DiscordResponse;
+import com.seailz.discordjar.gateway.events.DispatchedEvents;
+import com.seailz.discordjar.gateway.session.GatewaySessionStore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs one or more {@link Gateway} shards for a single {@link DiscordJar} instance.
+ * <br>All shards share the bot's REST layer, caches and event dispatcher, each shard only owns its own connection.
+ *
+ * <p>The manager runs in one of three modes:
+ * <ul>
+ *     <li><b>Unsharded</b> - a shard id of -1 and a shard count of 1 or less. A single connection is opened without a shard array.</li>
+ *     <li><b>Single shard</b> - a shard id other than -1. Only that shard is run, the rest are expected to run in other processes.</li>
+ *     <li><b>Managed</b> - a shard id of -1 and a shard count above 1, or {@link #RECOMMENDED_SHARD_COUNT}. Every shard is run
+ *     in this process, and IDENTIFYs are spread out according to Discord's {@code max_concurrency}.</li>
+ * </ul>
+ *
+ * <p>Guild-scoped Gateway operations should be sent through {@link #getShardForGuild(String)} - Discord only accepts them
+ * on the shard that owns the guild.
+ *
+ * <p>Managed shards can be moved to a new shard count without downtime, see {@link #reshard(int)}.
+ *
+ * @see <a href="https://discord.com/developers/docs/topics/gateway#sharding">Sharding</a>
+ * @see IdentifyLimiter
+ * @since b-1.1
+ */
+public class ShardManager {
+
+    /**
+     * Shard count that makes the manager use the shard count recommended by Discord.
+     */
+    public static final int RECOMMENDED_SHARD_COUNT = 0;
+    /**
+     * How long old shards keep passing on events of a guild after its new shard took over, so events the new shard
+     * received just before are not lost. Events both pass on within this time are deduplicated.
+     */
+    private static final long RESHARD_HANDOVER_MILLIS = 5000;
+
+    private final DiscordJar bot;
+    private final GatewayTransportCompressionType compressionType;
+    private final GatewayEncoding encoding;
+    private final Logger logger = Logger.getLogger("ShardManager");
+    private final Map<Integer, Gateway> shards = Collections.synchronizedMap(new TreeMap<>());
+    private volatile int shardCount;
+    private final boolean managed;
+    private final IdentifyLimiter identifyLimiter;
+    private final GatewaySessionStore sessionStore;
+    private volatile Reshard reshard;
+
+    /**
+     * @param sessionStore Where shard sessions are persisted, or null to always IDENTIFY on start. See {@link GatewaySessionStore}.
+     */
+    public ShardManager(@NotNull DiscordJar bot, int shardId, int shardCount, GatewayTransportCompressionType compressionType, GatewayEncoding encoding,
+                        @Nullable GatewaySessionStore sessionStore) {
+        this.bot = bot;
+        this.compressionType = compressionType;
+        this.encoding = encoding;
+        this.sessionStore = sessionStore;
+
+        if (shardId == -1 && (shardCount > 1 || shardCount == RECOMMENDED_SHARD_COUNT)) {
+            JSONObject gatewayBot = fetchGatewayBot();
+            int recommended = gatewayBot == null ? 1 : gatewayBot.optInt("shards", 1);
+            int maxConcurrency = gatewayBot == null ? 1 : gatewayBot.optJSONObject("session_start_limit", new JSONObject()).optInt("max_concurrency", 1);
+
+            this.shardCount = shardCount == RECOMMENDED_SHARD_COUNT ? Math.max(1, recommended) : shardCount;
+            this.managed = true;
+            this.identifyLimiter = new IdentifyLimiter(maxConcurrency);
+
+            if (gatewayBot != null && gatewayBot.has("session_start_limit")) {
+                int remaining = gatewayBot.getJSONObject("session_start_limit").optInt("remaining", Integer.MAX_VALUE);
+                if (remaining < this.shardCount) {
+                    logger.warning("[ShardManager] Only " + remaining + " session starts remaining, but " + this.shardCount + " shards need to identify.");
+                }
+            }
+            if (bot.isDebug()) logger.info("[ShardManager] Running " + this.shardCount + " shards with a max concurrency of " + maxConcurrency);
+        } else {
+            this.shardCount = shardId == -1 ? 1 : shardCount;
+            this.managed = false;
+            this.identifyLimiter = new IdentifyLimiter(1);
+        }
+    }
+
+    /**
+     * Starts all shards this manager is responsible for.
+     * <br>Connections are opened straight away, the {@link IdentifyLimiter} decides when each shard may IDENTIFY.
+     *
+     * @param shardId The shard id passed to {@link #ShardManager(DiscordJar, int, int, GatewayTransportCompressionType, GatewayEncoding, GatewaySessionStore)}.
+     */
+    public void start(int shardId) {
+        if (!managed) {
+            shards.put(Math.max(shardId, 0), buildShard(shardId, shardId == -1 ? -1 : shardCount));
+            return;
+        }
+
+        for (int i = 0; i < shardCount; i++) {
+            shards.put(i, buildShard(i, shardCount));
+        }
+    }
+
+    private Gateway buildShard(int shardId, int shardCount) {
+        return buildShard(shardId, shardCount, false);
+    }
+
+    /**
+     * @param resharded Whether the shard is part of a reshard, which records to a separate file, as the old shard with the
+     *                  same id still records to its own.
+     */
+    private Gateway buildShard(int shardId, int shardCount, boolean resharded) {
+        Gateway.Builder builder = Gateway.builder(bot)
+                .setShardCount(shardCount)
+                .setShardId(shardId)
+                .setTransportCompressionType(compressionType)
+                .setEncoding(encoding)
+                .setIdentifyLimiter(identifyLimiter)
+                .setSessionStore(sessionStore);
+        if (bot.getGatewayRecordingDirectory() != null) {
+            String name = "gateway-" + (shardId == -1 ? "main" : String.valueOf(shardId)) + (resharded ? "-of-" + shardCount : "") + ".djfr";
+            builder.setRecording(bot.getGatewayRecordingDirectory().resolve(name), bot.getGatewayRecordingMode());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the shard that handles the given guild, using {@code (guild_id >> 22) % shard_count}.
+     * <br>If this process only runs a single shard, that shard is returned.
+     *
+     * @param guildId The id of the guild.
+     */
+    @NotNull
+    public Gateway getShardForGuild(@NotNull String guildId) {
+        if (!managed) return getPrimaryShard();
+        Reshard current = reshard;
+        if (current != null) {
+            int newShardId = shardOf(guildId, current.shardCount);
+            if (current.activated.containsKey(newShardId)) return current.shards.get(newShardId);
+        }
+        Gateway shard = shards.get(shardOf(guildId, shardCount));
+        return shard == null ? getPrimaryShard() : shard;
+    }
+
+    private static int shardOf(@NotNull String guildId, int shardCount) {
+        return (int) ((Long.parseUnsignedLong(guildId) >> 22) % shardCount);
+    }
+
+    /**
+     * Returns the shard with the lowest id run by this process.
+     */
+    public Gateway getPrimaryShard() {
+        synchronized (shards) {
+            return shards.isEmpty() ? null : shards.values().iterator().next();
+        }
+    }
+
+    /**
+     * Returns the shard with the given id, or null if it isn't run by this process.
+     */
+    public Gateway getShard(int shardId) {
+        return shards.get(shardId);
+    }
+
+    /**
+     * Returns every shard run by this process, ordered by shard id.
+     */
+    @NotNull
+    public List<Gateway> getShards() {
+        synchronized (shards) {
+            return new ArrayList<>(shards.values());
+        }
+    }
+
+    /**
+     * Returns the total amount of shards the bot uses, including shards run by other processes.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns whether every shard is run by this manager.
+     */
+    public boolean isManaged() {
+        return managed;
+    }
+
+    public IdentifyLimiter getIdentifyLimiter() {
+        return identifyLimiter;
+    }
+
+    /**
+     * Moves every shard to a new shard count without downtime, for bots that outgrew their shard count.
+     * <ol>
+     *     <li>The new shards connect next to the old ones, identifying as the {@link IdentifyLimiter} allows.</li>
+     *     <li>While both run, Discord sends every event to an old and a new shard. A new shard takes over passing on the
+     *     events of its guilds once it's READY and loaded them, until then the old shards do. DMs follow the new shard 0,
+     *     interactions are passed on by whichever shard receives them first.</li>
+     *     <li>Once every new shard took over, the old shards are shut down, and the new ones replace them in {@link #getShards()}.</li>
+     * </ol>
+     * Both shard sets share the bot's caches, REST layer and listeners throughout. Listeners don't see the GUILD_CREATEs
+     * of new shards loading their guilds.
+     *
+     * @param newShardCount The new shard count, or {@link #RECOMMENDED_SHARD_COUNT} to use Discord's recommendation.
+     * @return A future that completes once the old shards are shut down.
+     * @throws IllegalStateException If the shards aren't managed by this manager, or a reshard is already running.
+     */
+    @NotNull
+    public CompletableFuture<Void> reshard(int newShardCount) {
+        if (!managed) throw new IllegalStateException("Only managed shards can be resharded, shards run by other processes need a restart");
+        if (reshard != null) throw new IllegalStateException("A reshard is already running");
+        if (newShardCount == RECOMMENDED_SHARD_COUNT) {
+            JSONObject gatewayBot = fetchGatewayBot();
+            newShardCount = gatewayBot == null ? shardCount : Math.max(1, gatewayBot.optInt("shards", shardCount));
+        }
+        if (newShardCount < 1) throw new IllegalArgumentException("The shard count must be positive");
+
+        Reshard current;
+        synchronized (this) {
+            if (reshard != null) throw new IllegalStateException("A reshard is already running");
+            if (newShardCount == shardCount) return CompletableFuture.completedFuture(null);
+            logger.info("[ShardManager] Resharding from " + shardCount + " to " + newShardCount + " shards");
+            current = new Reshard(newShardCount);
+            // Set before the new shards connect, so their events are held back right away
+            reshard = current;
+        }
+        // Building a shard may block on REST requests, which mustn't hold up abortReshard() or the activation of other shards
+        for (int i = 0; i < newShardCount && reshard == current; i++) {
+            int shardId = i;
+            Gateway shard = buildShard(shardId, newShardCount, true);
+            current.shards.put(shardId, shard);
+            if (reshard != current) {
+                // Aborted while it was built, abortReshard() may not have seen it
+                shard.shutdown(false);
+                break;
+            }
+            shard.getReadiness().getGuildsLoaded().thenRun(() -> activate(current, shardId));
+        }
+        return current.done;
+    }
+
+    /**
+     * Returns whether a reshard is running, see {@link #reshard(int)}.
+     */
+    public boolean isResharding() {
+        return reshard != null;
+    }
+
+    /**
+     * Stops a running reshard, shutting down the new shards. Guilds the new shards already took over go back to the old ones.
+     */
+    public synchronized void abortReshard() {
+        Reshard current = reshard;
+        if (current == null) return;
+        reshard = null;
+        for (Gateway shard : current.shards.values()) {
+            shard.shutdown(false);
+        }
+        current.done.completeExceptionally(new CancellationException("The reshard was aborted"));
+        logger.warning("[ShardManager] Reshard to " + current.shardCount + " shards was aborted");
+    }
+
+    private void activate(Reshard current, int shardId) {
+        synchronized (this) {
+            if (reshard != current) return;
+            current.activated.put(shardId, System.nanoTime());
+            if (bot.isDebug()) logger.info("[ShardManager] New shard " + shardId + "/" + current.shardCount + " took over its guilds");
+            if (current.activated.size() < current.shardCount) return;
+        }
+        // Old shards pass on what new shards missed right before taking over, until the handover is done
+        CompletableFuture.runAsync(() -> finishReshard(current),
+                CompletableFuture.delayedExecutor(RESHARD_HANDOVER_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private void finishReshard(Reshard current) {
+        synchronized (this) {
+            if (reshard != current) return;
+            // Shut down first, as old shards would pass on everything they still receive once the reshard is over
+            List<Gateway> oldShards = getShards();
+            for (Gateway shard : oldShards) {
+                shard.shutdown(false);
+            }
+            synchronized (shards) {
+                shards.clear();
+                shards.putAll(current.shards);
+            }
+            shardCount = current.shardCount;
+            reshard = null;
+        }
+        logger.info("[ShardManager] Resharded to " + current.shardCount + " shards");
+        current.done.complete(null);
+    }
+
+    /**
+     * Decides whether a shard passes a dispatch on to listeners. Always true, unless a reshard is running - then only the
+     * shard that currently owns the event's guild does, see {@link #reshard(int)}.
+     */
+    boolean shouldDispatch(@NotNull Gateway shard, @NotNull DispatchedEvents event, @NotNull JSONObject payload) {
+        Reshard current = reshard;
+        if (current == null) return true;
+        JSONObject data = payload.optJSONObject("d");
+        boolean newShard = shard.getShardCount() == current.shardCount;
+        if (newShard) current.receiving.add(shard.getShardId());
+        String guildId = data == null ? null : data.optString("guild_id", null);
+        if (guildId == null && data != null && event.name().startsWith("GUILD_") && data.has("id")) guildId = data.getString("id");
+        // Events without a guild, such as DMs, are sent to shard 0
+        int newShardId = guildId == null ? 0 : shardOf(guildId, current.shardCount);
+        boolean owner = true;
+        if (event != DispatchedEvents.INTERACTION_CREATE) {
+            Long activatedAt = current.activated.get(newShardId);
+            if (newShard) {
+                owner = activatedAt != null;
+            } else {
+                owner = activatedAt == null || System.nanoTime() - activatedAt < TimeUnit.MILLISECONDS.toNanos(RESHARD_HANDOVER_MILLIS);
+            }
+        }
+        // Until the new shard receives events, the old shard's events have no copy to be matched with
+        if (!newShard && !current.receiving.contains(newShardId)) return owner;
+        // Events the shard doesn't pass on still go through, so they are matched with the other set's copy
+        return current.deliver(payload.optString("t"), data, newShard, owner);
+    }
+
+    /**
+     * State of a running reshard.
+     */
+    private static final class Reshard {
+        final int shardCount;
+        final Map<Integer, Gateway> shards = new ConcurrentHashMap<>();
+        // New shard id -> when it took over its guilds, in System.nanoTime()
+        final Map<Integer, Long> activated = new ConcurrentHashMap<>();
+        // New shard ids that received their first dispatch
+        final Set<Integer> receiving = ConcurrentHashMap.newKeySet();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        // Fingerprints of dispatches -> the shard set that received them, whose copies the other set hasn't received yet
+        private final Map<Long, Delivery> unmatched = new ConcurrentHashMap<>();
+        private final AtomicInteger sinceCleanup = new AtomicInteger();
+
+        Reshard(int shardCount) {
+            this.shardCount = shardCount;
+        }
+
+        /**
+         * Matches a dispatch with the copy the other shard set received, and returns whether to pass it on.
+         * <br>Discord sends every dispatch to one old and one new shard, so of two identical dispatches, only one from each set
+         * are copies of each other. Identical dispatches received by the same set, such as typing twice within a second, are
+         * separate events. Of two copies, the first one whose shard owns the guild is passed on.
+         *
+         * @param newShard Whether a new shard received the dispatch.
+         * @param owner    Whether the shard that received the dispatch owns its guild.
+         */
+        boolean deliver(String type, @Nullable JSONObject data, boolean newShard, boolean owner) {
+            long now = System.nanoTime();
+            long expired = now - TimeUnit.MILLISECONDS.toNanos(RESHARD_HANDOVER_MILLIS * 2);
+            if (sinceCleanup.incrementAndGet() >= 4096) {
+                sinceCleanup.set(0);
+                unmatched.values().removeIf(delivery -> delivery.at() < expired);
+            }
+            boolean[] pass = {owner};
+            unmatched.compute(fingerprint(type, data == null ? "" : data.toString()), (fingerprint, delivery) -> {
+                if (delivery != null && delivery.at() < expired) delivery = null;
+                if (delivery == null || delivery.newShard() == newShard) {
+                    int passed = delivery == null ? 0 : delivery.passed();
+                    int held = delivery == null ? 0 : delivery.held();
+                    // Keeps the time of the oldest copy, so copies that never get matched expire
+                    long at = delivery == null ? now : delivery.at();
+                    return owner ? new Delivery(newShard, passed + 1, held, at) : new Delivery(newShard, passed, held + 1, at);
+                }
+                // The other set's copy, if it was passed on this one mustn't be
+                if (delivery.passed() > 0) {
+                    pass[0] = false;
+                    return delivery.withoutOne(true);
+                }
+                return delivery.withoutOne(false);
+            });
+            return pass[0];
+        }
+
+        /**
+         * Copies of a dispatch one shard set received that the other set didn't receive yet.
+         *
+         * @param passed How many were passed on.
+         * @param held   How many were held back, as the receiving shard didn't own the guild.
+         * @param at     When the oldest of them was received, in System.nanoTime().
+         */
+        private record Delivery(boolean newShard, int passed, int held, long at) {
+
+            /**
+             * Returns this without one passed on or held back copy, or null if none are left.
+             */
+            @Nullable
+            Delivery withoutOne(boolean passedOn) {
+                if (passed + held == 1) return null;
+                return passedOn ? new Delivery(newShard, passed - 1, held, at) : new Delivery(newShard, passed, held - 1, at);
+            }
+        }
+
+        private static long fingerprint(String type, String data) {
+            // 64-bit FNV-1a, a 32-bit hash would collide too often on busy bots
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < type.length(); i++) hash = (hash ^ type.charAt(i)) * 0x100000001b3L;
+            for (int i = 0; i < data.length(); i++) hash = (hash ^ data.charAt(i)) * 0x100000001b3L;
+            return hash;
+        }
+    }
+
+    /**
+     * Disconnects every shard.
+     */
+    public void disconnectAll(@NotNull CloseStatus closeStatus) {
+        for (Gateway shard : getShards()) {
+            shard.disconnect(closeStatus);
+        }
+    }
+
+    /**
+     * Shuts every shard down for good, saving their sessions if a {@link GatewaySessionStore} is used. A running reshard is aborted.
+     * @see Gateway#shutdown()
+     */
+    public void shutdownAll() {
+        abortReshard();
+        for (Gateway shard : getShards()) {
+            shard.shutdown();
+        }
+    }
+
+    private JSONObject fetchGatewayBot() {
+        try {
+            DiscordResponse response = new DiscordRequest(
+                    new JSONObject(),
+                    new HashMap<>(),
+                    URLS.GET.GATEWAY.GET_GATEWAY_BOT,
+                    bot,
+                    URLS.GET.GATEWAY.GET_GATEWAY_BOT,
+                    RequestMethod.GET
+            ).invoke();
+            if (response == null || response.code() != 200) return null;
+            return response.body();
+        } catch (DiscordRequest.UnhandledDiscordAPIErrorException | DiscordRequest.DiscordUnexpectedError e) {
+            logger.warning("[ShardManager] Failed to retrieve /gateway/bot, assuming a max concurrency of 1: " + e.getMessage());
+            return null;
+        }
+    }
+}
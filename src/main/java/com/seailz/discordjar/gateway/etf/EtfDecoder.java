@@ -0,0 +1,180 @@
+package com.seailz.discordjar.gateway.etf;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes <a href="https://www.erlang.org/doc/apps/erts/erl_ext_dist.html">Erlang external term format</a> payloads
+ * sent by the Gateway when connected with {@code encoding=etf}.
+ * <br>Terms are decoded into the same {@link JSONObject} structure the JSON encoding produces, so ETF payloads can go
+ * through the same dispatch path:
+ * <ul>
+ *     <li>Maps become {@link JSONObject}s, lists and tuples become {@link JSONArray}s.</li>
+ *     <li>Binaries become UTF-8 strings.</li>
+ *     <li>The atoms {@code nil}, {@code true} and {@code false} become {@link JSONObject#NULL} and booleans, other atoms become strings.</li>
+ *     <li>Big integers become strings. Discord only uses them for snowflakes, which are strings in the JSON encoding.</li>
+ * </ul>
+ *
+ * <p>This class is not thread-safe, every connection should use its own instance.
+ *
+ * @see EtfEncoder
+ * @see <a href="https://discord.com/developers/docs/topics/gateway#encoding-and-compression">Encoding and Compression</a>
+ * @since b-1.1
+ */
+public class EtfDecoder {
+
+    private byte[] data;
+    private int position;
+
+    /**
+     * Decodes a full ETF payload.
+     *
+     * @param data   The buffer containing the payload.
+     * @param offset The offset of the payload in the buffer.
+     * @param length The length of the payload.
+     * @return The decoded payload.
+     * @throws IllegalArgumentException If the payload isn't a valid ETF map.
+     */
+    public JSONObject decode(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        int end = offset + length;
+        try {
+            int version = readUnsignedByte();
+            if (version != EtfConstants.FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported ETF version " + version);
+            }
+            Object term = readTerm();
+            if (position != end) throw new IllegalArgumentException("Trailing bytes after ETF term");
+            if (!(term instanceof JSONObject)) throw new IllegalArgumentException("Expected an ETF map, got " + term.getClass().getSimpleName());
+            return (JSONObject) term;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated ETF payload", e);
+        } finally {
+            this.data = null;
+        }
+    }
+
+    private Object readTerm() {
+        int tag = readUnsignedByte();
+        return switch (tag) {
+            case EtfConstants.SMALL_INTEGER_EXT -> readUnsignedByte();
+            case EtfConstants.INTEGER_EXT -> readInt();
+            case EtfConstants.NEW_FLOAT_EXT -> Double.longBitsToDouble(readLong());
+            case EtfConstants.FLOAT_EXT -> {
+                String value = new String(data, position, 31, StandardCharsets.US_ASCII).trim();
+                position += 31;
+                yield Double.parseDouble(value);
+            }
+            case EtfConstants.ATOM_EXT, EtfConstants.ATOM_UTF8_EXT -> readAtom(readUnsignedShort());
+            case EtfConstants.SMALL_ATOM_EXT, EtfConstants.SMALL_ATOM_UTF8_EXT -> readAtom(readUnsignedByte());
+            case EtfConstants.SMALL_TUPLE_EXT -> readArray(readUnsignedByte());
+            case EtfConstants.LARGE_TUPLE_EXT -> readArray(readInt());
+            case EtfConstants.NIL_EXT -> new JSONArray();
+            case EtfConstants.STRING_EXT -> readCharList(readUnsignedShort());
+            case EtfConstants.LIST_EXT -> readList(readInt());
+            case EtfConstants.BINARY_EXT -> readString(readInt());
+            case EtfConstants.SMALL_BIG_EXT -> readBig(readUnsignedByte());
+            case EtfConstants.LARGE_BIG_EXT -> readBig(readInt());
+            case EtfConstants.MAP_EXT -> readMap(readInt());
+            default -> throw new IllegalArgumentException("Unsupported ETF tag " + tag + " at position " + (position - 1));
+        };
+    }
+
+    private Object readAtom(int length) {
+        // nil, true and false make up almost every atom Discord sends, so check those before allocating a string
+        if (length == 3 && data[position] == 'n' && data[position + 1] == 'i' && data[position + 2] == 'l') {
+            position += 3;
+            return JSONObject.NULL;
+        }
+        if (length == 4 && data[position] == 't' && data[position + 1] == 'r' && data[position + 2] == 'u' && data[position + 3] == 'e') {
+            position += 4;
+            return Boolean.TRUE;
+        }
+        if (length == 5 && data[position] == 'f' && data[position + 1] == 'a' && data[position + 2] == 'l' && data[position + 3] == 's' && data[position + 4] == 'e') {
+            position += 5;
+            return Boolean.FALSE;
+        }
+        return readString(length);
+    }
+
+    private JSONObject readMap(int arity) {
+        JSONObject object = new JSONObject();
+        for (int i = 0; i < arity; i++) {
+            Object key = readTerm();
+            Object value = readTerm();
+            object.put(String.valueOf(key), value);
+        }
+        return object;
+    }
+
+    private JSONArray readArray(int arity) {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < arity; i++) {
+            array.put(readTerm());
+        }
+        return array;
+    }
+
+    private JSONArray readList(int length) {
+        JSONArray array = readArray(length);
+        Object tail = readTerm();
+        // Proper lists end with NIL_EXT, which decodes to an empty array. Anything else is an improper list.
+        if (!(tail instanceof JSONArray && ((JSONArray) tail).isEmpty())) array.put(tail);
+        return array;
+    }
+
+    private JSONArray readCharList(int length) {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < length; i++) {
+            array.put(readUnsignedByte());
+        }
+        return array;
+    }
+
+    private String readString(int length) {
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private String readBig(int length) {
+        int sign = readUnsignedByte();
+        if (length <= 8) {
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value |= (long) (data[position + i] & 0xFF) << (8 * i);
+            }
+            position += length;
+            String digits = Long.toUnsignedString(value);
+            return sign == 0 ? digits : "-" + digits;
+        }
+
+        byte[] magnitude = new byte[length];
+        for (int i = 0; i < length; i++) {
+            magnitude[length - 1 - i] = data[position + i];
+        }
+        position += length;
+        BigInteger value = new BigInteger(1, magnitude);
+        return (sign == 0 ? value : value.negate()).toString();
+    }
+
+    private int readUnsignedByte() {
+        return data[position++] & 0xFF;
+    }
+
+    private int readUnsignedShort() {
+        return (readUnsignedByte() << 8) | readUnsignedByte();
+    }
+
+    private int readInt() {
+        return (readUnsignedByte() << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+    }
+
+    private long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+}
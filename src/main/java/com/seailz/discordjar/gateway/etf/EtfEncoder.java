@@ -0,0 +1,141 @@
+package com.seailz.discordjar.gateway.etf;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes Gateway payloads into the <a href="https://www.erlang.org/doc/apps/erts/erl_ext_dist.html">Erlang external term format</a>
+ * for connections using {@code encoding=etf}.
+ * <br>Objects become maps with binary keys, strings become binaries, and {@code null} becomes the {@code nil} atom.
+ *
+ * <p>The output buffer is reused between payloads, so this class is not thread-safe.
+ *
+ * @see EtfDecoder
+ * @since b-1.1
+ */
+public class EtfEncoder {
+
+    private static final byte[] NIL = {'n', 'i', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private byte[] buffer = new byte[1024];
+    private int position;
+
+    /**
+     * Encodes a payload.
+     *
+     * @param payload The payload to encode.
+     * @return A new array containing the encoded payload.
+     */
+    public byte[] encode(JSONObject payload) {
+        position = 0;
+        writeByte(EtfConstants.FORMAT_VERSION);
+        writeTerm(payload);
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeTerm(Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            writeAtom(NIL);
+        } else if (value instanceof JSONObject object) {
+            writeByte(EtfConstants.MAP_EXT);
+            writeInt(object.length());
+            for (String key : object.keySet()) {
+                writeBinary(key);
+                writeTerm(object.opt(key));
+            }
+        } else if (value instanceof JSONArray array) {
+            if (!array.isEmpty()) {
+                writeByte(EtfConstants.LIST_EXT);
+                writeInt(array.length());
+                for (int i = 0; i < array.length(); i++) {
+                    writeTerm(array.opt(i));
+                }
+            }
+            writeByte(EtfConstants.NIL_EXT);
+        } else if (value instanceof String string) {
+            writeBinary(string);
+        } else if (value instanceof Boolean bool) {
+            writeAtom(bool ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof BigInteger big) {
+            if (big.bitLength() < 64) writeLong(big.longValue());
+            else writeBig(big);
+        } else if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            writeByte(EtfConstants.NEW_FLOAT_EXT);
+            long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        } else {
+            writeBinary(value.toString());
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value >= 0 && value <= 255) {
+            writeByte(EtfConstants.SMALL_INTEGER_EXT);
+            writeByte((int) value);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            writeByte(EtfConstants.INTEGER_EXT);
+            writeInt((int) value);
+        } else {
+            writeBig(BigInteger.valueOf(value));
+        }
+    }
+
+    private void writeBig(BigInteger value) {
+        byte[] magnitude = value.abs().toByteArray();
+        // toByteArray() is big-endian and may have a leading sign byte, ETF wants little-endian without one
+        int start = magnitude[0] == 0 ? 1 : 0;
+        int length = magnitude.length - start;
+        writeByte(EtfConstants.SMALL_BIG_EXT);
+        writeByte(length);
+        writeByte(value.signum() < 0 ? 1 : 0);
+        ensureCapacity(length);
+        for (int i = magnitude.length - 1; i >= start; i--) {
+            buffer[position++] = magnitude[i];
+        }
+    }
+
+    private void writeAtom(byte[] name) {
+        writeByte(EtfConstants.SMALL_ATOM_UTF8_EXT);
+        writeByte(name.length);
+        ensureCapacity(name.length);
+        System.arraycopy(name, 0, buffer, position, name.length);
+        position += name.length;
+    }
+
+    private void writeBinary(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeByte(EtfConstants.BINARY_EXT);
+        writeInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra <= buffer.length) return;
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+    }
+}
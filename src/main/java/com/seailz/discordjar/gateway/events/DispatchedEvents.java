@@ -1,6 +1,7 @@
 package com.seailz.discordjar.gateway.events;
 
 import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.cache.CacheType;
 import com.seailz.discordjar.events.model.Event;
 import com.seailz.discordjar.events.model.automod.AutoModExecutionEvent;
 import com.seailz.discordjar.events.model.automod.rule.AutoModRuleCreateEvent;
@@ -32,6 +33,7 @@ import com.seailz.discordjar.events.model.interaction.select.entity.UserSelectMe
 import com.seailz.discordjar.events.model.message.MessageCreateEvent;
 import com.seailz.discordjar.events.model.message.TypingStartEvent;
 import com.seailz.discordjar.gateway.Gateway;
+import com.seailz.discordjar.gateway.MemberChunkRequest;
 import com.seailz.discordjar.command.CommandType;
 import com.seailz.discordjar.model.channel.Channel;
 import com.seailz.discordjar.model.component.ComponentType;
@@ -44,11 +46,16 @@ import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
 import com.seailz.discordjar.voice.model.VoiceServerUpdate;
 import com.seailz.discordjar.voice.model.VoiceState;
+import org.jetbrains.annotations.NotNull;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -76,37 +83,37 @@ public enum DispatchedEvents {
     RESUMED((p, d, g) -> GatewayResumedEvent.class),
 
     /* COMMANDS */
-    APPLICATION_COMMAND_PERMISSIONS_UPDATE((p, g, d) -> CommandPermissionUpdateEvent.class),
+    APPLICATION_COMMAND_PERMISSIONS_UPDATE(CommandPermissionUpdateEvent.class),
 
     /* AUTOMOD */
-    AUTO_MODERATION_RULE_CREATE((p, g, d) -> AutoModRuleCreateEvent.class),
-    AUTO_MODERATION_RULE_UPDATE((p, g, d) -> AutoModRuleUpdateEvent.class),
-    AUTO_MODERATION_RULE_DELETE((p, g, d) -> AutoModRuleDeleteEvent.class),
-    AUTO_MODERATION_ACTION_EXECUTION((p, g, d) -> AutoModExecutionEvent.class),
+    AUTO_MODERATION_RULE_CREATE(AutoModRuleCreateEvent.class),
+    AUTO_MODERATION_RULE_UPDATE(AutoModRuleUpdateEvent.class),
+    AUTO_MODERATION_RULE_DELETE(AutoModRuleDeleteEvent.class),
+    AUTO_MODERATION_ACTION_EXECUTION(AutoModExecutionEvent.class),
 
     /* CHANNELS */
-    CHANNEL_CREATE((p, g, d) -> {
+    CHANNEL_CREATE(CacheType.CHANNELS, ChannelCreateEvent.class, (p, g, d) -> {
         // cache
         Channel channel = Channel.decompile(p.getJSONObject("d"), d);
         d.getChannelCache().cache(channel);
 
         return ChannelCreateEvent.class;
     }),
-    CHANNEL_UPDATE((p, g, d) -> {
+    CHANNEL_UPDATE(CacheType.CHANNELS, ChannelUpdateEvent.class, (p, g, d) -> {
         // modify cached channel, if it exists
         Channel channel = Channel.decompile(p.getJSONObject("d"), d);
         d.getChannelCache().cache(channel);
 
         return ChannelUpdateEvent.class;
     }),
-    CHANNEL_DELETE((p, g, d) -> {
+    CHANNEL_DELETE(CacheType.CHANNELS, ChannelDeleteEvent.class, (p, g, d) -> {
         // remove cached channel, if it exists
         Channel channel = Channel.decompile(p.getJSONObject("d"), d);
         d.getChannelCache().remove(channel);
 
         return ChannelDeleteEvent.class;
     }),
-    CHANNEL_PINS_UPDATE((p, g, d) -> ChannelPinsUpdateEvent.class),
+    CHANNEL_PINS_UPDATE(ChannelPinsUpdateEvent.class),
 
     //TODO: threads
 
@@ -120,25 +127,24 @@ public enum DispatchedEvents {
         g.getGuildCache().cache(guild);
 
         JSONArray arr = p.getJSONObject("d").getJSONArray("channels");
-        arr.forEach(o -> g.getChannelCache().cache(
-                Channel.decompile((JSONObject) o, g)
-        ));
-
-        // Cache all members
-        arr = p.getJSONObject("d").getJSONArray("members");
-        long start = System.currentTimeMillis();
         arr.forEach(o -> {
-            g.insertMemberCache(
-                    guild.id(), Member.decompile(
-                            (JSONObject) o,
-                            g,
-                            guild.id(),
-                            guild
-                    ),
-                    guild
-            );
+            // Channels in GUILD_CREATE don't have a guild_id, it's needed to tell which guild a cached channel belongs to
+            ((JSONObject) o).put("guild_id", guild.id());
+            g.getChannelCache().cache(Channel.decompile((JSONObject) o, g));
         });
-        if (g.isDebug()) Logger.getLogger("DiscordJar").log(Level.INFO, "Took " + (System.currentTimeMillis() - start) + "ms to cache all members");
+
+        // Cache all members. Large payloads have their members decoded while the frame is read, see GuildCreateDecoder.
+        List<Member> members = d.pollStreamedMembers();
+        if (members == null) {
+            members = new ArrayList<>();
+            JSONArray memberArray = p.getJSONObject("d").optJSONArray("members");
+            if (memberArray != null) {
+                for (Object o : memberArray) {
+                    members.add(Member.decompile((JSONObject) o, g, guild.id(), guild));
+                }
+            }
+        }
+        g.insertMemberCache(guild.id(), members, guild);
 
         arr = p.getJSONObject("d").getJSONArray("voice_states");
         arr.forEach(o -> {
@@ -149,16 +155,17 @@ public enum DispatchedEvents {
             );
         });
 
+        d.recordGuildCached(guild.id(), members.size());
         return GuildCreateEvent.class;
     }),
-    GUILD_UPDATE((p, g, d) -> {
+    GUILD_UPDATE(CacheType.GUILDS, GuildUpdateEvent.class, (p, g, d) -> {
         // modify cached guild, if it exists
         Guild guild = Guild.decompile(p.getJSONObject("d"), d);
         d.getGuildCache().cache(guild);
 
         return GuildUpdateEvent.class;
     }),
-    GUILD_DELETE((p, g, d) -> {
+    GUILD_DELETE(CacheType.GUILDS, GuildDeleteEvent.class, (p, g, d) -> {
         // remove cached guild, if it exists
         Guild guild = Guild.decompile(p.getJSONObject("d"), d);
         d.getGuildCache().remove(guild);
@@ -166,7 +173,7 @@ public enum DispatchedEvents {
         return GuildDeleteEvent.class;
     }),
     // TODO: other guild events
-    GUILD_MEMBER_ADD((p, g, d) -> {
+    GUILD_MEMBER_ADD(CacheType.MEMBERS, GuildMemberAddEvent.class, (p, g, d) -> {
         String guildId = p.getJSONObject("d").getString("guild_id");
         d.insertMemberCache(guildId, Member.decompile(
                 p.getJSONObject("d"),
@@ -176,12 +183,12 @@ public enum DispatchedEvents {
         ), d.getGuildById(guildId));
         return GuildMemberAddEvent.class;
     }),
-    GUILD_MEMBER_REMOVE((p, g, d) -> {
+    GUILD_MEMBER_REMOVE(CacheType.MEMBERS, GuildMemberRemoveEvent.class, (p, g, d) -> {
         String guildId = p.getJSONObject("d").getString("guild_id");
         d.removeMemberCache(guildId, p.getJSONObject("d").getJSONObject("user").getString("id"));
         return GuildMemberRemoveEvent.class;
     }),
-    GUILD_MEMBER_UPDATE((p, g, d) -> {
+    GUILD_MEMBER_UPDATE(CacheType.MEMBERS, GuildMemberUpdateEvent.class, (p, g, d) -> {
         String guildId = p.getJSONObject("d").getString("guild_id");
         d.insertMemberCache(guildId, Member.decompile(
                 p.getJSONObject("d"),
@@ -202,24 +209,25 @@ public enum DispatchedEvents {
             return null;
         }
 
-        Gateway.MemberChunkStorageWrapper wrapper = g.memberRequestChunks.get(nonce);
-        if (wrapper == null) {
-            Logger.getLogger("DispatchedEvents").warning("[discord.jar] Received member chunk with unknown nonce: " + nonce);
+        MemberChunkRequest request = g.getMemberRequest(nonce);
+        if (request == null) {
+            Logger.getLogger("DispatchedEvents").warning("[discord.jar] Received member chunk with unknown or timed out nonce: " + nonce);
             return null;
         }
 
-        JSONArray members = payload.getJSONArray("members");
-        members.forEach(member -> {
-            wrapper.addMember(Member.decompile((JSONObject) member, d, payload.getString("guild_id"), d.getGuildById(payload.getString("guild_id"))));
-        });
+        String guildId = payload.getString("guild_id");
+        JSONArray memberArray = payload.getJSONArray("members");
+        List<Member> members = new ArrayList<>(memberArray.length());
+        for (Object member : memberArray) {
+            members.add(Member.decompile((JSONObject) member, d, guildId, null));
+        }
+        if (request.isCacheMembers()) d.insertMemberCache(guildId, members, null);
 
-        int chunkCount = payload.getInt("chunk_count") - 1;
-        int chunkIndex = payload.getInt("chunk_index");
+        List<String> notFound = new ArrayList<>();
+        JSONArray notFoundArray = payload.optJSONArray("not_found");
+        if (notFoundArray != null) notFoundArray.forEach(id -> notFound.add(String.valueOf(id)));
 
-        if (chunkCount == chunkIndex) {
-            g.memberRequestChunks.get(nonce).complete();
-            g.memberRequestChunks.remove(nonce);
-        }
+        request.onChunk(members, payload.getInt("chunk_index"), payload.getInt("chunk_count"), notFound);
         return null;
     }),
     // TODO: other guild events
@@ -254,14 +262,14 @@ public enum DispatchedEvents {
 
                 switch (CommandType.fromCode(p.getJSONObject("d").getJSONObject("data").getInt("type"))) {
                     case SLASH_COMMAND ->
-                            event = new SlashCommandInteractionEvent(d, Gateway.lastSequenceNumber, p);
-                    case USER -> event = new UserContextCommandInteractionEvent(d, Gateway.lastSequenceNumber, p);
+                            event = new SlashCommandInteractionEvent(d, g.getLastSequenceNumber(), p);
+                    case USER -> event = new UserContextCommandInteractionEvent(d, g.getLastSequenceNumber(), p);
                     case MESSAGE ->
-                            event = new MessageContextCommandInteractionEvent(d, Gateway.lastSequenceNumber, p);
+                            event = new MessageContextCommandInteractionEvent(d, g.getLastSequenceNumber(), p);
                 }
 
                 d.getCommandDispatcher().dispatch(p.getJSONObject("d").getJSONObject("data").getString("name"),
-                        event);
+                        event, g::deliverToListeners);
                 return CommandInteractionEvent.class;
             }
             case MESSAGE_COMPONENT -> {
@@ -304,7 +312,7 @@ public enum DispatchedEvents {
     // TODO: invites
 
     /* MESSAGES */
-    MESSAGE_CREATE((p, d, g) -> MessageCreateEvent.class),
+    MESSAGE_CREATE(MessageCreateEvent.class),
     // TODO: other message events
 
     // TODO: Presence update
@@ -312,7 +320,7 @@ public enum DispatchedEvents {
     // TODO: stage instance
 
     /* TYPING */
-    TYPING_START((p, d, g) -> TypingStartEvent.class),
+    TYPING_START(TypingStartEvent.class),
 
     // TODO: User update
 
@@ -340,22 +348,61 @@ public enum DispatchedEvents {
     ;
 
     private final TriFunction<JSONObject, Gateway, DiscordJar, Class<? extends Event>> event;
+    private final CacheType cacheType;
+    private final Class<? extends Event> eventClass;
 
     DispatchedEvents(TriFunction<JSONObject, Gateway, DiscordJar, Class<? extends Event>> event) {
+        this(null, null, event);
+    }
+
+    /**
+     * For events that only need to be turned into an {@link Event}.
+     */
+    DispatchedEvents(Class<? extends Event> eventClass) {
+        this(null, eventClass, (p, g, d) -> eventClass);
+    }
+
+    /**
+     * For events that only update the cache of the given type before being turned into the given {@link Event}.
+     */
+    DispatchedEvents(CacheType cacheType, Class<? extends Event> eventClass, TriFunction<JSONObject, Gateway, DiscordJar, Class<? extends Event>> event) {
         this.event = event;
+        this.cacheType = cacheType;
+        this.eventClass = eventClass;
     }
 
     public TriFunction<JSONObject, Gateway, DiscordJar, Class<? extends Event>> getEvent() {
         return event;
     }
 
+    /**
+     * Returns whether this event can be dropped without being parsed, which is the case if nothing would observe it -
+     * no listener is registered for its event class and the cache it updates, if any, is disabled.
+     * <br>Events with other side effects, such as READY, GUILD_CREATE or INTERACTION_CREATE, are never skipped.
+     */
+    public boolean canSkip(@NotNull DiscordJar bot) {
+        if (eventClass == null) return false;
+        if (cacheType != null && (bot.getCacheTypes().contains(cacheType) || bot.getCacheTypes().contains(CacheType.ALL))) return false;
+        return !bot.getEventDispatcher().hasListeners(eventClass);
+    }
+
+    /**
+     * Returns the event with the given name, ignoring case, or {@link #UNKNOWN} if there's none.
+     * <br>Names sent by Discord are upper case already, so they're found with a single hash lookup.
+     */
     public static DispatchedEvents getEventByName(String name) {
+        if (name == null) return UNKNOWN;
+        DispatchedEvents event = BY_NAME.get(name);
+        if (event == null) event = BY_NAME.get(name.toUpperCase(Locale.ROOT));
+        return event == null ? UNKNOWN : event;
+    }
+
+    private static final Map<String, DispatchedEvents> BY_NAME = new HashMap<>();
+
+    static {
         for (DispatchedEvents event : values()) {
-            if (event.name().equalsIgnoreCase(name)) {
-                return event;
-            }
+            BY_NAME.put(event.name(), event);
         }
-        return UNKNOWN;
     }
 
 }
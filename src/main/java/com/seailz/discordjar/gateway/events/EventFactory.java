@@ -0,0 +1,85 @@
+package com.seailz.discordjar.gateway.events;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.events.model.Event;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates an {@link Event} from a dispatch payload.
+ * <br>Factories are generated once per event class with {@link LambdaMetafactory}, binding straight to the class'
+ * {@code (DiscordJar, long, JSONObject)} constructor, so dispatching an event doesn't go through reflection.
+ *
+ * @see DispatchedEvents
+ * @since b-1.1
+ */
+@FunctionalInterface
+public interface EventFactory {
+
+    Event create(DiscordJar bot, long sequence, JSONObject payload);
+
+    /**
+     * Returns the factory for the given event class, generating it the first time the class is seen.
+     *
+     * @throws IllegalArgumentException If the class doesn't have a public {@code (DiscordJar, long, JSONObject)} constructor.
+     */
+    @NotNull
+    static EventFactory forClass(@NotNull Class<? extends Event> eventClass) {
+        return Factories.FACTORIES.get(eventClass);
+    }
+
+    final class Factories {
+
+        private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, DiscordJar.class, long.class, JSONObject.class);
+        private static final MethodType FACTORY_TYPE = MethodType.methodType(Event.class, DiscordJar.class, long.class, JSONObject.class);
+
+        private static final ClassValue<EventFactory> FACTORIES = new ClassValue<>() {
+            @Override
+            protected EventFactory computeValue(Class<?> type) {
+                return generate(type);
+            }
+        };
+
+        private Factories() {}
+
+        private static EventFactory generate(Class<?> eventClass) {
+            MethodHandle constructor;
+            try {
+                constructor = MethodHandles.publicLookup().findConstructor(eventClass, CONSTRUCTOR_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException(eventClass.getName() + " doesn't have a public (DiscordJar, long, JSONObject) constructor", e);
+            }
+
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        MethodHandles.lookup(),
+                        "create",
+                        MethodType.methodType(EventFactory.class),
+                        FACTORY_TYPE,
+                        constructor,
+                        constructor.type()
+                );
+                return (EventFactory) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // The metafactory can refuse some classes, e.g. ones loaded by an unrelated class loader. The method handle
+                // is still a lot cheaper than a reflective lookup on every event.
+                MethodHandle factory = constructor.asType(FACTORY_TYPE);
+                return (bot, sequence, payload) -> {
+                    try {
+                        return (Event) factory.invokeExact(bot, sequence, payload);
+                    } catch (RuntimeException | Error ex) {
+                        throw ex;
+                    } catch (Throwable ex) {
+                        throw new RuntimeException(ex);
+                    }
+                };
+            }
+        }
+    }
+}
@@ -1,28 +1,58 @@
 package com.seailz.discordjar.gateway.heartbeat;
 
-import com.seailz.discordjar.gateway.Gateway;
 import com.seailz.discordjar.ws.WSPayloads;
 import com.seailz.discordjar.ws.WebSocket;
 import org.json.JSONObject;
 
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Every animal has a heart, and as we all know that websockets are animals, they also have hearts.
  * This is a stolen joke from Discord4J (SORRY)
  *
+ * <p>Heartbeats of every shard are scheduled on one shared executor, the first one after a random fraction of the interval
+ * as <a href="https://discord.com/developers/docs/topics/gateway#sending-heartbeats">Discord asks</a>. If the previous
+ * heartbeat still wasn't acknowledged when the next one is due, the connection is considered a zombie and the
+ * {@link #setOnZombie(Runnable) zombie handler} is called instead. The handler runs on a thread of its own, as reconnecting
+ * can take seconds and the heartbeats of the other shards mustn't wait for it.
+ *
  * @author SeaIlz
  */
 public class HeartLogic {
 
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "djar--heart-cycle");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Zombie handlers drop and reopen the connection, which blocks, so they're kept off the shared heartbeat thread
+    private static final ExecutorService ZOMBIE_HANDLERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "djar--heart-zombie");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
     private WebSocket socket;
     private long interval;
-    private long lastSequence = -1;
-    private final Map<UUID, Boolean> isInstanceStillRunning = new HashMap<>();
-    boolean running = true;
+    private volatile long lastSequence = -1;
+    private volatile Date lastHeartbeatSent;
+    private volatile long lastHeartbeatNanos;
+    private volatile boolean awaitingAck = false;
+    private Consumer<JSONObject> sender = payload -> socket.send(payload.toString());
+    private Runnable onZombie = () -> {};
+    private ScheduledFuture<?> cycle;
 
     public HeartLogic(WebSocket socket, long interval) {
         this.interval = interval;
@@ -42,52 +72,87 @@ public class HeartLogic {
     }
 
     public void restart() {
-        running = false;
-        startCycle();
+        start();
     }
 
-    public void stop() {
-        running = false;
+    /**
+     * Stops sending heartbeats until the cycle is started again.
+     */
+    public synchronized void stop() {
+        if (cycle != null) {
+            cycle.cancel(false);
+            cycle = null;
+        }
+        awaitingAck = false;
     }
 
     public void startCycle() {
-        running = true;
+        start();
     }
 
     public void setSocket(WebSocket socket) {
         this.socket = socket;
     }
 
+    /**
+     * Sets how heartbeat payloads are sent, which allows the Gateway to encode them. Defaults to sending JSON text frames.
+     */
+    public void setSender(Consumer<JSONObject> sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Sets what happens when a heartbeat isn't acknowledged before the next one is due. The cycle is stopped before it's
+     * called, and it's called on a separate thread, so it may block.
+     */
+    public void setOnZombie(Runnable onZombie) {
+        this.onZombie = onZombie;
+    }
+
     public void forceHeartbeat() {
-        socket.send(
-            WSPayloads.HEARBEAT.fill(lastSequence == -1 ? JSONObject.NULL : lastSequence).toString()
-        );
-    }
-
-    public void start() {
-        Thread thread = new Thread(() -> {
-            while (true) {
-                if (!running) {
-                    System.out.println("Heartbeat thread stopped.");
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                    continue;
-                }
-                try {
-                    socket.send(
-                        WSPayloads.HEARBEAT.fill(lastSequence == -1 ? JSONObject.NULL : lastSequence).toString()
-                    );
-                    Gateway.lastHeartbeatSent = new Date();
-                    Thread.sleep(interval);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }, "djar--heart-cycle");
-        thread.start();
+        send();
+    }
+
+    /**
+     * Marks the last heartbeat as acknowledged.
+     * @return The time between sending the last heartbeat and this acknowledgement in milliseconds, or -1 if no heartbeat was sent.
+     */
+    public long acknowledge() {
+        awaitingAck = false;
+        if (lastHeartbeatSent == null) return -1;
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastHeartbeatNanos);
+    }
+
+    /**
+     * Returns when the last heartbeat was sent, or null if none were sent yet.
+     */
+    public Date getLastHeartbeatSent() {
+        return lastHeartbeatSent;
+    }
+
+    /**
+     * Starts the heartbeat cycle, replacing the current one if it's running.
+     */
+    public synchronized void start() {
+        stop();
+        long jitter = (long) (interval * ThreadLocalRandom.current().nextDouble());
+        cycle = SCHEDULER.scheduleAtFixedRate(this::beat, jitter, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void beat() {
+        if (awaitingAck) {
+            stop();
+            ZOMBIE_HANDLERS.execute(onZombie);
+            return;
+        }
+        awaitingAck = true;
+        send();
+    }
+
+    private void send() {
+        lastHeartbeatNanos = System.nanoTime();
+        lastHeartbeatSent = new Date();
+        sender.accept(WSPayloads.HEARBEAT.fill(lastSequence == -1 ? JSONObject.NULL : lastSequence));
     }
 
 }
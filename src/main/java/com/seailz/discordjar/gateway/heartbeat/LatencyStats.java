@@ -0,0 +1,101 @@
+package com.seailz.discordjar.gateway.heartbeat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the most recent heartbeat latencies of a shard in a fixed-size ring buffer.
+ * <br>Old samples are overwritten once the buffer is full, so memory use stays the same however long the bot runs.
+ *
+ * @see HeartLogic
+ * @since b-1.1
+ */
+public class LatencyStats {
+
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final long[] samples;
+    private int next = 0;
+    private int size = 0;
+    private long total = 0;
+
+    public LatencyStats() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LatencyStats(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Records a latency sample in milliseconds, replacing the oldest one if the buffer is full.
+     */
+    public synchronized void record(long latencyMs) {
+        if (size == samples.length) total -= samples[next];
+        else size++;
+        samples[next] = latencyMs;
+        total += latencyMs;
+        next = (next + 1) % samples.length;
+    }
+
+    /**
+     * Returns the amount of samples currently kept.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the latest sample, or -1 if there are none.
+     */
+    public synchronized long getLast() {
+        if (size == 0) return -1;
+        return samples[Math.floorMod(next - 1, samples.length)];
+    }
+
+    /**
+     * Returns the average of the kept samples, or -1 if there are none.
+     */
+    public synchronized long getAverage() {
+        return size == 0 ? -1 : total / size;
+    }
+
+    /**
+     * Returns the given percentile of the kept samples using the nearest-rank method, or -1 if there are none.
+     *
+     * @param percentile A percentile between 0 and 100.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        long[] sorted;
+        synchronized (this) {
+            if (size == 0) return -1;
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * Returns the kept samples, oldest first.
+     */
+    public synchronized List<Long> getSamples() {
+        List<Long> list = new ArrayList<>(size);
+        int start = size == samples.length ? next : 0;
+        for (int i = 0; i < size; i++) {
+            list.add(samples[(start + i) % samples.length]);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,81 @@
+package com.seailz.discordjar.gateway.session;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+
+/**
+ * Stores every shard's session as a small JSON file in a directory, named after the shard id and shard count.
+ * <br>Files are written to a temporary file first and then moved over the old one, so a crash while saving never leaves
+ * a half-written session behind.
+ *
+ * @see GatewaySessionStore
+ * @since b-1.1
+ */
+public class FileGatewaySessionStore implements GatewaySessionStore {
+
+    private final Path directory;
+    private final Logger logger = Logger.getLogger("Gateway");
+
+    public FileGatewaySessionStore(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    @Nullable
+    public GatewaySession load(int shardId, int shardCount) {
+        try {
+            return GatewaySession.decompile(new JSONObject(Files.readString(file(shardId, shardCount), StandardCharsets.UTF_8)));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | JSONException e) {
+            logger.warning("[Gateway] Failed to read the stored session for shard " + shardId + ", identifying instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void save(int shardId, int shardCount, @NotNull GatewaySession session) {
+        try {
+            Files.createDirectories(directory);
+            Path target = file(shardId, shardCount);
+            Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temp, session.compile().toString(), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void clear(int shardId, int shardCount) {
+        try {
+            Files.deleteIfExists(file(shardId, shardCount));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(int shardId, int shardCount) {
+        return directory.resolve("session-" + (shardId == -1 ? "main" : shardId + "-of-" + shardCount) + ".json");
+    }
+}
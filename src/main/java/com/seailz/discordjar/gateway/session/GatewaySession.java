@@ -0,0 +1,38 @@
+package com.seailz.discordjar.gateway.session;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+
+/**
+ * The state needed to RESUME a Gateway session, as saved by a {@link GatewaySessionStore}.
+ * <br>The bot token is deliberately not part of it, it's taken from the running bot when resuming.
+ *
+ * @param sessionId  The session id received in READY.
+ * @param resumeUrl  The {@code resume_gateway_url} received in READY.
+ * @param sequence   The last sequence number received.
+ * @param shardCount The shard count the session was identified with. A session is only resumed with the same shard count.
+ * @param savedAt    When the session was saved, in epoch milliseconds.
+ * @since b-1.1
+ */
+public record GatewaySession(String sessionId, String resumeUrl, long sequence, int shardCount, long savedAt) {
+
+    public JSONObject compile() {
+        return new JSONObject()
+                .put("session_id", sessionId)
+                .put("resume_url", resumeUrl)
+                .put("sequence", sequence)
+                .put("shard_count", shardCount)
+                .put("saved_at", savedAt);
+    }
+
+    @NotNull
+    public static GatewaySession decompile(@NotNull JSONObject obj) {
+        return new GatewaySession(
+                obj.getString("session_id"),
+                obj.getString("resume_url"),
+                obj.getLong("sequence"),
+                obj.getInt("shard_count"),
+                obj.optLong("saved_at", 0)
+        );
+    }
+}
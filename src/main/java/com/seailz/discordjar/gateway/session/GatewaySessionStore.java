@@ -0,0 +1,41 @@
+package com.seailz.discordjar.gateway.session;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persists Gateway sessions so a restarted bot can RESUME instead of IDENTIFYing again.
+ * <br>Sessions are saved periodically and when the bot shuts down, and loaded when a shard starts. If the stored session
+ * can't be resumed anymore, Discord invalidates it and the shard falls back to a normal IDENTIFY.
+ *
+ * <p>A resumed session doesn't receive GUILD_CREATE for every guild again, so caches start out empty and are filled
+ * as entities are requested or updated.
+ *
+ * <p>Implementations must be thread-safe, as every shard uses the same store.
+ *
+ * @see FileGatewaySessionStore
+ * @since b-1.1
+ */
+public interface GatewaySessionStore {
+
+    /**
+     * Returns the stored session for the given shard, or null if there's none.
+     * <br>Sessions are stored per shard id and shard count, so the shards of a {@link com.seailz.discordjar.gateway.ShardManager#reshard(int) reshard}
+     * don't replace the sessions of the shards they take over from.
+     *
+     * @param shardId    The shard id, or -1 if the bot isn't sharded.
+     * @param shardCount The shard count, or -1 if the bot isn't sharded.
+     */
+    @Nullable
+    GatewaySession load(int shardId, int shardCount);
+
+    /**
+     * Stores a session, replacing any session stored for the same shard id and shard count.
+     */
+    void save(int shardId, int shardCount, @NotNull GatewaySession session);
+
+    /**
+     * Removes the stored session for the given shard id and shard count, if any.
+     */
+    void clear(int shardId, int shardCount);
+}
@@ -41,7 +41,7 @@ public class AudioChannelImpl extends GuildChannelImpl implements AudioChannel {
     @SneakyThrows
     @Override
     public void connect(VoiceProvider vp, boolean mute, boolean deafen) {
-        Gateway gateway = discordJv().getGateway();
+        Gateway gateway = discordJv().getGatewayForGuild(guild().id());
         gateway.sendVoicePayload(guild().id(), id(), mute, deafen);
 
         AtomicBoolean receivedVoiceServerUpdate = new AtomicBoolean(false);
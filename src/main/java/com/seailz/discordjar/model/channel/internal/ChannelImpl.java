@@ -66,22 +66,15 @@ public class ChannelImpl implements Channel {
     @Override
     public Response<Void> delete() {
         Response<Void> response = new Response<>();
-        new Thread(() -> {
-            DiscordRequest req = new DiscordRequest(
-                    new JSONObject(),
-                    new HashMap<>(),
-                    URLS.DELETE.CHANNEL.DELETE_CHANNEL.replace("{channel.id}", id()),
-                    djv(),
-                    URLS.DELETE.CHANNEL.DELETE_CHANNEL,
-                    RequestMethod.DELETE
-            );
-            try {
-                req.invoke();
-                response.complete(null);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                response.completeError(new Response.Error(e));
-            }
-        }, "djar--channel-delete").start();
+        DiscordRequest req = new DiscordRequest(
+                new JSONObject(),
+                new HashMap<>(),
+                URLS.DELETE.CHANNEL.DELETE_CHANNEL.replace("{channel.id}", id()),
+                djv(),
+                URLS.DELETE.CHANNEL.DELETE_CHANNEL,
+                RequestMethod.DELETE
+        );
+        response.completeFrom(req.invokeAsync().thenApply(res -> null));
         return response;
     }
 
@@ -67,30 +67,20 @@ public class MessagingChannelImpl extends GuildChannelImpl implements MessagingC
     @Override
     public Response<Void> bulkDeleteMessages(List<String> messageIds, boolean filterMessages, String reason) {
         Response<Void> response = new Response<>();
-        new Thread(() -> {
-            HashMap<String, String> headers = new HashMap<>(){{
-                if (reason != null) put("X-Audit-Log-Reason", reason);
-            }};
-            DiscordRequest request = new DiscordRequest(
-                    new JSONObject(),
-                    headers,
-                    URLS.POST.CHANNELS.MESSAGES.BULK_DELETE
-                            .replace("{channel.id}", id()),
-                    discordJar,
-                    URLS.POST.CHANNELS.MESSAGES.BULK_DELETE,
-                    RequestMethod.POST
-            );
-
-            try {
-                request.invoke();
-                response.complete(null);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                response.completeError(
-                        new Response.Error(e)
-                );
-            }
-
-        }, "djar--msg-channel-impl").start();
+        HashMap<String, String> headers = new HashMap<>(){{
+            if (reason != null) put("X-Audit-Log-Reason", reason);
+        }};
+        DiscordRequest request = new DiscordRequest(
+                new JSONObject(),
+                headers,
+                URLS.POST.CHANNELS.MESSAGES.BULK_DELETE
+                        .replace("{channel.id}", id()),
+                discordJar,
+                URLS.POST.CHANNELS.MESSAGES.BULK_DELETE,
+                RequestMethod.POST
+        );
+
+        response.completeFrom(request.invokeAsync().thenApply(res -> null));
         return response;
     }
 
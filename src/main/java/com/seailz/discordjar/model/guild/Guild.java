@@ -34,6 +34,7 @@ import com.seailz.discordjar.utils.*;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
 import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
+import com.seailz.discordjar.utils.rest.ratelimit.RequestPriority;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -965,7 +966,7 @@ public class Guild implements Compilerable, Snowflake, CDNAble {
                     discordJar,
                     URLS.GET.GUILDS.MEMBERS.LIST_GUILD_MEMBERS,
                     RequestMethod.GET
-            ).invoke().arr();
+            ).setPriority(RequestPriority.BACKGROUND).invoke().arr();
         } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
             throw new DiscordRequest.DiscordAPIErrorException(e);
         }
@@ -991,7 +992,7 @@ public class Guild implements Compilerable, Snowflake, CDNAble {
                     discordJar,
                     URLS.GET.GUILDS.MEMBERS.LIST_GUILD_MEMBERS,
                     RequestMethod.GET
-            ).invoke().arr();
+            ).setPriority(RequestPriority.BACKGROUND).invoke().arr();
         } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
             throw new DiscordRequest.DiscordAPIErrorException(e);
         }
@@ -1708,25 +1709,14 @@ public class Guild implements Compilerable, Snowflake, CDNAble {
 
     public Response<Void> deleteScheduledEvent(String id) {
         Response<Void> res = new Response<>();
-        new java.lang.Thread(() -> {
-            try {
-                new DiscordRequest(
-                        new JSONObject(),
-                        new HashMap<>(),
-                        URLS.DELETE.GUILD.SCHEDULED_EVENTS.DELETE_SCHEDULED_EVENT.replace("{guild.id}", this.id).replace("{event.id}", id),
-                        discordJar,
-                        URLS.DELETE.GUILD.SCHEDULED_EVENTS.DELETE_SCHEDULED_EVENT,
-                        RequestMethod.DELETE
-                ).invoke();
-                res.complete(null);
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                res.completeError(new Response.Error(
-                        e.getCode(),
-                        e.getMessage(),
-                        e.getBody()
-                ));
-            }
-        }).start();
+        res.completeFrom(new DiscordRequest(
+                new JSONObject(),
+                new HashMap<>(),
+                URLS.DELETE.GUILD.SCHEDULED_EVENTS.DELETE_SCHEDULED_EVENT.replace("{guild.id}", this.id).replace("{event.id}", id),
+                discordJar,
+                URLS.DELETE.GUILD.SCHEDULED_EVENTS.DELETE_SCHEDULED_EVENT,
+                RequestMethod.DELETE
+        ).invokeAsync().thenApply(response -> null));
         return res;
     }
 
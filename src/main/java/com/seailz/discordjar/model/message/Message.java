@@ -21,7 +21,6 @@ import com.seailz.discordjar.model.user.User;
 import com.seailz.discordjar.utils.Snowflake;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.DiscordRequest;
-import com.seailz.discordjar.utils.rest.DiscordResponse;
 import com.seailz.discordjar.utils.rest.Response;
 import com.seailz.discordjar.utils.thread.DiscordJarThreadAllocator;
 import org.jetbrains.annotations.NotNull;
@@ -580,30 +579,19 @@ public record Message(
      * @param archiveAfter The duration which after no activity the thread will be archived.
      */
     public CompletableFuture<Thread> startThreadFromMessage(String name, Thread.AutoArchiveDuration archiveAfter, int rateLimitPerUser) {
-        CompletableFuture<Thread> future = new CompletableFuture<>();
-        future.completeAsync(() -> {
-            JSONObject body = new JSONObject();
-            body.put("name", name);
-            body.put("auto_archive_duration", archiveAfter.minutes());
-            body.put("rate_limit_per_user", rateLimitPerUser);
-
-            DiscordResponse res = null;
-            try {
-                res = new DiscordRequest(
-                        body,
-                        new HashMap<>(),
-                        URLS.POST.CHANNELS.MESSAGES.THREADS.START_THREAD_FROM_MESSAGE.replace("{channel.id}", channelId).replace("{message.id}", id),
-                        discordJar,
-                        URLS.POST.CHANNELS.MESSAGES.THREADS.START_THREAD_FROM_MESSAGE,
-                        RequestMethod.POST
-                ).invoke();
-            } catch (DiscordRequest.UnhandledDiscordAPIErrorException e) {
-                throw new DiscordRequest.DiscordAPIErrorException(e);
-            }
-
-            return Thread.decompile(res.body(), discordJar);
-        });
-        return future;
+        JSONObject body = new JSONObject();
+        body.put("name", name);
+        body.put("auto_archive_duration", archiveAfter.minutes());
+        body.put("rate_limit_per_user", rateLimitPerUser);
+
+        return new DiscordRequest(
+                body,
+                new HashMap<>(),
+                URLS.POST.CHANNELS.MESSAGES.THREADS.START_THREAD_FROM_MESSAGE.replace("{channel.id}", channelId).replace("{message.id}", id),
+                discordJar,
+                URLS.POST.CHANNELS.MESSAGES.THREADS.START_THREAD_FROM_MESSAGE,
+                RequestMethod.POST
+        ).invokeAsync().thenApply(res -> Thread.decompile(res.body(), discordJar));
     }
 
 }
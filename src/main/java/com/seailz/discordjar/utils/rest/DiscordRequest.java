@@ -4,8 +4,13 @@ import com.seailz.discordjar.DiscordJar;
 import com.seailz.discordjar.utils.URLS;
 import com.seailz.discordjar.utils.rest.errors.ErrorTreeReader;
 import com.seailz.discordjar.utils.rest.ratelimit.Bucket;
+import com.seailz.discordjar.utils.rest.ratelimit.RateLimiter;
+import com.seailz.discordjar.utils.rest.ratelimit.RequestDeadlineExceededException;
+import com.seailz.discordjar.utils.rest.ratelimit.RequestPriority;
 import okhttp3.Response;
 import okhttp3.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -14,17 +19,13 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.net.URL;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.HashMap;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 public class DiscordRequest {
@@ -37,8 +38,26 @@ public class DiscordRequest {
     private final String baseUrl;
     private final RequestMethod requestMethod;
     private JSONArray aBody;
-    // HashMap of endpoint to whether or not it can be requested (rate limited)
-    private static HashMap<String, Boolean> canRequest = new HashMap<>();
+    private RequestPriority priority;
+    private long deadline = 0;
+    private static final MediaType JSON = MediaType.parse("application/json");
+    /**
+     * Completes the futures of async requests, so work chained onto them doesn't run on the HTTP client's threads.
+     * Decompiling a response may look up entities that aren't cached, which sends another request and waits for it - on
+     * one of the client's threads that could wait for a thread that's never freed.
+     */
+    private static final ExecutorService CALLBACKS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "djar--rest-callback");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The client used by requests made without a {@link DiscordJar}, such as fetching the recommended shard count before one is built.
+     */
+    private static final class DefaultClient {
+        private static final OkHttpClient INSTANCE = HttpClientSettings.defaults().newClient();
+    }
 
     public DiscordRequest(JSONObject body, HashMap<String, String> headers, String url, DiscordJar djv, String baseUrl, RequestMethod requestMethod) {
         this.body = body;
@@ -57,30 +76,33 @@ public class DiscordRequest {
         this.requestMethod = requestMethod;
     }
 
-    public DiscordResponse queueRequest(double resetAfter, String endpoint, boolean auth, String contentType) throws UnhandledDiscordAPIErrorException {
-        canRequest.put(endpoint, false);
-        try {
-            Thread.sleep((long) (resetAfter * 1000));
-        } catch (InterruptedException e) {
-                e.printStackTrace();
-        }
+    /**
+     * Sets the lane this request waits in while it's held back by a rate limit. Defaults to
+     * {@link RequestPriority#INTERACTION} for interaction callbacks and followups, and {@link RequestPriority#NORMAL} for
+     * everything else.
+     */
+    public DiscordRequest setPriority(@NotNull RequestPriority priority) {
+        this.priority = priority;
+        return this;
+    }
 
-        new Thread(() -> {
-            try {
-                Thread.sleep((long) (resetAfter * 1000));
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            canRequest.put(endpoint, true);
-        }, "djar--request-delay-reset-request").start();
-        return invoke(contentType, auth);
+    /**
+     * Fails this request with a {@link RequestDeadlineExceededException} if it's still waiting for a rate limit at the
+     * given time, including while waiting to be retried after a 429. A request that has already been sent isn't
+     * cancelled, and one the rate limits let through right away is sent even if the deadline has already passed.
+     *
+     * @param deadline The deadline, or null for none, which is the default.
+     */
+    public DiscordRequest setDeadline(@Nullable Instant deadline) {
+        this.deadline = deadline == null ? 0 : Math.max(1, deadline.toEpochMilli());
+        return this;
     }
 
     public DiscordResponse invokeNoDiscordJar(String token) {
         assert djv == null;
         try {
             String url = URLS.BASE_URL + this.url;
-            OkHttpClient client = new OkHttpClient();
+            OkHttpClient client = DefaultClient.INSTANCE;
 
             Request.Builder requestBuilder = new Request.Builder().url(url);
 
@@ -170,199 +192,265 @@ public class DiscordRequest {
     }
 
     /**
-     * Sends the request to the Discord API
-     * If the request is rate-limited, it will be queued.
-     * <p>
-     * This method takes into account rate-limits, error codes, and the queue.
+     * Sends the request to the Discord API and waits for the response.
      *
      * @return The {@link DiscordResponse} from the Discord API
+     * @see #invokeAsync()
      */
     private DiscordResponse invoke(String contentType, boolean auth) throws UnhandledDiscordAPIErrorException {
-        try {
-            String url = URLS.BASE_URL + this.url;
-            if (canRequest.get(url) != null && !canRequest.get(url)) {
-                // We can't request, so we'll wait our turn.
-                while (!canRequest.get(url)) {
-                    Thread.sleep(1);
-                }
-            }
-            canRequest.put(url, false);
-
-            Bucket requestBucket = djv.getBucketForUrl(url);
-            String uuid = "";
-            if (requestBucket != null) {
-                // Bucket exists, lets make sure we wait our turn.
-                if (djv.isDebug()) {
-                    System.out.println("Waiting for request clearance...");
-                }
-                uuid = String.valueOf(requestBucket.awaitClearance());
-            } else {
-                if (djv.isDebug()) {
-                    System.out.println("No bucket found for " + url);
-                }
-            }
+        return await(send(contentType, auth));
+    }
 
-            if (djv.isDebug()) {
-                System.out.println("Cleared for launch");
-            }
+    /**
+     * Builds the request and sends it without blocking the calling thread.
+     *
+     * @see #invokeAsync()
+     */
+    private CompletableFuture<DiscordResponse> invokeAsync(String contentType, boolean auth) {
+        return handOff(send(contentType, auth));
+    }
 
-            OkHttpClient client = new OkHttpClient();
+    /**
+     * Builds the request and sends it. The returned future completes on whichever thread handled the response.
+     */
+    private CompletableFuture<DiscordResponse> send(String contentType, boolean auth) {
+        String url = URLS.BASE_URL + this.url;
+        Request.Builder requestBuilder = new Request.Builder().url(url);
 
-            Request.Builder requestBuilder = new Request.Builder().url(url);
+        String s = body != null ? body.toString() : aBody.toString();
+        RequestBody requestBody;
 
-            String s = body != null ? body.toString() : aBody.toString();
-            RequestBody requestBody;
+        if (contentType == null) {
+            contentType = "application/json";
+        }
 
-            if (contentType == null) {
-                contentType = "application/json";
-            }
+        if (requestMethod == RequestMethod.POST) {
+            requestBody = RequestBody.create(MediaType.parse(contentType), s);
+            requestBuilder.post(requestBody);
+        } else if (requestMethod == RequestMethod.PATCH) {
+            requestBody = RequestBody.create(MediaType.parse(contentType), s);
+            requestBuilder.patch(requestBody);
+        } else if (requestMethod == RequestMethod.PUT) {
+            requestBody = RequestBody.create(MediaType.parse(contentType), s);
+            requestBuilder.put(requestBody);
+        } else if (requestMethod == RequestMethod.DELETE) {
+            requestBody = RequestBody.create(MediaType.parse(contentType), s);
+            requestBuilder.delete(requestBody);
+        } else if (requestMethod == RequestMethod.GET) {
+            requestBuilder.get();
+        } else {
+            requestBody = RequestBody.create(MediaType.parse(contentType), s);
+            requestBuilder.method(requestMethod.name(), requestBody);
+        }
 
-            if (requestMethod == RequestMethod.POST) {
-                requestBody = RequestBody.create(MediaType.parse(contentType), s);
-                requestBuilder.post(requestBody);
-            } else if (requestMethod == RequestMethod.PATCH) {
-                requestBody = RequestBody.create(MediaType.parse(contentType), s);
-                requestBuilder.patch(requestBody);
-            } else if (requestMethod == RequestMethod.PUT) {
-                requestBody = RequestBody.create(MediaType.parse(contentType), s);
-                requestBuilder.put(requestBody);
-            } else if (requestMethod == RequestMethod.DELETE) {
-                requestBody = RequestBody.create(MediaType.parse(contentType), s);
-                requestBuilder.delete(requestBody);
-            } else if (requestMethod == RequestMethod.GET) {
-                requestBuilder.get();
-            } else {
-                requestBody = RequestBody.create(MediaType.parse(contentType), s);
-                requestBuilder.method(requestMethod.name(), requestBody);
-            }
+        requestBuilder.addHeader("User-Agent", "DiscordBot (https://github.com/discord-jar/, 1.0.0)");
+        if (auth) {
+            requestBuilder.addHeader("Authorization", "Bot " + djv.getToken());
+        }
+        requestBuilder.addHeader("Content-Type", contentType);
+        headers.forEach((key, value) -> requestBuilder.addHeader(key, value));
 
-            requestBuilder.addHeader("User-Agent", "DiscordBot (https://github.com/discord-jar/, 1.0.0)");
-            if (auth) {
-                requestBuilder.addHeader("Authorization", "Bot " + djv.getToken());
-            }
-            if (contentType == null) {
-                requestBuilder.addHeader("Content-Type", "application/json");
-            }
-            if (contentType != null) {
-                requestBuilder.addHeader("Content-Type", contentType);
-            }
-            headers.forEach((key, value) -> requestBuilder.addHeader(key, value));
+        return send(requestBuilder.build(), auth, false);
+    }
 
-            Request request = requestBuilder.build();
-            Response response = client.newCall(request).execute();
-            canRequest.put(url, true);
+    /**
+     * Queues the request in its rate-limit bucket and then for the global limit, sends it once both let it through and
+     * handles the response, resending it after a 429.
+     *
+     * @param retry Whether the request is being resent after a 429, which puts it at the front of its bucket's queue.
+     */
+    private CompletableFuture<DiscordResponse> send(Request request, boolean auth, boolean retry) {
+        RateLimiter rateLimiter = djv.getRateLimiter();
+        String route = baseUrl != null ? baseUrl : url;
+        Bucket bucket = rateLimiter.getBucket(requestMethod, route, url);
+        boolean global = rateLimiter.isGloballyLimited(route, auth);
+        RequestPriority priority = this.priority != null ? this.priority : rateLimiter.getDefaultPriority(route);
+        CompletableFuture<Void> ticket = bucket.acquire(priority, deadline, retry);
+        return ticket
+                .thenCompose(v -> global ? rateLimiter.acquireGlobal(priority, deadline) : CompletableFuture.<Void>completedFuture(null))
+                .thenCompose(v -> {
+                    CompletableFuture<RawResponse> call = call(request);
+                    // Only a request that got past the global limit holds a token, one that missed its deadline doesn't
+                    if (global) call.whenComplete((response, throwable) -> rateLimiter.releaseGlobal());
+                    return call;
+                })
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) bucket.requestFailed(ticket);
+                })
+                .thenCompose(response -> handleResponse(bucket, ticket, request, auth, response));
+    }
 
-            int responseCode = response.code();
-            String sb = response.body().string();
-            if (djv.isDebug()) {
-                System.out.println(uuid + " " + request.method() + " " + request.url() + " with " + (this.body == null ? this.aBody : this.body) + " returned " + responseCode + " with " + sb);
+    /**
+     * Enqueues the request on the HTTP client. The body is read on the client's thread before the future completes.
+     */
+    private CompletableFuture<RawResponse> call(Request request) {
+        CompletableFuture<RawResponse> future = new CompletableFuture<>();
+        djv.getHttpClient().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                // attempt gateway reconnect
+                future.completeExceptionally(new DiscordUnexpectedError(e));
             }
-            HashMap<String, String> headers = new HashMap<>();
-            Headers responseHeaders = response.headers();
-            for (String name : responseHeaders.names()) {
-                headers.put(name, responseHeaders.get(name));
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    future.complete(new RawResponse(response.code(), response.body().string(), response.headers()));
+                } catch (IOException e) {
+                    future.completeExceptionally(new DiscordUnexpectedError(e));
+                }
             }
+        });
+        return future;
+    }
 
-            // All is said and done, let's get the rate-limit bucket up to date.
-            // If the bucket doesn't exist, it will be created.
-            if (responseHeaders.get("X-RateLimit-Bucket") != null) {
-                String id = responseHeaders.get("X-RateLimit-Bucket");
-                int limit = Integer.parseInt(responseHeaders.get("X-RateLimit-Limit"));
-                int remaining = Integer.parseInt(responseHeaders.get("X-RateLimit-Remaining"));
-                BigDecimal reset = new BigDecimal(responseHeaders.get("X-RateLimit-Reset"));
-                float resetAfter = Float.parseFloat(responseHeaders.get("X-RateLimit-Reset-After"));
+    private record RawResponse(int code, String body, Headers headers) {}
 
-                if (djv.isDebug()) {
-                    System.out.println("Updating bucket " + id + " with limit " + limit + ", remaining " + remaining + ", reset " + reset + ", resetAfter " + resetAfter);
-                }
+    private CompletableFuture<DiscordResponse> handleResponse(Bucket bucket, CompletableFuture<Void> ticket, Request request, boolean auth, RawResponse response) {
+        int responseCode = response.code();
+        String sb = response.body();
+        if (djv.isDebug()) {
+            System.out.println(request.method() + " " + request.url() + " with " + (this.body == null ? this.aBody : this.body) + " returned " + responseCode + " with " + sb);
+        }
+        HashMap<String, String> headers = new HashMap<>();
+        Headers responseHeaders = response.headers();
+        for (String name : responseHeaders.names()) {
+            headers.put(name, responseHeaders.get(name));
+        }
 
-                if (djv.getBucket(id) == null) {
-                    if (djv.isDebug()) {
-                        System.out.println("Creating new bucket " + id + " with limit " + limit + ", remaining " + remaining + ", reset " + reset + ", resetAfter " + resetAfter);
-                        System.out.println("COMMANDS: " + url.contains("commands"));
-                    }
-                    djv.updateBucket(id, new Bucket(id, limit, remaining, (reset.multiply(new BigDecimal(1000)).longValue()), resetAfter, djv.isDebug()));
-                } else {
-                    Bucket bucket = djv.getBucket(id);
-                    bucket.setLimit(limit);
-                    bucket.setResetAfter((long) (resetAfter * 1000));
-                    bucket.setReset(reset.multiply(new BigDecimal(1000)).longValue());
-                    bucket.setRemaining(remaining);
-                    djv.removeBucket(djv.getBucket(id));
-                    djv.updateBucket(id, bucket.addAffectedRoute(url));
-                }
-            }
+        // All is said and done, let's get the rate-limit bucket up to date.
+        RateLimiter rateLimiter = djv.getRateLimiter();
+        updateBucket(bucket, ticket, responseCode, responseHeaders);
+        rateLimiter.recordResponse(responseCode, "shared".equalsIgnoreCase(responseHeaders.get("X-RateLimit-Scope")));
 
+        try {
             if (responseCode == 429) {
                 if (djv.isDebug()) {
                     Logger.getLogger("RateLimit").warning("[RATE LIMIT] Rate limit has been exceeded. Please make sure you are not sending too many requests.");
                 }
 
-                JSONObject body = new JSONObject(sb);
+                // Cloudflare answers with an HTML page rather than Discord's JSON
+                JSONObject body;
+                try {
+                    body = new JSONObject(sb);
+                } catch (JSONException e) {
+                    body = new JSONObject();
+                }
                 if (!body.has("retry_after")) {
                     Logger.getLogger("RateLimit")
                             .severe("[Ratelimiting] It's likely that you've hit a Cloudflare rate limit.");
-                    System.out.println(body);
-                    return new DiscordResponse(429, body, headers, null);
+                    System.out.println(sb);
+                    rateLimiter.onCloudflareBlock(parseRetryAfterHeader(responseHeaders.get("Retry-After")));
+                    return CompletableFuture.completedFuture(new DiscordResponse(429, body, headers, null));
                 }
 
                 float retryAfter = body.getFloat("retry_after");
                 if (retryAfter == -1) {
                     Logger.getLogger("RateLimit").warning("[RATE LIMIT] Invalid rate limit response (?) - please contact Discord support. " + sb);
-                    return new DiscordResponse(429, body, headers, null);
+                    return CompletableFuture.completedFuture(new DiscordResponse(429, body, headers, null));
                 }
 
-                Bucket bucket = djv.getBucketForUrl(url);
-                if (bucket != null) {
+                if ("true".equalsIgnoreCase(responseHeaders.get("X-RateLimit-Global")) || body.optBoolean("global")) {
+                    rateLimiter.onGlobalRateLimit((long) (retryAfter * 1000));
+                } else {
+                    rateLimiter.onBucketRateLimit();
                     bucket.await((long) (retryAfter * 1000));
                 }
-
-                return queueRequest(retryAfter, url, auth, contentType);
+                return send(request, auth, true);
             }
 
-            if (responseCode == 200 || responseCode == 201) {
-                Object body;
-                String responseBody = sb;
-                if (responseBody.startsWith("[")) {
-                    body = new JSONArray(responseBody);
-                } else {
-                    try {
-                        body = new JSONObject(responseBody);
-                    } catch (JSONException err) {
-                        throw new DiscordUnexpectedError(new RuntimeException("Invalid JSON response from Discord API: " + responseBody));
-                    }
-                }
+            return CompletableFuture.completedFuture(readResponse(responseCode, sb, headers, auth));
+        } catch (UnhandledDiscordAPIErrorException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-                return new DiscordResponse(responseCode, (body instanceof JSONObject) ? (JSONObject) body : null, headers, (body instanceof JSONArray) ? (JSONArray) body : null);
-            }
-            if (responseCode == 204) {
-                return null;
-            }
+    /**
+     * Reads a {@code Retry-After} header, which is in seconds.
+     *
+     * @return The time to wait in milliseconds, or 0 if the header is missing or isn't a number.
+     */
+    private static long parseRetryAfterHeader(String retryAfter) {
+        if (retryAfter == null) return 0;
+        try {
+            return new BigDecimal(retryAfter.trim()).movePointRight(3).longValue();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 
-            if (responseCode == 401 && !auth) {
-                return new DiscordResponse(401, null, null, null);
-            }
+    private void updateBucket(Bucket bucket, CompletableFuture<Void> ticket, int responseCode, Headers responseHeaders) {
+        String id = responseHeaders.get("X-RateLimit-Bucket");
+        if (id == null) {
+            // A 429 without bucket headers comes from a limit other than the bucket's, so it says nothing about the bucket
+            if (responseCode == 429) bucket.requestFailed(ticket);
+            else bucket.updateUnlimited();
+            return;
+        }
 
-            if (responseCode == 404) {
-                String message = null;
+        try {
+            int limit = Integer.parseInt(responseHeaders.get("X-RateLimit-Limit"));
+            int remaining = Integer.parseInt(responseHeaders.get("X-RateLimit-Remaining"));
+            BigDecimal reset = new BigDecimal(responseHeaders.get("X-RateLimit-Reset"));
+            BigDecimal resetAfter = new BigDecimal(responseHeaders.get("X-RateLimit-Reset-After"));
+            bucket.update(id, limit, remaining, reset.movePointRight(3).longValue(), resetAfter.movePointRight(3).longValue());
+        } catch (NullPointerException | NumberFormatException e) {
+            Logger.getLogger("RateLimit").warning("[RATE LIMIT] Invalid rate limit headers for bucket " + id + ": " + responseHeaders);
+            bucket.requestFailed(ticket);
+        }
+    }
+
+    private DiscordResponse readResponse(int responseCode, String sb, HashMap<String, String> headers, boolean auth) throws UnhandledDiscordAPIErrorException {
+        if (responseCode == 200 || responseCode == 201) {
+            Object body;
+            String responseBody = sb;
+            if (responseBody.startsWith("[")) {
+                body = new JSONArray(responseBody);
+            } else {
                 try {
-                    JSONObject json = new JSONObject(sb);
-                    if (json.has("message")) {
-                        message = json.getString("message");
-                    }
-                } catch (JSONException ignored) {
+                    body = new JSONObject(responseBody);
+                } catch (JSONException err) {
+                    throw new DiscordUnexpectedError(new RuntimeException("Invalid JSON response from Discord API: " + responseBody));
                 }
-                Logger.getLogger("DiscordJar")
-                        .warning("[REST] 404: " + message);
-                return new DiscordResponse(404, null, null, null);
             }
 
-            throw new UnhandledDiscordAPIErrorException(new JSONObject(sb), responseCode);
-        } catch (IOException e) {
-            // attempt gateway reconnect
-            throw new DiscordUnexpectedError(e);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            return new DiscordResponse(responseCode, (body instanceof JSONObject) ? (JSONObject) body : null, headers, (body instanceof JSONArray) ? (JSONArray) body : null);
+        }
+        if (responseCode == 204) {
+            return null;
+        }
+
+        if (responseCode == 401 && !auth) {
+            return new DiscordResponse(401, null, null, null);
+        }
+
+        if (responseCode == 404) {
+            String message = null;
+            try {
+                JSONObject json = new JSONObject(sb);
+                if (json.has("message")) {
+                    message = json.getString("message");
+                }
+            } catch (JSONException ignored) {
+            }
+            Logger.getLogger("DiscordJar")
+                    .warning("[REST] 404: " + message);
+            return new DiscordResponse(404, null, null, null);
+        }
+
+        throw new UnhandledDiscordAPIErrorException(new JSONObject(sb), responseCode);
+    }
+
+    /**
+     * Waits for a request sent with one of the async methods, rethrowing what it failed with.
+     */
+    private static DiscordResponse await(CompletableFuture<DiscordResponse> future) throws UnhandledDiscordAPIErrorException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UnhandledDiscordAPIErrorException cause) throw cause;
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new DiscordUnexpectedError(e.getCause());
         }
     }
 
@@ -392,99 +480,90 @@ public class DiscordRequest {
         return invoke(null, true);
     }
 
+    /**
+     * Sends the request along with the given files as a multipart form and waits for the response.
+     * Errors are printed rather than thrown.
+     *
+     * @return The {@link DiscordResponse} from the Discord API, or null if the request failed.
+     * @see #invokeWithFilesAsync(File...)
+     */
     public DiscordResponse invokeWithFiles(File... files) {
         try {
-            String url = URLS.BASE_URL + this.url;
-            URL obj = new URL(url);
-
-            HttpRequest.Builder con = HttpRequest.newBuilder();
-
-            con.uri(obj.toURI());
-
-            String boundary = "---1234567890";
-            String crlf = "\r\n";
-            List<byte[]> bodyParts = new ArrayList<>();
-            bodyParts.add("--".getBytes(StandardCharsets.UTF_8));
-            bodyParts.add(boundary.getBytes(StandardCharsets.UTF_8));
-
-// Add JSON payload
-            bodyParts.add((crlf + "Content-Disposition: form-data; name=\"payload_json\"" + crlf + "Content-Type: application/json" + crlf + crlf + this.body + crlf).getBytes(StandardCharsets.UTF_8));
-
-// Add file attachments
-            for (int i = 0; i < files.length; i++) {
-                File file = files[i];
-                byte[] fileContent = Files.readAllBytes(file.toPath());
-                bodyParts.add("--".getBytes(StandardCharsets.UTF_8));
-                bodyParts.add(boundary.getBytes(StandardCharsets.UTF_8));
-                bodyParts.add((crlf + "Content-Disposition: form-data; name=\"files[" + i + "]\"; filename=\"" + file.getName() + "\"" + crlf + "Content-Type: " + Files.probeContentType(file.toPath()) + crlf + crlf).getBytes(StandardCharsets.UTF_8));
-                bodyParts.add(fileContent);
-                bodyParts.add(crlf.getBytes(StandardCharsets.UTF_8));
-            }
-
-            bodyParts.add("--".getBytes(StandardCharsets.UTF_8));
-            bodyParts.add(boundary.getBytes(StandardCharsets.UTF_8));
-            bodyParts.add("--".getBytes(StandardCharsets.UTF_8));
-
-            byte[] body = new byte[bodyParts.stream().mapToInt(part -> part.length).sum()];
-            int offset = 0;
-            for (byte[] part : bodyParts) {
-                System.arraycopy(part, 0, body, offset, part.length);
-                offset += part.length;
-            }
+            return await(invokeWithFilesAsync(files));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
 
-            if (requestMethod == RequestMethod.POST) {
-                con.POST(HttpRequest.BodyPublishers.ofByteArray(body));
-            } else if (requestMethod == RequestMethod.PATCH) {
-                con.method("PATCH", HttpRequest.BodyPublishers.ofByteArray(body));
-            } else if (requestMethod == RequestMethod.PUT) {
-                con.method("PUT", HttpRequest.BodyPublishers.ofByteArray(body));
-            } else if (requestMethod == RequestMethod.DELETE) {
-                con.method("DELETE", HttpRequest.BodyPublishers.ofByteArray(body));
-            } else if (requestMethod == RequestMethod.GET) {
-                con.GET();
-            } else {
-                con.method(requestMethod.name(), HttpRequest.BodyPublishers.ofByteArray(body));
+    /**
+     * Sends the request along with the given files as a multipart form without blocking the calling thread.
+     * The files are streamed from disk while the request is sent.
+     *
+     * @see #invokeAsync()
+     */
+    public CompletableFuture<DiscordResponse> invokeWithFilesAsync(File... files) {
+        String url = URLS.BASE_URL + this.url;
+
+        MultipartBody.Builder multipart = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("payload_json", null, RequestBody.create(String.valueOf(this.body), JSON));
+        for (int i = 0; i < files.length; i++) {
+            File file = files[i];
+            String contentType;
+            try {
+                contentType = Files.probeContentType(file.toPath());
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new DiscordUnexpectedError(e));
             }
+            multipart.addFormDataPart("files[" + i + "]", file.getName(),
+                    RequestBody.create(file, MediaType.parse(contentType == null ? "application/octet-stream" : contentType)));
+        }
 
-            con.header("User-Agent", "DiscordBot (https://github.com/discord-jar/discord.jar, 1.0.0)");
-            con.header("Authorization", "Bot " + djv.getToken());
-            con.header("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-
-            HttpRequest request = con.build();
-            HttpClient client = HttpClient.newHttpClient();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-
-            int responseCode = response.statusCode();
-
-            HashMap<String, String> headers = new HashMap<>();
-            response.headers().map().forEach((key, value) -> headers.put(key, value.get(0)));
-
-
-            if (responseCode == 200 || responseCode == 201) {
-
-                var bodyResponse = new Object();
+        Request.Builder requestBuilder = new Request.Builder().url(url);
+        if (requestMethod == RequestMethod.GET) {
+            requestBuilder.get();
+        } else {
+            requestBuilder.method(requestMethod.name(), multipart.build());
+        }
+        requestBuilder.addHeader("User-Agent", "DiscordBot (https://github.com/discord-jar/discord.jar, 1.0.0)");
+        requestBuilder.addHeader("Authorization", "Bot " + djv.getToken());
 
-                if (response.body().startsWith("[")) {
-                    bodyResponse = new JSONArray(response.body());
-                } else {
-                    bodyResponse = new JSONObject(response.body());
-                }
+        return handOff(send(requestBuilder.build(), true, false));
+    }
 
-                return new DiscordResponse(responseCode, (bodyResponse instanceof JSONObject) ? (JSONObject) bodyResponse : null, headers, (bodyResponse instanceof JSONArray) ? (JSONArray) bodyResponse : null);
-            }
-            if (responseCode == 204) return null;
+    /**
+     * Returns a future that completes like the given one, but on a thread of {@link #CALLBACKS}.
+     */
+    private static CompletableFuture<DiscordResponse> handOff(CompletableFuture<DiscordResponse> future) {
+        return future.whenCompleteAsync((response, throwable) -> {}, CALLBACKS);
+    }
 
+    /**
+     * Sends the request to the Discord API without blocking the calling thread.
+     * If the request is rate-limited, it will be queued.
+     * <p>
+     * This method takes into account rate-limits, error codes, and the queue. A request that has to wait for its
+     * rate-limit bucket waits in the bot's {@link RateLimiter} rather than on a thread, so any amount of queued
+     * requests only costs the threads of the scheduler and the HTTP client.
+     * <br>The returned future completes on a thread of discord.jar's own rather than one of the HTTP client's, so work
+     * chained onto it may block, for example on another request.
+     *
+     * @return A future completing with the {@link DiscordResponse} from the Discord API, or null for a 204 response.
+     *         It completes exceptionally with an {@link UnhandledDiscordAPIErrorException} if Discord returns an error, or
+     *         a {@link DiscordUnexpectedError} if the request can't be sent, or a {@link RequestDeadlineExceededException}
+     *         if it wasn't sent before its {@link #setDeadline(Instant) deadline}.
+     */
+    public CompletableFuture<DiscordResponse> invokeAsync() {
+        return invokeAsync(null, true);
+    }
 
-            JSONObject error = new JSONObject(response.body());
+    public CompletableFuture<DiscordResponse> invokeNoAuthAsync() {
+        return invokeAsync(null, false);
+    }
 
-            throw new UnhandledDiscordAPIErrorException(error, responseCode);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+    public CompletableFuture<DiscordResponse> invokeNoAuthCustomContentAsync(String contentType) {
+        return invokeAsync(contentType, false);
     }
 
 
@@ -0,0 +1,77 @@
+package com.seailz.discordjar.utils.rest;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the HTTP client a {@link com.seailz.discordjar.DiscordJar DiscordJar} sends every REST, CDN and webhook
+ * request with. The client is shared by all requests, so connections to Discord are kept alive and reused instead of
+ * opening a new connection, and doing a new TLS handshake, for every request.
+ *
+ * @param maxIdleConnections The maximum amount of idle connections kept open.
+ * @param keepAlive          How long an idle connection is kept open.
+ * @param connectTimeout     How long to wait for a connection to be established.
+ * @param readTimeout        How long to wait for data while reading a response.
+ * @param writeTimeout       How long to wait while sending a request.
+ * @param callTimeout        How long a whole request may take, including redirects and retries. Zero means no limit.
+ * @param maxRequests        The maximum amount of requests executed at once.
+ * @param maxRequestsPerHost The maximum amount of requests executed at once per host.
+ * @param http2              Whether to use HTTP/2 when the server supports it, which multiplexes concurrent requests over
+ *                           a single connection. Otherwise only HTTP/1.1 is used.
+ * @see com.seailz.discordjar.DiscordJarBuilder#setHttpClientSettings(HttpClientSettings)
+ * @since b-1.1
+ */
+public record HttpClientSettings(
+        int maxIdleConnections,
+        @NotNull Duration keepAlive,
+        @NotNull Duration connectTimeout,
+        @NotNull Duration readTimeout,
+        @NotNull Duration writeTimeout,
+        @NotNull Duration callTimeout,
+        int maxRequests,
+        int maxRequestsPerHost,
+        boolean http2
+) {
+
+    public HttpClientSettings {
+        if (maxIdleConnections < 0) throw new IllegalArgumentException("The maximum amount of idle connections can't be negative");
+        if (keepAlive == null || keepAlive.isNegative() || keepAlive.isZero()) throw new IllegalArgumentException("The keep-alive duration must be positive");
+        if (connectTimeout == null || connectTimeout.isNegative()) throw new IllegalArgumentException("The connect timeout can't be negative");
+        if (readTimeout == null || readTimeout.isNegative()) throw new IllegalArgumentException("The read timeout can't be negative");
+        if (writeTimeout == null || writeTimeout.isNegative()) throw new IllegalArgumentException("The write timeout can't be negative");
+        if (callTimeout == null || callTimeout.isNegative()) throw new IllegalArgumentException("The call timeout can't be negative");
+        if (maxRequests < 1) throw new IllegalArgumentException("There must be at least one concurrent request");
+        if (maxRequestsPerHost < 1) throw new IllegalArgumentException("There must be at least one concurrent request per host");
+    }
+
+    public static HttpClientSettings defaults() {
+        return new HttpClientSettings(32, Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(30),
+                Duration.ZERO, 256, 64, true);
+    }
+
+    /**
+     * Builds a client with these settings.
+     */
+    @NotNull
+    public OkHttpClient newClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(http2 ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .callTimeout(callTimeout)
+                .build();
+    }
+}
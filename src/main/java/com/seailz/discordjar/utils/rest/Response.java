@@ -6,6 +6,7 @@ import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -70,6 +71,18 @@ public class Response<T> {
         return this;
     }
 
+    /**
+     * Completes this response once the given future completes, e.g. one chained onto {@link DiscordRequest#invokeAsync()}.
+     * <br>If the future fails, this response is completed with an error instead. No thread waits for the future.
+     */
+    public Response<T> completeFrom(CompletableFuture<? extends T> future) {
+        future.whenComplete((result, throwable) -> {
+            if (throwable == null) complete(result);
+            else completeError(Error.from(throwable));
+        });
+        return this;
+    }
+
     public Response<T> completeAsync(Supplier<T> response) {
         CompletableFuture.supplyAsync(response).thenAccept(this::complete);
         return this;
@@ -103,6 +116,19 @@ public class Response<T> {
             this(e.getCode(), e.getMessage(), e.getBody());
         }
 
+        /**
+         * Creates an error from what a request failed with. Errors returned by Discord keep their code and error tree,
+         * anything else gets code -1.
+         */
+        public static Error from(Throwable throwable) {
+            while (throwable instanceof CompletionException && throwable.getCause() != null) {
+                throwable = throwable.getCause();
+            }
+            if (throwable instanceof DiscordRequest.UnhandledDiscordAPIErrorException e) return new Error(e);
+            if (throwable instanceof DiscordResponseError e) return e.getError();
+            return new Error(-1, String.valueOf(throwable.getMessage()), new JSONObject());
+        }
+
         public int getCode() {
             return code;
         }
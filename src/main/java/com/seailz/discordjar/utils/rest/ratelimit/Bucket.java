@@ -1,164 +1,240 @@
 package com.seailz.discordjar.utils.rest.ratelimit;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * The rate-limit state of one route and major parameter, e.g. sending messages in one channel.
+ * <br>Requests take a ticket with {@link #acquire(RequestPriority, long, boolean)} and are sent once it completes. While
+ * the bucket is exhausted the tickets wait in a FIFO queue per {@link RequestPriority}, and the {@link RateLimiter}'s
+ * timer releases them when the bucket resets, so no thread waits for a bucket.
+ *
+ * <p>Until the first response tells how many requests the bucket allows, and again after each reset, only one request is
+ * sent and the others wait for its response. Routes whose responses carry no rate-limit headers aren't limited at all.
+ *
+ * @see RateLimiter
+ * @since b-1.1
+ */
 public class Bucket {
 
-    private int limit;
-    private AtomicInteger atomicRemaining;
-    private AtomicLong atomicReset;
+    private final String key;
+    private final RateLimiter rateLimiter;
+    private final boolean debug;
+    private final Logger logger = Logger.getLogger("RateLimit");
+    // Everything below is guarded by this
+    private final Lanes queue = new Lanes();
     private String id;
-    private int waitingRequests = 0;
-    private final Lock lock = new ReentrantLock();
-    private final List<String> affectedRoutes = new ArrayList<>();
-    private volatile boolean allowedToSendRequests = true;
-    private AtomicLong resetAfter;
-    private volatile boolean waiting = false;
-    private boolean debug = false;
-
-    public Bucket(String id, int limit, int remaining, long reset, double resetAfter, boolean debug) {
-        this.id = id;
-        this.limit = limit;
-        this.atomicRemaining = new AtomicInteger(remaining);
-        this.atomicReset = new AtomicLong(reset); // Convert reset to milliseconds
-        long resetAfterMillis = (long) (resetAfter * 1000); // Convert resetAfter to milliseconds
-        this.resetAfter = new AtomicLong(resetAfterMillis);
+    private int limit = 1;
+    private int remaining = 0;
+    // When the current window ends on our own clock, which doesn't have to agree with Discord's
+    private long resetAt = 0;
+    // The reset timestamp of the current window as reported by Discord, to tell responses of a new window from late ones
+    private long reportedReset = 0;
+    private long blockedUntil = 0;
+    private long lastUsed = System.currentTimeMillis();
+    private boolean known = false;
+    private boolean unlimited = false;
+    // The ticket of the request sent to find out about the bucket, while it's on its way
+    private CompletableFuture<Void> probe;
+    private boolean drainScheduled = false;
+
+    Bucket(@NotNull String key, @NotNull RateLimiter rateLimiter, boolean debug) {
+        this.key = key;
+        this.rateLimiter = rateLimiter;
         this.debug = debug;
-        // Start the reset thread
-//        new Thread(() -> {
-//            while (true) {
-//                if (remaining != 0) {
-//                    continue;
-//                }
-//                long currentReset = atomicReset.get();
-//                long currentTime = System.currentTimeMillis();
-//
-//                if (currentReset > currentTime) {
-//                    try {
-//                        Thread.sleep(currentReset - currentTime);
-//                    } catch (InterruptedException e) {
-//                        e.printStackTrace();
-//                    }
-//                }
-//                if (atomicReset.compareAndSet(currentReset, System.currentTimeMillis() + resetAfterMillis)) {
-//                    if (debug) {
-//                        System.out.println("Resetting requests for " + id);
-//                    }
-//                    reset(); // Reset the bucket only if the currentReset is still the same as the one we fetched above.
-//                }
-//            }
-//        }, "djar--bucket-reset").start();
-    }
-
-    public synchronized  Bucket update(int limit, int remaining, double reset, float resetAfter) {
-        if (remaining == 0) allowedToSendRequests = false;
-        this.limit = limit;
-        this.atomicRemaining.set(remaining);
-        this.atomicReset.set((long) (reset * 1000)); // Convert reset to milliseconds
-        this.resetAfter.set((long) (resetAfter * 1000)); // Convert resetAfter to milliseconds
-        return this;
     }
 
-    public void reset() {
-        // Reset the bucket.
-        atomicRemaining.set(limit);
-        allowedToSendRequests = true;
-    }
-
-    public String id() {
-        return id;
-    }
-
-    public Bucket addAffectedRoute(String route) {
-        affectedRoutes.add(route);
-        return this;
+    /**
+     * Queues a request in this bucket.
+     *
+     * @param deadline When the request stops being worth sending, in epoch milliseconds, or 0 for never. It only fails
+     *                 the request if it has to wait.
+     * @param retry    Whether the request is being sent again after a 429, which puts it at the front of its lane.
+     * @return A future that completes once the request may be sent, or fails once the deadline passes.
+     */
+    @NotNull
+    public CompletableFuture<Void> acquire(@NotNull RequestPriority priority, long deadline, boolean retry) {
+        CompletableFuture<Void> ticket = new CompletableFuture<>();
+        synchronized (this) {
+            lastUsed = System.currentTimeMillis();
+            queue.add(ticket, priority, retry);
+        }
+        drain();
+        rateLimiter.enforceDeadline(ticket, deadline);
+        return ticket;
+    }
+
+    /**
+     * Updates this bucket with the rate-limit headers of a response.
+     * <br>Responses can arrive out of order and don't count the requests that are still on their way, so within the same
+     * window the lower remaining count wins and responses of an older window don't change the count.
+     *
+     * @param id         The bucket hash Discord reported.
+     * @param reset      The reset timestamp reported by Discord, in milliseconds.
+     * @param resetAfter The time until the reset reported by Discord, in milliseconds.
+     */
+    public void update(@NotNull String id, int limit, int remaining, long reset, long resetAfter) {
+        synchronized (this) {
+            this.id = id;
+            this.limit = limit;
+            if (reset > reportedReset) {
+                reportedReset = reset;
+                this.remaining = remaining;
+                resetAt = System.currentTimeMillis() + resetAfter;
+            } else if (reset == reportedReset) {
+                this.remaining = Math.min(this.remaining, remaining);
+                resetAt = System.currentTimeMillis() + resetAfter;
+            }
+            known = true;
+            unlimited = false;
+            probe = null;
+            if (debug) logger.info("[RATE LIMIT] " + key + " (" + id + "): " + this.remaining + "/" + limit + ", resets in " + resetAfter + "ms");
+        }
+        drain();
     }
 
-    public List<String> getAffectedRoutes() {
-        return affectedRoutes;
+    /**
+     * Marks this bucket as not rate-limited, after a response without rate-limit headers.
+     */
+    public void updateUnlimited() {
+        synchronized (this) {
+            unlimited = true;
+            probe = null;
+        }
+        drain();
+    }
+
+    /**
+     * Lets the next request through after a request of this bucket couldn't be sent or got no usable response, so a lost
+     * response can't stall the bucket.
+     * <br>Only the request that was sent to find out about the bucket holds it up. Any other ticket, e.g. one that missed
+     * its deadline while waiting, changes nothing, as the probe may still be on its way.
+     *
+     * @param ticket The ticket the request got from {@link #acquire(RequestPriority, long, boolean)}.
+     */
+    public void requestFailed(@NotNull CompletableFuture<Void> ticket) {
+        synchronized (this) {
+            if (ticket != probe) return;
+            probe = null;
+        }
+        drain();
     }
 
+    /**
+     * Holds back every request in this bucket for the given amount of milliseconds, e.g. after being rate-limited.
+     */
     public void await(long ms) {
-        new Thread(() -> {
-            waiting = true;
-            try {
-                Thread.sleep(ms);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            waiting = false;
-        }, "djar--bucket-await").start();
-    }
-
-    public synchronized UUID awaitClearance() throws InterruptedException {
-//        while (!waiting) {
-//            Thread.onSpinWait();
-//        }
-        long start = System.currentTimeMillis();
-        waitingRequests++;
-        while (!allowedToSendRequests) {
-            Thread.onSpinWait();
+        synchronized (this) {
+            blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + ms);
         }
-
-
-        if (debug) System.out.println("Clearing request for launch: WR:" + waitingRequests + " AR:" + atomicRemaining.get() + " BID: " + id + " RSA:" + resetAfter);
-        atomicRemaining.getAndDecrement();
-        if (atomicRemaining.get() < 1) {
-            atomicRemaining.set(0);
-            if (debug) System.out.println("Cancelling launch clearance: WR:" + waitingRequests + " AR:" + atomicRemaining.get() +" RA:" + resetAfter);
-            long resetAfterFinal = resetAfter.get();
-            Thread.sleep(resetAfter.get());
-            if (resetAfterFinal != resetAfter.get()) {
-                if (debug) System.out.println("ResetAfter changed from " + resetAfterFinal + " to " + resetAfter);
-                // Wait the difference
-                long diff = resetAfter.get() - resetAfterFinal;
-                if (diff > 0) Thread.sleep(resetAfter.get() - resetAfterFinal);
+        drain();
+    }
+
+    /**
+     * Releases as many queued requests as the bucket allows, and schedules the next release if some have to wait.
+     */
+    void drain() {
+        List<CompletableFuture<Void>> released = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            while (!queue.isEmpty()) {
+                long wait = take(now, queue.peek());
+                if (wait < 0) break; // Released again by the response of the probing request
+                if (wait > 0) {
+                    if (!drainScheduled) {
+                        drainScheduled = true;
+                        rateLimiter.schedule(() -> {
+                            synchronized (this) {
+                                drainScheduled = false;
+                            }
+                            drain();
+                        }, wait);
+                    }
+                    break;
+                }
+                released.add(queue.poll());
             }
-            atomicRemaining.set(limit - 1);
-            if (debug) System.out.println("Clearing launch again: WR:" + waitingRequests + " AR:" + atomicRemaining.get());
         }
-
-        waitingRequests--;
-        UUID uuid = UUID.randomUUID();
-        if (debug) System.out.println("Launched " + uuid + " in " + (System.currentTimeMillis() - start) + "ms");
-        return uuid;
-    }
-
-    public void setAllowedToSendRequests(boolean allowedToSendRequests) {
-        this.allowedToSendRequests = allowedToSendRequests;
-    }
-
-    public void setReset(long atomicReset) {
-        this.atomicReset.set(atomicReset);
-    }
-
-    public void setRemaining(int atomicRemaining) {
-        this.atomicRemaining.set(atomicRemaining);
+        // Completing a ticket sends its request, which shouldn't happen while holding the lock
+        for (CompletableFuture<Void> ticket : released) {
+            // It missed its deadline just now and won't be sent, so it mustn't hold up the bucket as its probe
+            if (!ticket.complete(null)) requestFailed(ticket);
+        }
     }
 
-    public void setId(String id) {
-        this.id = id;
+    /**
+     * Takes one request from the bucket.
+     *
+     * @param ticket The ticket of the request, which becomes the probe if one has to find out about the bucket.
+     * @return 0 if a request may be sent, a positive amount of milliseconds to wait, or -1 to wait for a response.
+     */
+    private long take(long now, CompletableFuture<Void> ticket) {
+        if (blockedUntil > now) return blockedUntil - now;
+        if (unlimited) return 0;
+        if (known && remaining > 0) {
+            remaining--;
+            return 0;
+        }
+        if (known && resetAt > now) return resetAt - now;
+        // Either nothing is known about the bucket yet or its window has passed, so one request goes out to find out
+        if (probe != null) return -1;
+        probe = ticket;
+        return 0;
+    }
+
+    /**
+     * Returns whether nothing is waiting in this bucket and its window has been over for the given amount of milliseconds.
+     */
+    synchronized boolean isIdle(long now, long idleMillis) {
+        return queue.isEmpty() && probe == null && now - lastUsed > idleMillis
+                && now - resetAt > idleMillis && now - blockedUntil > idleMillis;
+    }
+
+    /**
+     * Returns the route and major parameter this bucket is for.
+     */
+    @NotNull
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Returns the bucket hash Discord reported for this bucket, or null if no response has carried one yet.
+     */
+    @Nullable
+    public synchronized String id() {
+        return id;
     }
 
-    public void setLimit(int limit) {
-        this.limit = limit;
+    public synchronized int limit() {
+        return limit;
     }
 
-    public void setResetAfter(Long resetAfter) {
-        this.resetAfter.set(resetAfter);
+    public synchronized int remaining() {
+        return remaining;
     }
 
-    public void setWaiting(boolean waiting) {
-        this.waiting = waiting;
+    /**
+     * Returns the amount of requests waiting in this bucket.
+     */
+    public synchronized int queued() {
+        return queue.size();
     }
 
-    public void setWaitingRequests(int waitingRequests) {
-        this.waitingRequests = waitingRequests;
+    @Override
+    public synchronized String toString() {
+        return "Bucket{" +
+                "key='" + key + '\'' +
+                ", id='" + id + '\'' +
+                ", remaining=" + remaining +
+                ", limit=" + limit +
+                ", queued=" + queue.size() +
+                (unlimited ? ", unlimited" : "") +
+                '}';
     }
 }
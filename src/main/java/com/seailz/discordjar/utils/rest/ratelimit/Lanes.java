@@ -0,0 +1,80 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The tickets of requests waiting for a rate limit, in one FIFO queue per {@link RequestPriority}.
+ * <br>Tickets that completed while waiting, because they missed their deadline, are dropped as they come up. Not thread
+ * safe, the owner guards it.
+ */
+final class Lanes {
+
+    private final List<Deque<CompletableFuture<Void>>> lanes;
+
+    Lanes() {
+        lanes = new ArrayList<>(RequestPriority.values().length);
+        for (int i = 0; i < RequestPriority.values().length; i++) lanes.add(new ArrayDeque<>());
+    }
+
+    /**
+     * @param first Whether the ticket goes to the front of its lane rather than the back, e.g. for a retry.
+     */
+    void add(@NotNull CompletableFuture<Void> ticket, @NotNull RequestPriority priority, boolean first) {
+        Deque<CompletableFuture<Void>> lane = lanes.get(priority.ordinal());
+        if (first) lane.addFirst(ticket);
+        else lane.addLast(ticket);
+    }
+
+    /**
+     * Returns whether no ticket is waiting.
+     */
+    boolean isEmpty() {
+        return peekLane() == null;
+    }
+
+    /**
+     * Returns the next ticket to release without removing it, or null if none is waiting.
+     */
+    @Nullable
+    CompletableFuture<Void> peek() {
+        Deque<CompletableFuture<Void>> lane = peekLane();
+        return lane == null ? null : lane.peekFirst();
+    }
+
+    /**
+     * Removes and returns the next ticket to release, or null if none is waiting.
+     */
+    @Nullable
+    CompletableFuture<Void> poll() {
+        Deque<CompletableFuture<Void>> lane = peekLane();
+        return lane == null ? null : lane.pollFirst();
+    }
+
+    /**
+     * Returns the amount of tickets waiting.
+     */
+    int size() {
+        int size = 0;
+        for (Deque<CompletableFuture<Void>> lane : lanes) {
+            for (CompletableFuture<Void> ticket : lane) {
+                if (!ticket.isDone()) size++;
+            }
+        }
+        return size;
+    }
+
+    private Deque<CompletableFuture<Void>> peekLane() {
+        for (Deque<CompletableFuture<Void>> lane : lanes) {
+            while (!lane.isEmpty() && lane.peekFirst().isDone()) lane.pollFirst();
+            if (!lane.isEmpty()) return lane;
+        }
+        return null;
+    }
+}
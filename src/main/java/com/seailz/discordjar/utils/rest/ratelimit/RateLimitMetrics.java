@@ -0,0 +1,36 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+/**
+ * A snapshot of the state of a {@link RateLimiter}, see {@link RateLimiter#getMetrics()}.
+ *
+ * @param globalRequestsPerSecond    How many requests may currently be sent per second, lower while throttled.
+ * @param globalQueued               Requests waiting for the global limit.
+ * @param globalPauseRemainingMillis How much longer all requests are paused after a global rate limit, 0 if they aren't.
+ * @param globalRateLimits           Global 429 responses received.
+ * @param bucketRateLimits           429 responses received for a single bucket.
+ * @param cloudflareBlocks           429 responses received from Cloudflare instead of Discord, which mean the IP is banned.
+ * @param deadlinesMissed            Requests that failed because they were still waiting for a rate limit at their deadline.
+ * @param invalidRequests            Invalid requests (401, 403 and 429 responses) within the current window.
+ * @param invalidRequestLimit        How many invalid requests may be received within the window, see {@link RateLimitSettings}.
+ * @param throttled                  Whether requests are slowed down because of the amount of invalid requests.
+ * @param responses                  Responses received in total.
+ * @param buckets                    Buckets currently tracked.
+ * @param bucketQueued               Requests waiting in a bucket.
+ * @since b-1.1
+ */
+public record RateLimitMetrics(
+        int globalRequestsPerSecond,
+        int globalQueued,
+        long globalPauseRemainingMillis,
+        long globalRateLimits,
+        long bucketRateLimits,
+        long cloudflareBlocks,
+        long deadlinesMissed,
+        int invalidRequests,
+        int invalidRequestLimit,
+        boolean throttled,
+        long responses,
+        int buckets,
+        int bucketQueued
+) {
+}
@@ -0,0 +1,44 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings for the limits a {@link RateLimiter} applies to all REST traffic of a bot, on top of the per-route buckets.
+ * <br>Discord allows a bot 50 requests per second across all routes, and temporarily bans the IP of anyone who sends
+ * 10,000 invalid requests (401, 403 or 429 responses) within 10 minutes. The ban is enforced by Cloudflare and also blocks
+ * the Gateway, so the limiter slows down well before it.
+ *
+ * @param globalRequestsPerSecond         How many requests may be sent in any one second. Larger bots can ask Discord
+ *                                        for a higher limit.
+ * @param invalidRequestLimit             How many invalid requests may be received within the window before every
+ *                                        request is held back until older ones leave the window. Keep it below 10,000,
+ *                                        as requests already on their way can still come back invalid.
+ * @param invalidRequestWindow            The window invalid requests are counted in.
+ * @param invalidRequestThrottleThreshold How many invalid requests within the window slow all requests down to
+ *                                        {@code throttledRequestsPerSecond}.
+ * @param throttledRequestsPerSecond      How many requests may be sent per second while throttled.
+ * @see com.seailz.discordjar.DiscordJarBuilder#setRateLimitSettings(RateLimitSettings)
+ * @since b-1.1
+ */
+public record RateLimitSettings(
+        int globalRequestsPerSecond,
+        int invalidRequestLimit,
+        @NotNull Duration invalidRequestWindow,
+        int invalidRequestThrottleThreshold,
+        int throttledRequestsPerSecond
+) {
+
+    public RateLimitSettings {
+        if (globalRequestsPerSecond < 1) throw new IllegalArgumentException("At least one request per second must be allowed");
+        if (invalidRequestLimit < 1) throw new IllegalArgumentException("The invalid request limit must be positive");
+        if (invalidRequestWindow == null || invalidRequestWindow.toSeconds() < 1) throw new IllegalArgumentException("The invalid request window must be at least a second");
+        if (invalidRequestThrottleThreshold < 1 || invalidRequestThrottleThreshold > invalidRequestLimit) throw new IllegalArgumentException("The throttle threshold must be between 1 and the invalid request limit");
+        if (throttledRequestsPerSecond < 1 || throttledRequestsPerSecond > globalRequestsPerSecond) throw new IllegalArgumentException("The throttled rate must be between 1 and the global rate");
+    }
+
+    public static RateLimitSettings defaults() {
+        return new RateLimitSettings(50, 9_000, Duration.ofMinutes(10), 7_500, 5);
+    }
+}
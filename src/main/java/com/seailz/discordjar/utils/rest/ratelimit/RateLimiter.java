@@ -0,0 +1,425 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the REST requests of a bot within Discord's rate limits.
+ * <br>Discord limits routes per major parameter, so sending messages in one channel doesn't use up the limit of another
+ * channel. Every route template and major parameter gets its own {@link Bucket}, kept in a concurrent map. Requests that
+ * have to wait are queued in their bucket and released by a single timer thread when it resets, so any amount of waiting
+ * requests costs one thread.
+ *
+ * <p>After its bucket, a request waits for the global limit shared by all routes, see {@link RateLimitSettings}. It's a
+ * token bucket whose tokens come back one second after the response of the request that spent them, so no one-second
+ * window on Discord's side ever sees more requests than the limit, however long requests take to get there. A global
+ * 429 pauses all requests for as long as Discord asks, and the amount of invalid requests is counted so requests slow
+ * down, and eventually stop, before Cloudflare bans the IP. Interaction routes and webhook routes authorized by the
+ * webhook's token don't count toward the global limit and skip it.
+ *
+ * <p>Both the buckets and the global limit release waiting requests by {@link RequestPriority}, so interaction responses
+ * aren't stuck behind bulk work. A request with a deadline fails with a {@link RequestDeadlineExceededException} as soon
+ * as the deadline passes while it's still waiting, instead of being sent when it's no use anymore.
+ *
+ * @see com.seailz.discordjar.utils.rest.DiscordRequest#invokeAsync()
+ * @since b-1.1
+ */
+public class RateLimiter {
+
+    /**
+     * Placeholders of the route templates in {@link com.seailz.discordjar.utils.URLS URLS} that Discord treats as major
+     * parameters.
+     */
+    private static final Set<String> MAJOR_PARAMETERS = Set.of("{channel.id}", "{guild.id}");
+    // Buckets that have been unused for this long are dropped, a later request starts over with a fresh one
+    private static final long BUCKET_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // The invalid request window is counted in this many slots, so it slides in steps of a sixtieth of its length
+    private static final int INVALID_REQUEST_SLOTS = 60;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final RateLimitSettings settings;
+    private final boolean debug;
+    private final Logger logger = Logger.getLogger("RateLimit");
+
+    // Everything below is guarded by globalLock
+    private final Object globalLock = new Object();
+    private final Lanes globalQueue = new Lanes();
+    // Global tokens held by requests still on their way, and when each token returned by a response comes back
+    private int globalInFlight = 0;
+    private final Deque<Long> globalReturnedAt = new ArrayDeque<>();
+    private long lastSentAt = 0;
+    private long globalPausedUntil = 0;
+    private boolean globalDrainScheduled = false;
+    private boolean throttled = false;
+    private boolean invalidRequestLimitReached = false;
+    private final int[] invalidRequestCounts = new int[INVALID_REQUEST_SLOTS];
+    private final long[] invalidRequestSlots = new long[INVALID_REQUEST_SLOTS];
+    private final long invalidRequestSlotMillis;
+
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong globalRateLimits = new AtomicLong();
+    private final AtomicLong bucketRateLimits = new AtomicLong();
+    private final AtomicLong cloudflareBlocks = new AtomicLong();
+    private final AtomicLong deadlinesMissed = new AtomicLong();
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "djar--rest-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RateLimiter(@NotNull RateLimitSettings settings, boolean debug) {
+        this.settings = settings;
+        this.debug = debug;
+        this.invalidRequestSlotMillis = Math.max(1, settings.invalidRequestWindow().toMillis() / INVALID_REQUEST_SLOTS);
+        // Deadline timeouts are cancelled whenever a request gets through in time, they shouldn't pile up in the queue
+        timer.setRemoveOnCancelPolicy(true);
+        timer.scheduleWithFixedDelay(() -> {
+            long now = System.currentTimeMillis();
+            buckets.values().removeIf(bucket -> bucket.isIdle(now, BUCKET_IDLE_MILLIS));
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Returns the bucket of a request, creating it if needed.
+     *
+     * @param method The method of the request.
+     * @param route  The route template of the request, e.g. {@code /channels/{channel.id}/messages}.
+     * @param url    The path the request is sent to, with the parameters filled in.
+     */
+    @NotNull
+    public Bucket getBucket(@NotNull RequestMethod method, @NotNull String route, @NotNull String url) {
+        String key = method.name() + " " + routeKey(stripQuery(route), stripQuery(url));
+        return buckets.computeIfAbsent(key, k -> new Bucket(k, this, debug));
+    }
+
+    /**
+     * Returns a snapshot of the buckets currently tracked.
+     */
+    @NotNull
+    public Collection<Bucket> getBuckets() {
+        return Collections.unmodifiableCollection(buckets.values());
+    }
+
+    /**
+     * Returns the route template followed by the major parameters of a request, e.g.
+     * {@code /channels/{channel.id}/messages:channel=123}.
+     * <br>Webhook routes are limited per webhook and token, and interaction callbacks per interaction and token, so both
+     * count as major parameters there. If the template doesn't describe the path, the path itself is used so unrelated
+     * requests never share a bucket.
+     */
+    @NotNull
+    static String routeKey(@NotNull String route, @NotNull String url) {
+        String[] routeSegments = route.split("/");
+        String[] urlSegments = url.split("/");
+        if (routeSegments.length != urlSegments.length) return url;
+
+        StringBuilder major = new StringBuilder();
+        boolean perToken = routeSegments.length > 3
+                && (routeSegments[1].equals("webhooks") || routeSegments[1].equals("interactions"));
+        for (int i = 0; i < routeSegments.length; i++) {
+            String segment = routeSegments[i];
+            boolean placeholder = segment.startsWith("{") && segment.endsWith("}");
+            if (!placeholder && !segment.equals(urlSegments[i])) return url;
+            // Only the first major parameter counts, e.g. the channel of a channel's message route
+            if (major.isEmpty() && MAJOR_PARAMETERS.contains(segment)) {
+                major.append(':').append(segment, 1, segment.indexOf('.')).append('=').append(urlSegments[i]);
+            } else if (perToken && (i == 2 || i == 3)) {
+                major.append(':').append(urlSegments[i]);
+            }
+        }
+        return route + major;
+    }
+
+    private static String stripQuery(String path) {
+        int query = path.indexOf('?');
+        return query == -1 ? path : path.substring(0, query);
+    }
+
+    /**
+     * Returns whether requests to the given route count toward the global limit. Interaction responses, and webhook
+     * requests authorized by their token, i.e. {@code /webhooks/{id}/{token}} and below, don't. Other webhook routes,
+     * such as getting or deleting a webhook by its id, do.
+     *
+     * @param route The route template of the request.
+     * @param auth  Whether the request is sent with the bot's token.
+     */
+    public boolean isGloballyLimited(@NotNull String route, boolean auth) {
+        if (!auth || route.startsWith("/interactions/")) return false;
+        String[] segments = stripQuery(route).split("/");
+        return !(segments.length > 3 && segments[1].equals("webhooks"));
+    }
+
+    /**
+     * Returns the priority of requests to the given route that don't set one: {@link RequestPriority#INTERACTION} for
+     * interaction callbacks and anything sent with an interaction token, {@link RequestPriority#NORMAL} otherwise.
+     *
+     * @param route The route template of the request.
+     */
+    @NotNull
+    public RequestPriority getDefaultPriority(@NotNull String route) {
+        return route.startsWith("/interactions/") || route.contains("interaction.token")
+                ? RequestPriority.INTERACTION : RequestPriority.NORMAL;
+    }
+
+    /**
+     * Queues a request for the global limit. Once it has been sent, its token has to be handed back with
+     * {@link #releaseGlobal()}, whether it got a response or not.
+     *
+     * @param deadline When the request stops being worth sending, in epoch milliseconds, or 0 for never. It only fails
+     *                 the request if it has to wait.
+     * @return A future that completes once the request may be sent, or fails once the deadline passes.
+     */
+    @NotNull
+    public CompletableFuture<Void> acquireGlobal(@NotNull RequestPriority priority, long deadline) {
+        CompletableFuture<Void> ticket = new CompletableFuture<>();
+        synchronized (globalLock) {
+            globalQueue.add(ticket, priority, false);
+        }
+        drainGlobal();
+        enforceDeadline(ticket, deadline);
+        return ticket;
+    }
+
+    /**
+     * Fails a ticket that is still waiting once its deadline passes, right away if it already has.
+     * <br>Called after the ticket had its chance to be released, so a deadline only ever fails a request that has to
+     * wait. A deadline taken from Discord's clock can have passed already on a local clock that runs ahead, and a
+     * request the limits let through right away should still be sent then.
+     */
+    void enforceDeadline(CompletableFuture<Void> ticket, long deadline) {
+        if (deadline <= 0 || ticket.isDone()) return;
+        long wait = deadline - System.currentTimeMillis();
+        if (wait <= 0) {
+            missDeadline(ticket);
+            return;
+        }
+        ScheduledFuture<?> timeout = timer.schedule(() -> missDeadline(ticket), wait, TimeUnit.MILLISECONDS);
+        ticket.whenComplete((v, throwable) -> timeout.cancel(false));
+    }
+
+    private void missDeadline(CompletableFuture<Void> ticket) {
+        if (ticket.completeExceptionally(new RequestDeadlineExceededException("The request could not be sent before its deadline"))) {
+            deadlinesMissed.incrementAndGet();
+        }
+    }
+
+    private void drainGlobal() {
+        List<CompletableFuture<Void>> released = new ArrayList<>();
+        synchronized (globalLock) {
+            long now = System.currentTimeMillis();
+            while (!globalQueue.isEmpty()) {
+                long wait = takeGlobal(now);
+                if (wait < 0) break; // Released again by releaseGlobal
+                if (wait > 0) {
+                    if (!globalDrainScheduled) {
+                        globalDrainScheduled = true;
+                        schedule(() -> {
+                            synchronized (globalLock) {
+                                globalDrainScheduled = false;
+                            }
+                            drainGlobal();
+                        }, wait);
+                    }
+                    break;
+                }
+                released.add(globalQueue.poll());
+            }
+        }
+        // Completing a ticket sends its request, which shouldn't happen while holding the lock
+        for (CompletableFuture<Void> ticket : released) {
+            // It missed its deadline just now and won't be sent, so its token goes back right away
+            if (!ticket.complete(null)) cancelGlobal();
+        }
+    }
+
+    private void cancelGlobal() {
+        synchronized (globalLock) {
+            globalInFlight--;
+        }
+        drainGlobal();
+    }
+
+    /**
+     * Takes a global token.
+     *
+     * @return 0 if a request may be sent, a positive amount of milliseconds to wait, or -1 to wait for a response.
+     */
+    private long takeGlobal(long now) {
+        if (globalPausedUntil > now) return globalPausedUntil - now;
+
+        int invalid = countInvalidRequests(now);
+        if (invalid >= settings.invalidRequestLimit()) {
+            if (!invalidRequestLimitReached) {
+                invalidRequestLimitReached = true;
+                logger.severe("[RATE LIMIT] " + invalid + " invalid requests within " + settings.invalidRequestWindow()
+                        + ". Holding back all requests until older ones leave the window, to avoid a Cloudflare ban.");
+            }
+            return untilOldestInvalidRequestExpires(now);
+        }
+        invalidRequestLimitReached = false;
+
+        boolean throttle = invalid >= settings.invalidRequestThrottleThreshold();
+        if (throttle != throttled) {
+            throttled = throttle;
+            if (throttle) logger.warning("[RATE LIMIT] " + invalid + " invalid requests within " + settings.invalidRequestWindow()
+                    + ". Slowing down to " + settings.throttledRequestsPerSecond() + " requests per second.");
+            else logger.info("[RATE LIMIT] Invalid requests are back below the threshold, no longer slowing down.");
+        }
+        if (throttled) {
+            long interval = 1000 / settings.throttledRequestsPerSecond();
+            if (now - lastSentAt < interval) return lastSentAt + interval - now;
+        }
+
+        while (!globalReturnedAt.isEmpty() && globalReturnedAt.peekFirst() + 1000 <= now) globalReturnedAt.pollFirst();
+        if (globalInFlight + globalReturnedAt.size() >= settings.globalRequestsPerSecond()) {
+            return globalReturnedAt.isEmpty() ? -1 : globalReturnedAt.peekFirst() + 1000 - now;
+        }
+        globalInFlight++;
+        lastSentAt = now;
+        return 0;
+    }
+
+    /**
+     * Hands back the global token of a request once its response has arrived or it failed. The token can be used again a
+     * second later.
+     */
+    public void releaseGlobal() {
+        synchronized (globalLock) {
+            globalInFlight--;
+            globalReturnedAt.addLast(System.currentTimeMillis());
+        }
+        drainGlobal();
+    }
+
+    /**
+     * Counts a response toward the invalid request limit if it's a 401, 403 or 429.
+     *
+     * @param shared Whether a 429 was for a resource shared with others, which Discord doesn't count as invalid.
+     */
+    public void recordResponse(int code, boolean shared) {
+        responses.incrementAndGet();
+        if (code != 401 && code != 403 && (code != 429 || shared)) return;
+        synchronized (globalLock) {
+            long slot = System.currentTimeMillis() / invalidRequestSlotMillis;
+            int index = (int) (slot % INVALID_REQUEST_SLOTS);
+            if (invalidRequestSlots[index] != slot) {
+                invalidRequestSlots[index] = slot;
+                invalidRequestCounts[index] = 0;
+            }
+            invalidRequestCounts[index]++;
+        }
+    }
+
+    private int countInvalidRequests(long now) {
+        long oldest = now / invalidRequestSlotMillis - INVALID_REQUEST_SLOTS;
+        int count = 0;
+        for (int i = 0; i < INVALID_REQUEST_SLOTS; i++) {
+            if (invalidRequestSlots[i] > oldest) count += invalidRequestCounts[i];
+        }
+        return count;
+    }
+
+    private long untilOldestInvalidRequestExpires(long now) {
+        long oldest = now / invalidRequestSlotMillis - INVALID_REQUEST_SLOTS;
+        long first = Long.MAX_VALUE;
+        for (int i = 0; i < INVALID_REQUEST_SLOTS; i++) {
+            if (invalidRequestSlots[i] > oldest && invalidRequestCounts[i] > 0) first = Math.min(first, invalidRequestSlots[i]);
+        }
+        if (first == Long.MAX_VALUE) return 1;
+        return Math.max(1, (first + INVALID_REQUEST_SLOTS) * invalidRequestSlotMillis - now);
+    }
+
+    /**
+     * Pauses every globally limited request after a global 429.
+     */
+    public void onGlobalRateLimit(long retryAfterMillis) {
+        globalRateLimits.incrementAndGet();
+        logger.warning("[RATE LIMIT] Hit the global rate limit, pausing all requests for " + retryAfterMillis + "ms.");
+        pauseGlobal(retryAfterMillis);
+    }
+
+    /**
+     * Counts a 429 of a single bucket.
+     */
+    public void onBucketRateLimit() {
+        bucketRateLimits.incrementAndGet();
+    }
+
+    /**
+     * Pauses every globally limited request after a 429 from Cloudflare, which means the IP is banned.
+     *
+     * @param retryAfterMillis How long Cloudflare asked to wait, or 0 if it didn't say.
+     */
+    public void onCloudflareBlock(long retryAfterMillis) {
+        cloudflareBlocks.incrementAndGet();
+        if (retryAfterMillis > 0) pauseGlobal(retryAfterMillis);
+    }
+
+    private void pauseGlobal(long millis) {
+        synchronized (globalLock) {
+            globalPausedUntil = Math.max(globalPausedUntil, System.currentTimeMillis() + millis);
+        }
+        drainGlobal();
+    }
+
+    /**
+     * Returns a snapshot of the global limit, the invalid request counter and the buckets.
+     */
+    @NotNull
+    public RateLimitMetrics getMetrics() {
+        int bucketQueued = 0;
+        for (Bucket bucket : buckets.values()) bucketQueued += bucket.queued();
+        synchronized (globalLock) {
+            long now = System.currentTimeMillis();
+            int invalid = countInvalidRequests(now);
+            boolean throttled = invalid >= settings.invalidRequestThrottleThreshold();
+            return new RateLimitMetrics(
+                    throttled ? settings.throttledRequestsPerSecond() : settings.globalRequestsPerSecond(),
+                    globalQueue.size(),
+                    Math.max(0, globalPausedUntil - now),
+                    globalRateLimits.get(),
+                    bucketRateLimits.get(),
+                    cloudflareBlocks.get(),
+                    deadlinesMissed.get(),
+                    invalid,
+                    settings.invalidRequestLimit(),
+                    throttled,
+                    responses.get(),
+                    buckets.size(),
+                    bucketQueued
+            );
+        }
+    }
+
+    @NotNull
+    public RateLimitSettings getSettings() {
+        return settings;
+    }
+
+    void schedule(Runnable task, long millis) {
+        timer.schedule(task, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timer thread. Requests that are still waiting never complete.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
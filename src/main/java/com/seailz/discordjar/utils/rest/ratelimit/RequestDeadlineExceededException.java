@@ -0,0 +1,16 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+/**
+ * Thrown when a REST request was still waiting for its rate limits when its deadline passed. The request was never sent.
+ *
+ * @see com.seailz.discordjar.utils.rest.DiscordRequest#setDeadline(java.time.Instant)
+ * @since b-1.1
+ */
+public class RequestDeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestDeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+/**
+ * The lane a REST request waits in while it's held back by a rate limit. Whenever a {@link Bucket} or the global limit
+ * lets a request through, the first request of the most urgent non-empty lane goes.
+ *
+ * @see com.seailz.discordjar.utils.rest.DiscordRequest#setPriority(RequestPriority)
+ * @since b-1.1
+ */
+public enum RequestPriority {
+
+    /**
+     * Interaction callbacks and followups, which Discord only accepts for a short time.
+     */
+    INTERACTION,
+    /**
+     * Requests someone is waiting for, like sending a message. Most requests are in this lane.
+     */
+    NORMAL,
+    /**
+     * Bulk and background work like paginating members or registering commands, only sent when nothing else is waiting.
+     */
+    BACKGROUND
+
+}
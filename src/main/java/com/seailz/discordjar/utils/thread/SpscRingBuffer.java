@@ -0,0 +1,96 @@
+package com.seailz.discordjar.utils.thread;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue for exactly one producer thread and one consumer thread.
+ * <br>Neither side ever blocks or takes a lock: {@link #offer(Object)} fails when the buffer is full and {@link #poll()}
+ * returns null when it's empty, so the caller decides how to wait. Each side caches the other side's index and only reads
+ * it again when the cached value says the buffer is full or empty, which keeps the two threads from contending on the
+ * same memory most of the time.
+ *
+ * <p>Calling {@link #offer(Object)} from more than one thread at a time, or {@link #poll()} from more than one thread at
+ * a time, corrupts the buffer. A side may move to another thread as long as the hand-over happens-before the next call.
+ *
+ * @param <E> The type of the elements.
+ * @since b-1.1
+ */
+public final class SpscRingBuffer<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+    // Index of the next element to poll, only written by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Index of the next free slot, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead = 0;
+    private long cachedTail = 0;
+
+    /**
+     * @param capacity The maximum number of elements, rounded up to the next power of two.
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element. Must only be called by the producer.
+     *
+     * @return false if the buffer is full and the element wasn't added.
+     */
+    public boolean offer(@NotNull E element) {
+        long index = tail.get();
+        if (index - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (index - cachedHead >= buffer.length) return false;
+        }
+        buffer[(int) index & mask] = element;
+        // Publishes the element, the consumer reads the tail before reading the slot
+        tail.lazySet(index + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the consumer.
+     *
+     * @return The element, or null if the buffer is empty.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long index = head.get();
+        if (index >= cachedTail) {
+            cachedTail = tail.get();
+            if (index >= cachedTail) return null;
+        }
+        int slot = (int) index & mask;
+        E element = (E) buffer[slot];
+        buffer[slot] = null;
+        // Frees the slot, the producer reads the head before reusing it
+        head.lazySet(index + 1);
+        return element;
+    }
+
+    /**
+     * Returns the number of elements in the buffer. Exact from either side, an estimate from any other thread.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,97 @@
+package com.seailz.discordjar.ws;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a recording written by {@link FrameRecorder}, one frame at a time.
+ *
+ * @since b-1.1
+ */
+public class FrameLogReader implements Closeable {
+
+    /**
+     * A recorded frame.
+     *
+     * @param timestampMicros When the frame was received, in µs since the epoch.
+     * @param kind            One of {@link FrameRecorder#KIND_TEXT}, {@link FrameRecorder#KIND_BINARY} and {@link FrameRecorder#KIND_CONNECT}.
+     */
+    public record Frame(long timestampMicros, byte kind, byte[] data) {}
+
+    private final DataInputStream in;
+    private final FrameRecorder.Mode mode;
+    private final String compression;
+    private final String encoding;
+
+    public FrameLogReader(@NotNull Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            if (in.readInt() != FrameRecorder.MAGIC) throw new IOException(file + " isn't a frame recording");
+            byte version = in.readByte();
+            if (version != FrameRecorder.VERSION) throw new IOException("Unsupported recording version " + version);
+            this.mode = FrameRecorder.Mode.values()[in.readByte()];
+            this.compression = in.readUTF();
+            this.encoding = in.readUTF();
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            in.close();
+            throw e instanceof IOException io ? io : new IOException("Corrupt recording header", e);
+        }
+    }
+
+    public FrameRecorder.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the transport compression of the recorded connection, as a {@code GatewayTransportCompressionType} name.
+     */
+    public String getCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the encoding of the recorded connection, as a {@code GatewayEncoding} name.
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Reads the next frame.
+     *
+     * @return The frame, or null at the end of the recording. A record that was only partly written, because the
+     * recording process died, is treated as the end.
+     */
+    @Nullable
+    public Frame next() throws IOException {
+        long timestamp;
+        try {
+            timestamp = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            byte kind = in.readByte();
+            int length = in.readInt();
+            if (length < 0) throw new IOException("Corrupt record length " + length);
+            byte[] data = new byte[length];
+            in.readFully(data);
+            return new Frame(timestamp, kind, data);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
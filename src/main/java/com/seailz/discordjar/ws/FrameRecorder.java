@@ -0,0 +1,156 @@
+package com.seailz.discordjar.ws;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.logging.Logger;
+
+/**
+ * Records the frames a {@link WebSocket} receives to an append-only file, so they can be replayed later without a live
+ * connection, see {@link FrameLogReader} and {@link com.seailz.discordjar.gateway.GatewayReplayer GatewayReplayer}.
+ *
+ * <p>The file starts with a header, followed by one record per frame:
+ * <pre>
+ * header: int magic, byte version, byte mode, UTF compression, UTF encoding
+ * record: long timestamp (µs since the epoch), byte kind, int length, byte[length] data
+ * </pre>
+ * Opening an existing recording appends to it, as long as its header matches. A {@link #KIND_CONNECT} record marks the
+ * start of every connection, as compressed frames can only be decoded together with the earlier frames of their connection.
+ *
+ * @since b-1.1
+ */
+public class FrameRecorder implements Closeable {
+
+    static final int MAGIC = 0x444A4652; // DJFR
+    static final byte VERSION = 1;
+
+    /**
+     * A text frame.
+     */
+    public static final byte KIND_TEXT = 0;
+    /**
+     * A binary frame, compressed in {@link Mode#RAW RAW} recordings.
+     */
+    public static final byte KIND_BINARY = 1;
+    /**
+     * A new connection was opened, without any data.
+     */
+    public static final byte KIND_CONNECT = 2;
+
+    public enum Mode {
+        /**
+         * Frames are recorded as received, before transport compression is decoded. Replaying these includes decompression.
+         */
+        RAW,
+        /**
+         * Frames are recorded after transport compression was decoded.
+         */
+        DECODED
+    }
+
+    private final Mode mode;
+    private final DataOutputStream out;
+    private long recorded = 0;
+    private boolean failed = false;
+
+    /**
+     * Opens a recording, creating it if it doesn't exist.
+     *
+     * @param compression The transport compression of the recorded connection, as a {@code GatewayTransportCompressionType} name.
+     * @param encoding    The encoding of the recorded connection, as a {@code GatewayEncoding} name.
+     * @throws IOException If the file can't be opened, or is a recording with a different header.
+     */
+    public FrameRecorder(@NotNull Path file, @NotNull Mode mode, @NotNull String compression, @NotNull String encoding) throws IOException {
+        this.mode = mode;
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        boolean existing = Files.exists(file) && Files.size(file) > 0;
+        if (existing) {
+            try (FrameLogReader reader = new FrameLogReader(file)) {
+                if (reader.getMode() != mode || !reader.getCompression().equals(compression) || !reader.getEncoding().equals(encoding)) {
+                    throw new IOException("Can't append to " + file + ", it was recorded with " + reader.getMode() + "/"
+                            + reader.getCompression() + "/" + reader.getEncoding());
+                }
+            }
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (!existing) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(mode.ordinal());
+            out.writeUTF(compression);
+            out.writeUTF(encoding);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the amount of records written by this recorder.
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    void recordConnect() {
+        write(KIND_CONNECT, new byte[0], 0, 0);
+    }
+
+    void recordText(@NotNull String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        write(KIND_TEXT, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Records a binary frame, which is expected to be compressed or not according to this recorder's {@link Mode}.
+     * <br>Frames are recorded by the {@link WebSocket} itself, unless it passes them to a {@link WebSocket.FrameSink}.
+     */
+    public void recordBinary(@NotNull ByteBuffer data) {
+        if (data.hasArray()) {
+            write(KIND_BINARY, data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        write(KIND_BINARY, bytes, 0, bytes.length);
+    }
+
+    private synchronized void write(byte kind, byte[] data, int offset, int length) {
+        Instant now = Instant.now();
+        try {
+            out.writeLong(ChronoUnit.MICROS.between(Instant.EPOCH, now));
+            out.writeByte(kind);
+            out.writeInt(length);
+            out.write(data, offset, length);
+            recorded++;
+        } catch (IOException e) {
+            // A failing recording must not break the connection it records
+            if (!failed) Logger.getLogger("WS").warning("[WS] Failed to record a frame, the recording is incomplete: " + e.getMessage());
+            failed = true;
+        }
+    }
+
+    /**
+     * Writes buffered records to the file.
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
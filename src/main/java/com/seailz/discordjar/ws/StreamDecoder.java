@@ -0,0 +1,65 @@
+package com.seailz.discordjar.ws;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+
+/**
+ * Decompresses a Gateway connection that uses <a href="https://discord.com/developers/docs/topics/gateway#transport-compression">transport compression</a>.
+ * <br>Transport compression keeps one compression context for the whole connection, so every {@link WebSocket} needs its own
+ * decoder, and the decoder has to be {@link #reset() reset} whenever the connection is replaced.
+ *
+ * <p>Implementations aren't expected to be thread-safe, they're only fed by one thread at a time, such as the
+ * {@link com.seailz.discordjar.gateway.GatewayPipeline GatewayPipeline}'s inflate stage.
+ *
+ * @see ZlibStreamDecoder
+ * @see ZstdStreamDecoder
+ * @since b-1.1
+ */
+public interface StreamDecoder {
+
+    /**
+     * Appends a frame to the decoder.
+     *
+     * @param frame The binary frame received from the Gateway.
+     * @return {@code true} if the frame completed a message, which can then be read using {@link #getOutput()} and
+     * {@link #getOutputLength()}. {@code false} if more frames are needed.
+     * @throws DataFormatException If the data can't be decompressed. The decoder should be {@link #reset() reset} along with the connection.
+     */
+    boolean feed(ByteBuffer frame) throws DataFormatException;
+
+    /**
+     * Returns the buffer containing the last decompressed message.
+     * <br>Only the first {@link #getOutputLength()} bytes are valid, and the contents are overwritten by the next message.
+     */
+    byte[] getOutput();
+
+    int getOutputLength();
+
+    /**
+     * Discards any partially received message and resets the compression context.
+     */
+    void reset();
+
+    /**
+     * Releases any native resources. The decoder can't be used after this.
+     */
+    void close();
+
+    long getCompressedBytes();
+
+    long getInflatedBytes();
+
+    long getInflatedMessages();
+
+    /**
+     * Returns the ratio of decompressed bytes to compressed bytes for this connection, or 0 if nothing was decompressed yet.
+     */
+    default double getCompressionRatio() {
+        return getCompressedBytes() == 0 ? 0 : (double) getInflatedBytes() / getCompressedBytes();
+    }
+
+    /**
+     * Returns the decompression throughput for this connection in decompressed megabytes per second, or 0 if nothing was decompressed yet.
+     */
+    double getThroughputMbPerSecond();
+}
@@ -40,7 +40,8 @@ public class WSPayloads {
         }
 
         public JSONObject fill(Object... params) {
-            JSONObject obj = payload;
+            // Work on a copy, the template is shared by every connection
+            JSONObject obj = new JSONObject(payload, JSONObject.getNames(payload));
             for (int i = 0; i < params.length; i++) {
                 obj = obj.put(this.params.get(i).slot, params[i]);
             }
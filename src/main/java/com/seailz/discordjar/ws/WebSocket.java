@@ -13,10 +13,8 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.client.WebSocketClient;
 
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -25,7 +23,6 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
 
 /**
  * Abstracts the Spring Websocket implementation to make it easier to use, understand, and maintain.
@@ -36,17 +33,29 @@ public class WebSocket extends WebSocketListener {
     private okhttp3.WebSocket ws;
     private final boolean debug;
     private final List<Consumer<String>> messageConsumers = new ArrayList<>();
+    private final List<Consumer<ByteBuffer>> binaryMessageConsumers = new ArrayList<>();
     private final List<Consumer<CloseStatus>> onDisconnectConsumers = new ArrayList<>();
     private final List<Runnable> onConnectConsumers = new ArrayList<>();
     private Function<CloseStatus, Boolean> reEstablishConnection = (e) -> true;
-    private static final byte[] ZLIB_SUFFIX = new byte[] { 0, 0, (byte) 0xff, (byte) 0xff };
-    private static byte[] buffer = {};
-    private static final Inflater inflator = new Inflater();
+    private final StreamDecoder decoder;
     private boolean open = false;
+    // Connection that was aborted, OkHttp still reports its failure afterwards which has to be ignored
+    private volatile okhttp3.WebSocket abortedWs;
+    private volatile FrameRecorder recorder;
+    private volatile FrameSink frameSink;
 
     public WebSocket(String url, boolean debug) {
+        this(url, debug, new ZlibStreamDecoder());
+    }
+
+    /**
+     * @param decoder The decoder for the connection's transport compression, or null if the connection isn't compressed.
+     *                Binary frames of an uncompressed connection are passed to {@link #addBinaryMessageConsumer(Consumer) binary message consumers} as they are.
+     */
+    public WebSocket(String url, boolean debug, @Nullable StreamDecoder decoder) {
         this.url = url;
         this.debug = debug;
+        this.decoder = decoder;
     }
 
     public WebsocketAction<Void> connect() {
@@ -72,104 +81,155 @@ public class WebSocket extends WebSocketListener {
         ws.close(code, reason);
     }
 
-    public void send(String message) {
-        ws.send(message);
+    /**
+     * Drops the connection without waiting for the closing handshake and handles it as if it was closed with the given code.
+     * <br>This is meant for connections that are known to be dead, where {@link #disconnect(int, String)} would wait for a
+     * close frame that never arrives.
+     */
+    public void abort(int code, String reason) {
+        okhttp3.WebSocket webSocket = ws;
+        abortedWs = webSocket;
+        webSocket.close(code, reason);
+        webSocket.cancel();
+        handleClose(new CloseStatus(code, reason));
+    }
+
+    /**
+     * Sends a text frame.
+     * @return false if the connection is closing or closed and the message wasn't sent.
+     */
+    public boolean send(String message) {
+        return ws.send(message);
+    }
+
+    /**
+     * Sends a binary frame.
+     * @return false if the connection is closing or closed and the message wasn't sent.
+     */
+    public boolean send(byte[] message) {
+        return ws.send(ByteString.of(message));
     }
 
     @Override
     public void onMessage(@NotNull okhttp3.WebSocket webSocket, @NotNull String text) {
+        FrameRecorder recorder = this.recorder;
+        if (recorder != null) recorder.recordText(text);
+        FrameSink sink = frameSink;
+        if (sink != null) {
+            if (webSocket != abortedWs) sink.onText(webSocket, text);
+            return;
+        }
+        dispatchText(text);
+    }
+
+    private void dispatchText(String text) {
         messageConsumers.forEach(consumer -> {
             consumer.accept(text);
         });
     }
 
+    /**
+     * Records every frame received from now on, or stops recording if null.
+     * <br>The recorder isn't closed by this connection.
+     */
+    public void setRecorder(@Nullable FrameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Hands every frame to the given sink on OkHttp's reader thread, as it was received, instead of decompressing and
+     * decoding it here and passing it to the message consumers. Frames of an aborted connection are dropped.
+     * <br>Binary frames aren't recorded by this socket then, as only the sink knows whether they're compressed.
+     */
+    public void setFrameSink(@Nullable FrameSink frameSink) {
+        this.frameSink = frameSink;
+    }
+
     public okhttp3.WebSocket getWs() {
         return ws;
     }
 
+    /**
+     * Returns the transport compression decoder of this connection, which can be used to read decompression statistics.
+     * <br>Returns null if the connection isn't compressed.
+     */
+    @Nullable
+    public StreamDecoder getDecoder() {
+        return decoder;
+    }
+
     @Override
     public void onMessage(@NotNull okhttp3.WebSocket webSocket, @NotNull ByteString text) {
-        long start = System.currentTimeMillis();
-        byte[] msg = text.toByteArray();
-        if (buffer ==null) buffer = new byte[]{};
-        byte[] extendedBuffer = new byte[buffer.length + msg.length];
-        System.arraycopy(buffer, 0, extendedBuffer, 0, buffer.length);
-        try {
-            System.arraycopy(msg, 0, extendedBuffer, buffer.length, msg.length);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            // Reset buffer and try again
-            e.printStackTrace();
-            buffer = new byte[]{};
-            onMessage(webSocket, text);
+        FrameSink sink = frameSink;
+        if (sink != null) {
+            if (webSocket != abortedWs) sink.onBinary(webSocket, text);
             return;
         }
-        buffer = extendedBuffer;
-
-        // Check if the last four bytes are equal to ZLIB_SUFFIX
-        if (msg.length < 4 || !Arrays.equals(Arrays.copyOfRange(msg, msg.length - 4, msg.length), ZLIB_SUFFIX)) {
+        FrameRecorder recorder = this.recorder;
+        if (recorder != null && (decoder == null || recorder.getMode() == FrameRecorder.Mode.RAW)) recorder.recordBinary(text.asByteBuffer());
+        if (decoder == null) {
+            onBinaryMessage(webSocket, text.asByteBuffer());
             return;
         }
 
-        // Inflate the data
-        inflator.setInput(buffer);
-
-        byte[] result = new byte[0];
-        byte[] tmp = new byte[1024];
-        int count;
-        while (true) {
-            try {
-                if ((count = inflator.inflate(tmp, 0, tmp.length)) == 0) break;
-            } catch (DataFormatException e) {
-                // Reset inflation and try again
-                e.printStackTrace();
-                inflator.reset();
-                inflator.setInput(buffer);
-                continue;
-            }
-            result = Arrays.copyOf(result, result.length + count);
-            System.arraycopy(tmp, 0, result, result.length - count, count);
+        long start = System.currentTimeMillis();
+        try {
+            if (!decoder.feed(text.asByteBuffer())) return;
+        } catch (DataFormatException e) {
+            // The compression context is corrupt and can't be recovered, so we'll have to start a new connection.
+            Logger.getLogger("WS").warning("[Decompressor] Failed to inflate message, reconnecting: " + e.getMessage());
+            decoder.reset();
+            webSocket.close(4000, "Decompression failure");
+            return;
         }
 
-        CharBuffer charBuffer = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(result));
-        String fullMessage = charBuffer.toString();
-
-        // reset buffer to empty
-        buffer = new byte[0];
         if (debug) {
             Logger.getLogger("WS")
-                    .info("[Decompressor] Inflated " + msg.length + " bytes to " + result.length + " bytes in " + (System.currentTimeMillis() - start) + "ms: " + fullMessage);
+                    .info("[Decompressor] Inflated " + text.size() + " bytes to " + decoder.getOutputLength() + " bytes in " + (System.currentTimeMillis() - start) + "ms");
+        }
+        ByteBuffer decoded = ByteBuffer.wrap(decoder.getOutput(), 0, decoder.getOutputLength());
+        if (recorder != null && recorder.getMode() == FrameRecorder.Mode.DECODED) recorder.recordBinary(decoded);
+        onBinaryMessage(webSocket, decoded);
+    }
+
+    /**
+     * Handles a complete, decompressed binary message.
+     * <br>Messages are handled on OkHttp's reader thread so they're processed in the order they were received.
+     * If there are no binary message consumers, the message is decoded as UTF-8 and passed to the text message consumers.
+     */
+    private void onBinaryMessage(@NotNull okhttp3.WebSocket webSocket, @NotNull ByteBuffer message) {
+        if (binaryMessageConsumers.isEmpty()) {
+            String text = message.hasArray()
+                    ? new String(message.array(), message.arrayOffset() + message.position(), message.remaining(), StandardCharsets.UTF_8)
+                    : StandardCharsets.UTF_8.decode(message).toString();
+            dispatchText(text);
+            return;
+        }
+        for (Consumer<ByteBuffer> consumer : binaryMessageConsumers) {
+            consumer.accept(message.duplicate());
         }
-        new Thread(() -> {
-            onMessage(webSocket, fullMessage);
-        }, "djar--handle-text-msg").start();
     }
+
     @Override
     public void onClosed(@NotNull okhttp3.WebSocket webSocket, int code, @NotNull String reason) {
+        if (webSocket == abortedWs) return;
         // Force session disconnect in case it failed to disconnect
-        open = false;
-        buffer = null;
-        inflator.reset();
-        onDisconnectConsumers.forEach(consumer -> consumer.accept(new CloseStatus(code, reason)));
-
-        if (reEstablishConnection.apply(new CloseStatus(code, reason))) {
-            if (debug) Logger.getLogger("WS").info("[WS] Attempting to re-establish connection");
-            try {
-                connect(url);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+        handleClose(new CloseStatus(code, reason));
     }
 
     @Override
     public void onFailure(@NotNull okhttp3.WebSocket webSocket, @NotNull Throwable t, @Nullable Response response) {
+        if (webSocket == abortedWs) return;
         t.printStackTrace();
-        open = false;
-        buffer = null;
+        handleClose(new CloseStatus(1006, t.getMessage()));
+    }
 
-        onDisconnectConsumers.forEach(consumer -> consumer.accept(new CloseStatus(1006, t.getMessage())));
+    private void handleClose(CloseStatus closeStatus) {
+        open = false;
+        if (decoder != null) decoder.reset();
+        onDisconnectConsumers.forEach(consumer -> consumer.accept(closeStatus));
 
-        if (reEstablishConnection.apply(new CloseStatus(1006, t.getMessage()))) {
+        if (reEstablishConnection.apply(closeStatus)) {
             if (debug) Logger.getLogger("WS").info("[WS] Attempting to re-establish connection");
             try {
                 connect(url);
@@ -190,6 +250,14 @@ public class WebSocket extends WebSocketListener {
         messageConsumers.add(consumer);
     }
 
+    /**
+     * Adds a consumer for binary messages. Once one is added, binary messages are no longer decoded as text.
+     * <br>The buffer is only valid until the consumer returns, as it may be reused for the next message.
+     */
+    public void addBinaryMessageConsumer(Consumer<ByteBuffer> consumer) {
+        binaryMessageConsumers.add(consumer);
+    }
+
     public void addOnDisconnectConsumer(Consumer<CloseStatus> consumer) {
         onDisconnectConsumers.add(consumer);
     }
@@ -214,6 +282,8 @@ public class WebSocket extends WebSocketListener {
         Request request = new Request.Builder()
                 .url(customUrl)
                 .build();
+        FrameRecorder recorder = this.recorder;
+        if (recorder != null) recorder.recordConnect();
         this.ws = client.newWebSocket(request, this);
 
         open = true;
@@ -292,6 +362,16 @@ public class WebSocket extends WebSocketListener {
         }
     }
 
+    /**
+     * Receives the frames of a {@link WebSocket} as they were read from the connection, see {@link #setFrameSink(FrameSink)}.
+     * <br>Frames are passed in order on OkHttp's reader thread, which differs for every connection the socket opens.
+     */
+    public interface FrameSink {
+        void onText(@NotNull okhttp3.WebSocket connection, @NotNull String text);
+
+        void onBinary(@NotNull okhttp3.WebSocket connection, @NotNull ByteString frame);
+    }
+
     public interface WebsocketError {}
 
     public class WebsocketExceptionError implements WebsocketError {
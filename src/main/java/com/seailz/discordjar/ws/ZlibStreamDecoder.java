@@ -0,0 +1,156 @@
+package com.seailz.discordjar.ws;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes a <a href="https://discord.com/developers/docs/topics/gateway#zlibstream">zlib-stream</a> compressed Gateway connection.
+ * <br>Discord compresses the whole connection as one zlib context, so every {@link WebSocket} needs its own decoder - sharing one
+ * between connections would corrupt the zlib state of both.
+ *
+ * <p>Input and output buffers are kept between frames and only grow when a frame doesn't fit, so a busy connection inflates
+ * straight into the same arrays instead of allocating new ones for every message.
+ *
+ * <p>This class is not thread-safe, it's expected to be fed by one thread at a time.
+ *
+ * @see WebSocket
+ * @see StreamDecoder
+ * @since b-1.1
+ */
+public class ZlibStreamDecoder implements StreamDecoder {
+
+    private static final int ZLIB_SUFFIX = 0x0000FFFF;
+    private static final int INITIAL_INPUT_SIZE = 8 * 1024;
+    private static final int INITIAL_OUTPUT_SIZE = 32 * 1024;
+
+    private final Inflater inflater = new Inflater();
+    private byte[] input = new byte[INITIAL_INPUT_SIZE];
+    private int inputLength = 0;
+    private byte[] output = new byte[INITIAL_OUTPUT_SIZE];
+    private int outputLength = 0;
+
+    private long compressedBytes = 0;
+    private long inflatedBytes = 0;
+    private long inflatedMessages = 0;
+    private long inflateNanos = 0;
+
+    /**
+     * Appends a frame to the decoder. A message is complete once a frame ends with the zlib {@code 0x0000FFFF} suffix.
+     *
+     * @param frame The binary frame received from the Gateway.
+     * @return {@code true} if the frame completed a message, which can then be read using {@link #getOutput()},
+     * {@link #getOutputLength()} or {@link #outputAsString()}. {@code false} if more frames are needed.
+     * @throws DataFormatException If the data isn't valid zlib. The decoder should be {@link #reset() reset} along with the connection.
+     */
+    @Override
+    public boolean feed(ByteBuffer frame) throws DataFormatException {
+        int length = frame.remaining();
+        ensureInputCapacity(inputLength + length);
+        frame.get(input, inputLength, length);
+        inputLength += length;
+
+        if (inputLength < 4 || readSuffix() != ZLIB_SUFFIX) return false;
+
+        long start = System.nanoTime();
+        inflater.setInput(input, 0, inputLength);
+        outputLength = 0;
+        while (true) {
+            if (outputLength == output.length) output = grow(output, outputLength, output.length * 2);
+            int count = inflater.inflate(output, outputLength, output.length - outputLength);
+            outputLength += count;
+            // If there's still room in the output buffer once the input is used up, everything has been flushed.
+            if (outputLength < output.length && inflater.needsInput()) break;
+            if (count == 0 && (inflater.needsDictionary() || inflater.finished())) break;
+        }
+
+        compressedBytes += inputLength;
+        inflatedBytes += outputLength;
+        inflatedMessages++;
+        inflateNanos += System.nanoTime() - start;
+        inputLength = 0;
+        return true;
+    }
+
+    /**
+     * Returns the buffer containing the last inflated message.
+     * <br>Only the first {@link #getOutputLength()} bytes are valid, and the contents are overwritten by the next message.
+     */
+    @Override
+    public byte[] getOutput() {
+        return output;
+    }
+
+    @Override
+    public int getOutputLength() {
+        return outputLength;
+    }
+
+    /**
+     * Decodes the last inflated message as UTF-8.
+     */
+    public String outputAsString() {
+        return new String(output, 0, outputLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Discards any partially received message and resets the zlib context.
+     * <br>This must be called whenever the underlying connection is replaced.
+     */
+    @Override
+    public void reset() {
+        inflater.reset();
+        inputLength = 0;
+        outputLength = 0;
+    }
+
+    /**
+     * Resets the decoder and releases the native zlib resources. The decoder can't be used after this.
+     */
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    @Override
+    public long getInflatedBytes() {
+        return inflatedBytes;
+    }
+
+    @Override
+    public long getInflatedMessages() {
+        return inflatedMessages;
+    }
+
+    /**
+     * Returns the inflate throughput for this connection in inflated megabytes per second, or 0 if nothing was inflated yet.
+     */
+    @Override
+    public double getThroughputMbPerSecond() {
+        return inflateNanos == 0 ? 0 : (inflatedBytes / 1_000_000D) / (inflateNanos / 1_000_000_000D);
+    }
+
+    private int readSuffix() {
+        return ((input[inputLength - 4] & 0xFF) << 24)
+                | ((input[inputLength - 3] & 0xFF) << 16)
+                | ((input[inputLength - 2] & 0xFF) << 8)
+                | (input[inputLength - 1] & 0xFF);
+    }
+
+    private void ensureInputCapacity(int required) {
+        if (required <= input.length) return;
+        input = grow(input, inputLength, Math.max(required, input.length * 2));
+    }
+
+    private static byte[] grow(byte[] buffer, int used, int size) {
+        byte[] grown = new byte[size];
+        System.arraycopy(buffer, 0, grown, 0, used);
+        return grown;
+    }
+}
@@ -0,0 +1,131 @@
+package com.seailz.discordjar.ws;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+
+/**
+ * Decodes a zstd-stream compressed Gateway connection.
+ * <br>Like zlib-stream, the whole connection is one zstd stream, so the decompression context is kept between frames and
+ * every {@link WebSocket} needs its own decoder. Discord flushes the stream at the end of every payload, so each frame
+ * decompresses into exactly one complete message.
+ *
+ * <p>zstd-jni only streams between direct buffers, so frames are copied into a reused direct input buffer, decompressed into
+ * a reused direct output buffer, and then copied into the heap array returned by {@link #getOutput()}. All three only grow
+ * when a message doesn't fit.
+ *
+ * <p>This class is not thread-safe, it's expected to be fed by one thread at a time.
+ *
+ * @see WebSocket
+ * @see StreamDecoder
+ * @since b-1.1
+ */
+public class ZstdStreamDecoder implements StreamDecoder {
+
+    private static final int INITIAL_INPUT_SIZE = 8 * 1024;
+    private static final int INITIAL_OUTPUT_SIZE = 32 * 1024;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final ZstdDecompressCtx context = new ZstdDecompressCtx();
+    private final Cleaner.Cleanable cleanable;
+    private ByteBuffer input = ByteBuffer.allocateDirect(INITIAL_INPUT_SIZE);
+    private ByteBuffer directOutput = ByteBuffer.allocateDirect(INITIAL_OUTPUT_SIZE);
+    private byte[] output = new byte[INITIAL_OUTPUT_SIZE];
+    private int outputLength = 0;
+
+    private long compressedBytes = 0;
+    private long inflatedBytes = 0;
+    private long inflatedMessages = 0;
+    private long inflateNanos = 0;
+
+    public ZstdStreamDecoder() {
+        // The native context isn't freed by the GC, and sockets are replaced without closing their decoder on reconnects
+        ZstdDecompressCtx context = this.context;
+        this.cleanable = CLEANER.register(this, context::close);
+    }
+
+    @Override
+    public boolean feed(ByteBuffer frame) throws DataFormatException {
+        int length = frame.remaining();
+        if (length == 0) return false;
+        if (input.capacity() < length) input = ByteBuffer.allocateDirect(Math.max(length, input.capacity() * 2));
+        input.clear();
+        input.put(frame);
+        input.flip();
+
+        long start = System.nanoTime();
+        directOutput.clear();
+        try {
+            while (true) {
+                context.decompressDirectByteBufferStream(directOutput, input);
+                // If there's still room in the output buffer once the input is used up, everything has been flushed.
+                if (!input.hasRemaining() && directOutput.hasRemaining()) break;
+                if (!directOutput.hasRemaining()) {
+                    ByteBuffer grown = ByteBuffer.allocateDirect(directOutput.capacity() * 2);
+                    directOutput.flip();
+                    grown.put(directOutput);
+                    directOutput = grown;
+                }
+            }
+        } catch (ZstdException e) {
+            DataFormatException exception = new DataFormatException(e.getMessage());
+            exception.initCause(e);
+            throw exception;
+        }
+
+        directOutput.flip();
+        outputLength = directOutput.remaining();
+        if (output.length < outputLength) output = new byte[Math.max(outputLength, output.length * 2)];
+        directOutput.get(output, 0, outputLength);
+
+        compressedBytes += length;
+        inflatedBytes += outputLength;
+        inflatedMessages++;
+        inflateNanos += System.nanoTime() - start;
+        return outputLength > 0;
+    }
+
+    @Override
+    public byte[] getOutput() {
+        return output;
+    }
+
+    @Override
+    public int getOutputLength() {
+        return outputLength;
+    }
+
+    @Override
+    public void reset() {
+        context.reset();
+        outputLength = 0;
+    }
+
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    @Override
+    public long getInflatedBytes() {
+        return inflatedBytes;
+    }
+
+    @Override
+    public long getInflatedMessages() {
+        return inflatedMessages;
+    }
+
+    @Override
+    public double getThroughputMbPerSecond() {
+        return inflateNanos == 0 ? 0 : (inflatedBytes / 1_000_000D) / (inflateNanos / 1_000_000_000D);
+    }
+}
@@ -0,0 +1,122 @@
+package com.seailz.discordjar.gateway;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.DiscordJarBuilder;
+import com.seailz.discordjar.events.DiscordListener;
+import com.seailz.discordjar.events.annotation.EventMethod;
+import com.seailz.discordjar.events.model.channel.ChannelPinsUpdateEvent;
+import com.seailz.discordjar.events.model.message.MessageCreateEvent;
+import com.seailz.discordjar.gateway.mock.MockGatewayServer;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reshards a bot connected to the {@link MockGatewayServer} from 2 to 3 shards under load, and checks the handover:
+ * every event reaches listeners exactly once, including identical events, and the retired shards stay closed.
+ * <br>Takes about half a minute, as new shards identify 5 seconds apart.
+ */
+class ReshardIntegrationTest {
+
+    private static final int GUILDS = 30;
+
+    private final AtomicInteger messages = new AtomicInteger();
+    private final Set<String> messageIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pinUpdates = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private MockGatewayServer server;
+    private DiscordJar bot;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        if (bot != null) bot.getShardManager().shutdownAll();
+        if (server != null) server.close();
+    }
+
+    @Test
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void reshardHandsOverWithoutLosingOrRepeatingEvents() throws Exception {
+        server = new MockGatewayServer().setTotalGuilds(GUILDS).start();
+        bot = new DiscordJarBuilder("token").setGatewayUrl(server.getUrl()).setNumShards(2).build();
+        bot.registerListeners(new Listener());
+        bot.awaitGuildsLoaded().get(60, TimeUnit.SECONDS);
+        ShardManager shardManager = bot.getShardManager();
+        List<Gateway> oldShards = shardManager.getShards();
+        List<String> guildIds = server.getSharedGuildIds();
+
+        server.startMessageLoad(500);
+        // The same pins update over and over, as if a message was pinned and unpinned, each one is a separate event
+        JSONObject pins = new JSONObject().put("guild_id", guildIds.get(0)).put("channel_id", "1").put("last_pin_timestamp", "2023-10-17T12:00:00+00:00");
+        AtomicInteger pinsSent = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            server.sendGuildDispatch(guildIds.get(0), "CHANNEL_PINS_UPDATE", pins);
+            pinsSent.incrementAndGet();
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> reshard = shardManager.reshard(3);
+        assertTrue(shardManager.isResharding());
+        await(60, () -> guildIds.stream().allMatch(id -> shardManager.getShardForGuild(id).getShardCount() == 3));
+        // Old shards that are waiting to reconnect when they're retired mustn't reconnect afterwards. A dropped connection
+        // is reconnected with a new session, after a backoff that outlasts the handover
+        server.dropConnections(2);
+        reshard.get(30, TimeUnit.SECONDS);
+
+        assertFalse(shardManager.isResharding());
+        assertEquals(3, shardManager.getShardCount());
+        assertEquals(3, shardManager.getShards().size());
+        assertTrue(shardManager.getShards().stream().noneMatch(oldShards::contains));
+
+        int accepted = server.getAcceptedConnections();
+        // Longer than the first reconnect backoff
+        Thread.sleep(8000);
+        assertEquals(accepted, server.getAcceptedConnections(), "a retired shard reconnected");
+        assertEquals(3, server.getOpenConnections());
+        assertEquals(5, server.getIdentifies());
+
+        server.stopLoad();
+        scheduler.shutdownNow();
+        await(10, () -> messages.get() >= server.getMessagesCreated() && pinUpdates.get() >= pinsSent.get());
+        Thread.sleep(500);
+        assertEquals(server.getMessagesCreated(), messages.get(), "messages received");
+        assertEquals(messages.get(), messageIds.size(), "messages received more than once");
+        assertEquals(pinsSent.get(), pinUpdates.get(), "identical pins updates received");
+    }
+
+    private static void await(int seconds, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition wasn't met within " + seconds + " seconds");
+            Thread.sleep(50);
+        }
+    }
+
+    public class Listener extends DiscordListener {
+        @Override
+        @EventMethod
+        public void onMessageReceived(@NotNull MessageCreateEvent event) {
+            messages.incrementAndGet();
+            messageIds.add(event.getJson().getJSONObject("d").getString("id"));
+        }
+
+        @Override
+        @EventMethod
+        public void onChannelPinsUpdate(@NotNull ChannelPinsUpdateEvent event) {
+            pinUpdates.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.seailz.discordjar.gateway;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A deterministic stand-in for a recorded Gateway stream of a busy shard, for benchmarks that need realistic payloads.
+ * <br>Dispatches are mixed roughly like the traffic of a large bot: mostly messages, presences, typing and reactions, with
+ * the odd GUILD_CREATE carrying a few hundred members.
+ */
+public final class SamplePayloads {
+
+    private SamplePayloads() {}
+
+    /**
+     * Returns {@code count} dispatch payloads, the same ones for the same seed.
+     */
+    public static List<JSONObject> stream(int count, long seed) {
+        Random random = new Random(seed);
+        List<JSONObject> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(100);
+            String type;
+            JSONObject data;
+            if (kind < 45) {
+                type = "MESSAGE_CREATE";
+                data = message(random);
+            } else if (kind < 70) {
+                type = "PRESENCE_UPDATE";
+                data = presence(random);
+            } else if (kind < 82) {
+                type = "TYPING_START";
+                data = typing(random);
+            } else if (kind < 94) {
+                type = "MESSAGE_REACTION_ADD";
+                data = reaction(random);
+            } else if (kind < 99) {
+                type = "GUILD_MEMBER_UPDATE";
+                data = member(random).put("guild_id", snowflake(random));
+            } else {
+                type = "GUILD_CREATE";
+                data = guild(random);
+            }
+            payloads.add(new JSONObject().put("op", 0).put("s", i + 1).put("t", type).put("d", data));
+        }
+        return payloads;
+    }
+
+    public static String snowflake(Random random) {
+        return Long.toString((random.nextLong() >>> 1) | (1L << 58));
+    }
+
+    private static JSONObject user(Random random) {
+        return new JSONObject()
+                .put("id", snowflake(random))
+                .put("username", "user" + random.nextInt(100_000))
+                .put("global_name", random.nextBoolean() ? "Someone " + random.nextInt(1000) : JSONObject.NULL)
+                .put("discriminator", "0")
+                .put("avatar", random.nextBoolean() ? Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()) : JSONObject.NULL)
+                .put("public_flags", random.nextInt(1 << 20))
+                .put("bot", random.nextInt(20) == 0);
+    }
+
+    private static JSONObject member(Random random) {
+        JSONArray roles = new JSONArray();
+        for (int i = random.nextInt(6); i > 0; i--) roles.put(snowflake(random));
+        return new JSONObject()
+                .put("user", user(random))
+                .put("nick", random.nextBoolean() ? "nick" + random.nextInt(1000) : JSONObject.NULL)
+                .put("roles", roles)
+                .put("joined_at", "2023-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10) + "T12:34:56.789000+00:00")
+                .put("deaf", false)
+                .put("mute", false)
+                .put("flags", 0)
+                .put("pending", false);
+    }
+
+    private static JSONObject message(Random random) {
+        JSONObject message = new JSONObject()
+                .put("id", snowflake(random))
+                .put("channel_id", snowflake(random))
+                .put("guild_id", snowflake(random))
+                .put("author", user(random))
+                .put("member", member(random).put("user", JSONObject.NULL))
+                .put("content", text(random, 5 + random.nextInt(200)))
+                .put("timestamp", "2023-10-1" + random.nextInt(10) + "T12:34:56.789000+00:00")
+                .put("edited_timestamp", JSONObject.NULL)
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("mentions", new JSONArray())
+                .put("mention_roles", new JSONArray())
+                .put("attachments", new JSONArray())
+                .put("pinned", false)
+                .put("type", 0)
+                .put("flags", 0)
+                .put("nonce", Long.toString(random.nextLong() >>> 1));
+        JSONArray embeds = new JSONArray();
+        if (random.nextInt(5) == 0) {
+            embeds.put(new JSONObject()
+                    .put("type", "rich")
+                    .put("title", text(random, 30))
+                    .put("description", text(random, 300))
+                    .put("color", random.nextInt(0xFFFFFF))
+                    .put("fields", new JSONArray()
+                            .put(new JSONObject().put("name", "Field").put("value", text(random, 50)).put("inline", true))));
+        }
+        message.put("embeds", embeds);
+        return message;
+    }
+
+    private static JSONObject presence(Random random) {
+        JSONArray activities = new JSONArray();
+        if (random.nextBoolean()) {
+            activities.put(new JSONObject()
+                    .put("name", "Game " + random.nextInt(500))
+                    .put("type", 0)
+                    .put("created_at", 1_697_500_000_000L - random.nextInt(1_000_000))
+                    .put("timestamps", new JSONObject().put("start", 1_697_000_000_000L + random.nextInt(1_000_000))));
+        }
+        return new JSONObject()
+                .put("user", new JSONObject().put("id", snowflake(random)))
+                .put("guild_id", snowflake(random))
+                .put("status", random.nextBoolean() ? "online" : "idle")
+                .put("activities", activities)
+                .put("client_status", new JSONObject().put("desktop", "online"));
+    }
+
+    private static JSONObject typing(Random random) {
+        return new JSONObject()
+                .put("user_id", snowflake(random))
+                .put("channel_id", snowflake(random))
+                .put("guild_id", snowflake(random))
+                .put("timestamp", 1_697_000_000 + random.nextInt(1_000_000))
+                .put("member", member(random));
+    }
+
+    private static JSONObject reaction(Random random) {
+        return new JSONObject()
+                .put("user_id", snowflake(random))
+                .put("channel_id", snowflake(random))
+                .put("message_id", snowflake(random))
+                .put("guild_id", snowflake(random))
+                .put("emoji", new JSONObject().put("id", JSONObject.NULL).put("name", "👍"))
+                .put("burst", false)
+                .put("type", 0);
+    }
+
+    private static JSONObject guild(Random random) {
+        JSONArray channels = new JSONArray();
+        for (int i = 0; i < 50; i++) {
+            channels.put(new JSONObject()
+                    .put("id", snowflake(random))
+                    .put("type", i % 5 == 0 ? 2 : 0)
+                    .put("name", "channel-" + i)
+                    .put("position", i)
+                    .put("parent_id", JSONObject.NULL)
+                    .put("permission_overwrites", new JSONArray()));
+        }
+        JSONArray roles = new JSONArray();
+        for (int i = 0; i < 20; i++) {
+            roles.put(new JSONObject()
+                    .put("id", snowflake(random))
+                    .put("name", "role-" + i)
+                    .put("color", random.nextInt(0xFFFFFF))
+                    .put("position", i)
+                    .put("permissions", Long.toString(random.nextLong() >>> 1))
+                    .put("hoist", false)
+                    .put("managed", false)
+                    .put("mentionable", true));
+        }
+        JSONArray members = new JSONArray();
+        for (int i = 0; i < 250; i++) members.put(member(random));
+        return new JSONObject()
+                .put("id", snowflake(random))
+                .put("name", "Guild " + random.nextInt(10_000))
+                .put("owner_id", snowflake(random))
+                .put("member_count", 250)
+                .put("large", true)
+                .put("channels", channels)
+                .put("roles", roles)
+                .put("members", members)
+                .put("presences", new JSONArray())
+                .put("features", new JSONArray().put("COMMUNITY"));
+    }
+
+    private static String text(Random random, int length) {
+        String[] words = {"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "discord", "bot", "hello", "world"};
+        StringBuilder builder = new StringBuilder(length + 10);
+        while (builder.length() < length) builder.append(words[random.nextInt(words.length)]).append(' ');
+        return builder.substring(0, length);
+    }
+}
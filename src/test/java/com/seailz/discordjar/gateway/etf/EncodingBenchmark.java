@@ -0,0 +1,77 @@
+package com.seailz.discordjar.gateway.etf;
+
+import com.seailz.discordjar.gateway.SamplePayloads;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of decoding Gateway payloads sent with {@code encoding=json} against {@code encoding=etf}.
+ * <br>Both sides decode the same {@link SamplePayloads sample stream} into the {@link JSONObject}s the dispatch path
+ * works on, and the reported time is per payload. The payload sizes are printed once during setup.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.seailz.discordjar.gateway.etf.EncodingBenchmark},
+ * or straight from an IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    private static final int PAYLOADS = 1_000;
+
+    private byte[][] json;
+    private byte[][] etf;
+    private final EtfDecoder decoder = new EtfDecoder();
+
+    @Setup
+    public void setup() {
+        List<JSONObject> payloads = SamplePayloads.stream(PAYLOADS, 42);
+        EtfEncoder encoder = new EtfEncoder();
+        json = new byte[PAYLOADS][];
+        etf = new byte[PAYLOADS][];
+        long jsonBytes = 0, etfBytes = 0;
+        for (int i = 0; i < PAYLOADS; i++) {
+            json[i] = payloads.get(i).toString().getBytes(StandardCharsets.UTF_8);
+            etf[i] = encoder.encode(payloads.get(i));
+            jsonBytes += json[i].length;
+            etfBytes += etf[i].length;
+
+            JSONObject decoded = decoder.decode(etf[i], 0, etf[i].length);
+            if (!decoded.getString("t").equals(payloads.get(i).getString("t")) || decoded.getInt("s") != i + 1) {
+                throw new IllegalStateException("ETF round trip changed payload " + i);
+            }
+        }
+        System.out.printf("%njson: %d bytes, etf: %d bytes (%.1f%%)%n", jsonBytes, etfBytes, 100.0 * etfBytes / jsonBytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOADS)
+    public void json(Blackhole blackhole) {
+        for (byte[] payload : json) {
+            blackhole.consume(new JSONObject(new String(payload, StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOADS)
+    public void etf(Blackhole blackhole) {
+        for (byte[] payload : etf) {
+            blackhole.consume(decoder.decode(payload, 0, payload.length));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.seailz.discordjar.gateway.events;
+
+import com.seailz.discordjar.DiscordJar;
+import com.seailz.discordjar.events.model.Event;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-event overhead of turning a dispatch into an {@link Event}, before and after the lookup table and
+ * {@link EventFactory}.
+ * <br>{@code reflective} does what dispatching used to do: two linear {@code equalsIgnoreCase} scans over
+ * {@link DispatchedEvents} and a reflective {@code getConstructor(...).newInstance(...)}. {@code factory} does one
+ * {@link DispatchedEvents#getEventByName(String)} lookup and calls the generated factory. Both resolve the event class the
+ * same way, with dispatches whose class doesn't depend on the bot's state, so no bot is needed.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.seailz.discordjar.gateway.events.DispatchBenchmark},
+ * or straight from an IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final String[] NAMES = {"MESSAGE_CREATE", "TYPING_START", "CHANNEL_PINS_UPDATE", "AUTO_MODERATION_ACTION_EXECUTION"};
+
+    private JSONObject[] payloads;
+
+    @Setup
+    public void setup() {
+        payloads = new JSONObject[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            // TypingStartEvent reads these in its constructor, the other events only keep the payload
+            JSONObject data = new JSONObject().put("channel_id", "1").put("user_id", "2").put("timestamp", 1_697_000_000);
+            payloads[i] = new JSONObject().put("op", 0).put("s", i + 1).put("t", NAMES[i]).put("d", data);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void reflective(Blackhole blackhole) throws ReflectiveOperationException {
+        for (JSONObject payload : payloads) {
+            Class<? extends Event> eventClass = scan(payload.getString("t")).getEvent().apply(payload, null, null);
+            Event event;
+            try {
+                event = eventClass.getConstructor(DiscordJar.class, long.class, JSONObject.class).newInstance(null, 1L, payload);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            blackhole.consume(event);
+            blackhole.consume(scan(payload.getString("t")));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void factory(Blackhole blackhole) {
+        for (JSONObject payload : payloads) {
+            DispatchedEvents dispatched = DispatchedEvents.getEventByName(payload.getString("t"));
+            Class<? extends Event> eventClass = dispatched.getEvent().apply(payload, null, null);
+            blackhole.consume(EventFactory.forClass(eventClass).create(null, 1L, payload));
+            blackhole.consume(dispatched);
+        }
+    }
+
+    /**
+     * The lookup {@link DispatchedEvents#getEventByName(String)} used to do.
+     */
+    private static DispatchedEvents scan(String name) {
+        for (DispatchedEvents event : DispatchedEvents.values()) {
+            if (event.name().equalsIgnoreCase(name)) return event;
+        }
+        return DispatchedEvents.UNKNOWN;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,330 @@
+package com.seailz.discordjar.gateway.mock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * One client connection of the {@link MockGatewayServer}. Performs the WebSocket handshake and framing (RFC 6455) by
+ * hand, and answers Gateway payloads on its own thread.
+ */
+class MockGatewayConnection implements Runnable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+
+    private final MockGatewayServer server;
+    private final Socket socket;
+    private final Logger logger = Logger.getLogger("MockGateway");
+    private OutputStream out;
+    private Deflater deflater;
+    private final byte[] deflateBuffer = new byte[8192];
+    private volatile MockSession session;
+    private boolean closed = false;
+
+    MockGatewayConnection(@NotNull MockGatewayServer server, @NotNull Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    /**
+     * Returns the session this connection identified or resumed, or null if it hasn't yet.
+     */
+    @Nullable
+    MockSession getSession() {
+        return session;
+    }
+
+    @Override
+    public void run() {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new BufferedOutputStream(socket.getOutputStream());
+            if (!handshake(in)) return;
+            sendOp(10, new JSONObject().put("heartbeat_interval", server.getHeartbeatInterval()));
+            readLoop(in);
+        } catch (IOException e) {
+            // The client disconnected, or the connection was dropped
+        } finally {
+            drop();
+            server.onClosed(this);
+        }
+    }
+
+    private boolean handshake(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        String key = headers.get("sec-websocket-key");
+        if (!requestLine.startsWith("GET ") || key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return false;
+        }
+        if (requestLine.contains("compress=zlib-stream")) deflater = new Deflater();
+        else if (requestLine.contains("compress=")) logger.warning("[MockGateway] Only zlib-stream compression is supported, sending uncompressed payloads");
+        if (requestLine.contains("encoding=etf")) logger.warning("[MockGateway] ETF isn't supported, sending JSON payloads");
+
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        synchronized (this) {
+            out.write(response.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+        return true;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) throw new EOFException();
+            if (b != '\r') line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void readLoop(DataInputStream in) throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        while (true) {
+            int b0 = in.readUnsignedByte();
+            int b1 = in.readUnsignedByte();
+            boolean fin = (b0 & 0x80) != 0;
+            int opcode = b0 & 0x0F;
+            long length = b1 & 0x7F;
+            if (length == 126) length = in.readUnsignedShort();
+            else if (length == 127) length = in.readLong();
+            byte[] mask = new byte[4];
+            // Clients always mask their frames
+            if ((b1 & 0x80) != 0) in.readFully(mask);
+            if (length > Integer.MAX_VALUE) throw new IOException("Frame too large");
+            byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+
+            switch (opcode) {
+                case OPCODE_CLOSE -> {
+                    int code = payload.length >= 2 ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF) : 1005;
+                    close(code, "");
+                    return;
+                }
+                case OPCODE_PING -> writeFrame(0xA, payload);
+                case OPCODE_TEXT, OPCODE_BINARY, OPCODE_CONTINUATION -> {
+                    message.write(payload);
+                    if (fin) {
+                        handlePayload(message.toString(StandardCharsets.UTF_8));
+                        message.reset();
+                    }
+                }
+                default -> {
+                    // Pongs need no answer
+                }
+            }
+        }
+    }
+
+    private void handlePayload(String text) {
+        JSONObject payload;
+        try {
+            payload = new JSONObject(text);
+        } catch (JSONException e) {
+            close(4002, "Error while decoding payload");
+            return;
+        }
+        switch (payload.optInt("op", -1)) {
+            case 1 -> {
+                server.heartbeats.incrementAndGet();
+                if (server.isHeartbeatAcks()) sendOp(11, null);
+            }
+            case 2 -> identify(payload.getJSONObject("d"));
+            case 6 -> resume(payload.getJSONObject("d"));
+            case 8 -> requestGuildMembers(payload.getJSONObject("d"));
+            case 3, 4 -> {
+                // Presence and voice state updates are accepted and ignored
+            }
+            default -> close(4001, "Unknown opcode");
+        }
+    }
+
+    private void identify(JSONObject identify) {
+        if (session != null) {
+            close(4005, "Already authenticated");
+            return;
+        }
+        server.identifies.incrementAndGet();
+        MockSession newSession = server.createSession(identify);
+        synchronized (this) {
+            session = newSession;
+            dispatch("READY", server.ready(newSession));
+            for (MockSession.Guild guild : newSession.getGuilds()) {
+                dispatch("GUILD_CREATE", server.guildCreate(guild, newSession.getLargeThreshold()));
+            }
+        }
+    }
+
+    private void resume(JSONObject resume) {
+        MockSession resumed = server.getSession(resume.optString("session_id"));
+        List<String> missed = resumed == null ? null : resumed.missedSince(resume.optLong("seq"));
+        if (missed == null) {
+            sendOp(9, false);
+            return;
+        }
+        server.resumes.incrementAndGet();
+        synchronized (this) {
+            for (String payload : missed) {
+                server.dispatches.incrementAndGet();
+                sendMessage(payload);
+            }
+            session = resumed;
+            dispatch("RESUMED", new JSONObject());
+        }
+    }
+
+    private void requestGuildMembers(JSONObject request) {
+        MockSession current = session;
+        if (current == null) {
+            close(4003, "Not authenticated");
+            return;
+        }
+        for (JSONObject chunk : server.memberChunks(current, request)) {
+            dispatch("GUILD_MEMBERS_CHUNK", chunk);
+        }
+    }
+
+    /**
+     * Sends INVALID_SESSION. If the session isn't resumable, the client may IDENTIFY again on this connection.
+     */
+    synchronized void invalidateSession(boolean resumable) {
+        if (!resumable) session = null;
+        sendOp(9, resumable);
+    }
+
+    /**
+     * Sends a dispatch with the session's next sequence number.
+     */
+    synchronized void dispatch(@NotNull String type, @NotNull JSONObject data) {
+        if (session == null || closed) return;
+        String payload = session.nextDispatch(seq -> new JSONObject()
+                .put("op", 0)
+                .put("s", seq)
+                .put("t", type)
+                .put("d", data)
+                .toString());
+        server.dispatches.incrementAndGet();
+        sendMessage(payload);
+    }
+
+    /**
+     * Sends a payload that isn't a dispatch.
+     */
+    void sendOp(int op, @Nullable Object data) {
+        sendMessage(new JSONObject().put("op", op).put("d", data == null ? JSONObject.NULL : data).toString());
+    }
+
+    private synchronized void sendMessage(String text) {
+        if (closed) return;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (deflater == null) {
+            writeFrame(OPCODE_TEXT, bytes);
+            return;
+        }
+        // Every message is flushed, so it ends with the 00 00 FF FF suffix clients wait for
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 16);
+        deflater.setInput(bytes);
+        int written;
+        do {
+            written = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+            compressed.write(deflateBuffer, 0, written);
+        } while (written == deflateBuffer.length);
+        writeFrame(OPCODE_BINARY, compressed.toByteArray());
+    }
+
+    private synchronized void writeFrame(int opcode, byte[] payload) {
+        if (closed) return;
+        try {
+            out.write(0x80 | opcode);
+            if (payload.length < 126) {
+                out.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length);
+            } else {
+                out.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) out.write((int) ((long) payload.length >>> shift));
+            }
+            out.write(payload);
+            out.flush();
+        } catch (IOException e) {
+            drop();
+        }
+    }
+
+    /**
+     * Sends a close frame and closes the connection.
+     */
+    synchronized void close(int code, @NotNull String reason) {
+        if (closed) return;
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 + reasonBytes.length];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        writeFrame(OPCODE_CLOSE, payload);
+        drop();
+    }
+
+    /**
+     * Closes the socket without a close frame.
+     */
+    void drop() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            if (deflater != null) deflater.end();
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,625 @@
+package com.seailz.discordjar.gateway.mock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * A local stand-in for Discord's Gateway, for end-to-end tests and throughput measurements without a bot token or
+ * rate limits. It speaks enough of Gateway v10 for discord.jar to connect, identify, resume and receive events:
+ * <ul>
+ *     <li>HELLO, heartbeats and heartbeat ACKs, which can be withheld to simulate a zombied connection.</li>
+ *     <li>IDENTIFY, answered with READY and a GUILD_CREATE for every guild of the session.</li>
+ *     <li>RESUME, which replays the dispatches the client missed followed by RESUMED, or INVALID_SESSION if the session
+ *     is unknown or its missed dispatches are no longer buffered.</li>
+ *     <li>REQUEST_GUILD_MEMBERS, answered with GUILD_MEMBERS_CHUNKs of up to 1000 members.</li>
+ *     <li>RECONNECT and INVALID_SESSION on demand, see {@link #sendReconnect()} and {@link #invalidateSessions(boolean)}.</li>
+ *     <li>JSON encoding, uncompressed or with zlib-stream transport compression. ETF and zstd-stream aren't supported.</li>
+ * </ul>
+ * Guilds, channels, members and messages are synthetic. Their ids are snowflakes, and a sharded client only receives
+ * the guilds its shard owns. By default every session gets guilds of its own, with {@link #setTotalGuilds(int)} all
+ * sessions share one set of guilds instead, so sessions of different shard counts - such as during a reshard - receive
+ * the same events.
+ *
+ * <pre>{@code
+ * try (MockGatewayServer server = new MockGatewayServer().setGuildsPerShard(100).start()) {
+ *     DiscordJar bot = new DiscordJarBuilder("token").setGatewayUrl(server.getUrl()).build();
+ *     bot.awaitGuildsLoaded().join();
+ *     server.startMessageLoad(10_000);
+ * }
+ * }</pre>
+ * REST requests still go to Discord, so they fail with a fake token.
+ *
+ * @since b-1.1
+ */
+public class MockGatewayServer implements Closeable {
+
+    private static final long DISCORD_EPOCH = 1420070400000L;
+    private static final long MEMBER_ID_BASE = 200_000_000_000_000_000L;
+    private static final int MAX_MEMBERS_PER_GUILD = 10_000_000;
+
+    private final Logger logger = Logger.getLogger("MockGateway");
+    private final Set<MockGatewayConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, MockSession> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "djar--mock-gateway-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong snowflakeIncrement = new AtomicLong();
+    private final AtomicLong guildSequence = new AtomicLong();
+
+    private int port = 0;
+    private int heartbeatInterval = 41250;
+    private int guildsPerShard = 10;
+    private int totalGuilds = 0;
+    private final List<MockSession.Guild> sharedGuilds = new CopyOnWriteArrayList<>();
+    private int membersPerGuild = 100;
+    private int resumeBufferSize = 10_000;
+    private volatile boolean heartbeatAcks = true;
+    private ServerSocket serverSocket;
+    private ScheduledFuture<?> messageLoad;
+    private ScheduledFuture<?> guildCreateLoad;
+
+    final AtomicInteger acceptedConnections = new AtomicInteger();
+    final AtomicInteger identifies = new AtomicInteger();
+    final AtomicInteger resumes = new AtomicInteger();
+    final AtomicLong heartbeats = new AtomicLong();
+    final AtomicLong dispatches = new AtomicLong();
+    private final AtomicLong messagesCreated = new AtomicLong();
+
+    /**
+     * Sets the port to listen on. Defaults to 0, which picks a free port, see {@link #getUrl()}.
+     */
+    public MockGatewayServer setPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Sets the heartbeat interval sent in HELLO, in ms. Defaults to 41250, like Discord.
+     */
+    public MockGatewayServer setHeartbeatInterval(int heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+        return this;
+    }
+
+    /**
+     * Sets how many guilds every new session starts with, all of which are listed in READY. Defaults to 10.
+     */
+    public MockGatewayServer setGuildsPerShard(int guildsPerShard) {
+        this.guildsPerShard = guildsPerShard;
+        return this;
+    }
+
+    /**
+     * Makes every session share one set of guilds of the given size, instead of getting {@link #setGuildsPerShard(int)}
+     * guilds of its own. Each session receives the shared guilds its shard owns, and events of a guild are sent to every
+     * session that owns it. Defaults to 0, which disables sharing.
+     */
+    public MockGatewayServer setTotalGuilds(int totalGuilds) {
+        this.totalGuilds = totalGuilds;
+        return this;
+    }
+
+    /**
+     * Sets how many members every synthetic guild has. Guilds with more members than the {@code large_threshold} of
+     * IDENTIFY are large, their GUILD_CREATE only contains that many members and the rest have to be requested.
+     * Defaults to 100, at most 10 million.
+     */
+    public MockGatewayServer setMembersPerGuild(int membersPerGuild) {
+        if (membersPerGuild < 1 || membersPerGuild > MAX_MEMBERS_PER_GUILD) throw new IllegalArgumentException("Guilds have 1 to 10 million members");
+        this.membersPerGuild = membersPerGuild;
+        return this;
+    }
+
+    /**
+     * Sets how many dispatches of every session are kept for RESUMEs. Defaults to 10000.
+     */
+    public MockGatewayServer setResumeBufferSize(int resumeBufferSize) {
+        this.resumeBufferSize = resumeBufferSize;
+        return this;
+    }
+
+    /**
+     * Sets whether heartbeats are acknowledged. Without ACKs, clients should consider their connection zombied and reconnect.
+     * Enabled by default.
+     */
+    public MockGatewayServer setHeartbeatAcks(boolean heartbeatAcks) {
+        this.heartbeatAcks = heartbeatAcks;
+        return this;
+    }
+
+    /**
+     * Starts accepting connections on the loopback address.
+     */
+    public MockGatewayServer start() throws IOException {
+        if (serverSocket != null) throw new IllegalStateException("The server was already started");
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Thread acceptor = new Thread(this::acceptLoop, "djar--mock-gateway-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    /**
+     * Returns the URL clients connect to, for {@link com.seailz.discordjar.DiscordJarBuilder#setGatewayUrl(String)}.
+     */
+    @NotNull
+    public String getUrl() {
+        if (serverSocket == null) throw new IllegalStateException("The server isn't started");
+        return "ws://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort() + "/";
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) logger.warning("[MockGateway] Failed to accept a connection: " + e.getMessage());
+                continue;
+            }
+            acceptedConnections.incrementAndGet();
+            MockGatewayConnection connection = new MockGatewayConnection(this, socket);
+            connections.add(connection);
+            Thread thread = new Thread(connection, "djar--mock-gateway-connection-" + acceptedConnections.get());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Sends RECONNECT to every connection, which should make the clients reconnect and RESUME.
+     */
+    public void sendReconnect() {
+        for (MockGatewayConnection connection : connections) {
+            connection.sendOp(7, null);
+        }
+    }
+
+    /**
+     * Sends INVALID_SESSION to every connection.
+     *
+     * @param resumable Whether the clients may RESUME. If not, every session is forgotten, so clients have to IDENTIFY.
+     */
+    public void invalidateSessions(boolean resumable) {
+        if (!resumable) sessions.clear();
+        for (MockGatewayConnection connection : connections) {
+            connection.invalidateSession(resumable);
+        }
+    }
+
+    /**
+     * Drops every connection without a close frame, like a network failure. Sessions are kept, so clients can RESUME.
+     */
+    public void dropConnections() {
+        for (MockGatewayConnection connection : connections) {
+            connection.drop();
+        }
+    }
+
+    /**
+     * Closes every connection with the given close code, such as 4000 (unknown error, resumable) or 4004 (authentication failed).
+     */
+    public void closeConnections(int code) {
+        for (MockGatewayConnection connection : connections) {
+            connection.close(code, "Closed by the mock Gateway");
+        }
+    }
+
+    /**
+     * Drops the connections of the sessions identified with the given shard count, such as the old shards of a reshard.
+     */
+    public void dropConnections(int shardCount) {
+        for (MockGatewayConnection connection : connections) {
+            MockSession session = connection.getSession();
+            if (session != null && session.getShardCount() == shardCount) connection.drop();
+        }
+    }
+
+    /**
+     * Sends a dispatch about one of the shared guilds to every session that has it, for events the load doesn't generate.
+     * Sending the same dispatch twice delivers it twice, like Discord does for a reaction that's added, removed and added again.
+     *
+     * @param guildId One of {@link #getSharedGuildIds()}.
+     */
+    public void sendGuildDispatch(@NotNull String guildId, @NotNull String type, @NotNull JSONObject data) {
+        for (MockSession.Guild guild : sharedGuilds) {
+            if (guild.id().equals(guildId)) {
+                deliver(guild, type, data);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown shared guild " + guildId);
+    }
+
+    /**
+     * Returns the ids of the guilds shared by all sessions, see {@link #setTotalGuilds(int)}. Empty until the first IDENTIFY.
+     */
+    public List<String> getSharedGuildIds() {
+        List<String> ids = new ArrayList<>();
+        for (MockSession.Guild guild : sharedGuilds) ids.add(guild.id());
+        return ids;
+    }
+
+    /**
+     * Starts sending MESSAGE_CREATE dispatches at the given total rate, spread over the guilds of every identified
+     * connection. Replaces a message load that's already running.
+     */
+    public synchronized void startMessageLoad(double perSecond) {
+        if (messageLoad != null) messageLoad.cancel(false);
+        messageLoad = startLoad(perSecond, () -> {
+            MockSession.Guild guild;
+            if (totalGuilds > 0) {
+                if (sharedGuilds.isEmpty()) return;
+                guild = sharedGuilds.get(ThreadLocalRandom.current().nextInt(sharedGuilds.size()));
+            } else {
+                MockGatewayConnection connection = randomIdentifiedConnection();
+                if (connection == null) return;
+                guild = connection.getSession().randomGuild();
+                if (guild == null) return;
+            }
+            messagesCreated.incrementAndGet();
+            deliver(guild, "MESSAGE_CREATE", message(guild));
+        });
+    }
+
+    /**
+     * Starts sending GUILD_CREATE dispatches for new guilds at the given total rate, as if the bot joined them.
+     * Replaces a guild load that's already running.
+     */
+    public synchronized void startGuildCreateLoad(double perSecond) {
+        if (guildCreateLoad != null) guildCreateLoad.cancel(false);
+        guildCreateLoad = startLoad(perSecond, () -> {
+            if (totalGuilds > 0) {
+                MockSession.Guild guild = newSharedGuild();
+                for (MockSession session : sessions.values()) {
+                    if (session.owns(guild.id())) session.addGuild(guild);
+                }
+                deliver(guild, "GUILD_CREATE", null);
+                return;
+            }
+            MockGatewayConnection connection = randomIdentifiedConnection();
+            if (connection == null) return;
+            MockSession session = connection.getSession();
+            MockSession.Guild guild = newGuild(session);
+            session.addGuild(guild);
+            connection.dispatch("GUILD_CREATE", guildCreate(guild, session.getLargeThreshold()));
+        });
+    }
+
+    /**
+     * Sends a dispatch about a guild to every identified connection whose session has the guild.
+     *
+     * @param data The dispatch data, or null to send the guild's GUILD_CREATE.
+     */
+    private void deliver(@NotNull MockSession.Guild guild, @NotNull String type, @Nullable JSONObject data) {
+        for (MockGatewayConnection connection : connections) {
+            MockSession session = connection.getSession();
+            if (session == null || session.getGuild(guild.id()) == null) continue;
+            connection.dispatch(type, data != null ? data : guildCreate(guild, session.getLargeThreshold()));
+        }
+    }
+
+    /**
+     * Stops the message and guild load.
+     */
+    public synchronized void stopLoad() {
+        if (messageLoad != null) messageLoad.cancel(false);
+        if (guildCreateLoad != null) guildCreateLoad.cancel(false);
+        messageLoad = null;
+        guildCreateLoad = null;
+    }
+
+    private ScheduledFuture<?> startLoad(double perSecond, Runnable dispatch) {
+        if (perSecond <= 0) throw new IllegalArgumentException("The rate must be positive");
+        long periodMillis = 10;
+        double perTick = perSecond * periodMillis / 1000d;
+        // Rates that aren't a multiple of the tick rate carry their remainder over to the next tick
+        double[] due = {0};
+        return scheduler.scheduleAtFixedRate(() -> {
+            due[0] += perTick;
+            try {
+                for (; due[0] >= 1; due[0]--) dispatch.run();
+            } catch (RuntimeException e) {
+                logger.warning("[MockGateway] Failed to send load: " + e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private MockGatewayConnection randomIdentifiedConnection() {
+        List<MockGatewayConnection> identified = new ArrayList<>();
+        for (MockGatewayConnection connection : connections) {
+            if (connection.getSession() != null) identified.add(connection);
+        }
+        if (identified.isEmpty()) return null;
+        return identified.get(ThreadLocalRandom.current().nextInt(identified.size()));
+    }
+
+    /**
+     * Returns how many connections were accepted.
+     */
+    public int getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    /**
+     * Returns how many connections are open.
+     */
+    public int getOpenConnections() {
+        return connections.size();
+    }
+
+    public int getIdentifies() {
+        return identifies.get();
+    }
+
+    /**
+     * Returns how many RESUMEs succeeded.
+     */
+    public int getResumes() {
+        return resumes.get();
+    }
+
+    public long getHeartbeats() {
+        return heartbeats.get();
+    }
+
+    /**
+     * Returns how many messages the message load created. With shared guilds, one message is sent to every session owning its guild.
+     */
+    public long getMessagesCreated() {
+        return messagesCreated.get();
+    }
+
+    /**
+     * Returns how many dispatches were sent, including replayed ones.
+     */
+    public long getDispatches() {
+        return dispatches.get();
+    }
+
+    /**
+     * Stops accepting connections, stops the load and closes every connection.
+     */
+    @Override
+    public void close() throws IOException {
+        stopLoad();
+        scheduler.shutdownNow();
+        if (serverSocket != null) serverSocket.close();
+        for (MockGatewayConnection connection : connections) {
+            connection.drop();
+        }
+    }
+
+    void onClosed(MockGatewayConnection connection) {
+        connections.remove(connection);
+    }
+
+    int getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    boolean isHeartbeatAcks() {
+        return heartbeatAcks;
+    }
+
+    /**
+     * Creates a session for an IDENTIFY payload and fills it with guilds owned by its shard.
+     */
+    MockSession createSession(@NotNull JSONObject identify) {
+        int shardId = 0, shardCount = 1;
+        JSONArray shard = identify.optJSONArray("shard");
+        if (shard != null && shard.length() == 2) {
+            shardId = shard.getInt(0);
+            shardCount = shard.getInt(1);
+        }
+        MockSession session = new MockSession(UUID.randomUUID().toString().replace("-", ""), shardId, shardCount,
+                identify.optInt("large_threshold", 50), resumeBufferSize);
+        if (totalGuilds > 0) {
+            synchronized (sharedGuilds) {
+                while (sharedGuilds.size() < totalGuilds) newSharedGuild();
+            }
+            for (MockSession.Guild guild : sharedGuilds) {
+                if (session.owns(guild.id())) session.addGuild(guild);
+            }
+        } else {
+            for (int i = 0; i < guildsPerShard; i++) {
+                session.addGuild(newGuild(session));
+            }
+        }
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    MockSession getSession(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    JSONObject ready(@NotNull MockSession session) {
+        JSONArray guilds = new JSONArray();
+        for (MockSession.Guild guild : session.getGuilds()) {
+            guilds.put(new JSONObject().put("id", guild.id()).put("unavailable", true));
+        }
+        JSONObject user = user("100000000000000001", "mock-bot").put("bot", true);
+        return new JSONObject()
+                .put("v", 10)
+                .put("user", user)
+                .put("guilds", guilds)
+                .put("session_id", session.getId())
+                .put("resume_gateway_url", getUrl())
+                .put("shard", new JSONArray().put(session.getShardId()).put(session.getShardCount()))
+                .put("application", new JSONObject().put("id", "100000000000000001").put("flags", 0));
+    }
+
+    JSONObject guildCreate(@NotNull MockSession.Guild guild, int largeThreshold) {
+        boolean large = guild.memberCount() > largeThreshold;
+        JSONArray members = new JSONArray();
+        int included = large ? largeThreshold : guild.memberCount();
+        for (int i = 0; i < included; i++) {
+            members.put(member(guild, i));
+        }
+        JSONArray channels = new JSONArray();
+        for (String channelId : guild.channelIds()) {
+            channels.put(new JSONObject()
+                    .put("id", channelId)
+                    .put("type", 0)
+                    .put("name", "channel-" + channelId.substring(channelId.length() - 4))
+                    .put("position", channels.length())
+                    .put("permission_overwrites", new JSONArray()));
+        }
+        return new JSONObject()
+                .put("id", guild.id())
+                .put("name", "Mock guild " + guild.id())
+                .put("owner_id", "100000000000000002")
+                .put("roles", new JSONArray())
+                .put("emojis", new JSONArray())
+                .put("features", new JSONArray())
+                .put("large", large)
+                .put("unavailable", false)
+                .put("member_count", guild.memberCount())
+                .put("members", members)
+                .put("channels", channels)
+                .put("threads", new JSONArray())
+                .put("voice_states", new JSONArray())
+                .put("presences", new JSONArray());
+    }
+
+    /**
+     * Builds the GUILD_MEMBERS_CHUNKs answering a REQUEST_GUILD_MEMBERS payload.
+     */
+    List<JSONObject> memberChunks(@NotNull MockSession session, @NotNull JSONObject request) {
+        MockSession.Guild guild = session.getGuild(request.optString("guild_id"));
+        List<JSONObject> members = new ArrayList<>();
+        JSONArray notFound = new JSONArray();
+        if (guild != null) {
+            JSONArray userIds = request.optJSONArray("user_ids");
+            if (userIds != null) {
+                for (int i = 0; i < userIds.length(); i++) {
+                    int index = guild.memberIndex(userIds.getString(i));
+                    if (index == -1) notFound.put(userIds.getString(i));
+                    else members.add(member(guild, index));
+                }
+            } else {
+                String query = request.optString("query", "");
+                int limit = request.optInt("limit", 0);
+                for (int i = 0; i < guild.memberCount() && (limit == 0 || members.size() < limit); i++) {
+                    if (query.isEmpty() || ("member-" + i).startsWith(query)) members.add(member(guild, i));
+                }
+            }
+        }
+
+        int chunkCount = Math.max(1, (members.size() + 999) / 1000);
+        List<JSONObject> chunks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            JSONObject d = new JSONObject()
+                    .put("guild_id", request.optString("guild_id"))
+                    .put("members", new JSONArray(members.subList(chunk * 1000, Math.min(members.size(), (chunk + 1) * 1000))))
+                    .put("chunk_index", chunk)
+                    .put("chunk_count", chunkCount);
+            if (chunk == 0 && !notFound.isEmpty()) d.put("not_found", notFound);
+            if (request.has("nonce")) d.put("nonce", request.get("nonce"));
+            chunks.add(d);
+        }
+        return chunks;
+    }
+
+    private MockSession.Guild newGuild(@NotNull MockSession session) {
+        return newGuild(snowflake(session.getShardId(), session.getShardCount()));
+    }
+
+    /**
+     * Creates a guild for the shared set. Their timestamps are a millisecond apart, which spreads them evenly over any shard count.
+     */
+    private MockSession.Guild newSharedGuild() {
+        long timestamp = System.currentTimeMillis() - DISCORD_EPOCH - guildSequence.get();
+        MockSession.Guild guild = newGuild(Long.toString((timestamp << 22) | (snowflakeIncrement.getAndIncrement() & 0x3FFFFF)));
+        sharedGuilds.add(guild);
+        return guild;
+    }
+
+    private MockSession.Guild newGuild(@NotNull String id) {
+        List<String> channels = new ArrayList<>(3);
+        for (int i = 0; i < 3; i++) {
+            channels.add(snowflake(0, 1));
+        }
+        // Every guild has its own range of member ids
+        long memberIdBase = MEMBER_ID_BASE + guildSequence.getAndIncrement() * MAX_MEMBERS_PER_GUILD;
+        return new MockSession.Guild(id, channels, membersPerGuild, memberIdBase);
+    }
+
+    private JSONObject member(@NotNull MockSession.Guild guild, int index) {
+        return new JSONObject()
+                .put("user", user(guild.memberId(index), "member-" + index))
+                .put("roles", new JSONArray())
+                .put("joined_at", "2023-01-01T00:00:00.000000+00:00")
+                .put("deaf", false)
+                .put("mute", false)
+                .put("flags", 0);
+    }
+
+    private JSONObject message(@NotNull MockSession.Guild guild) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int author = random.nextInt(guild.memberCount());
+        return new JSONObject()
+                .put("id", snowflake(0, 1))
+                .put("channel_id", guild.channelIds().get(random.nextInt(guild.channelIds().size())))
+                .put("guild_id", guild.id())
+                .put("author", user(guild.memberId(author), "member-" + author))
+                .put("member", new JSONObject().put("roles", new JSONArray()).put("joined_at", "2023-01-01T00:00:00.000000+00:00")
+                        .put("deaf", false).put("mute", false))
+                .put("content", "Mock message " + random.nextInt(1_000_000))
+                .put("timestamp", java.time.Instant.now().toString())
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("mentions", new JSONArray())
+                .put("mention_roles", new JSONArray())
+                .put("attachments", new JSONArray())
+                .put("embeds", new JSONArray())
+                .put("pinned", false)
+                .put("type", 0);
+    }
+
+    private static JSONObject user(String id, String username) {
+        return new JSONObject()
+                .put("id", id)
+                .put("username", username)
+                .put("discriminator", "0")
+                .put("global_name", username)
+                .put("avatar", JSONObject.NULL);
+    }
+
+    /**
+     * Generates a unique snowflake owned by the given shard, that is {@code (id >> 22) % shardCount == shardId}.
+     */
+    private String snowflake(int shardId, int shardCount) {
+        long timestamp = System.currentTimeMillis() - DISCORD_EPOCH;
+        timestamp = timestamp - timestamp % shardCount + shardId;
+        return Long.toString((timestamp << 22) | (snowflakeIncrement.getAndIncrement() & 0x3FFFFF));
+    }
+}
@@ -0,0 +1,136 @@
+package com.seailz.discordjar.gateway.mock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * A Gateway session of the {@link MockGatewayServer}: its guilds, sequence number and the dispatches kept for RESUMEs.
+ * It outlives the connection that identified it, until it's invalidated.
+ */
+class MockSession {
+
+    /**
+     * A synthetic guild. Its members are generated from their index, member {@code i} has the id {@code memberIdBase + i}.
+     */
+    record Guild(String id, List<String> channelIds, int memberCount, long memberIdBase) {
+        String memberId(int index) {
+            return Long.toString(memberIdBase + index);
+        }
+
+        /**
+         * Returns the index of the member with the given id, or -1 if it isn't a member.
+         */
+        int memberIndex(String userId) {
+            try {
+                long index = Long.parseLong(userId) - memberIdBase;
+                return index >= 0 && index < memberCount ? (int) index : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    private final String id;
+    private final int shardId;
+    private final int shardCount;
+    private final int largeThreshold;
+    private final int bufferSize;
+    private final List<Guild> guilds = new CopyOnWriteArrayList<>();
+    private final Map<String, Guild> guildsById = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> buffer = new ArrayDeque<>();
+    private long sequence = 0;
+
+    MockSession(String id, int shardId, int shardCount, int largeThreshold, int bufferSize) {
+        this.id = id;
+        this.shardId = shardId;
+        this.shardCount = shardCount;
+        this.largeThreshold = largeThreshold;
+        this.bufferSize = bufferSize;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    int getShardId() {
+        return shardId;
+    }
+
+    int getShardCount() {
+        return shardCount;
+    }
+
+    int getLargeThreshold() {
+        return largeThreshold;
+    }
+
+    /**
+     * Returns whether this session's shard owns the guild, that is {@code (guild_id >> 22) % shard_count == shard_id}.
+     */
+    boolean owns(@NotNull String guildId) {
+        return (Long.parseLong(guildId) >> 22) % shardCount == shardId;
+    }
+
+    void addGuild(@NotNull Guild guild) {
+        guilds.add(guild);
+        guildsById.put(guild.id(), guild);
+    }
+
+    List<Guild> getGuilds() {
+        return guilds;
+    }
+
+    @Nullable
+    Guild getGuild(String id) {
+        return guildsById.get(id);
+    }
+
+    @Nullable
+    Guild randomGuild() {
+        if (guilds.isEmpty()) return null;
+        return guilds.get(ThreadLocalRandom.current().nextInt(guilds.size()));
+    }
+
+    /**
+     * Assigns the next sequence number to a dispatch and keeps it for RESUMEs. The caller has to send dispatches in
+     * sequence order, so it should hold its connection's lock while assigning and sending.
+     *
+     * @param build Builds the serialized dispatch for the sequence number.
+     */
+    synchronized String nextDispatch(@NotNull LongFunction<String> build) {
+        long seq = ++sequence;
+        String payload = build.apply(seq);
+        buffer.addLast(payload);
+        if (buffer.size() > bufferSize) buffer.removeFirst();
+        return payload;
+    }
+
+    /**
+     * Returns the dispatches sent after the given sequence number, or null if some of them are no longer buffered.
+     */
+    @Nullable
+    synchronized List<String> missedSince(long seq) {
+        long firstBuffered = sequence - buffer.size() + 1;
+        if (seq > sequence || seq + 1 < firstBuffered) return null;
+        List<String> missed = new ArrayList<>((int) (sequence - seq));
+        int skip = (int) (seq + 1 - firstBuffered);
+        for (String payload : buffer) {
+            if (skip-- > 0) continue;
+            missed.add(payload);
+        }
+        return missed;
+    }
+
+    synchronized long getSequence() {
+        return sequence;
+    }
+}
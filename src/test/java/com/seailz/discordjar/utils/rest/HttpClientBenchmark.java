@@ -0,0 +1,131 @@
+package com.seailz.discordjar.utils.rest;
+
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending REST requests with a new {@link OkHttpClient} per request, which is what {@link DiscordRequest} used to
+ * do, against the shared client built from {@link HttpClientSettings}.
+ * <br>Requests go to a local HTTPS stand-in for Discord with a self-signed certificate, so the numbers show the cost of
+ * the client, connection and TLS handshake rather than of the network. The stand-in only speaks HTTP/1.1. Throughput is
+ * reported in requests per millisecond across 4 threads, and the sample time mode reports the latency percentiles, including p99.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.seailz.discordjar.utils.rest.HttpClientBenchmark},
+ * or straight from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HttpClientBenchmark {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    private static final byte[] BODY = "{\"id\":\"80351110224678912\",\"username\":\"Nelly\"}".getBytes(StandardCharsets.UTF_8);
+
+    private HttpsServer server;
+    private ExecutorService serverExecutor;
+    private SSLContext clientContext;
+    private X509TrustManager trustManager;
+    private OkHttpClient pooled;
+    private String url;
+
+    @Setup
+    public void setup() throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = HttpClientBenchmark.class.getResourceAsStream("/localhost.p12")) {
+            keyStore.load(in, PASSWORD);
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        SSLContext serverContext = SSLContext.getInstance("TLS");
+        serverContext.init(keyManagers.getKeyManagers(), null, null);
+
+        // Without it, Nagle's algorithm and delayed ACKs add 40ms to every response on a kept-alive connection
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setHttpsConfigurator(new HttpsConfigurator(serverContext));
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            exchange.getResponseBody().write(BODY);
+            exchange.close();
+        });
+        server.start();
+        url = "https://127.0.0.1:" + server.getAddress().getPort() + "/api/v10/users/@me";
+
+        // The client trusts the stand-in's certificate, and nothing else
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        trustManager = (X509TrustManager) trustManagers.getTrustManagers()[0];
+        clientContext = SSLContext.getInstance("TLS");
+        clientContext.init(null, new X509TrustManager[]{trustManager}, null);
+        pooled = trusting(HttpClientSettings.defaults().newClient().newBuilder()).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooled.dispatcher().executorService().shutdown();
+        pooled.connectionPool().evictAll();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int newClientPerRequest() throws IOException {
+        OkHttpClient client = trusting(new OkHttpClient.Builder()).build();
+        try {
+            return send(client);
+        } finally {
+            // The old code left this to the idle connection cleanup, which would keep thousands of sockets open here
+            client.connectionPool().evictAll();
+        }
+    }
+
+    @Benchmark
+    public int pooledClient() throws IOException {
+        return send(pooled);
+    }
+
+    private int send(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(url).header("Authorization", "Bot token").get().build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().bytes().length;
+        }
+    }
+
+    private OkHttpClient.Builder trusting(OkHttpClient.Builder builder) {
+        return builder.sslSocketFactory(clientContext.getSocketFactory(), trustManager)
+                .hostnameVerifier((hostname, session) -> "127.0.0.1".equals(hostname));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HttpClientBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.seailz.discordjar.utils.rest.ratelimit;
+
+import com.seailz.discordjar.action.interaction.InteractionCallbackAction;
+import com.seailz.discordjar.utils.URLS;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that request deadlines only fail requests that have to wait, in particular interaction callbacks whose deadline
+ * comes from Discord's clock while the local clock runs ahead of it.
+ */
+class RequestDeadlineTest {
+
+    // How far the local clock is ahead of Discord's, more than the whole callback deadline
+    private static final long SKEW_MILLIS = 5000;
+    private static final long DISCORD_EPOCH = 1420070400000L;
+
+    private final RateLimiter rateLimiter = new RateLimiter(RateLimitSettings.defaults(), false);
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void callbackIsSentOnClockAheadOfDiscord() throws Exception {
+        long deadline = skewedCallbackDeadline("1");
+        assertTrue(deadline < System.currentTimeMillis(), "the deadline should look like it has passed");
+
+        CompletableFuture<Void> ticket = callbackBucket("1").acquire(RequestPriority.INTERACTION, deadline, false);
+        assertNull(ticket.get(1, TimeUnit.SECONDS));
+        assertNull(rateLimiter.acquireGlobal(RequestPriority.INTERACTION, deadline).get(1, TimeUnit.SECONDS));
+        assertEquals(0, rateLimiter.getMetrics().deadlinesMissed());
+    }
+
+    @Test
+    void waitingCallbackFailsOnClockAheadOfDiscord() throws Exception {
+        Bucket bucket = callbackBucket("2");
+        CompletableFuture<Void> probe = bucket.acquire(RequestPriority.INTERACTION, 0, false);
+        assertTrue(probe.isDone());
+
+        // Nothing is known about the bucket until the probe's response, so this one has to wait
+        CompletableFuture<Void> waiting = bucket.acquire(RequestPriority.INTERACTION, skewedCallbackDeadline("2"), false);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RequestDeadlineExceededException.class, e.getCause());
+        assertEquals(1, rateLimiter.getMetrics().deadlinesMissed());
+
+        // The request that missed its deadline doesn't release the bucket while the probe is on its way
+        bucket.requestFailed(waiting);
+        assertFalse(bucket.acquire(RequestPriority.INTERACTION, 0, false).isDone());
+    }
+
+    @Test
+    void waitingRequestFailsOnceDeadlinePasses() throws Exception {
+        Bucket bucket = rateLimiter.getBucket(RequestMethod.GET, "/channels/{channel.id}/messages", "/channels/1/messages");
+        bucket.acquire(RequestPriority.NORMAL, 0, false);
+
+        CompletableFuture<Void> waiting = bucket.acquire(RequestPriority.NORMAL, System.currentTimeMillis() + 200, false);
+        assertFalse(waiting.isDone());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(RequestDeadlineExceededException.class, e.getCause());
+    }
+
+    private Bucket callbackBucket(String interactionId) {
+        String route = URLS.POST.INTERACTIONS.CALLBACK;
+        String url = route.replace("{interaction.id}", interactionId).replace("{interaction.token}", "token");
+        return rateLimiter.getBucket(RequestMethod.POST, route, url);
+    }
+
+    /**
+     * Returns the callback deadline of an interaction Discord created just now, as seen by a clock that is
+     * {@link #SKEW_MILLIS} ahead.
+     */
+    private static long skewedCallbackDeadline(String token) {
+        long createdAt = System.currentTimeMillis() - SKEW_MILLIS;
+        String id = Long.toString((createdAt - DISCORD_EPOCH) << 22);
+        return new InteractionCallbackAction(null, null, token, id, null).getDeadline().toEpochMilli();
+    }
+}
@@ -0,0 +1,130 @@
+package com.seailz.discordjar.ws;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.seailz.discordjar.gateway.SamplePayloads;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compares the {@link ZlibStreamDecoder zlib-stream} and {@link ZstdStreamDecoder zstd-stream} decoders on the same
+ * Gateway stream.
+ * <br>The {@link SamplePayloads sample stream} is compressed once per algorithm the way Discord does it: one context for
+ * the whole connection, flushed after every payload, one frame per payload. Each invocation replays the whole
+ * connection through a reset decoder, and the reported time is per payload. The compression ratios are printed once
+ * during setup.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.seailz.discordjar.ws.CompressionBenchmark},
+ * or straight from an IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final int PAYLOADS = 1_000;
+
+    private List<ByteBuffer> zlibFrames;
+    private List<ByteBuffer> zstdFrames;
+    private final ZlibStreamDecoder zlib = new ZlibStreamDecoder();
+    private final ZstdStreamDecoder zstd = new ZstdStreamDecoder();
+
+    @Setup
+    public void setup() throws IOException, DataFormatException {
+        List<byte[]> payloads = new ArrayList<>(PAYLOADS);
+        long raw = 0;
+        for (JSONObject payload : SamplePayloads.stream(PAYLOADS, 42)) {
+            byte[] bytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+            payloads.add(bytes);
+            raw += bytes.length;
+        }
+
+        ByteArrayOutputStream zlibSink = new ByteArrayOutputStream();
+        zlibFrames = compress(payloads, zlibSink, new DeflaterOutputStream(zlibSink, new Deflater(), true));
+        ByteArrayOutputStream zstdSink = new ByteArrayOutputStream();
+        zstdFrames = compress(payloads, zstdSink, new ZstdOutputStream(zstdSink));
+
+        verify(zlib, zlibFrames, payloads);
+        verify(zstd, zstdFrames, payloads);
+        System.out.printf("%nraw: %d bytes, zlib-stream: %d bytes (%.2fx), zstd-stream: %d bytes (%.2fx)%n",
+                raw, size(zlibFrames), (double) raw / size(zlibFrames), size(zstdFrames), (double) raw / size(zstdFrames));
+    }
+
+    @TearDown
+    public void tearDown() {
+        zlib.close();
+        zstd.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOADS)
+    public void zlibStream(Blackhole blackhole) throws DataFormatException {
+        replay(zlib, zlibFrames, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOADS)
+    public void zstdStream(Blackhole blackhole) throws DataFormatException {
+        replay(zstd, zstdFrames, blackhole);
+    }
+
+    private static void replay(StreamDecoder decoder, List<ByteBuffer> frames, Blackhole blackhole) throws DataFormatException {
+        decoder.reset();
+        for (ByteBuffer frame : frames) {
+            if (decoder.feed(frame.duplicate())) blackhole.consume(decoder.getOutputLength());
+        }
+    }
+
+    /**
+     * Compresses every payload into its own frame, flushing the shared context after each one like the Gateway does.
+     */
+    private static List<ByteBuffer> compress(List<byte[]> payloads, ByteArrayOutputStream sink, OutputStream compressor) throws IOException {
+        List<ByteBuffer> frames = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            compressor.write(payload);
+            compressor.flush();
+            frames.add(ByteBuffer.wrap(sink.toByteArray()));
+            sink.reset();
+        }
+        return frames;
+    }
+
+    private static void verify(StreamDecoder decoder, List<ByteBuffer> frames, List<byte[]> payloads) throws DataFormatException {
+        decoder.reset();
+        for (int i = 0; i < frames.size(); i++) {
+            if (!decoder.feed(frames.get(i).duplicate())
+                    || !Arrays.equals(decoder.getOutput(), 0, decoder.getOutputLength(), payloads.get(i), 0, payloads.get(i).length)) {
+                throw new IllegalStateException(decoder.getClass().getSimpleName() + " didn't reproduce payload " + i);
+            }
+        }
+    }
+
+    private static long size(List<ByteBuffer> frames) {
+        long size = 0;
+        for (ByteBuffer frame : frames) size += frame.remaining();
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CompressionBenchmark.class.getSimpleName()).build()).run();
+    }
+}